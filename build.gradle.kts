@@ -305,6 +305,8 @@ configure(coreProjects) p@{
             dependency("org.eclipse.jgit:org.eclipse.jgit:6.6.1.202309021850-r")
             // Log JSON
             dependency("net.logstash.logback:logstash-logback-encoder:7.3")
+            // Embedded search, aligned with the Lucene version used by Elastic Search 7.17
+            dependency("org.apache.lucene:lucene-core:8.11.1")
         }
     }
 
@@ -0,0 +1,13 @@
+-- 57. Outbox for the asynchronous dispatch of events, leased by one node at a time
+
+CREATE TABLE IF NOT EXISTS EVENT_OUTBOX
+(
+    EVENT_ID INTEGER      NOT NULL,
+    CREATION VARCHAR(24)  NOT NULL,
+    OWNER    VARCHAR(200) NULL,
+    EXPIRES  VARCHAR(24)  NULL,
+    CONSTRAINT EVENT_OUTBOX_PK PRIMARY KEY (EVENT_ID),
+    CONSTRAINT EVENT_OUTBOX_FK_EVENT FOREIGN KEY (EVENT_ID) REFERENCES EVENTS (ID) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS EVENT_OUTBOX_IX_CREATION ON EVENT_OUTBOX (CREATION);
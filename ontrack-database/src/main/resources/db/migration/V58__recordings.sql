@@ -0,0 +1,33 @@
+-- 58. Dedicated table for the recordings
+
+CREATE TABLE IF NOT EXISTS RECORDINGS
+(
+    STORE      VARCHAR(150) NOT NULL,
+    ID         VARCHAR(150) NOT NULL,
+    START_TIME VARCHAR(24)  NOT NULL,
+    END_TIME   VARCHAR(24)  NULL,
+    STATE      VARCHAR(40)  NULL,
+    DATA       JSONB        NOT NULL,
+    CONSTRAINT RECORDINGS_PK PRIMARY KEY (STORE, ID)
+);
+
+CREATE INDEX IF NOT EXISTS RECORDINGS_IX_START_TIME ON RECORDINGS (STORE, START_TIME DESC);
+CREATE INDEX IF NOT EXISTS RECORDINGS_IX_STATE ON RECORDINGS (STORE, STATE, START_TIME DESC);
+CREATE INDEX IF NOT EXISTS RECORDINGS_IX_COMPLETED ON RECORDINGS (STORE, START_TIME) WHERE END_TIME IS NOT NULL;
+
+-- Migrating the recordings from the generic storage
+
+INSERT INTO RECORDINGS (STORE, ID, START_TIME, END_TIME, STATE, DATA)
+SELECT SUBSTRING(STORE FROM LENGTH('net.nemerosa.ontrack.extension.recordings.store.StoredRecording.') + 1),
+       NAME,
+       LEFT(RTRIM(DATA ->> 'startTime', 'Z'), 24),
+       LEFT(RTRIM(DATA ->> 'endTime', 'Z'), 24),
+       DATA -> 'data' ->> 'state',
+       DATA
+FROM STORAGE
+WHERE STORE LIKE 'net.nemerosa.ontrack.extension.recordings.store.StoredRecording.%'
+ON CONFLICT DO NOTHING;
+
+DELETE
+FROM STORAGE
+WHERE STORE LIKE 'net.nemerosa.ontrack.extension.recordings.store.StoredRecording.%';
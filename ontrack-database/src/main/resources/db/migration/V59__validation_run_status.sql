@@ -0,0 +1,26 @@
+-- 59. Current status & latest flag of the validation runs
+
+ALTER TABLE VALIDATION_RUNS
+    ADD COLUMN IF NOT EXISTS STATUS VARCHAR(40) NULL;
+
+ALTER TABLE VALIDATION_RUNS
+    ADD COLUMN IF NOT EXISTS LATEST BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Current status = last status of the run
+
+UPDATE VALIDATION_RUNS VR
+SET STATUS = S.VALIDATIONRUNSTATUSID
+FROM (SELECT DISTINCT ON (VALIDATIONRUNID) VALIDATIONRUNID, VALIDATIONRUNSTATUSID
+      FROM VALIDATION_RUN_STATUSES
+      ORDER BY VALIDATIONRUNID, ID DESC) S
+WHERE S.VALIDATIONRUNID = VR.ID;
+
+-- Latest run for each build & validation stamp
+
+UPDATE VALIDATION_RUNS
+SET LATEST = TRUE
+WHERE ID IN (SELECT MAX(ID) FROM VALIDATION_RUNS GROUP BY BUILDID, VALIDATIONSTAMPID);
+
+CREATE INDEX IF NOT EXISTS VALIDATION_RUNS_IX_STAMP_STATUS ON VALIDATION_RUNS (VALIDATIONSTAMPID, STATUS, BUILDID);
+CREATE INDEX IF NOT EXISTS VALIDATION_RUNS_IX_BUILD_STATUS ON VALIDATION_RUNS (BUILDID, STATUS);
+CREATE UNIQUE INDEX IF NOT EXISTS VALIDATION_RUNS_UQ_LATEST ON VALIDATION_RUNS (BUILDID, VALIDATIONSTAMPID) WHERE LATEST;
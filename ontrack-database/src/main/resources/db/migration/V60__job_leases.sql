@@ -0,0 +1,18 @@
+-- 60. Leases on the jobs, when several nodes share the same database
+
+CREATE TABLE IF NOT EXISTS JOB_NODES
+(
+    NODE    VARCHAR(200) NOT NULL,
+    EXPIRES VARCHAR(24)  NOT NULL,
+    CONSTRAINT JOB_NODES_PK PRIMARY KEY (NODE)
+);
+
+CREATE TABLE IF NOT EXISTS JOB_LEASES
+(
+    JOB_KEY VARCHAR(400) NOT NULL,
+    NODE    VARCHAR(200) NOT NULL,
+    EXPIRES VARCHAR(24)  NOT NULL,
+    CONSTRAINT JOB_LEASES_PK PRIMARY KEY (JOB_KEY)
+);
+
+CREATE INDEX IF NOT EXISTS JOB_LEASES_IX_NODE ON JOB_LEASES (NODE);
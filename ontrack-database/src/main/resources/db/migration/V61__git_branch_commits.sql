@@ -0,0 +1,21 @@
+-- 61. Index of the commits contained by the Git branches of the Ontrack branches
+
+CREATE TABLE IF NOT EXISTS GIT_BRANCH_HEADS
+(
+    BRANCH           INTEGER      NOT NULL,
+    GIT_BRANCH       VARCHAR(400) NOT NULL,
+    HEAD             VARCHAR(40)  NOT NULL,
+    EXCLUDES_DEFAULT BOOLEAN      NOT NULL DEFAULT FALSE,
+    CONSTRAINT GIT_BRANCH_HEADS_PK PRIMARY KEY (BRANCH),
+    CONSTRAINT GIT_BRANCH_HEADS_FK_BRANCH FOREIGN KEY (BRANCH) REFERENCES BRANCHES (ID) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS GIT_BRANCH_COMMITS
+(
+    COMMIT VARCHAR(40) NOT NULL,
+    BRANCH INTEGER     NOT NULL,
+    CONSTRAINT GIT_BRANCH_COMMITS_PK PRIMARY KEY (COMMIT, BRANCH),
+    CONSTRAINT GIT_BRANCH_COMMITS_FK_BRANCH FOREIGN KEY (BRANCH) REFERENCES BRANCHES (ID) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS GIT_BRANCH_COMMITS_IX_BRANCH ON GIT_BRANCH_COMMITS (BRANCH);
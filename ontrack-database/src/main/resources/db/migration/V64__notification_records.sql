@@ -0,0 +1,35 @@
+-- 64. Dedicated table for the notification records
+
+CREATE TABLE IF NOT EXISTS NOTIFICATION_RECORDS
+(
+    ID          VARCHAR(150) NOT NULL,
+    CREATION    VARCHAR(24)  NOT NULL,
+    CHANNEL     VARCHAR(150) NOT NULL,
+    RESULT_TYPE VARCHAR(40)  NOT NULL,
+    SOURCE_ID   VARCHAR(150) NULL,
+    DATA        JSONB        NOT NULL,
+    CONSTRAINT NOTIFICATION_RECORDS_PK PRIMARY KEY (ID)
+);
+
+CREATE INDEX IF NOT EXISTS NOTIFICATION_RECORDS_IX_CREATION ON NOTIFICATION_RECORDS (CREATION DESC);
+CREATE INDEX IF NOT EXISTS NOTIFICATION_RECORDS_IX_CHANNEL ON NOTIFICATION_RECORDS (CHANNEL, CREATION DESC);
+CREATE INDEX IF NOT EXISTS NOTIFICATION_RECORDS_IX_RESULT_TYPE ON NOTIFICATION_RECORDS (RESULT_TYPE, CREATION DESC);
+CREATE INDEX IF NOT EXISTS NOTIFICATION_RECORDS_IX_SOURCE_ID ON NOTIFICATION_RECORDS (SOURCE_ID, CREATION DESC);
+CREATE INDEX IF NOT EXISTS NOTIFICATION_RECORDS_IX_EVENT_ENTITIES ON NOTIFICATION_RECORDS USING GIN ((DATA -> 'event' -> 'entities') jsonb_path_ops);
+
+-- Migrating the records from the generic storage, assigning IDs to the oldest ones
+
+INSERT INTO NOTIFICATION_RECORDS (ID, CREATION, CHANNEL, RESULT_TYPE, SOURCE_ID, DATA)
+SELECT COALESCE(DATA ->> 'id', NAME),
+       LEFT(RTRIM(DATA ->> 'timestamp', 'Z'), 24),
+       DATA ->> 'channel',
+       DATA -> 'result' ->> 'type',
+       DATA -> 'source' ->> 'id',
+       JSONB_SET(DATA, '{id}', TO_JSONB(COALESCE(DATA ->> 'id', NAME)))
+FROM STORAGE
+WHERE STORE = 'net.nemerosa.ontrack.extension.notifications.recording.NotificationRecord'
+ON CONFLICT DO NOTHING;
+
+DELETE
+FROM STORAGE
+WHERE STORE = 'net.nemerosa.ontrack.extension.notifications.recording.NotificationRecord';
@@ -0,0 +1,15 @@
+-- 65. Dedicated table for the cached change log commits
+
+CREATE TABLE IF NOT EXISTS SCM_CHANGE_LOG_COMMITS
+(
+    ID          VARCHAR(64)  NOT NULL,
+    REPOSITORY  VARCHAR(400) NOT NULL,
+    FROM_COMMIT VARCHAR(120) NOT NULL,
+    TO_COMMIT   VARCHAR(120) NOT NULL,
+    LAST_USED   VARCHAR(24)  NOT NULL,
+    DATA        JSONB        NOT NULL,
+    CONSTRAINT SCM_CHANGE_LOG_COMMITS_PK PRIMARY KEY (ID)
+);
+
+CREATE INDEX IF NOT EXISTS SCM_CHANGE_LOG_COMMITS_IX_FROM_COMMIT ON SCM_CHANGE_LOG_COMMITS (REPOSITORY, FROM_COMMIT, LAST_USED DESC);
+CREATE INDEX IF NOT EXISTS SCM_CHANGE_LOG_COMMITS_IX_LAST_USED ON SCM_CHANGE_LOG_COMMITS (LAST_USED DESC);
@@ -2,6 +2,7 @@ package net.nemerosa.ontrack.extension.api
 
 import net.nemerosa.ontrack.model.extension.Extension
 import net.nemerosa.ontrack.model.structure.Branch
+import net.nemerosa.ontrack.model.structure.ID
 
 /**
  * Extension which allows to render the display name for
@@ -11,4 +12,16 @@ interface BranchDisplayNameExtension : Extension {
 
     fun getBranchDisplayName(branch: Branch): String?
 
+    /**
+     * Gets the display names of several branches at once. By default, the branches are processed
+     * one by one but extensions can override this method to share their lookups between the branches.
+     *
+     * @param branches Branches to get the display names for
+     * @return Display names indexed by branch ID. Branches without any display name are absent.
+     */
+    fun getBranchDisplayNames(branches: List<Branch>): Map<ID, String> =
+        branches.mapNotNull { branch ->
+            getBranchDisplayName(branch)?.let { branch.id to it }
+        }.toMap()
+
 }
\ No newline at end of file
@@ -14,17 +14,20 @@ class MostRecentBranchSource(
 
     override fun getLatestBranch(config: String?, project: Project, targetBranch: Branch, promotion: String, includeDisabled: Boolean): Branch? {
         val sourceRegex = config?.toRegex() ?: throw BranchSourceMissingConfigurationException(id)
-        // Version-based ordering
-        val versionComparator = ordering.getComparator(config)
-        // Gets the list of branches for the source project matching the regex
-        val branches = structureService.getBranchesForProject(project.id)
+        // Gets the list of branches for the source project
+        val candidates = structureService.getBranchesForProject(project.id)
             .filter { sourceBranch ->
                 includeDisabled || !sourceBranch.isDisabled
             }
+        // Paths of the branches, loaded at once for both the filtering and the ordering
+        val paths = branchDisplayNameService.getBranchDisplayNames(candidates, BranchNamePolicy.DISPLAY_NAME_OR_NAME)
+        // Version-based ordering
+        val versionComparator = ordering.getComparator(sourceRegex, paths)
+        val branches = candidates
             // ... filters them by regex, using their path
             .filter { sourceBranch ->
                 // Path of the branch
-                val sourcePath = branchDisplayNameService.getBranchDisplayName(sourceBranch)
+                val sourcePath = paths[sourceBranch.id] ?: sourceBranch.name
                 // Match check
                 sourceRegex.matches(sourcePath) || sourceRegex.matches(sourceBranch.name)
             }
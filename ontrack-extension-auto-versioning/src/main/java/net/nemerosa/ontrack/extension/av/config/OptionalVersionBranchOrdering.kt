@@ -4,9 +4,11 @@ import net.nemerosa.ontrack.common.Version
 import net.nemerosa.ontrack.model.ordering.BranchOrdering
 import net.nemerosa.ontrack.model.ordering.VersionOrName
 import net.nemerosa.ontrack.model.ordering.VersionUtils
+import net.nemerosa.ontrack.model.ordering.compareBranchesByKeyDescending
 import net.nemerosa.ontrack.model.structure.Branch
 import net.nemerosa.ontrack.model.structure.BranchDisplayNameService
 import net.nemerosa.ontrack.model.structure.BranchNamePolicy
+import net.nemerosa.ontrack.model.structure.ID
 import org.springframework.beans.factory.annotation.Qualifier
 import org.springframework.stereotype.Component
 
@@ -30,18 +32,30 @@ class OptionalVersionBranchOrdering(
     override fun getComparator(param: String?): Comparator<Branch> {
         return if (!param.isNullOrBlank()) {
             val regex = param.toRegex()
-            compareByDescending { branch -> getVersion(branch, regex) }
+            compareBranchesByKeyDescending { branch -> getVersion(branch, regex) }
         } else {
             throw IllegalArgumentException("`param` argument for the version branch ordering is required.")
         }
     }
 
-    internal fun getVersion(branch: Branch, regex: Regex): VersionOrName {
+    /**
+     * Gets a comparator using the display names loaded beforehand for all the branches to sort.
+     *
+     * @param regex Regular expression for the version
+     * @param displayNames Display names indexed by branch ID
+     */
+    fun getComparator(regex: Regex, displayNames: Map<ID, String>): Comparator<Branch> =
+        compareBranchesByKeyDescending { branch ->
+            getVersion(displayNames[branch.id] ?: branch.name, regex)
+        }
+
+    internal fun getVersion(branch: Branch, regex: Regex): VersionOrName =
         // Path to use for the branch
-        val path: String = branchDisplayNameService.getBranchDisplayName(branch, BranchNamePolicy.DISPLAY_NAME_OR_NAME)
+        getVersion(branchDisplayNameService.getBranchDisplayName(branch, BranchNamePolicy.DISPLAY_NAME_OR_NAME), regex)
+
+    private fun getVersion(path: String, regex: Regex): VersionOrName =
         // Path first, then name, then version = name
-        return VersionUtils.getVersion(regex, path) ?: VersionOrName(path)
-    }
+        VersionUtils.getVersion(regex, path) ?: VersionOrName(path)
 
     companion object {
         /**
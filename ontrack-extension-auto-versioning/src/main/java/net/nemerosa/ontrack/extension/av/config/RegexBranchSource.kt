@@ -20,8 +20,6 @@ class RegexBranchSource(
 
     override fun getLatestBranch(config: String?, project: Project, targetBranch: Branch, promotion: String, includeDisabled: Boolean): Branch? {
         val sourceRegex = config?.toRegex() ?: throw BranchSourceMissingConfigurationException(id)
-        // Version-based ordering
-        val versionComparator = ordering.getComparator(config)
         // Gets the list of branches for the source project
         val allBranches = structureService.getBranchesForProject(project.id)
         val filteredBranches = if (includeDisabled) {
@@ -29,15 +27,16 @@ class RegexBranchSource(
         } else {
             allBranches.filterNot { it.isDisabled }
         }
+        // Paths of the branches, loaded at once for both the filtering and the ordering
+        val paths = branchDisplayNameService.getBranchDisplayNames(filteredBranches, BranchNamePolicy.DISPLAY_NAME_OR_NAME)
+        // Version-based ordering
+        val versionComparator = ordering.getComparator(sourceRegex, paths)
         return filteredBranches
             // ... filters them by regex, using their path
             .filter { sourceBranch ->
-                // First on the technical build name, then on the SCM branch name (more costly)
+                // First on the technical build name, then on the SCM branch name
                 sourceRegex.matches(sourceBranch.name) || sourceRegex.matches(
-                    branchDisplayNameService.getBranchDisplayName(
-                        sourceBranch,
-                        BranchNamePolicy.DISPLAY_NAME_OR_NAME,
-                    )
+                    paths[sourceBranch.id] ?: sourceBranch.name
                 )
             }
             // ... order them by version
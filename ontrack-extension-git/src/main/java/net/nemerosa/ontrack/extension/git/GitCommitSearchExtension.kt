@@ -31,7 +31,7 @@ class GitCommitSearchExtension(
     gitSearchConfigProperties: GitSearchConfigProperties,
     private val ontrackConfigProperties: OntrackConfigProperties,
     private val gitIssueSearchExtension: GitIssueSearchExtension
-) : AbstractExtension(extensionFeature), SearchIndexer<GitCommitSearchItem> {
+) : AbstractExtension(extensionFeature), PartitionedSearchIndexer<GitCommitSearchItem> {
 
     companion object {
         const val GIT_COMMIT_SEARCH_RESULT_TYPE = "git-commit"
@@ -66,40 +66,63 @@ class GitCommitSearchExtension(
 
     override fun indexAll(processor: (GitCommitSearchItem) -> Unit) {
         logger.info("[search][indexation][git-commits] Indexing all Git commits")
+        gitService.forEachConfiguredProject { project, gitConfiguration ->
+            indexProject(project, gitConfiguration, processor)
+        }
+    }
+
+    /**
+     * One partition per configured project
+     */
+    override fun getIndexPartitions(): List<SearchIndexPartition> {
+        val partitions = mutableListOf<SearchIndexPartition>()
+        gitService.forEachConfiguredProject { project, _ ->
+            partitions += SearchIndexPartition.ofProject(project)
+        }
+        return partitions
+    }
+
+    override fun indexPartition(partition: SearchIndexPartition, processor: (GitCommitSearchItem) -> Unit) {
+        val project = structureService.getProject(partition.project)
+        val gitConfiguration = gitService.getProjectConfiguration(project)
+        if (gitConfiguration != null) {
+            indexProject(project, gitConfiguration, processor)
+        }
+    }
+
+    private fun indexProject(project: Project, gitConfiguration: GitConfiguration, processor: (GitCommitSearchItem) -> Unit) {
         val traceCommits = ontrackConfigProperties.search.index.logging &&
                 ontrackConfigProperties.search.index.tracing &&
                 logger.isDebugEnabled
-        gitService.forEachConfiguredProject { project, gitConfiguration ->
-            logger.info("[search][indexation][git-commits] project=${project.name}")
-            val issueConfig: ConfiguredIssueService? = gitConfiguration.configuredIssueService
-            val projectIssueKeys = mutableSetOf<String>()
-            if (gitService.isRepositorySynched(gitConfiguration)) {
-                logger.info("[search][indexation][git-commits] project=${project.name} Git repository is synched. Indexing all commits...")
-                var commitCount = 0
-                gitService.forEachCommit(gitConfiguration) { commit: GitCommit ->
-                    commitCount++
-                    // Logging
-                    if (traceCommits) {
-                        logger.debug("[search][indexation][git-commits] project=${project.name} commit=${commit.shortId} message=${commit.shortMessage}")
-                    }
-                    // Indexation of the message
-                    val item = GitCommitSearchItem(project, gitConfiguration, commit)
-                    processor(item)
-                    // Gets the list of issues
-                    if (issueConfig != null) {
-                        val keys = issueConfig.extractIssueKeysFromMessage(commit.fullMessage)
-                        projectIssueKeys.addAll(keys)
-                    }
+        logger.info("[search][indexation][git-commits] project=${project.name}")
+        val issueConfig: ConfiguredIssueService? = gitConfiguration.configuredIssueService
+        val projectIssueKeys = mutableSetOf<String>()
+        if (gitService.isRepositorySynched(gitConfiguration)) {
+            logger.info("[search][indexation][git-commits] project=${project.name} Git repository is synched. Indexing all commits...")
+            var commitCount = 0
+            gitService.forEachCommit(gitConfiguration) { commit: GitCommit ->
+                commitCount++
+                // Logging
+                if (traceCommits) {
+                    logger.debug("[search][indexation][git-commits] project=${project.name} commit=${commit.shortId} message=${commit.shortMessage}")
+                }
+                // Indexation of the message
+                val item = GitCommitSearchItem(project, gitConfiguration, commit)
+                processor(item)
+                // Gets the list of issues
+                if (issueConfig != null) {
+                    val keys = issueConfig.extractIssueKeysFromMessage(commit.fullMessage)
+                    projectIssueKeys.addAll(keys)
                 }
-                logger.info("[search][indexation][git-commits] project=${project.name} count=$commitCount commits indexed.")
-            } else {
-                logger.info("[search][indexation][git-commits] project=${project.name} Git repository is not synched. Not indexing any commit.")
-            }
-            // Processing of issues
-            if (issueConfig != null && projectIssueKeys.isNotEmpty()) {
-                logger.info("[search][indexation][git-commits] project=${project.name} issues=${projectIssueKeys.size} Git issues have been found.")
-                gitIssueSearchExtension.processIssueKeys(project, issueConfig, projectIssueKeys)
             }
+            logger.info("[search][indexation][git-commits] project=${project.name} count=$commitCount commits indexed.")
+        } else {
+            logger.info("[search][indexation][git-commits] project=${project.name} Git repository is not synched. Not indexing any commit.")
+        }
+        // Processing of issues
+        if (issueConfig != null && projectIssueKeys.isNotEmpty()) {
+            logger.info("[search][indexation][git-commits] project=${project.name} issues=${projectIssueKeys.size} Git issues have been found.")
+            gitIssueSearchExtension.processIssueKeys(project, issueConfig, projectIssueKeys)
         }
     }
 
@@ -54,6 +54,13 @@ class GitIssueSearchExtension(
      */
     override fun indexAll(processor: (GitIssueSearchItem) -> Unit) {}
 
+    /**
+     * Indexes the issue keys found in the commits of a project.
+     *
+     * Called concurrently for different projects when the Git commits are indexed in parallel:
+     * this method keeps no state and the IDs of the items are scoped by project, so
+     * the indexations of two projects never touch the same items.
+     */
     fun processIssueKeys(project: Project, issueConfig: ConfiguredIssueService, projectIssueKeys: Set<String>) {
         // Batch size
         val batchSize = ontrackConfigProperties.search.index.batch
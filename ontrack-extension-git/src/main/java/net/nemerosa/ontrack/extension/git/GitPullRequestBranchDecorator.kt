@@ -33,6 +33,11 @@ class GitPullRequestBranchDecorator(
         }
 
     override fun getScope(): EnumSet<ProjectEntityType> = EnumSet.of(ProjectEntityType.BRANCH)
+
+    /**
+     * The pull request is fetched from the SCM.
+     */
+    override fun isRemote(): Boolean = true
 }
 
 class GitPullRequestDecoration(
@@ -0,0 +1,80 @@
+package net.nemerosa.ontrack.extension.git.repository
+
+import net.nemerosa.ontrack.model.structure.Branch
+import net.nemerosa.ontrack.model.structure.Project
+import net.nemerosa.ontrack.repository.support.AbstractJdbcRepository
+import org.springframework.stereotype.Repository
+import javax.sql.DataSource
+
+@Repository
+class GitBranchCommitsJdbcRepository(
+    dataSource: DataSource,
+) : AbstractJdbcRepository(dataSource), GitBranchCommitsRepository {
+
+    override fun getHeads(project: Project): Map<Int, GitBranchHead> {
+        val heads = mutableMapOf<Int, GitBranchHead>()
+        namedParameterJdbcTemplate!!.query(
+            """
+                SELECT H.* FROM GIT_BRANCH_HEADS H
+                INNER JOIN BRANCHES B ON B.ID = H.BRANCH
+                WHERE B.PROJECTID = :project
+            """,
+            params("project", project.id())
+        ) { rs ->
+            heads[rs.getInt("BRANCH")] = GitBranchHead(
+                gitBranch = rs.getString("GIT_BRANCH"),
+                head = rs.getString("HEAD"),
+                excludesDefault = rs.getBoolean("EXCLUDES_DEFAULT"),
+            )
+        }
+        return heads
+    }
+
+    override fun addCommits(branch: Branch, commits: Collection<String>) {
+        commits.chunked(BATCH_SIZE).forEach { chunk ->
+            namedParameterJdbcTemplate!!.batchUpdate(
+                "INSERT INTO GIT_BRANCH_COMMITS (COMMIT, BRANCH) VALUES (:commit, :branch) ON CONFLICT DO NOTHING",
+                chunk.map { commit ->
+                    params("commit", commit).addValue("branch", branch.id())
+                }.toTypedArray()
+            )
+        }
+    }
+
+    override fun setHead(branch: Branch, head: GitBranchHead) {
+        namedParameterJdbcTemplate!!.update(
+            """
+                INSERT INTO GIT_BRANCH_HEADS (BRANCH, GIT_BRANCH, HEAD, EXCLUDES_DEFAULT)
+                VALUES (:branch, :gitBranch, :head, :excludesDefault)
+                ON CONFLICT (BRANCH) DO UPDATE SET GIT_BRANCH = :gitBranch, HEAD = :head, EXCLUDES_DEFAULT = :excludesDefault
+            """,
+            params("branch", branch.id())
+                .addValue("gitBranch", head.gitBranch)
+                .addValue("head", head.head)
+                .addValue("excludesDefault", head.excludesDefault)
+        )
+    }
+
+    override fun reset(branch: Branch) {
+        val params = params("branch", branch.id())
+        namedParameterJdbcTemplate!!.update("DELETE FROM GIT_BRANCH_COMMITS WHERE BRANCH = :branch", params)
+        namedParameterJdbcTemplate!!.update("DELETE FROM GIT_BRANCH_HEADS WHERE BRANCH = :branch", params)
+    }
+
+    override fun findBranches(project: Project, commit: String): List<Int> =
+        namedParameterJdbcTemplate!!.queryForList(
+            """
+                SELECT C.BRANCH FROM GIT_BRANCH_COMMITS C
+                INNER JOIN BRANCHES B ON B.ID = C.BRANCH
+                WHERE C.COMMIT = :commit
+                AND B.PROJECTID = :project
+                ORDER BY C.BRANCH
+            """,
+            params("commit", commit).addValue("project", project.id()),
+            Int::class.java
+        )
+
+    companion object {
+        private const val BATCH_SIZE = 1000
+    }
+}
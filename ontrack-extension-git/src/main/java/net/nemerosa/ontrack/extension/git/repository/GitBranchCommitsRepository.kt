@@ -0,0 +1,58 @@
+package net.nemerosa.ontrack.extension.git.repository
+
+import net.nemerosa.ontrack.model.structure.Branch
+import net.nemerosa.ontrack.model.structure.Project
+
+/**
+ * Index of the commits contained by the Git branches associated with the Ontrack branches.
+ *
+ * When the default Git branch of the repository is itself associated with an Ontrack branch,
+ * the other branches only index their commits which are not contained by the default branch.
+ */
+interface GitBranchCommitsRepository {
+
+    /**
+     * Gets the indexed heads of the branches of a project
+     *
+     * @param project Project to get the heads for
+     * @return Indexed heads, indexed by branch ID
+     */
+    fun getHeads(project: Project): Map<Int, GitBranchHead>
+
+    /**
+     * Adds some commits to the index of a branch.
+     *
+     * @param branch Branch to index
+     * @param commits Commits to add to the index of the branch
+     */
+    fun addCommits(branch: Branch, commits: Collection<String>)
+
+    /**
+     * Sets the head of a branch, once all its commits have been indexed.
+     */
+    fun setHead(branch: Branch, head: GitBranchHead)
+
+    /**
+     * Removes the index of a branch
+     */
+    fun reset(branch: Branch)
+
+    /**
+     * Gets the IDs of the branches of a project which contain a commit
+     */
+    fun findBranches(project: Project, commit: String): List<Int>
+
+}
+
+/**
+ * Last indexed head of a branch.
+ *
+ * @property gitBranch Git branch associated with the Ontrack branch when it was indexed
+ * @property head Hash of the last indexed commit
+ * @property excludesDefault If only the commits not contained by the default Git branch are indexed
+ */
+data class GitBranchHead(
+    val gitBranch: String,
+    val head: String,
+    val excludesDefault: Boolean = false,
+)
@@ -16,4 +16,14 @@ interface GitRepositoryHelper {
             indexedGitCommit: IndexableGitCommit
     ): Int?
 
+    /**
+     * Same as [getEarliestBuildAfterCommit] but for several branches in one query.
+     *
+     * @return Build ID indexed by branch ID, for the branches having such a build
+     */
+    fun getEarliestBuildsAfterCommit(
+            branches: List<Branch>,
+            indexedGitCommit: IndexableGitCommit
+    ): Map<Int, Int>
+
 }
\ No newline at end of file
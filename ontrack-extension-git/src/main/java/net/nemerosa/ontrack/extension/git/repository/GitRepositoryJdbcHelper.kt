@@ -30,6 +30,30 @@ class GitRepositoryJdbcHelper(dataSource: DataSource) : AbstractJdbcRepository(d
                 Int::class.java)
     }
 
+    override fun getEarliestBuildsAfterCommit(branches: List<Branch>, indexedGitCommit: IndexableGitCommit): Map<Int, Int> {
+        if (branches.isEmpty()) {
+            return emptyMap()
+        }
+        val sql = """
+            SELECT DISTINCT ON (x.BRANCHID) x.BRANCHID, e.BUILD
+            FROM ENTITY_DATA e
+            INNER JOIN BUILDS x ON x.ID = e.BUILD
+            WHERE x.BRANCHID IN (:branchIds)
+            AND e.NAME = 'git-commit'
+            AND (CAST(e.json_value->>'timestamp' AS numeric) >= :timestamp)
+            ORDER BY x.BRANCHID, e.BUILD ASC
+        """
+        val builds = mutableMapOf<Int, Int>()
+        namedParameterJdbcTemplate!!.query(
+                sql,
+                params("branchIds", branches.map { it.id() })
+                        .addValue("timestamp", indexedGitCommit.timestamp)
+        ) { rs ->
+            builds[rs.getInt("BRANCHID")] = rs.getInt("BUILD")
+        }
+        return builds
+    }
+
     override fun findBranchWithProjectAndGitBranch(project: Project, gitBranch: String): Int? {
         return getFirstItem(
                 """SELECT b.ID FROM PROPERTIES p
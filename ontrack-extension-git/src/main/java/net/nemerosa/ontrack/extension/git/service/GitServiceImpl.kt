@@ -13,8 +13,11 @@ import net.nemerosa.ontrack.extension.git.branching.BranchingModelService
 import net.nemerosa.ontrack.extension.git.model.*
 import net.nemerosa.ontrack.extension.git.property.GitBranchConfigurationProperty
 import net.nemerosa.ontrack.extension.git.property.GitBranchConfigurationPropertyType
+import net.nemerosa.ontrack.extension.git.repository.GitBranchCommitsRepository
+import net.nemerosa.ontrack.extension.git.repository.GitBranchHead
 import net.nemerosa.ontrack.extension.git.repository.GitRepositoryHelper
 import net.nemerosa.ontrack.extension.git.support.NoGitCommitPropertyException
+import net.nemerosa.ontrack.extension.issues.IssueResolutionService
 import net.nemerosa.ontrack.extension.issues.export.ExportFormat
 import net.nemerosa.ontrack.extension.issues.model.ConfiguredIssueService
 import net.nemerosa.ontrack.extension.issues.model.Issue
@@ -66,6 +69,8 @@ class GitServiceImpl(
     private val gitConfigurators: Collection<GitConfigurator>,
     private val scmService: SCMUtilsService,
     private val gitRepositoryHelper: GitRepositoryHelper,
+    private val gitBranchCommitsRepository: GitBranchCommitsRepository,
+    private val issueResolutionService: IssueResolutionService,
     private val branchingModelService: BranchingModelService,
     private val entityDataService: EntityDataService,
     private val gitConfigProperties: GitConfigProperties,
@@ -322,20 +327,27 @@ class GitServiceImpl(
             // Issue service
             val configuredIssueService = configuration.configuredIssueService
                 ?: throw IssueServiceNotConfiguredException()
+            // Keys of the issues, per commit
+            val commitKeys = commits.log.commits.map { gitUICommit ->
+                gitUICommit to configuredIssueService.extractIssueKeysFromMessage(gitUICommit.commit.fullMessage)
+            }
+            // Getting all the issues at once
+            val allIssues = issueResolutionService.getIssues(
+                configuredIssueService,
+                commitKeys.flatMap { (_, keys) -> keys }.toSet()
+            )
             // Index of issues, sorted by keys
             val issues = TreeMap<String, GitChangeLogIssue>()
             // For all commits in this commit log
-            for (gitUICommit in commits.log.commits) {
-                val keys = configuredIssueService.extractIssueKeysFromMessage(gitUICommit.commit.fullMessage)
+            for ((gitUICommit, keys) in commitKeys) {
                 for (key in keys) {
-                    var existingIssue: GitChangeLogIssue? = issues[key]
+                    val existingIssue: GitChangeLogIssue? = issues[key]
                     if (existingIssue != null) {
                         existingIssue.add(gitUICommit)
                     } else {
-                        val issue = configuredIssueService.getIssue(key)
+                        val issue = allIssues[key]
                         if (issue != null) {
-                            existingIssue = GitChangeLogIssue.of(issue, gitUICommit)
-                            issues[key] = existingIssue
+                            issues[key] = GitChangeLogIssue.of(issue, gitUICommit)
                         }
                     }
                 }
@@ -577,15 +589,9 @@ class GitServiceImpl(
             commitObject
         )
 
-        // Looks for all Git branches for this commit
-        val gitBranches = logTime("branches-for-commit") { repositoryClient.getBranchesForCommit(commit) }
-        // Sorts the branches according to the branching model
+        // Looks for all the branches containing this commit
         val indexedBranches = logTime("branch-index") {
-            branchingModelService.getBranchingModel(project)
-                .groupBranches(gitBranches)
-                .mapValues { (_, gitBranches) ->
-                    gitBranches.mapNotNull { findBranchWithGitBranch(project, it) }
-                }
+            getBranchesForCommit(project, commitObject, repositoryClient)
                 .filterValues { !it.isEmpty() }
         }
 
@@ -594,29 +600,27 @@ class GitServiceImpl(
             logger.debug("git-search-branch-index,type=$type,branches=${branches.joinToString { it.name }}")
         }
 
+        // Gets the earliest build on each branch that contains this commit
+        val branches = indexedBranches.values.flatten()
+        val firstBuilds: Map<ID, Build> = logTime("earliest-build") {
+            gitRepositoryHelper.getEarliestBuildsAfterCommit(branches, IndexableGitCommit(commitObject))
+                .map { (branchId, buildId) -> ID.of(branchId) to structureService.getBuild(ID.of(buildId)) }
+                .toMap()
+        }
+        // Promotions of all these builds
+        val promotions: Map<ID, List<PromotionRun>> = logTime("earliest-promotion") {
+            structureService.getEarliestPromotionRunsAfterBuilds(firstBuilds.values.toList())
+        }
+
         // For every indexation group of branches
         val branchInfos = indexedBranches.mapValues { (_, branches) ->
             branches.map { branch ->
-                // Gets its Git configuration
-                val branchConfiguration = getRequiredBranchConfiguration(branch)
-                // Gets the earliest build on this branch that contains this commit
-                val firstBuildOnThisBranch = logTime("earliest-build", listOf("branch" to branch.name)) {
-                    getEarliestBuildAfterCommit(commitObject, branch, branchConfiguration, repositoryClient)
-                }
-                // Promotions
-                val promotions: List<PromotionRun> = logTime("earliest-promotion", listOf("branch" to branch.name)) {
-                    firstBuildOnThisBranch?.let { build ->
-                        structureService.getPromotionLevelListForBranch(branch.id)
-                            .mapNotNull { promotionLevel ->
-                                structureService.getEarliestPromotionRunAfterBuild(promotionLevel, build).orElse(null)
-                            }
-                    } ?: emptyList()
-                }
+                val firstBuildOnThisBranch = firstBuilds[branch.id]
                 // Complete branch info
                 BranchInfo(
                     branch,
                     firstBuildOnThisBranch,
-                    promotions
+                    firstBuildOnThisBranch?.let { promotions[it.id] } ?: emptyList()
                 )
             }
         }.mapValues { (_, infos) ->
@@ -631,6 +635,55 @@ class GitServiceImpl(
         )
     }
 
+    /**
+     * Gets the branches containing a commit, grouped according to the branching model.
+     *
+     * The index of the branch commits is used for the branches which have been indexed:
+     *
+     * * a branch whose commits are all indexed contains the commit only if it's in its index
+     * * a branch indexing only the commits which are not in the default Git branch contains the commit
+     * if it's in its index or, when the commit is found in a fully indexed branch (and so may be in the
+     * default branch), if the commit is reachable from the branch in the Git repository
+     *
+     * The Git repository is checked for the branches which have not been indexed yet, and is scanned
+     * entirely when no branch of the project has been indexed.
+     */
+    private fun getBranchesForCommit(
+        project: Project,
+        commit: GitCommit,
+        repositoryClient: GitRepositoryClient,
+    ): Map<String, List<Branch>> {
+        val branchingModel = branchingModelService.getBranchingModel(project)
+        val indexedHeads = gitBranchCommitsRepository.getHeads(project)
+        return if (indexedHeads.isNotEmpty()) {
+            val indexedBranches = gitBranchCommitsRepository.findBranches(project, commit.id).toSet()
+            val inFullyIndexedBranch = indexedBranches.any { indexedHeads[it]?.excludesDefault == false }
+            val gitBranches = mutableMapOf<String, MutableList<Branch>>()
+            forEachConfiguredBranchInProject(project) { branch, branchConfiguration ->
+                val gitBranch = branchConfiguration.branch
+                val indexedHead = indexedHeads[branch.id()]?.takeIf { it.gitBranch == gitBranch }
+                val contained = when {
+                    branch.id() in indexedBranches -> true
+                    // Not indexed yet
+                    indexedHead == null -> repositoryClient.isCommitInBranch(commit.id, gitBranch)
+                    // Commits of the default branch are not indexed for this branch
+                    indexedHead.excludesDefault && inFullyIndexedBranch ->
+                        repositoryClient.isCommitInBranch(commit.id, gitBranch)
+                    else -> false
+                }
+                if (contained) {
+                    gitBranches.getOrPut(gitBranch) { mutableListOf() } += branch
+                }
+            }
+            branchingModel.groupBranches(gitBranches.keys.sorted())
+                .mapValues { (_, names) -> names.flatMap { gitBranches[it] ?: emptyList() } }
+        } else {
+            val gitBranches = repositoryClient.getBranchesForCommit(commit.id)
+            branchingModel.groupBranches(gitBranches)
+                .mapValues { (_, names) -> names.mapNotNull { findBranchWithGitBranch(project, it) } }
+        }
+    }
+
     internal fun getEarliestBuildAfterCommit(
         commit: GitCommit,
         branch: Branch,
@@ -977,6 +1030,113 @@ class GitServiceImpl(
 
     private fun index(config: GitConfiguration, project: Project, listener: JobRunListener) {
         syncProjectRepository(config, project, listener::message)
+        indexBranchCommits(config, listener::message)
+    }
+
+    /**
+     * Indexes the commits of the branches of all the projects using the same repository
+     * than the given configuration.
+     */
+    private fun indexBranchCommits(config: GitConfiguration, listener: (message: String) -> Unit) {
+        val client = gitRepositoryClientFactory.getClient(config.gitRepository)
+        val heads = client.branches.branches.associate { it.name to it.commit.id }
+        if (heads.isEmpty()) {
+            // Repository not available (yet)
+            return
+        }
+        val defaultBranch = client.defaultBranch
+        forEachConfiguredProject { project, projectConfiguration ->
+            if (!project.isDisabled && projectConfiguration.gitRepository.id == config.gitRepository.id) {
+                indexBranchCommits(project, client, heads, defaultBranch, listener)
+            }
+        }
+    }
+
+    /**
+     * Indexes the commits of the branches of a project.
+     */
+    internal fun indexBranchCommits(project: Project, listener: (message: String) -> Unit) {
+        val config = getRequiredProjectConfiguration(project)
+        val client = gitRepositoryClientFactory.getClient(config.gitRepository)
+        val heads = client.branches.branches.associate { it.name to it.commit.id }
+        indexBranchCommits(project, client, heads, client.defaultBranch, listener)
+    }
+
+    /**
+     * Writes the commits of a branch into the index by batches.
+     */
+    private inner class BranchCommitsIndexer(private val branch: Branch) {
+        private val buffer = mutableListOf<String>()
+        var count = 0
+            private set
+
+        fun add(commit: String) {
+            buffer += commit
+            if (buffer.size >= BRANCH_COMMITS_BATCH) {
+                flush()
+            }
+        }
+
+        fun flush() {
+            if (buffer.isNotEmpty()) {
+                gitBranchCommitsRepository.addCommits(branch, buffer)
+                count += buffer.size
+                buffer.clear()
+            }
+        }
+    }
+
+    /**
+     * Indexes the commits of the branches of a project.
+     *
+     * When the default Git branch is associated with an Ontrack branch, its whole history is indexed
+     * but the other branches only index their commits which are not in the default branch, so that the
+     * history shared by all the branches is stored only once.
+     */
+    private fun indexBranchCommits(
+        project: Project,
+        client: GitRepositoryClient,
+        heads: Map<String, String>,
+        defaultBranch: String?,
+        listener: (message: String) -> Unit,
+    ) {
+        val indexedHeads = gitBranchCommitsRepository.getHeads(project)
+        val branches = mutableListOf<Pair<Branch, String>>()
+        forEachConfiguredBranchInProject(project) { branch, branchConfiguration ->
+            if (heads.containsKey(branchConfiguration.branch)) {
+                branches += branch to branchConfiguration.branch
+            }
+        }
+        val defaultHead = defaultBranch?.takeIf { name -> branches.any { it.second == name } }?.let { heads[it] }
+        branches.forEach { (branch, gitBranch) ->
+            val head = heads.getValue(gitBranch)
+            val excludesDefault = defaultHead != null && gitBranch != defaultBranch
+            val exclude = if (excludesDefault && defaultHead != null) listOf(defaultHead) else emptyList()
+            val indexedHead = indexedHeads[branch.id()]?.takeIf {
+                it.gitBranch == gitBranch && it.excludesDefault == excludesDefault
+            }
+            if (indexedHead?.head != head) {
+                val commits = BranchCommitsIndexer(branch)
+                if (indexedHead == null) {
+                    // New branch (or associated with another Git branch, or the default branch has changed)
+                    gitBranchCommitsRepository.reset(branch)
+                    client.forEachCommitSince(head, null, exclude, commits::add)
+                } else if (!client.forEachCommitSince(head, indexedHead.head, exclude, commits::add)) {
+                    // History has been rewritten, reindexing the whole branch
+                    listener("Reindexing commits for ${project.name}/${branch.name}")
+                    gitBranchCommitsRepository.reset(branch)
+                    client.forEachCommitSince(head, null, exclude, commits::add)
+                }
+                commits.flush()
+                gitBranchCommitsRepository.setHead(branch, GitBranchHead(gitBranch, head, excludesDefault))
+                listener("Indexed ${commits.count} commits for ${project.name}/${branch.name}")
+            }
+        }
+        // Removing the branches which are no longer indexable
+        val indexedBranches = branches.map { (branch, _) -> branch.id() }.toSet()
+        indexedHeads.keys.filter { it !in indexedBranches }.forEach { branchId ->
+            gitBranchCommitsRepository.reset(structureService.getBranch(ID.of(branchId)))
+        }
     }
 
     override fun syncProjectRepository(
@@ -1162,6 +1322,7 @@ class GitServiceImpl(
     }
 
     companion object {
+        private const val BRANCH_COMMITS_BATCH = 1000
         private val GIT_INDEXATION_JOB = GIT_JOB_CATEGORY.getType("git-indexation").withName("Git indexation")
         private val GIT_BUILD_SYNC_JOB =
             GIT_JOB_CATEGORY.getType("git-build-sync").withName("Git build synchronisation")
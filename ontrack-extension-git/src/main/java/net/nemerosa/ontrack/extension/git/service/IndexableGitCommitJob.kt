@@ -4,10 +4,10 @@ import net.nemerosa.ontrack.extension.git.model.gitRepository
 import net.nemerosa.ontrack.git.GitRepositoryClient
 import net.nemerosa.ontrack.git.GitRepositoryClientFactory
 import net.nemerosa.ontrack.job.*
-import net.nemerosa.ontrack.job.orchestrator.JobOrchestratorSupplier
 import net.nemerosa.ontrack.model.security.SecurityService
 import net.nemerosa.ontrack.model.structure.Project
 import net.nemerosa.ontrack.model.structure.StructureService
+import net.nemerosa.ontrack.model.support.ProjectJobOrchestratorSupplier
 import org.springframework.stereotype.Component
 import java.util.stream.Stream
 import kotlin.streams.asStream
@@ -21,30 +21,35 @@ class IndexableGitCommitJob(
         private val structureService: StructureService,
         private val gitService: GitService,
         private val gitRepositoryClientFactory: GitRepositoryClientFactory
-) : JobOrchestratorSupplier {
+) : ProjectJobOrchestratorSupplier {
 
     override val jobRegistrations: Collection<JobRegistration>
         get() = securityService.asAdmin {
             structureService
                     .projectList
-                    .filter { project ->
-                        gitService.getProjectConfiguration(project) != null
-                    }
-                    .flatMap { project ->
-                        sequenceOf(
-                                createIndexableGitCommitJobRegistration(project, overrides = true, schedule = Schedule.NONE),
-                                createIndexableGitCommitJobRegistration(project, overrides = false, schedule = Schedule.EVERY_DAY)
-                        )
-                    }
+                    .flatMap { project -> getJobRegistrations(project) }
         }
 
+    override fun getJobRegistrations(project: Project): Collection<JobRegistration> =
+            if (gitService.getProjectConfiguration(project) != null) {
+                listOf(
+                        createIndexableGitCommitJobRegistration(project, overrides = true, schedule = Schedule.NONE),
+                        createIndexableGitCommitJobRegistration(project, overrides = false, schedule = Schedule.EVERY_DAY)
+                )
+            } else {
+                emptyList()
+            }
+
+    override fun isProjectJob(key: JobKey, project: Project): Boolean =
+            key == GIT_COMMIT_REINDEX_JOB.getKey(project.id.toString()) || key == GIT_COMMIT_INDEX_JOB.getKey(project.id.toString())
+
     private fun createIndexableGitCommitJobRegistration(project: Project, overrides: Boolean, schedule: Schedule): JobRegistration =
             JobRegistration.of(
                     object : Job {
                         override fun getKey(): JobKey = if (overrides) {
-                            GIT_COMMIT_REINDEX_JOB.getKey(project.name)
+                            GIT_COMMIT_REINDEX_JOB.getKey(project.id.toString())
                         } else {
-                            GIT_COMMIT_INDEX_JOB.getKey(project.name)
+                            GIT_COMMIT_INDEX_JOB.getKey(project.id.toString())
                         }
 
                         override fun getTask() = JobRun { listener ->
@@ -0,0 +1,48 @@
+package net.nemerosa.ontrack.extension.git.repository
+
+import net.nemerosa.ontrack.extension.git.AbstractGitTestSupport
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class GitBranchCommitsRepositoryIT : AbstractGitTestSupport() {
+
+    @Autowired
+    private lateinit var gitBranchCommitsRepository: GitBranchCommitsRepository
+
+    @Test
+    fun `Indexing the commits of branches`() {
+        project {
+            assertTrue(gitBranchCommitsRepository.getHeads(this).isEmpty())
+            val main = branch()
+            val release = branch()
+            gitBranchCommitsRepository.addCommits(main, listOf("c1", "c2", "c3"))
+            gitBranchCommitsRepository.setHead(main, GitBranchHead("main", "c3"))
+            gitBranchCommitsRepository.addCommits(release, listOf("c1", "c2"))
+            gitBranchCommitsRepository.setHead(release, GitBranchHead("release/1.0", "c2", excludesDefault = true))
+
+            assertEquals(
+                mapOf(
+                    main.id() to GitBranchHead("main", "c3"),
+                    release.id() to GitBranchHead("release/1.0", "c2", excludesDefault = true),
+                ),
+                gitBranchCommitsRepository.getHeads(this)
+            )
+            assertEquals(listOf(main.id(), release.id()), gitBranchCommitsRepository.findBranches(this, "c1"))
+            assertEquals(listOf(main.id()), gitBranchCommitsRepository.findBranches(this, "c3"))
+            assertEquals(emptyList(), gitBranchCommitsRepository.findBranches(this, "c4"))
+
+            // Adding the same commits again
+            gitBranchCommitsRepository.addCommits(main, listOf("c3", "c4"))
+            gitBranchCommitsRepository.setHead(main, GitBranchHead("main", "c4"))
+            assertEquals(listOf(main.id()), gitBranchCommitsRepository.findBranches(this, "c4"))
+
+            // Reset
+            gitBranchCommitsRepository.reset(main)
+            assertEquals(listOf(release.id()), gitBranchCommitsRepository.findBranches(this, "c1"))
+            assertEquals(setOf(release.id()), gitBranchCommitsRepository.getHeads(this).keys)
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package net.nemerosa.ontrack.extension.git.service
+
+import net.nemerosa.ontrack.extension.git.AbstractGitTestSupport
+import net.nemerosa.ontrack.extension.git.repository.GitBranchCommitsRepository
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import kotlin.test.assertEquals
+
+class GitBranchCommitsIndexIT : AbstractGitTestSupport() {
+
+    @Autowired
+    private lateinit var gitBranchCommitsRepository: GitBranchCommitsRepository
+
+    /**
+     * ```
+     * * C11 (release/3.0)
+     * * C10 (main)
+     * * C9
+     * * C8
+     * | * C7 (release/2.0)
+     * | * C6
+     * * | C5
+     * | * C4
+     * |/
+     * * C3
+     * * C2
+     * * C1
+     * ```
+     */
+    @Test
+    fun `Commit information using the index of the branch commits`() {
+        createRepo {
+            sequenceWithPauses(
+                (1..3),
+                "release/2.0",
+                4,
+                "main",
+                5,
+                "release/2.0",
+                (6..7),
+                "main",
+                (8..10),
+                "release/3.0",
+                11,
+                "main",
+            )
+        } and { repo, commits: Map<Int, String> ->
+            project {
+                gitProject(repo)
+                val main = branch("main") {
+                    gitBranch("main") {
+                        commitAsProperty()
+                    }
+                    build(3, commits)
+                    build(9, commits)
+                }
+                val release20 = branch("release-2.0") {
+                    gitBranch("release/2.0") {
+                        commitAsProperty()
+                    }
+                    build(4, commits)
+                    build(7, commits)
+                }
+
+                (gitService as GitServiceImpl).indexBranchCommits(this) { println(it) }
+
+                // Only the main branch indexes the shared history
+                val heads = gitBranchCommitsRepository.getHeads(this)
+                assertEquals(false, heads[main.id()]?.excludesDefault)
+                assertEquals(true, heads[release20.id()]?.excludesDefault)
+                assertEquals(listOf(main.id()), gitBranchCommitsRepository.findBranches(this, commits.getValue(2)))
+                assertEquals(listOf(release20.id()), gitBranchCommitsRepository.findBranches(this, commits.getValue(6)))
+
+                // Commit shared by both branches
+                commitInfoTest(this, commits, 2) {
+                    assertBranchInfos(
+                        "Development" to listOf(
+                            BranchInfoTest(branch = "main", firstBuild = "3")
+                        ),
+                        "Releases" to listOf(
+                            BranchInfoTest(branch = "release-2.0", firstBuild = "4")
+                        ),
+                    )
+                }
+
+                // Commit only on the release branch
+                commitInfoTest(this, commits, 6) {
+                    assertBranchInfos(
+                        "Releases" to listOf(
+                            BranchInfoTest(branch = "release-2.0", firstBuild = "7")
+                        ),
+                    )
+                }
+
+                // Branch not indexed yet
+                branch("release-3.0") {
+                    gitBranch("release/3.0") {
+                        commitAsProperty()
+                    }
+                    build(11, commits)
+                }
+                commitInfoTest(this, commits, 2) {
+                    assertBranchInfos(
+                        "Development" to listOf(
+                            BranchInfoTest(branch = "main", firstBuild = "3")
+                        ),
+                        "Releases" to listOf(
+                            BranchInfoTest(branch = "release-2.0", firstBuild = "4"),
+                            BranchInfoTest(branch = "release-3.0", firstBuild = "11"),
+                        ),
+                    )
+                }
+
+                // Once indexed
+                (gitService as GitServiceImpl).indexBranchCommits(this) { println(it) }
+                assertEquals(
+                    emptyList<Int>(),
+                    gitBranchCommitsRepository.findBranches(this, commits.getValue(2)).filter { it != main.id() }
+                )
+                commitInfoTest(this, commits, 11) {
+                    assertBranchInfos(
+                        "Releases" to listOf(
+                            BranchInfoTest(branch = "release-3.0", firstBuild = "11"),
+                        ),
+                    )
+                }
+            }
+        }
+    }
+
+}
@@ -18,6 +18,8 @@ dependencies {
     implementation("io.jsonwebtoken:jjwt-api")
     implementation("org.jetbrains.kotlinx:kotlinx-coroutines-core")
     implementation("io.micrometer:micrometer-core")
+    implementation("org.apache.httpcomponents:httpclient")
+    implementation("com.github.ben-manes.caffeine:caffeine")
     implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-yaml")
     implementation(project(":ontrack-rabbitmq"))
 
@@ -4,6 +4,8 @@ import net.nemerosa.ontrack.model.annotations.APIDescription
 import net.nemerosa.ontrack.model.annotations.APIName
 import org.springframework.boot.context.properties.ConfigurationProperties
 import org.springframework.stereotype.Component
+import org.springframework.util.unit.DataSize
+import java.time.Duration
 
 @Component
 @ConfigurationProperties(prefix = GitHubConfigurationProperties.PREFIX)
@@ -13,11 +15,27 @@ class GitHubConfigurationProperties {
 
     var metrics = Metrics()
 
+    var client = Client()
+
     class Metrics {
         @APIDescription("Set to `false` to disable the export of the GitHub API rate limit")
         var enabled: Boolean = true
     }
 
+    class Client {
+        @APIDescription("Maximum number of pooled connections to GitHub, per configuration")
+        var maxConnections: Int = 50
+
+        @APIDescription("Maximum size of the bodies kept in the cache of the GitHub responses, per configuration, used for the conditional requests. Set to 0 to disable the cache.")
+        var cacheMaxSize: DataSize = DataSize.ofMegabytes(50)
+
+        @APIDescription("Number of remaining calls in the GitHub API rate limit below which the calls are delayed until the rate limit is reset. Calls made while serving an HTTP request are not delayed and fail when the rate limit is exhausted.")
+        var throttlingThreshold: Int = 50
+
+        @APIDescription("Maximum time a call to GitHub is delayed when the rate limit is about to be exceeded")
+        var throttlingMaxWait: Duration = Duration.ofMinutes(1)
+    }
+
     companion object {
         /**
          * Prefix for the properties
@@ -109,6 +109,22 @@ class GitHubIssueServiceExtension(
         )
     }
 
+    override fun getIssues(
+        issueServiceConfiguration: IssueServiceConfiguration,
+        issueKeys: Collection<String>,
+    ): Map<String, Issue> {
+        val configuration = issueServiceConfiguration as GitHubIssueServiceConfiguration
+        val client = gitHubClientFactory.create(
+            configuration.configuration
+        )
+        // Several keys (like #12 and 12) may target the same issue
+        val ids = issueKeys.groupBy { getIssueId(it) }
+        val issues = client.getIssues(configuration.repository, ids.keys)
+        return ids.flatMap { (id, keys) ->
+            issues[id]?.let { issue -> keys.map { key -> key to issue } } ?: emptyList()
+        }.toMap()
+    }
+
     override fun getIssueId(issueServiceConfiguration: IssueServiceConfiguration, token: String): String? {
         return if (token.toIntOrNull() != null || validIssueToken(token)) {
             getIssueId(token).toString()
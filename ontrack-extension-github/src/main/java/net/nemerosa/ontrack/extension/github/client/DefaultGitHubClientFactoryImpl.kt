@@ -11,6 +11,7 @@ class DefaultGitHubClientFactoryImpl(
     private val gitHubAppTokenService: GitHubAppTokenService,
     private val applicationLogService: ApplicationLogService,
     private val gitConfigProperties: GitConfigProperties,
+    private val gitHubHttpClients: GitHubHttpClients,
 ) : OntrackGitHubClientFactory {
     override fun create(configuration: GitHubEngineConfiguration): OntrackGitHubClient {
         return DefaultOntrackGitHubClient(
@@ -20,6 +21,7 @@ class DefaultGitHubClientFactoryImpl(
             timeout = gitConfigProperties.remote.timeout,
             retries = gitConfigProperties.remote.retries,
             interval = gitConfigProperties.remote.interval,
+            httpClients = gitHubHttpClients,
         )
     }
 }
\ No newline at end of file
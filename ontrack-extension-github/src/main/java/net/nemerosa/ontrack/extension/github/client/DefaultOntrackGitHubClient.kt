@@ -43,6 +43,7 @@ class DefaultOntrackGitHubClient(
     private val interval: Duration = Duration.ofSeconds(30),
     private val notFoundRetries: UInt = 6u,
     private val notFoundInterval: Duration = Duration.ofSeconds(5),
+    private val httpClients: GitHubHttpClients? = null,
 ) : OntrackGitHubClient {
 
     private val logger: Logger = LoggerFactory.getLogger(OntrackGitHubClient::class.java)
@@ -169,6 +170,92 @@ class DefaultOntrackGitHubClient(
         }
     }
 
+    override fun getIssues(repository: String, ids: Collection<Int>): Map<Int, GitHubIssue> {
+        val (owner, name) = getRepositoryParts(repository)
+        val client = createGitHubTemplate(graphql = true, token = null)
+        return ids.distinct().chunked(ISSUES_BATCH_SIZE).flatMap { batch ->
+            // One aliased field per issue
+            val fields = batch.joinToString("\n") { id ->
+                "i$id: issueOrPullRequest(number: $id) { ... on Issue { ...issueFields } ... on PullRequest { ...prFields } }"
+            }
+            val query = """
+                query Issues(${'$'}owner: String!, ${'$'}name: String!) {
+                    repository(owner: ${'$'}owner, name: ${'$'}name) {
+                        $fields
+                    }
+                }
+                fragment issueFields on Issue {
+                    number url title body state createdAt updatedAt closedAt
+                    assignees(first: 1) { nodes { login url } }
+                    labels(first: 100) { nodes { name color } }
+                    milestone { title state number url }
+                }
+                fragment prFields on PullRequest {
+                    number url title body state createdAt updatedAt closedAt
+                    assignees(first: 1) { nodes { login url } }
+                    labels(first: 100) { nodes { name color } }
+                    milestone { title state number url }
+                }
+            """
+            // Issues which are not found are returned as errors, which are ignored
+            val data = client("Get issues $repository#${batch.joinToString(",")}") {
+                postForObject(
+                    "/graphql",
+                    mapOf(
+                        "query" to query,
+                        "variables" to mapOf("owner" to owner, "name" to name)
+                    ),
+                    JsonNode::class.java
+                )
+            }?.path("data")?.path("repository")
+            batch.mapNotNull { id ->
+                data?.path("i$id")?.takeIf { it.isObject && it.has("number") }?.let { id to it.toGraphQLIssue() }
+            }
+        }.toMap()
+    }
+
+    private fun JsonNode.toGraphQLIssue() = GitHubIssue(
+        id = getRequiredIntField("number"),
+        url = getRequiredTextField("url"),
+        summary = getRequiredTextField("title"),
+        body = getTextField("body") ?: "",
+        bodyHtml = getTextField("body") ?: "",
+        assignee = path("assignees").path("nodes").firstOrNull()?.let {
+            GitHubUser(
+                login = it.getRequiredTextField("login"),
+                url = it.getTextField("url"),
+            )
+        },
+        labels = path("labels").path("nodes").map {
+            GitHubLabel(
+                name = it.getRequiredTextField("name"),
+                color = it.getRequiredTextField("color"),
+            )
+        },
+        state = getGraphQLState(),
+        milestone = getJsonField("milestone")?.let {
+            GitHubMilestone(
+                title = it.getRequiredTextField("title"),
+                state = it.getGraphQLState(),
+                number = it.getRequiredIntField("number"),
+                url = it.getRequiredTextField("url"),
+            )
+        },
+        createdAt = getRequiredDateTime("createdAt"),
+        updateTime = getRequiredDateTime("updatedAt"),
+        closedAt = getDateTime("closedAt"),
+    )
+
+    /**
+     * GraphQL states are `OPEN`, `CLOSED` (and `MERGED` for the pull requests)
+     */
+    private fun JsonNode.getGraphQLState(): GitHubState =
+        if (getRequiredTextField("state") == "OPEN") {
+            GitHubState.open
+        } else {
+            GitHubState.closed
+        }
+
     override fun getOrganizationTeams(login: String): List<GitHubTeam>? =
         paginateGraphQL(
             message = "Getting teams for $login organization",
@@ -347,8 +434,14 @@ class DefaultOntrackGitHubClient(
 
     private fun createGitHubTemplate(graphql: Boolean, token: String?): RestTemplate = RestTemplateBuilder()
         .rootUri(getApiRoot(configuration.url, graphql))
-        .setConnectTimeout(timeout)
-        .setReadTimeout(timeout)
+        .run {
+            if (httpClients != null) {
+                requestFactory { -> httpClients.getRequestFactory(configuration, timeout) }
+                    .additionalInterceptors(httpClients.getInterceptors(configuration, timeout))
+            } else {
+                setConnectTimeout(timeout).setReadTimeout(timeout)
+            }
+        }
         .run {
             if (token != null) {
                 defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer $token")
@@ -792,6 +885,29 @@ class DefaultOntrackGitHubClient(
         }.reversed()
     }
 
+    override fun getCommitsSince(repository: String, base: String, head: String): List<GitHubCommit>? {
+        // Getting a client
+        val client = createGitHubRestTemplate()
+        // Gets the repository for this project
+        val (owner, name) = getRepositoryParts(repository)
+        // Call
+        val node = client<JsonNode>("Comparing commits") {
+            getForObject<JsonNode>(
+                "/repos/$owner/$name/compare/$base...$head"
+            )
+        }
+        // The base must be an ancestor of the head
+        val commits = node.path("commits")
+        return when {
+            node.path("status").asText() !in setOf("ahead", "identical") -> null
+            // The compare API returns at most 250 commits, the list is then incomplete
+            node.path("total_commits").asInt(commits.size()) > commits.size() -> null
+            else -> commits.map { commitNode ->
+                commitNode.parse<GitHubCommit>()
+            }.reversed()
+        }
+    }
+
     override fun launchWorkflowRun(
         repository: String,
         workflow: String,
@@ -935,6 +1051,11 @@ class DefaultOntrackGitHubClient(
         }
 
     companion object {
+        /**
+         * Maximum number of issues per GraphQL query
+         */
+        private const val ISSUES_BATCH_SIZE = 50
+
         /**
          * Cloud root API
          */
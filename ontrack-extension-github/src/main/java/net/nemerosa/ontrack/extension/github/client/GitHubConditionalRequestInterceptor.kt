@@ -0,0 +1,96 @@
+package net.nemerosa.ontrack.extension.github.client
+
+import com.github.benmanes.caffeine.cache.Cache
+import org.springframework.http.HttpHeaders
+import org.springframework.http.HttpMethod
+import org.springframework.http.HttpRequest
+import org.springframework.http.HttpStatus
+import org.springframework.http.client.ClientHttpRequestExecution
+import org.springframework.http.client.ClientHttpRequestInterceptor
+import org.springframework.http.client.ClientHttpResponse
+import java.io.ByteArrayInputStream
+import java.io.InputStream
+import java.security.MessageDigest
+
+/**
+ * Sends the GET requests to GitHub as conditional requests, using the `ETag` of
+ * the previous response for the same URL and credentials.
+ *
+ * When GitHub answers with `304 Not Modified` (which does not count against the rate limit),
+ * the cached response is returned instead.
+ *
+ * @param cache Responses indexed by credentials & URL
+ * @param onNotModified Called whenever a cached response is used
+ */
+class GitHubConditionalRequestInterceptor(
+    private val cache: Cache<String, CachedResponse>,
+    private val onNotModified: () -> Unit = {},
+) : ClientHttpRequestInterceptor {
+
+    override fun intercept(
+        request: HttpRequest,
+        body: ByteArray,
+        execution: ClientHttpRequestExecution,
+    ): ClientHttpResponse {
+        if (request.method != HttpMethod.GET) {
+            return execution.execute(request, body)
+        }
+        val key = key(request)
+        val cached = cache.getIfPresent(key)
+        if (cached != null) {
+            request.headers.ifNoneMatch = listOf(cached.etag)
+        }
+        val response = execution.execute(request, body)
+        return if (cached != null && response.rawStatusCode == HttpStatus.NOT_MODIFIED.value()) {
+            response.close()
+            onNotModified()
+            cached.toResponse()
+        } else if (response.rawStatusCode == HttpStatus.OK.value() && response.headers.eTag != null) {
+            val stored = response.use {
+                CachedResponse(
+                    etag = it.headers.eTag!!,
+                    headers = HttpHeaders.readOnlyHttpHeaders(HttpHeaders().apply { putAll(it.headers) }),
+                    body = it.body.readAllBytes(),
+                )
+            }
+            cache.put(key, stored)
+            stored.toResponse()
+        } else {
+            response
+        }
+    }
+
+    private fun key(request: HttpRequest): String {
+        val credentials = request.headers.getFirst(HttpHeaders.AUTHORIZATION)?.let { hash(it) } ?: ""
+        return "$credentials ${request.uri}"
+    }
+
+    private fun hash(value: String): String =
+        MessageDigest.getInstance("SHA-256")
+            .digest(value.toByteArray(Charsets.UTF_8))
+            .joinToString("") { "%02x".format(it) }
+
+    /**
+     * Response stored in the cache
+     */
+    class CachedResponse(
+        val etag: String,
+        val headers: HttpHeaders,
+        val body: ByteArray,
+    ) {
+        /**
+         * Approximate size of this response in memory, in bytes
+         */
+        val weight: Int
+            get() = body.size + headers.entries.sumOf { (name, values) -> name.length + values.sumOf { it.length } }
+
+        fun toResponse(): ClientHttpResponse = object : ClientHttpResponse {
+            override fun getHeaders(): HttpHeaders = headers
+            override fun getBody(): InputStream = ByteArrayInputStream(body)
+            override fun getStatusCode(): HttpStatus = HttpStatus.OK
+            override fun getRawStatusCode(): Int = HttpStatus.OK.value()
+            override fun getStatusText(): String = HttpStatus.OK.reasonPhrase
+            override fun close() {}
+        }
+    }
+}
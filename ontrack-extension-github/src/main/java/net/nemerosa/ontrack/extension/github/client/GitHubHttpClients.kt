@@ -0,0 +1,116 @@
+package net.nemerosa.ontrack.extension.github.client
+
+import com.github.benmanes.caffeine.cache.Caffeine
+import io.micrometer.core.instrument.MeterRegistry
+import net.nemerosa.ontrack.extension.github.GitHubConfigurationProperties
+import net.nemerosa.ontrack.extension.github.model.GitHubEngineConfiguration
+import org.apache.http.impl.client.CloseableHttpClient
+import org.apache.http.impl.client.HttpClients
+import org.springframework.http.client.ClientHttpRequestFactory
+import org.springframework.http.client.ClientHttpRequestInterceptor
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory
+import org.springframework.stereotype.Component
+import java.time.Duration
+import java.util.concurrent.ConcurrentHashMap
+import javax.annotation.PreDestroy
+
+/**
+ * HTTP resources shared by all the GitHub clients created for the same configuration:
+ *
+ * * a pool of connections, kept alive between the calls
+ * * a cache of the responses, used to send conditional requests
+ * * the tracking of the rate limit, to delay the calls when it's about to be exceeded
+ */
+@Component
+class GitHubHttpClients(
+    private val gitHubConfigurationProperties: GitHubConfigurationProperties,
+    private val meterRegistry: MeterRegistry,
+) {
+
+    private val clients = ConcurrentHashMap<String, GitHubHttpClient>()
+
+    @PreDestroy
+    fun stop() {
+        clients.values.forEach { it.httpClient.close() }
+        clients.clear()
+    }
+
+    /**
+     * Releases the resources of a configuration, when it's changed or deleted.
+     *
+     * @param configuration Name of the configuration
+     */
+    fun evict(configuration: String) {
+        clients.keys.filter { it.startsWith("$configuration|") }.forEach { key ->
+            clients.remove(key)?.httpClient?.close()
+        }
+        meterRegistry.find(GitHubRateLimitInterceptor.METRIC_REMAINING)
+            .tag("configuration", configuration)
+            .gauges()
+            .forEach { meterRegistry.remove(it) }
+    }
+
+    /**
+     * Gets the pooled request factory for a configuration.
+     */
+    fun getRequestFactory(configuration: GitHubEngineConfiguration, timeout: Duration): ClientHttpRequestFactory =
+        getClient(configuration, timeout).requestFactory
+
+    /**
+     * Gets the interceptors to use for the calls of a configuration.
+     */
+    fun getInterceptors(configuration: GitHubEngineConfiguration, timeout: Duration): List<ClientHttpRequestInterceptor> =
+        getClient(configuration, timeout).interceptors
+
+    private fun getClient(configuration: GitHubEngineConfiguration, timeout: Duration): GitHubHttpClient =
+        clients.computeIfAbsent("${configuration.name}|${configuration.url}|${timeout.toMillis()}") {
+            createClient(configuration, timeout)
+        }
+
+    private fun createClient(configuration: GitHubEngineConfiguration, timeout: Duration): GitHubHttpClient {
+        val properties = gitHubConfigurationProperties.client
+        val httpClient = HttpClients.custom()
+            .setMaxConnTotal(properties.maxConnections)
+            .setMaxConnPerRoute(properties.maxConnections)
+            .disableCookieManagement()
+            .build()
+        val requestFactory = HttpComponentsClientHttpRequestFactory(httpClient).apply {
+            setConnectTimeout(timeout.toMillis().toInt())
+            setConnectionRequestTimeout(timeout.toMillis().toInt())
+            setReadTimeout(timeout.toMillis().toInt())
+        }
+        val interceptors = listOfNotNull(
+            // Conditional requests first, so that the rate limit sees the actual responses
+            properties.cacheMaxSize.toBytes().takeIf { it > 0 }?.let { cacheMaxSize ->
+                GitHubConditionalRequestInterceptor(
+                    cache = Caffeine.newBuilder()
+                        .maximumWeight(cacheMaxSize)
+                        .weigher<String, GitHubConditionalRequestInterceptor.CachedResponse> { _, response -> response.weight }
+                        .build(),
+                ) {
+                    meterRegistry.counter(METRIC_NOT_MODIFIED, "configuration", configuration.name).increment()
+                }
+            },
+            GitHubRateLimitInterceptor(
+                configuration = configuration.name,
+                meterRegistry = meterRegistry,
+                threshold = properties.throttlingThreshold,
+                maxWait = properties.throttlingMaxWait,
+            ),
+        )
+        return GitHubHttpClient(httpClient, requestFactory, interceptors)
+    }
+
+    private class GitHubHttpClient(
+        val httpClient: CloseableHttpClient,
+        val requestFactory: ClientHttpRequestFactory,
+        val interceptors: List<ClientHttpRequestInterceptor>,
+    )
+
+    companion object {
+        /**
+         * Number of GitHub calls answered from the cache after a `304 Not Modified`
+         */
+        const val METRIC_NOT_MODIFIED = "ontrack_extension_github_request_not_modified"
+    }
+}
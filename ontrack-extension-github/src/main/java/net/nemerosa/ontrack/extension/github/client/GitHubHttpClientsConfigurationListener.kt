@@ -0,0 +1,34 @@
+package net.nemerosa.ontrack.extension.github.client
+
+import net.nemerosa.ontrack.extension.github.model.GitHubEngineConfiguration
+import net.nemerosa.ontrack.extension.github.service.GitHubConfigurationService
+import net.nemerosa.ontrack.model.support.ConfigurationServiceListener
+import net.nemerosa.ontrack.model.support.StartupService
+import org.springframework.stereotype.Component
+
+/**
+ * Releases the HTTP resources kept by [GitHubHttpClients] for a configuration
+ * when this configuration is changed or deleted.
+ */
+@Component
+class GitHubHttpClientsConfigurationListener(
+    private val gitHubConfigurationService: GitHubConfigurationService,
+    private val gitHubHttpClients: GitHubHttpClients,
+) : ConfigurationServiceListener<GitHubEngineConfiguration>, StartupService {
+
+    override fun getName(): String = "GitHub HTTP clients eviction"
+
+    override fun startupOrder(): Int = StartupService.SYSTEM_REGISTRATION
+
+    override fun start() {
+        gitHubConfigurationService.addConfigurationServiceListener(this)
+    }
+
+    override fun onUpdatedConfiguration(configuration: GitHubEngineConfiguration) {
+        gitHubHttpClients.evict(configuration.name)
+    }
+
+    override fun onDeletedConfiguration(configuration: GitHubEngineConfiguration) {
+        gitHubHttpClients.evict(configuration.name)
+    }
+}
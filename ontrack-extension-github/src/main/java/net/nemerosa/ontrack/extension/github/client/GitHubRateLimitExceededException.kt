@@ -0,0 +1,8 @@
+package net.nemerosa.ontrack.extension.github.client
+
+import net.nemerosa.ontrack.common.BaseException
+import java.time.Instant
+
+class GitHubRateLimitExceededException(configuration: String, resource: String, reset: Instant) : BaseException(
+    "GitHub rate limit for $resource is exhausted for configuration $configuration until $reset."
+)
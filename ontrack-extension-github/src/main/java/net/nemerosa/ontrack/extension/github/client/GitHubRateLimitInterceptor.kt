@@ -0,0 +1,150 @@
+package net.nemerosa.ontrack.extension.github.client
+
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Tag
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import org.springframework.http.HttpRequest
+import org.springframework.http.client.ClientHttpRequestExecution
+import org.springframework.http.client.ClientHttpRequestInterceptor
+import org.springframework.http.client.ClientHttpResponse
+import org.springframework.web.context.request.RequestContextHolder
+import java.time.Duration
+import java.time.Instant
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Measures the calls to GitHub and keeps track of the rate limits returned in the
+ * `X-RateLimit-*` headers of the responses.
+ *
+ * When the remaining number of calls for a resource goes below [threshold], the next
+ * calls for this resource are delayed until the rate limit is reset, for at most [maxWait].
+ *
+ * Calls made while serving an HTTP request are never delayed, so that the request threads are not
+ * held: they go through while some calls remain and fail with a [GitHubRateLimitExceededException]
+ * once the rate limit is exhausted.
+ *
+ * @param configuration Name of the GitHub configuration, used to tag the metrics
+ * @param clock Current time, in epoch milliseconds
+ * @param sleep Waiting for a given number of milliseconds
+ * @param canWait Checks if the current thread can be delayed
+ */
+class GitHubRateLimitInterceptor(
+    private val configuration: String,
+    private val meterRegistry: MeterRegistry,
+    private val threshold: Int,
+    private val maxWait: Duration,
+    private val clock: () -> Long = System::currentTimeMillis,
+    private val sleep: (Long) -> Unit = Thread::sleep,
+    private val canWait: () -> Boolean = { RequestContextHolder.getRequestAttributes() == null },
+) : ClientHttpRequestInterceptor {
+
+    private val logger: Logger = LoggerFactory.getLogger(GitHubRateLimitInterceptor::class.java)
+
+    private val limits = ConcurrentHashMap<String, Limit>()
+
+    override fun intercept(
+        request: HttpRequest,
+        body: ByteArray,
+        execution: ClientHttpRequestExecution,
+    ): ClientHttpResponse {
+        val resource = resource(request)
+        throttle(resource)
+        val start = System.nanoTime()
+        var status = "error"
+        try {
+            val response = execution.execute(request, body)
+            status = response.rawStatusCode.toString()
+            update(response)
+            return response
+        } finally {
+            meterRegistry.timer(
+                METRIC_REQUEST,
+                listOf(
+                    Tag.of("configuration", configuration),
+                    Tag.of("resource", resource),
+                    Tag.of("method", request.methodValue),
+                    Tag.of("status", status),
+                )
+            ).record(System.nanoTime() - start, TimeUnit.NANOSECONDS)
+        }
+    }
+
+    private fun throttle(resource: String) {
+        val limit = limits[resource] ?: return
+        val remaining = limit.remaining.get()
+        if (remaining in 0 until threshold) {
+            val reset = limit.reset.get() * 1000
+            val wait = reset - clock()
+            if (wait > 0) {
+                if (canWait()) {
+                    val actualWait = wait.coerceAtMost(maxWait.toMillis())
+                    logger.warn("[github] $configuration rate limit for $resource is low ($remaining remaining), waiting $actualWait ms")
+                    sleep(actualWait)
+                } else if (remaining == 0L) {
+                    throw GitHubRateLimitExceededException(configuration, resource, Instant.ofEpochMilli(reset))
+                }
+            }
+        }
+    }
+
+    private fun update(response: ClientHttpResponse) {
+        val headers = response.headers
+        val resource = headers.getFirst(HEADER_RESOURCE) ?: return
+        val remaining = headers.getFirst(HEADER_REMAINING)?.toLongOrNull() ?: return
+        val reset = headers.getFirst(HEADER_RESET)?.toLongOrNull() ?: return
+        val limit = limits.computeIfAbsent(resource) {
+            Limit().apply {
+                meterRegistry.gauge(
+                    METRIC_REMAINING,
+                    listOf(Tag.of("configuration", configuration), Tag.of("resource", resource)),
+                    this.remaining
+                )
+            }
+        }
+        limit.remaining.set(remaining)
+        limit.reset.set(reset)
+    }
+
+    /**
+     * Guessing the rate limit resource before the call, like GitHub does
+     */
+    private fun resource(request: HttpRequest): String {
+        val path = request.uri.path
+        return when {
+            path.endsWith("/graphql") -> "graphql"
+            path.contains("/search/") -> "search"
+            else -> "core"
+        }
+    }
+
+    private class Limit {
+        /**
+         * Remaining calls, -1 if unknown
+         */
+        val remaining = AtomicLong(-1)
+
+        /**
+         * Reset time, in epoch seconds
+         */
+        val reset = AtomicLong(0)
+    }
+
+    companion object {
+        /**
+         * Duration of the calls to GitHub
+         */
+        const val METRIC_REQUEST = "ontrack_extension_github_request"
+
+        /**
+         * Remaining calls in the rate limit, as returned by the last response
+         */
+        const val METRIC_REMAINING = "ontrack_extension_github_request_ratelimit_remaining"
+
+        private const val HEADER_RESOURCE = "X-RateLimit-Resource"
+        private const val HEADER_REMAINING = "X-RateLimit-Remaining"
+        private const val HEADER_RESET = "X-RateLimit-Reset"
+    }
+}
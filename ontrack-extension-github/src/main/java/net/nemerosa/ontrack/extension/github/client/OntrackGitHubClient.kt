@@ -29,6 +29,16 @@ interface OntrackGitHubClient {
      */
     fun getIssue(repository: String, id: Int): GitHubIssue?
 
+    /**
+     * Gets several issues from a repository at once.
+     *
+     * @param repository Repository name, like `nemerosa/ontrack`
+     * @param ids        IDs of the issues
+     * @return Issues indexed by ID. IDs whose issue is not found are not in the map.
+     */
+    fun getIssues(repository: String, ids: Collection<Int>): Map<Int, GitHubIssue> =
+        ids.mapNotNull { id -> getIssue(repository, id)?.let { id to it } }.toMap()
+
     /**
      * Gets the list of organizations available from this client.
      */
@@ -253,6 +263,21 @@ interface OntrackGitHubClient {
         head: String,
     ): List<GitHubCommit>
 
+    /**
+     * Gets the commits after a base up to a head, only if the base is an ancestor of the head.
+     *
+     * @param repository Repository name, like `nemerosa/ontrack`
+     * @param base Base commit
+     * @param head Head commit
+     * @return List of commits or `null` if the base is not an ancestor of the head or if there are
+     * more commits than the compare API can return
+     */
+    fun getCommitsSince(
+        repository: String,
+        base: String,
+        head: String,
+    ): List<GitHubCommit>?
+
     /**
      * Launching a workflow run and getting its ID.
      *
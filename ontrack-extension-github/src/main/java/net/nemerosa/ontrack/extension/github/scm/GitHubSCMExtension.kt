@@ -242,6 +242,11 @@ class GitHubSCMExtension(
             }
         }
 
+        override suspend fun getCommitsSince(fromCommit: String, toCommit: String): List<SCMCommit>? =
+            client.getCommitsSince(repository, fromCommit, toCommit)?.map { commit ->
+                GitHubSCMCommit(commit)
+            }
+
         override fun findBuildByCommit(project: Project, id: String): Build? =
             propertyService.findByEntityTypeAndSearchArguments(
                 entityType = ProjectEntityType.BUILD,
@@ -24,11 +24,12 @@ class GitHubIssueServiceExtensionTest {
     private lateinit var extension: GitHubIssueServiceExtension
     private lateinit var configuration: IssueServiceConfiguration
     private lateinit var configurationService: GitHubConfigurationService
+    private lateinit var gitHubClientFactory: OntrackGitHubClientFactory
 
     @BeforeEach
     fun init() {
         configurationService = mockk<GitHubConfigurationService>()
-        val gitHubClientFactory = mockk<OntrackGitHubClientFactory>()
+        gitHubClientFactory = mockk<OntrackGitHubClientFactory>()
         val issueExportServiceFactory = mockk<IssueExportServiceFactory>()
         extension = GitHubIssueServiceExtension(
             GitHubExtensionFeature(GitExtensionFeature(SCMExtensionFeature(), StaleExtensionFeature())),
@@ -146,4 +147,28 @@ class GitHubIssueServiceExtensionTest {
         assertFalse(regex.containsMatchIn("Too many digits #6250"))
     }
 
+    @Test
+    fun `Issues returned for all the keys targeting them`() {
+        val issue = GitHubIssue(
+            id = 12,
+            url = "...",
+            summary = "...",
+            body = "...",
+            bodyHtml = "...",
+            assignee = null,
+            labels = emptyList(),
+            state = GitHubState.open,
+            milestone = null,
+            createdAt = Time.now(),
+            updateTime = Time.now(),
+            closedAt = null
+        )
+        every {
+            gitHubClientFactory.create(any()).getIssues("nemerosa/ontrack", setOf(12, 13))
+        } returns mapOf(12 to issue)
+
+        val issues = extension.getIssues(configuration, listOf("#12", "12", "#13"))
+        assertEquals(mapOf("#12" to issue, "12" to issue), issues)
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package net.nemerosa.ontrack.extension.github.client
+
+import com.github.benmanes.caffeine.cache.Caffeine
+import io.mockk.every
+import io.mockk.mockk
+import org.junit.Test
+import org.springframework.http.HttpHeaders
+import org.springframework.http.HttpMethod
+import org.springframework.http.HttpStatus
+import org.springframework.http.client.ClientHttpRequestExecution
+import org.springframework.http.client.ClientHttpResponse
+import org.springframework.mock.http.client.MockClientHttpRequest
+import org.springframework.mock.http.client.MockClientHttpResponse
+import java.net.URI
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+class GitHubConditionalRequestInterceptorTest {
+
+    private var notModified = 0
+
+    private val interceptor = GitHubConditionalRequestInterceptor(
+        cache = Caffeine.newBuilder().maximumSize(10).build(),
+    ) {
+        notModified++
+    }
+
+    @Test
+    fun `First call is not conditional and its response is cached`() {
+        val request = request()
+        val response = interceptor.intercept(request, ByteArray(0), execution(response(HttpStatus.OK, "v1", "\"e1\"")))
+        assertNull(request.headers.getFirst(HttpHeaders.IF_NONE_MATCH))
+        assertEquals("v1", response.body.reader().readText())
+    }
+
+    @Test
+    fun `Cached response is returned on not modified`() {
+        interceptor.intercept(request(), ByteArray(0), execution(response(HttpStatus.OK, "v1", "\"e1\"")))
+        val request = request()
+        val response = interceptor.intercept(request, ByteArray(0), execution(response(HttpStatus.NOT_MODIFIED, "", "\"e1\"")))
+        assertEquals("\"e1\"", request.headers.getFirst(HttpHeaders.IF_NONE_MATCH))
+        assertEquals(HttpStatus.OK.value(), response.rawStatusCode)
+        assertEquals("v1", response.body.reader().readText())
+        assertEquals(1, notModified)
+    }
+
+    @Test
+    fun `Cached response is replaced on modification`() {
+        interceptor.intercept(request(), ByteArray(0), execution(response(HttpStatus.OK, "v1", "\"e1\"")))
+        interceptor.intercept(request(), ByteArray(0), execution(response(HttpStatus.OK, "v2", "\"e2\"")))
+        val request = request()
+        val response = interceptor.intercept(request, ByteArray(0), execution(response(HttpStatus.NOT_MODIFIED, "", "\"e2\"")))
+        assertEquals("\"e2\"", request.headers.getFirst(HttpHeaders.IF_NONE_MATCH))
+        assertEquals("v2", response.body.reader().readText())
+    }
+
+    @Test
+    fun `Cache is separated per credentials`() {
+        interceptor.intercept(request("token-1"), ByteArray(0), execution(response(HttpStatus.OK, "v1", "\"e1\"")))
+        val request = request("token-2")
+        interceptor.intercept(request, ByteArray(0), execution(response(HttpStatus.OK, "v1", "\"e1\"")))
+        assertNull(request.headers.getFirst(HttpHeaders.IF_NONE_MATCH))
+    }
+
+    @Test
+    fun `POST requests are not conditional`() {
+        interceptor.intercept(
+            request(method = HttpMethod.POST),
+            ByteArray(0),
+            execution(response(HttpStatus.OK, "v1", "\"e1\""))
+        )
+        val request = request(method = HttpMethod.POST)
+        interceptor.intercept(request, ByteArray(0), execution(response(HttpStatus.OK, "v1", "\"e1\"")))
+        assertNull(request.headers.getFirst(HttpHeaders.IF_NONE_MATCH))
+    }
+
+    private fun request(token: String = "token", method: HttpMethod = HttpMethod.GET) =
+        MockClientHttpRequest(method, URI("https://api.github.com/repos/nemerosa/ontrack")).apply {
+            headers.setBearerAuth(token)
+        }
+
+    private fun response(status: HttpStatus, body: String, etag: String) =
+        MockClientHttpResponse(body.toByteArray(), status).apply {
+            headers.eTag = etag
+        }
+
+    private fun execution(response: ClientHttpResponse): ClientHttpRequestExecution = mockk {
+        every { execute(any(), any()) } returns response
+    }
+}
@@ -0,0 +1,76 @@
+package net.nemerosa.ontrack.extension.github.client
+
+import io.micrometer.core.instrument.Tag
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import net.nemerosa.ontrack.extension.github.GitHubConfigurationProperties
+import net.nemerosa.ontrack.extension.github.model.GitHubEngineConfiguration
+import org.junit.After
+import org.junit.Test
+import org.springframework.http.HttpHeaders
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNotSame
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+
+class GitHubHttpClientsTest {
+
+    private val meterRegistry = SimpleMeterRegistry()
+
+    private val clients = GitHubHttpClients(GitHubConfigurationProperties(), meterRegistry)
+
+    private val timeout = Duration.ofSeconds(10)
+
+    @After
+    fun after() {
+        clients.stop()
+    }
+
+    @Test
+    fun `Clients are shared per configuration`() {
+        val config = GitHubEngineConfiguration("test", "https://github.com")
+        val factory = clients.getRequestFactory(config, timeout)
+        assertSame(factory, clients.getRequestFactory(config, timeout))
+        assertNotSame(factory, clients.getRequestFactory(GitHubEngineConfiguration("other", "https://github.com"), timeout))
+    }
+
+    @Test
+    fun `Evicting the clients of a configuration`() {
+        val config = GitHubEngineConfiguration("test", "https://github.com")
+        val other = GitHubEngineConfiguration("test-other", "https://github.com")
+        val factory = clients.getRequestFactory(config, timeout)
+        val otherFactory = clients.getRequestFactory(other, timeout)
+        gauge("test")
+        gauge("test-other")
+
+        clients.evict("test")
+
+        assertNotSame(factory, clients.getRequestFactory(config, timeout))
+        assertSame(otherFactory, clients.getRequestFactory(other, timeout))
+        assertNull(findGauge("test"))
+        assertNotNull(findGauge("test-other"))
+    }
+
+    @Test
+    fun `Weight of the cached responses`() {
+        val response = GitHubConditionalRequestInterceptor.CachedResponse(
+            etag = "\"e1\"",
+            headers = HttpHeaders().apply { set("ETag", "\"e1\"") },
+            body = ByteArray(1000),
+        )
+        assertEquals(1000 + "ETag".length + "\"e1\"".length, response.weight)
+    }
+
+    private fun gauge(configuration: String) {
+        meterRegistry.gauge(
+            GitHubRateLimitInterceptor.METRIC_REMAINING,
+            listOf(Tag.of("configuration", configuration), Tag.of("resource", "core")),
+            AtomicLong(100)
+        )
+    }
+
+    private fun findGauge(configuration: String) =
+        meterRegistry.find(GitHubRateLimitInterceptor.METRIC_REMAINING).tag("configuration", configuration).gauge()
+}
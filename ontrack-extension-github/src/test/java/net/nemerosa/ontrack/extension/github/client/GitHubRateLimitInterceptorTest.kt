@@ -0,0 +1,136 @@
+package net.nemerosa.ontrack.extension.github.client
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.mockk.every
+import io.mockk.mockk
+import org.junit.Test
+import org.springframework.http.HttpMethod
+import org.springframework.http.HttpStatus
+import org.springframework.http.client.ClientHttpRequestExecution
+import org.springframework.mock.http.client.MockClientHttpRequest
+import org.springframework.mock.http.client.MockClientHttpResponse
+import java.net.URI
+import java.time.Duration
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertNotNull
+
+class GitHubRateLimitInterceptorTest {
+
+    private val now = 1_000_000_000L
+
+    private val meterRegistry = SimpleMeterRegistry()
+
+    private val waits = mutableListOf<Long>()
+
+    private fun interceptor(canWait: Boolean) = GitHubRateLimitInterceptor(
+        configuration = "test",
+        meterRegistry = meterRegistry,
+        threshold = 10,
+        maxWait = Duration.ofSeconds(30),
+        clock = { now },
+        sleep = { waits += it },
+        canWait = { canWait },
+    )
+
+    @Test
+    fun `Calls are not delayed above the threshold`() {
+        val interceptor = interceptor(canWait = true)
+        call(interceptor, remaining = 11, resetIn = 10)
+        call(interceptor, remaining = 11, resetIn = 10)
+        assertEquals(emptyList(), waits)
+    }
+
+    @Test
+    fun `Calls are delayed until the reset below the threshold`() {
+        val interceptor = interceptor(canWait = true)
+        call(interceptor, remaining = 5, resetIn = 10)
+        call(interceptor, remaining = 5, resetIn = 10)
+        assertEquals(listOf(10_000L), waits)
+    }
+
+    @Test
+    fun `Calls are delayed for at most the maximum wait`() {
+        val interceptor = interceptor(canWait = true)
+        call(interceptor, remaining = 0, resetIn = 600)
+        call(interceptor, remaining = 0, resetIn = 600)
+        assertEquals(listOf(30_000L), waits)
+    }
+
+    @Test
+    fun `Calls are not delayed once the reset time is passed`() {
+        val interceptor = interceptor(canWait = true)
+        call(interceptor, remaining = 0, resetIn = -1)
+        call(interceptor, remaining = 0, resetIn = -1)
+        assertEquals(emptyList(), waits)
+    }
+
+    @Test
+    fun `Calls which cannot wait are not delayed while some calls remain`() {
+        val interceptor = interceptor(canWait = false)
+        call(interceptor, remaining = 5, resetIn = 10)
+        call(interceptor, remaining = 5, resetIn = 10)
+        assertEquals(emptyList(), waits)
+    }
+
+    @Test
+    fun `Calls which cannot wait fail when the rate limit is exhausted`() {
+        val interceptor = interceptor(canWait = false)
+        call(interceptor, remaining = 0, resetIn = 10)
+        assertFailsWith<GitHubRateLimitExceededException> {
+            call(interceptor, remaining = 0, resetIn = 10)
+        }
+        assertEquals(emptyList(), waits)
+    }
+
+    @Test
+    fun `Rate limits are tracked per resource`() {
+        val interceptor = interceptor(canWait = true)
+        call(interceptor, remaining = 0, resetIn = 10, resource = "search", path = "/search/issues")
+        call(interceptor, remaining = 100, resetIn = 10)
+        assertEquals(emptyList(), waits)
+        assertEquals(
+            0.0,
+            meterRegistry.find(GitHubRateLimitInterceptor.METRIC_REMAINING).tag("resource", "search").gauge()?.value()
+        )
+        assertEquals(
+            100.0,
+            meterRegistry.find(GitHubRateLimitInterceptor.METRIC_REMAINING).tag("resource", "core").gauge()?.value()
+        )
+    }
+
+    @Test
+    fun `Calls are measured`() {
+        val interceptor = interceptor(canWait = true)
+        call(interceptor, remaining = 100, resetIn = 10)
+        assertNotNull(
+            meterRegistry.find(GitHubRateLimitInterceptor.METRIC_REQUEST)
+                .tags("configuration", "test", "resource", "core", "method", "GET", "status", "200")
+                .timer()
+        ) {
+            assertEquals(1, it.count())
+        }
+    }
+
+    private fun call(
+        interceptor: GitHubRateLimitInterceptor,
+        remaining: Int,
+        resetIn: Long,
+        resource: String = "core",
+        path: String = "/repos/nemerosa/ontrack",
+    ) {
+        val response = MockClientHttpResponse(ByteArray(0), HttpStatus.OK).apply {
+            headers.set("X-RateLimit-Resource", resource)
+            headers.set("X-RateLimit-Remaining", remaining.toString())
+            headers.set("X-RateLimit-Reset", (now / 1000 + resetIn).toString())
+        }
+        val execution = mockk<ClientHttpRequestExecution> {
+            every { execute(any(), any()) } returns response
+        }
+        interceptor.intercept(
+            MockClientHttpRequest(HttpMethod.GET, URI("https://api.github.com$path")),
+            ByteArray(0),
+            execution
+        )
+    }
+}
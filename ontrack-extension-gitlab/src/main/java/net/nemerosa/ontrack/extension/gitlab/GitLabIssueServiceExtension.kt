@@ -101,6 +101,20 @@ class GitLabIssueServiceExtension(
         )
     }
 
+    override fun getIssues(
+        issueServiceConfiguration: IssueServiceConfiguration,
+        issueKeys: Collection<String>,
+    ): Map<String, Issue> {
+        val configuration = issueServiceConfiguration as GitLabIssueServiceConfiguration
+        val client = gitLabClientFactory.create(configuration.configuration)
+        // Several keys (like #12 and 12) may target the same issue
+        val ids = issueKeys.groupBy { getIssueId(it) }
+        val issues = client.getIssues(configuration.repository, ids.keys)
+        return ids.flatMap { (id, keys) ->
+            issues[id]?.let { issue -> keys.map { key -> key to issue } } ?: emptyList()
+        }.toMap()
+    }
+
     override fun getIssueId(issueServiceConfiguration: IssueServiceConfiguration, token: String): String? {
         return if (StringUtils.isNumeric(token) || validIssueToken(token)) {
             getIssueId(token).toString()
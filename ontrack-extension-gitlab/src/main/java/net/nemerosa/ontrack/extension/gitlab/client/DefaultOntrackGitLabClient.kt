@@ -4,6 +4,8 @@ import net.nemerosa.ontrack.extension.git.model.GitPullRequest
 import net.nemerosa.ontrack.extension.gitlab.model.GitLabConfiguration
 import net.nemerosa.ontrack.extension.gitlab.model.GitLabIssueWrapper
 import org.gitlab4j.api.GitLabApi
+import org.gitlab4j.api.models.Issue
+import org.gitlab4j.api.models.IssueFilter
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 import java.io.FileNotFoundException
@@ -36,18 +38,34 @@ class DefaultOntrackGitLabClient(
     override fun getIssue(repository: String, id: Int): GitLabIssueWrapper {
         return try {
             val issue = api.issuesApi.getIssue(repository, id.toLong())
-            // Milestone URL
-            var milestoneUrl: String? = null
-            if (issue.milestone != null) {
-                milestoneUrl = "${configuration.url}/projects/${repository}/milestones/${issue.milestone?.id}"
+            toIssueWrapper(repository, issue)
+        } catch (e: Exception) {
+            throw OntrackGitLabClientException(e)
+        }
+    }
+
+    override fun getIssues(repository: String, ids: Collection<Int>): Map<Int, GitLabIssueWrapper> {
+        return try {
+            ids.distinct().chunked(ISSUES_BATCH_SIZE).flatMap { batch ->
+                api.issuesApi.getIssues(repository, IssueFilter().withIids(batch.map { it.toLong() }))
+            }.associate { issue ->
+                issue.iid.toInt() to toIssueWrapper(repository, issue)
             }
-            // OK
-            GitLabIssueWrapper(issue, milestoneUrl)
         } catch (e: Exception) {
             throw OntrackGitLabClientException(e)
         }
     }
 
+    private fun toIssueWrapper(repository: String, issue: Issue): GitLabIssueWrapper {
+        // Milestone URL
+        var milestoneUrl: String? = null
+        if (issue.milestone != null) {
+            milestoneUrl = "${configuration.url}/projects/${repository}/milestones/${issue.milestone?.id}"
+        }
+        // OK
+        return GitLabIssueWrapper(issue, milestoneUrl)
+    }
+
     override fun getPullRequest(repository: String, id: Int): GitPullRequest? {
         return try {
             try {
@@ -69,4 +87,11 @@ class DefaultOntrackGitLabClient(
         }
     }
 
-}
\ No newline at end of file
+    companion object {
+        /**
+         * Maximum number of issues per call
+         */
+        private const val ISSUES_BATCH_SIZE = 50
+    }
+
+}
@@ -5,7 +5,9 @@ import net.nemerosa.ontrack.extension.gitlab.model.GitLabIssueWrapper;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Client used to connect to a GitLab instance from Ontrack.
@@ -26,6 +28,15 @@ public interface OntrackGitLabClient {
      */
     GitLabIssueWrapper getIssue(String repository, int id);
 
+    /**
+     * Gets several issues from a repository at once.
+     *
+     * @param repository Repository name, like <code>nemerosa/ontrack</code>
+     * @param ids        IDs of the issues
+     * @return Details about the issues, indexed by ID. IDs whose issue is not found are not in the map.
+     */
+    Map<Integer, GitLabIssueWrapper> getIssues(String repository, Collection<Integer> ids);
+
     /**
      * Gets a pull request using its ID
      *
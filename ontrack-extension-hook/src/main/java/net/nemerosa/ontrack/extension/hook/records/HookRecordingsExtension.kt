@@ -30,6 +30,8 @@ class HookRecordingsExtension(
 
     override fun fromJson(data: JsonNode): HookRecord = data.parse()
 
+    override fun getState(recording: HookRecord): String = recording.state.name
+
     override fun filterQuery(filter: HookRecordQueryFilter, queryVariables: MutableMap<String, Any?>): List<String> {
         val queries = mutableListOf<String>()
 
@@ -44,7 +46,7 @@ class HookRecordingsExtension(
         }
 
         if (filter.state != null) {
-            queries += "data::jsonb->'data'->>'state' = :state"
+            queries += "STATE = :state"
             queryVariables["state"] = filter.state.name
         }
 
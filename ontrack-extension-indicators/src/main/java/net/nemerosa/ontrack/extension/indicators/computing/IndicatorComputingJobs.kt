@@ -3,12 +3,12 @@ package net.nemerosa.ontrack.extension.indicators.computing
 import io.micrometer.core.instrument.MeterRegistry
 import net.nemerosa.ontrack.extension.indicators.computing.IndicatorComputingMetrics.METRIC_ONTRACK_INDICATORS_COMPUTING_MS
 import net.nemerosa.ontrack.job.*
-import net.nemerosa.ontrack.job.orchestrator.JobOrchestratorSupplier
 import net.nemerosa.ontrack.model.structure.NameDescription
 import net.nemerosa.ontrack.model.structure.Project
 import net.nemerosa.ontrack.model.structure.StructureService
 import net.nemerosa.ontrack.model.support.ApplicationLogEntry
 import net.nemerosa.ontrack.model.support.ApplicationLogService
+import net.nemerosa.ontrack.model.support.ProjectJobOrchestratorSupplier
 import net.nemerosa.ontrack.model.support.time
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
@@ -22,7 +22,7 @@ class IndicatorComputingJobs(
         private val indicatorComputingService: IndicatorComputingService,
         private val meterRegistry: MeterRegistry,
         private val applicationLogService: ApplicationLogService,
-) : JobOrchestratorSupplier {
+) : ProjectJobOrchestratorSupplier {
 
     private val logger: Logger = LoggerFactory.getLogger(IndicatorComputingJobs::class.java)
 
@@ -36,31 +36,42 @@ class IndicatorComputingJobs(
             }
         }
 
+    override fun getJobRegistrations(project: Project): Collection<JobRegistration> =
+            computers
+                    .filter { computer -> computer.perProject && computer.isProjectEligible(project) }
+                    .map { computer -> createJobRegistration(computer, project) }
+
+    override fun isProjectJob(key: JobKey, project: Project): Boolean =
+            computers.any { computer ->
+                computer.perProject && key == getJobType(computer).getKey(project.id.toString())
+            }
+
     private fun createJobRegistrations(computer: IndicatorComputer, projects: List<Project>): List<JobRegistration> {
         return if (computer.perProject) {
             projects
                     .filter { computer.isProjectEligible(it) }
-                    .map { project ->
-                        JobRegistration(
-                                job = createJob(computer, project),
-                                schedule = computer.schedule
-                        )
-                    }
+                    .map { project -> createJobRegistration(computer, project) }
         } else {
             listOf(
                     JobRegistration(
-                            job = createJob(computer, projects),
+                            job = createJob(computer),
                             schedule = computer.schedule
                     )
             )
         }
     }
 
+    private fun createJobRegistration(computer: IndicatorComputer, project: Project) =
+            JobRegistration(
+                    job = createJob(computer, project),
+                    schedule = computer.schedule
+            )
+
     private fun createJob(computer: IndicatorComputer, project: Project) = object : Job {
 
         override fun isDisabled(): Boolean = project.isDisabled
 
-        override fun getKey(): JobKey = getJobType(computer).getKey(project.name)
+        override fun getKey(): JobKey = getJobType(computer).getKey(project.id.toString())
 
         override fun getDescription(): String =
                 "Computing indicator values by ${computer.name} for project ${project.name}"
@@ -70,7 +81,7 @@ class IndicatorComputingJobs(
         }
     }
 
-    private fun createJob(computer: IndicatorComputer, projects: List<Project>) = object : Job {
+    private fun createJob(computer: IndicatorComputer) = object : Job {
 
         override fun isDisabled(): Boolean = false
 
@@ -80,7 +91,8 @@ class IndicatorComputingJobs(
                 "Computing indicator values by ${computer.name} for all projects"
 
         override fun getTask() = JobRun {
-            projects
+            // Projects are collected at each run since this job is not rescheduled when they change
+            structureService.projectList
                     .filter {
                         !it.isDisabled && computer.isProjectEligible(it)
                     }
@@ -5,6 +5,7 @@ import io.micrometer.core.instrument.MeterRegistry
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry
 import net.nemerosa.ontrack.job.JobRunListener
 import net.nemerosa.ontrack.job.Schedule
+import net.nemerosa.ontrack.model.structure.ID
 import net.nemerosa.ontrack.model.structure.NameDescription.Companion.nd
 import net.nemerosa.ontrack.model.structure.Project
 import net.nemerosa.ontrack.model.structure.StructureService
@@ -43,7 +44,7 @@ class IndicatorComputingJobsTest {
     @Test
     fun `Computer job per project`() {
         val projects = (1..2).map {
-            Project.of(nd("P$it", ""))
+            Project.of(nd("P$it", "")).withId(ID.of(it))
         }
         val project = projects.first()
 
@@ -65,7 +66,7 @@ class IndicatorComputingJobsTest {
         assertFalse(job.isDisabled)
         assertEquals(IndicatorComputingJobs.CATEGORY.key, job.key.type.category.key)
         assertEquals(indicatorComputer.id, job.key.type.key)
-        assertEquals(project.name, job.key.id)
+        assertEquals(project.id.toString(), job.key.id)
         assertTrue(job.description.contains("Computer name"))
         assertTrue(job.description.contains(project.name))
 
@@ -80,7 +81,7 @@ class IndicatorComputingJobsTest {
     @Test
     fun `Computer job per project with one not eligible`() {
         val projects = (1..2).map {
-            Project.of(nd("P$it", ""))
+            Project.of(nd("P$it", "")).withId(ID.of(it))
         }
 
         whenever(structureService.projectList).thenReturn(projects)
@@ -101,13 +102,28 @@ class IndicatorComputingJobsTest {
         val jobRegistration = jobs.first()
         assertEquals(Schedule.EVERY_DAY, jobRegistration.schedule)
         val job = jobRegistration.job
-        assertEquals(projects[0].name, job.key.id)
+        assertEquals(projects[0].id.toString(), job.key.id)
+    }
+
+    @Test
+    fun `Computer job per project kept when the project is renamed`() {
+        val project = Project.of(nd("P1", "")).withId(ID.of(1))
+        val renamed = project.copy(name = "P2")
+
+        whenever(indicatorComputer.perProject).thenReturn(true)
+        whenever(indicatorComputer.schedule).thenReturn(Schedule.EVERY_DAY)
+        whenever(indicatorComputer.name).thenReturn("Computer name")
+        whenever(indicatorComputer.isProjectEligible(any())).thenReturn(true)
+
+        val job = computingJobs.getJobRegistrations(project).single().job
+        assertEquals(job.key, computingJobs.getJobRegistrations(renamed).single().job.key)
+        assertTrue(computingJobs.isProjectJob(job.key, renamed))
     }
 
     @Test
     fun `Computer job for all projects`() {
         val projects = (1..2).map {
-            Project.of(nd("P$it", ""))
+            Project.of(nd("P$it", "")).withId(ID.of(it))
         }
 
         whenever(structureService.projectList).thenReturn(projects)
@@ -145,7 +161,7 @@ class IndicatorComputingJobsTest {
     @Test
     fun `Computer job for all projects with one being not eligible`() {
         val projects = (1..2).map {
-            Project.of(nd("P$it", ""))
+            Project.of(nd("P$it", "")).withId(ID.of(it))
         }
 
         whenever(structureService.projectList).thenReturn(projects)
@@ -191,7 +207,7 @@ class IndicatorComputingJobsTest {
     @Test
     fun `Computer job for all projects with one being disabled`() {
         val projects = (1..2).map {
-            Project.of(nd("P$it", ""))
+            Project.of(nd("P$it", "")).withId(ID.of(it))
                     .withDisabled(it == 2)
         }
 
@@ -235,7 +251,7 @@ class IndicatorComputingJobsTest {
     @Test
     fun `Computer job per  disabled project`() {
         val projects = (1..2).map {
-            Project.of(nd("P$it", ""))
+            Project.of(nd("P$it", "")).withId(ID.of(it))
                     .withDisabled(it == 1)
         }
         val project = projects.first()
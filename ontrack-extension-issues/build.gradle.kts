@@ -13,6 +13,7 @@ dependencies {
     implementation("org.apache.commons:commons-lang3")
     implementation("org.apache.commons:commons-text")
     implementation("org.slf4j:slf4j-api")
+    implementation("com.github.ben-manes.caffeine:caffeine")
 
     testImplementation(project(":ontrack-test-utils"))
     testImplementation(project(":ontrack-it-utils"))
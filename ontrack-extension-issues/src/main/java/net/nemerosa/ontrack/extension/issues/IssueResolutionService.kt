@@ -0,0 +1,24 @@
+package net.nemerosa.ontrack.extension.issues
+
+import net.nemerosa.ontrack.extension.issues.model.ConfiguredIssueService
+import net.nemerosa.ontrack.extension.issues.model.Issue
+
+/**
+ * Gets several issues at once from an issue service, using a cache shared by all the
+ * components needing the issues (change logs, templates, etc.).
+ */
+interface IssueResolutionService {
+
+    /**
+     * Gets the issues for a list of keys.
+     *
+     * The issues are fetched in one go when the [issue service][IssueServiceExtension.getIssues]
+     * supports it, or concurrently otherwise.
+     *
+     * @param configuredIssueService Issue service to use
+     * @param keys Keys of the issues to get
+     * @return Issues indexed by their key. Keys whose issue is not found are not in the map.
+     */
+    fun getIssues(configuredIssueService: ConfiguredIssueService, keys: Collection<String>): Map<String, Issue>
+
+}
@@ -10,7 +10,9 @@ import net.nemerosa.ontrack.model.support.MessageAnnotator;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -69,6 +71,23 @@ public interface IssueServiceExtension extends Extension {
     @Nullable
     Issue getIssue(IssueServiceConfiguration issueServiceConfiguration, String issueKey);
 
+    /**
+     * Given several keys, tries to find the issues with these keys in as few calls as possible.
+     * <p>
+     * By default, returns <code>null</code>, meaning that this service cannot get several issues
+     * at once and that the issues must be fetched one by one using {@link #getIssue(IssueServiceConfiguration, String)}.
+     *
+     * @param issueServiceConfiguration Configuration for the service
+     * @param issueKeys                 Issue keys
+     * @return Issues indexed by their key (keys whose issue is not found are not in the map),
+     * or <code>null</code> if not supported
+     * @see net.nemerosa.ontrack.extension.issues.IssueResolutionService
+     */
+    @Nullable
+    default Map<String, Issue> getIssues(IssueServiceConfiguration issueServiceConfiguration, Collection<String> issueKeys) {
+        return null;
+    }
+
     /**
      * List of supported export formats for the issues.
      *
@@ -0,0 +1,28 @@
+package net.nemerosa.ontrack.extension.issues
+
+import net.nemerosa.ontrack.model.annotations.APIDescription
+import net.nemerosa.ontrack.model.annotations.APIName
+import org.springframework.boot.context.properties.ConfigurationProperties
+import org.springframework.stereotype.Component
+import java.time.Duration
+
+@Component
+@ConfigurationProperties(prefix = "ontrack.extension.issues")
+@APIName("Issues configuration")
+@APIDescription("Configuration of the access to the issue services")
+class IssuesConfigProperties {
+
+    var cache = Cache()
+
+    @APIDescription("Maximum number of concurrent calls to an issue service which cannot get several issues at once")
+    var concurrency: Int = 8
+
+    class Cache {
+        @APIDescription("Time an issue is kept in the cache")
+        var ttl: Duration = Duration.ofMinutes(10)
+
+        @APIDescription("Maximum number of issues kept in the cache. Set to 0 to disable the cache.")
+        var maxSize: Long = 10000
+    }
+
+}
@@ -0,0 +1,97 @@
+package net.nemerosa.ontrack.extension.issues.support
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import net.nemerosa.ontrack.extension.issues.IssueResolutionService
+import net.nemerosa.ontrack.extension.issues.IssuesConfigProperties
+import net.nemerosa.ontrack.extension.issues.model.ConfiguredIssueService
+import net.nemerosa.ontrack.extension.issues.model.Issue
+import org.apache.commons.lang3.concurrent.BasicThreadFactory
+import org.springframework.stereotype.Service
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import javax.annotation.PreDestroy
+
+@Service
+class IssueResolutionServiceImpl(
+    issuesConfigProperties: IssuesConfigProperties,
+) : IssueResolutionService {
+
+    /**
+     * Issues per service, configuration & key. Issues which are not found are cached as well.
+     */
+    private val cache: Cache<IssueCacheKey, CachedIssue>? =
+        issuesConfigProperties.cache.maxSize.takeIf { it > 0 }?.let { maxSize ->
+            Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(issuesConfigProperties.cache.ttl)
+                .build()
+        }
+
+    /**
+     * Pool used to get the issues one by one
+     */
+    private val executor: ExecutorService = Executors.newFixedThreadPool(
+        issuesConfigProperties.concurrency,
+        BasicThreadFactory.Builder()
+            .daemon(true)
+            .namingPattern("issues-%s")
+            .build()
+    )
+
+    @PreDestroy
+    fun stop() {
+        executor.shutdownNow()
+    }
+
+    override fun getIssues(configuredIssueService: ConfiguredIssueService, keys: Collection<String>): Map<String, Issue> {
+        val extension = configuredIssueService.issueServiceExtension
+        val configuration = configuredIssueService.issueServiceConfiguration
+        val cacheKeys = keys.distinct().associateWith { key ->
+            IssueCacheKey(configuration.serviceId, configuration.name, key)
+        }
+        // Issues already in the cache
+        val cached = cache?.getAllPresent(cacheKeys.values) ?: emptyMap()
+        val missing = cacheKeys.filterValues { it !in cached }.keys
+        // Getting the missing issues
+        val fetched: Map<String, Issue> = if (missing.isNotEmpty()) {
+            (extension.getIssues(configuration, missing) ?: getIssuesConcurrently(configuredIssueService, missing))
+                .also { issues ->
+                    missing.forEach { key ->
+                        cache?.put(cacheKeys.getValue(key), CachedIssue(issues[key]))
+                    }
+                }
+        } else {
+            emptyMap()
+        }
+        // OK
+        return cacheKeys.mapNotNull { (key, cacheKey) ->
+            (fetched[key] ?: cached[cacheKey]?.issue)?.let { key to it }
+        }.toMap()
+    }
+
+    private fun getIssuesConcurrently(
+        configuredIssueService: ConfiguredIssueService,
+        keys: Collection<String>,
+    ): Map<String, Issue> =
+        keys.map { key ->
+            key to executor.submit<Issue?> { configuredIssueService.getIssue(key) }
+        }.mapNotNull { (key, future) ->
+            try {
+                future.get()?.let { key to it }
+            } catch (ex: ExecutionException) {
+                throw ex.cause ?: ex
+            }
+        }.toMap()
+
+    private data class IssueCacheKey(
+        val serviceId: String,
+        val configuration: String,
+        val key: String,
+    )
+
+    private class CachedIssue(
+        val issue: Issue?,
+    )
+}
@@ -0,0 +1,92 @@
+package net.nemerosa.ontrack.extension.issues.support
+
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import net.nemerosa.ontrack.extension.issues.IssueServiceExtension
+import net.nemerosa.ontrack.extension.issues.IssuesConfigProperties
+import net.nemerosa.ontrack.extension.issues.model.ConfiguredIssueService
+import net.nemerosa.ontrack.extension.issues.model.Issue
+import net.nemerosa.ontrack.extension.issues.model.IssueServiceConfiguration
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+
+class IssueResolutionServiceImplTest {
+
+    private lateinit var extension: IssueServiceExtension
+    private lateinit var configuration: IssueServiceConfiguration
+    private lateinit var service: IssueResolutionServiceImpl
+
+    private val issue1: Issue = mockk()
+    private val issue2: Issue = mockk()
+
+    @BeforeEach
+    fun before() {
+        extension = mockk()
+        configuration = mockk {
+            every { serviceId } returns "test"
+            every { name } returns "default"
+        }
+        service = IssueResolutionServiceImpl(IssuesConfigProperties())
+    }
+
+    @AfterEach
+    fun after() {
+        service.stop()
+    }
+
+    @Test
+    fun `Issues are got in one batch when supported`() {
+        every { extension.getIssues(configuration, any()) } returns mapOf("1" to issue1, "2" to issue2)
+        val issues = service.getIssues(ConfiguredIssueService(extension, configuration), listOf("1", "2", "3"))
+        assertEquals(mapOf("1" to issue1, "2" to issue2), issues)
+        verify(exactly = 0) { extension.getIssue(any(), any()) }
+    }
+
+    @Test
+    fun `Issues are got one by one when batch not supported`() {
+        every { extension.getIssues(configuration, any()) } returns null
+        every { extension.getIssue(configuration, "1") } returns issue1
+        every { extension.getIssue(configuration, "2") } returns issue2
+        every { extension.getIssue(configuration, "3") } returns null
+        val issues = service.getIssues(ConfiguredIssueService(extension, configuration), listOf("1", "2", "3"))
+        assertEquals(mapOf("1" to issue1, "2" to issue2), issues)
+    }
+
+    @Test
+    fun `Issues and missing issues are cached`() {
+        every { extension.getIssues(configuration, any()) } returns mapOf("1" to issue1)
+        val configuredIssueService = ConfiguredIssueService(extension, configuration)
+        service.getIssues(configuredIssueService, listOf("1", "2"))
+        val issues = service.getIssues(configuredIssueService, listOf("1", "2"))
+        assertEquals(mapOf("1" to issue1), issues)
+        verify(exactly = 1) { extension.getIssues(configuration, any()) }
+    }
+
+    @Test
+    fun `Only the missing issues are got`() {
+        every { extension.getIssues(configuration, setOf("1")) } returns mapOf("1" to issue1)
+        every { extension.getIssues(configuration, setOf("2")) } returns mapOf("2" to issue2)
+        val configuredIssueService = ConfiguredIssueService(extension, configuration)
+        service.getIssues(configuredIssueService, listOf("1"))
+        val issues = service.getIssues(configuredIssueService, listOf("1", "2"))
+        assertEquals(mapOf("1" to issue1, "2" to issue2), issues)
+        verify(exactly = 1) { extension.getIssues(configuration, setOf("2")) }
+    }
+
+    @Test
+    fun `No cache`() {
+        every { extension.getIssues(configuration, any()) } returns mapOf("1" to issue1)
+        val noCacheService = IssueResolutionServiceImpl(IssuesConfigProperties().apply { cache.maxSize = 0 })
+        try {
+            val configuredIssueService = ConfiguredIssueService(extension, configuration)
+            noCacheService.getIssues(configuredIssueService, listOf("1"))
+            noCacheService.getIssues(configuredIssueService, listOf("1"))
+            verify(exactly = 2) { extension.getIssues(configuration, any()) }
+        } finally {
+            noCacheService.stop()
+        }
+    }
+}
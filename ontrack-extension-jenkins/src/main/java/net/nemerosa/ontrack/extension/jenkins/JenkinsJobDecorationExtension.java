@@ -58,6 +58,14 @@ public class JenkinsJobDecorationExtension extends AbstractExtension implements
         }
     }
 
+    /**
+     * The state of the job is fetched from Jenkins.
+     */
+    @Override
+    public boolean isRemote() {
+        return true;
+    }
+
     private Decoration<JenkinsJob> getDecoration(JenkinsJob job) {
         return Decoration.of(this, job);
     }
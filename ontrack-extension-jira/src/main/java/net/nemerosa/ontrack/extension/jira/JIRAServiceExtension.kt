@@ -64,6 +64,17 @@ class JIRAServiceExtension(
         return getIssue(issueServiceConfiguration as JIRAConfiguration, issueKey)
     }
 
+    override fun getIssues(
+        issueServiceConfiguration: IssueServiceConfiguration,
+        issueKeys: Collection<String>,
+    ): Map<String, Issue> {
+        val configuration = issueServiceConfiguration as JIRAConfiguration
+        transactionService.start().use { tx ->
+            val session = getJIRASession(tx, configuration)
+            return session.client.getIssues(issueKeys, configuration)
+        }
+    }
+
     override fun getIssueTypes(issueServiceConfiguration: IssueServiceConfiguration, issue: Issue): Set<String> {
         val jiraIssue = issue as JIRAIssue
         return setOf(jiraIssue.issueType)
@@ -10,6 +10,16 @@ interface JIRAClient : AutoCloseable {
 
     fun getIssue(key: String, configuration: JIRAConfiguration): JIRAIssue?
 
+    /**
+     * Gets several issues at once.
+     *
+     * @param keys Keys of the issues to get
+     * @param configuration JIRA configuration
+     * @return Issues indexed by key. Keys whose issue is not found are not in the map.
+     */
+    fun getIssues(keys: Collection<String>, configuration: JIRAConfiguration): Map<String, JIRAIssue> =
+        keys.mapNotNull { key -> getIssue(key, configuration)?.let { key to it } }.toMap()
+
     val projects: List<String>
 
     fun createIssue(
@@ -1,6 +1,7 @@
 package net.nemerosa.ontrack.extension.jira.client
 
 import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.node.ObjectNode
 import net.nemerosa.ontrack.extension.jira.JIRAConfiguration
 import net.nemerosa.ontrack.extension.jira.model.*
 import net.nemerosa.ontrack.extension.jira.notifications.JiraCustomField
@@ -49,6 +50,75 @@ class JIRAClientImpl(
 
     }
 
+    override fun getIssues(keys: Collection<String>, configuration: JIRAConfiguration): Map<String, JIRAIssue> {
+        val result = mutableMapOf<String, JIRAIssue>()
+        // Issues already loaded
+        val missing = keys.filter { key ->
+            val issue = issues[configuration.url to key]
+            if (issue != null) {
+                result[key] = issue
+                false
+            } else {
+                true
+            }
+        }
+        // Loading the other ones by batches
+        missing.chunked(SEARCH_BATCH_SIZE).forEach { batch ->
+            val found = searchIssues(batch, configuration).associateBy { it.key }
+            batch.forEach { key ->
+                // Moved or renamed issues are returned under their new key and are loaded one by one
+                val issue = found[key] ?: getIssue(key, configuration)
+                if (issue != null) {
+                    issues[configuration.url to key] = issue
+                    result[key] = issue
+                }
+            }
+        }
+        return result
+    }
+
+    /**
+     * Searches for the issues having some keys, following the pages of the results.
+     *
+     * Keys which do not exist or cannot be accessed are ignored.
+     */
+    private fun searchIssues(keys: List<String>, configuration: JIRAConfiguration): List<JIRAIssue> {
+        val result = mutableListOf<JIRAIssue>()
+        var startAt = 0
+        do {
+            val node = try {
+                restTemplate.postForObject(
+                    "/rest/api/2/search",
+                    mapOf(
+                        "jql" to "key in (${keys.joinToString(",")})",
+                        "startAt" to startAt,
+                        "maxResults" to SEARCH_BATCH_SIZE,
+                        "fields" to listOf("*all"),
+                        "expand" to listOf("names"),
+                        // Unknown keys must not fail the whole search
+                        "validateQuery" to false,
+                    ),
+                    JsonNode::class.java
+                )
+            } catch (ex: Forbidden) {
+                null
+            } catch (ex: NotFound) {
+                null
+            } ?: break
+            // Field names are returned once for all the issues
+            val names = node.path("names")
+            val pageIssues = node.path("issues")
+            pageIssues.forEach { issueNode ->
+                if (issueNode is ObjectNode) {
+                    issueNode.set<JsonNode>("names", names)
+                }
+                result += toIssue(configuration, issueNode)
+            }
+            startAt += pageIssues.size()
+        } while (pageIssues.size() > 0 && startAt < node.path("total").asInt())
+        return result
+    }
+
     override fun searchIssueStubs(jiraConfiguration: JIRAConfiguration, jql: String): List<JIRAIssueStub> =
         try {
             val node = restTemplate.getForObject<JsonNode>("/rest/api/2/search?jql=$jql")
@@ -157,6 +227,11 @@ class JIRAClientImpl(
 
     companion object {
 
+        /**
+         * Maximum number of issues per search
+         */
+        private const val SEARCH_BATCH_SIZE = 50
+
         private val JIRA_DATA_TIME: DateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ")
 
         @JvmStatic
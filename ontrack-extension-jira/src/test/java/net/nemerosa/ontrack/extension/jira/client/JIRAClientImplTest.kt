@@ -193,4 +193,40 @@ class JIRAClientImplTest {
         assertNull(client.getIssue("XXX-1", config))
     }
 
+    @Test
+    fun `Issues returned under their requested keys`() {
+        val template = mockk<RestTemplate>()
+        val client = JIRAClientImpl(template)
+        val config = JIRAFixtures.jiraConfiguration()
+        val mapper = ObjectMapper()
+        val issue = mapper.readTree(this::class.java.getResource("/issue.json"))
+
+        // Search returns the issue under its current key only
+        every {
+            template.postForObject("/rest/api/2/search", any(), JsonNode::class.java)
+        } returns mapper.createObjectNode().apply {
+            set<JsonNode>("names", issue.path("names"))
+            putArray("issues").add(issue.deepCopy())
+            put("total", 1)
+        }
+        // Moved issue
+        every {
+            template.getForObject<JsonNode>("/rest/api/2/issue/OLD-1?expand=names")
+        } returns issue
+        // Unknown issue
+        every {
+            template.getForObject<JsonNode>("/rest/api/2/issue/XXX-1?expand=names")
+        } throws HttpClientErrorException.create(
+            HttpStatus.NOT_FOUND,
+            "Not found",
+            HttpHeaders(),
+            ByteArray(0),
+            null
+        )
+
+        val issues = client.getIssues(listOf("PRJ-136", "OLD-1", "XXX-1"), config)
+        assertEquals(setOf("PRJ-136", "OLD-1"), issues.keys)
+        assertEquals("PRJ-136", issues["OLD-1"]?.key)
+    }
+
 }
@@ -4,6 +4,7 @@ import net.nemerosa.ontrack.model.annotations.APIDescription
 import net.nemerosa.ontrack.model.annotations.APIName
 import org.springframework.boot.context.properties.ConfigurationProperties
 import org.springframework.stereotype.Component
+import java.time.Duration
 
 @Component
 @ConfigurationProperties(prefix = NotificationsConfigProperties.PREFIX)
@@ -34,6 +35,19 @@ class NotificationsConfigProperties {
      */
     var mail = MailProperties()
 
+    /**
+     * Subscriptions configuration
+     */
+    var subscriptions = SubscriptionsProperties()
+
+    /**
+     * Subscriptions configuration properties
+     */
+    class SubscriptionsProperties {
+        @APIDescription("Maximum age of the in-memory index of the subscriptions before it's reloaded, in case an invalidation from another node has been lost")
+        var indexMaxAge: Duration = Duration.ofMinutes(10)
+    }
+
     /**
      * Mail configuration properties
      */
@@ -50,6 +64,43 @@ class NotificationsConfigProperties {
          * Internal webhoook
          */
         var internal = WebhookInternalEndpointProperties()
+
+        /**
+         * Delivery of the payloads
+         */
+        var delivery = WebhookDeliveryProperties()
+    }
+
+    /**
+     * Delivery of the webhook payloads
+     */
+    class WebhookDeliveryProperties {
+        @APIDescription("Are the payloads delivered asynchronously? If not, the notification waits for the delivery to be completed.")
+        var async = true
+
+        @APIDescription("Using HTTP/2 for the deliveries, with a fallback on HTTP/1.1 when not supported by the webhook. HTTP/1.1 is used by default.")
+        var http2 = false
+
+        @APIDescription("Maximum number of concurrent deliveries per webhook")
+        var concurrency = 10
+
+        @APIDescription("Maximum number of deliveries waiting for a webhook before new ones are rejected")
+        var maxPending = 1000
+
+        @APIDescription("Maximum number of waiting payloads sent together (as a JSON array) to a webhook. 1 to disable the batching.")
+        var batchSize = 1
+
+        @APIDescription("Number of retries when a delivery fails or returns a server error")
+        var retries = 2
+
+        @APIDescription("Delay before the first retry, doubled for each subsequent retry")
+        var retryDelay: Duration = Duration.ofSeconds(1)
+
+        @APIDescription("Number of consecutive failures after which the deliveries to a webhook are suspended")
+        var circuitBreakerThreshold = 5
+
+        @APIDescription("Duration of the suspension of the deliveries to a failing webhook")
+        var circuitBreakerDuration: Duration = Duration.ofMinutes(1)
     }
 
     /**
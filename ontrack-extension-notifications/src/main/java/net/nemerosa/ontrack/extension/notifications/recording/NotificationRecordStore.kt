@@ -0,0 +1,24 @@
+package net.nemerosa.ontrack.extension.notifications.recording
+
+import net.nemerosa.ontrack.model.pagination.PaginatedList
+import java.time.LocalDateTime
+
+/**
+ * Storage of the notification records.
+ */
+interface NotificationRecordStore {
+
+    fun save(record: NotificationRecord)
+
+    fun findById(id: String): NotificationRecord?
+
+    /**
+     * Gets a page of records, the most recent first.
+     */
+    fun findByFilter(filter: NotificationRecordFilter): PaginatedList<NotificationRecord>
+
+    fun removeAllBefore(retentionDate: LocalDateTime)
+
+    fun removeAll()
+
+}
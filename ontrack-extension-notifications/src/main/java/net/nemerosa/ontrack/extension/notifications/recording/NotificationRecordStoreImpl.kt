@@ -0,0 +1,114 @@
+package net.nemerosa.ontrack.extension.notifications.recording
+
+import net.nemerosa.ontrack.json.format
+import net.nemerosa.ontrack.json.parse
+import net.nemerosa.ontrack.model.pagination.PaginatedList
+import net.nemerosa.ontrack.repository.support.AbstractJdbcRepository
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource
+import org.springframework.stereotype.Repository
+import java.sql.ResultSet
+import java.time.LocalDateTime
+import javax.sql.DataSource
+
+/**
+ * Storage of the notification records in the `NOTIFICATION_RECORDS` table.
+ *
+ * The `DATA` column contains the whole [NotificationRecord]. The timestamp, the channel,
+ * the result type and the source ID are copied into indexed columns, used for the sorting,
+ * the filtering and the cleanup. The entities of the event are filtered using a JSON
+ * containment, backed by a GIN index.
+ */
+@Repository
+class NotificationRecordStoreImpl(
+    dataSource: DataSource,
+) : AbstractJdbcRepository(dataSource), NotificationRecordStore {
+
+    override fun save(record: NotificationRecord) {
+        namedParameterJdbcTemplate!!.update(
+            """
+                INSERT INTO NOTIFICATION_RECORDS (ID, CREATION, CHANNEL, RESULT_TYPE, SOURCE_ID, DATA)
+                VALUES (:id, :creation, :channel, :resultType, :sourceId, CAST(:data AS JSONB))
+                ON CONFLICT (ID) DO UPDATE
+                SET CREATION = :creation, CHANNEL = :channel, RESULT_TYPE = :resultType, SOURCE_ID = :sourceId, DATA = CAST(:data AS JSONB)
+            """,
+            params("id", record.id)
+                .addValue("creation", dateTimeForDB(record.timestamp))
+                .addValue("channel", record.channel)
+                .addValue("resultType", record.result.type.name)
+                .addValue("sourceId", record.source?.id)
+                .addValue("data", writeJson(record))
+        )
+    }
+
+    override fun findById(id: String): NotificationRecord? =
+        getFirstItem(
+            "SELECT DATA FROM NOTIFICATION_RECORDS WHERE ID = :id",
+            params("id", id)
+        ) { rs, _ -> toNotificationRecord(rs) }
+
+    override fun findByFilter(filter: NotificationRecordFilter): PaginatedList<NotificationRecord> {
+        val queries = mutableListOf<String>()
+        val params = MapSqlParameterSource()
+
+        if (!filter.channel.isNullOrBlank()) {
+            queries += "CHANNEL = :channel"
+            params.addValue("channel", filter.channel)
+        }
+
+        if (filter.resultType != null) {
+            queries += "RESULT_TYPE = :resultType"
+            params.addValue("resultType", filter.resultType.name)
+        }
+
+        if (!filter.sourceId.isNullOrBlank()) {
+            queries += "SOURCE_ID = :sourceId"
+            params.addValue("sourceId", filter.sourceId)
+            if (filter.sourceData != null) {
+                queries += "DATA->'source'->'data' @> CAST(:sourceData AS JSONB)"
+                params.addValue("sourceData", filter.sourceData.format())
+            }
+        }
+
+        if (filter.eventEntityId != null) {
+            queries += "DATA->'event'->'entities' @> CAST(:eventEntity AS JSONB)"
+            params.addValue(
+                "eventEntity",
+                writeJson(mapOf(filter.eventEntityId.type.name to mapOf("id" to filter.eventEntityId.id)))
+            )
+        }
+
+        val where = if (queries.isEmpty()) "" else queries.joinToString(" AND ", prefix = "WHERE ") { "( $it )" }
+
+        val total = namedParameterJdbcTemplate!!.queryForObject(
+            "SELECT COUNT(*) FROM NOTIFICATION_RECORDS $where",
+            params,
+            Int::class.java
+        ) ?: 0
+
+        val items = namedParameterJdbcTemplate!!.query(
+            """
+                SELECT DATA FROM NOTIFICATION_RECORDS
+                $where
+                ORDER BY CREATION DESC
+                OFFSET :offset LIMIT :size
+            """,
+            params.addValue("offset", filter.offset).addValue("size", filter.size)
+        ) { rs, _ -> toNotificationRecord(rs) }
+
+        return PaginatedList.create(items, filter.offset, filter.size, total)
+    }
+
+    override fun removeAllBefore(retentionDate: LocalDateTime) {
+        namedParameterJdbcTemplate!!.update(
+            "DELETE FROM NOTIFICATION_RECORDS WHERE CREATION <= :beforeTime",
+            params("beforeTime", dateTimeForDB(retentionDate))
+        )
+    }
+
+    override fun removeAll() {
+        jdbcTemplate!!.update("DELETE FROM NOTIFICATION_RECORDS")
+    }
+
+    private fun toNotificationRecord(rs: ResultSet): NotificationRecord =
+        readJson(rs, "DATA").parse()
+}
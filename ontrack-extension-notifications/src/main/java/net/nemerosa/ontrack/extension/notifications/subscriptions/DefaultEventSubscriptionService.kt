@@ -20,6 +20,7 @@ class DefaultEventSubscriptionService(
     private val securityService: SecurityService,
     private val structureService: StructureService,
     private val notificationChannelRegistry: NotificationChannelRegistry,
+    private val eventSubscriptionIndex: EventSubscriptionIndex,
 ) : EventSubscriptionService {
 
     override fun subscribe(subscription: EventSubscription) {
@@ -235,41 +236,13 @@ class DefaultEventSubscriptionService(
     }
 
     override fun forEveryMatchingSubscription(event: Event, code: (subscription: EventSubscription) -> Unit) {
-
-        fun matching(
-            entities: Map<ProjectEntityType, ProjectEntity>,
-        ) {
-            if (entities.isNotEmpty()) {
-                entities.values.forEach { projectEntity ->
-
-                    entitySubscriptionStore.forEachByEvent(
-                        projectEntity,
-                        event,
-                    ) { record ->
-                        val subscription = entitySubscriptionRecordToSubscription(projectEntity, record)
-                        if (event.matchesKeywords(subscription.keywords)) {
-                            code(subscription)
-                        }
-                    }
-                }
-            }
-        }
-
-        // Regular entities
-        matching(event.entities)
-        // Extra entities
-        matching(event.extraEntities)
-
-        // Getting the global subscriptions
-        globalSubscriptionStore.forEachRecord(
-            context = "left join jsonb_array_elements_text(data::jsonb->'events') as events on true",
-            query = "events = :event",
-            queryVariables = mapOf("event" to event.eventType.id)
-        ) { record ->
-            val subscription = subscriptionRecordToGlobalSubscription(record)
-            if (event.matchesKeywords(subscription.keywords)) {
-                code(subscription)
+        eventSubscriptionIndex.forEveryMatchingSubscription(event) { projectEntity, record ->
+            val subscription = if (projectEntity != null) {
+                entitySubscriptionRecordToSubscription(projectEntity, record)
+            } else {
+                subscriptionRecordToGlobalSubscription(record)
             }
+            code(subscription)
         }
     }
 
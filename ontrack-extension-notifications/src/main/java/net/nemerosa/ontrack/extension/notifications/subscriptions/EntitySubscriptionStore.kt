@@ -6,7 +6,6 @@ import net.nemerosa.ontrack.extension.notifications.channels.getChannel
 import net.nemerosa.ontrack.json.format
 import net.nemerosa.ontrack.json.getRequiredTextField
 import net.nemerosa.ontrack.json.getTextField
-import net.nemerosa.ontrack.model.events.Event
 import net.nemerosa.ontrack.model.structure.*
 import org.springframework.stereotype.Component
 
@@ -14,10 +13,12 @@ import org.springframework.stereotype.Component
 class EntitySubscriptionStore(
     private val entityStore: EntityStore,
     private val notificationChannelRegistry: NotificationChannelRegistry,
+    private val eventSubscriptionIndex: EventSubscriptionIndex,
 ) {
 
     fun save(entity: ProjectEntity, record: SubscriptionRecord) {
         entityStore.store(entity, ENTITY_STORE, record.name, record)
+        eventSubscriptionIndex.invalidate()
     }
 
     fun findByName(entity: ProjectEntity, name: String): SubscriptionRecord? =
@@ -25,10 +26,12 @@ class EntitySubscriptionStore(
 
     fun deleteByName(projectEntity: ProjectEntity, name: String) {
         entityStore.deleteByName(projectEntity, ENTITY_STORE, name)
+        eventSubscriptionIndex.invalidate()
     }
 
     fun deleteAll(projectEntity: ProjectEntity) {
         entityStore.deleteByStore(projectEntity, ENTITY_STORE)
+        eventSubscriptionIndex.invalidate()
     }
 
     fun deleteByOrigin(projectEntity: ProjectEntity, origin: String) {
@@ -40,6 +43,7 @@ class EntitySubscriptionStore(
                 jsonFilterCriterias = mapOf("origin" to origin),
             )
         )
+        eventSubscriptionIndex.invalidate()
     }
 
     fun findByFilter(
@@ -109,22 +113,6 @@ class EntitySubscriptionStore(
         return count to items
     }
 
-    fun forEachByEvent(projectEntity: ProjectEntity, event: Event, code: (SubscriptionRecord) -> Unit) {
-        val filter = EntityStoreFilter(
-            jsonContext = "left join jsonb_array_elements_text(data::jsonb->'events') as events on true",
-            jsonFilter = "events = :event",
-            jsonFilterCriterias = mapOf(
-                "event" to event.eventType.id
-            )
-        )
-        entityStore.forEachByFilter<SubscriptionRecord>(
-            entity = projectEntity,
-            store = ENTITY_STORE,
-            filter = filter,
-            code = code,
-        )
-    }
-
     /**
      * Moves all records from entity_data_store to entity_store
      * and generates names.
@@ -143,14 +131,16 @@ class EntitySubscriptionStore(
             (data as ObjectNode).put("name", generatedName)
             generatedName to data
         }
+        eventSubscriptionIndex.invalidate()
     }
 
     fun clearAll() {
         entityStore.deleteByStoreForAllEntities(ENTITY_STORE)
+        eventSubscriptionIndex.invalidate()
     }
 
     companion object {
-        private val ENTITY_STORE = EventSubscription::class.java.name
+        internal val ENTITY_STORE = EventSubscription::class.java.name
     }
 
 }
\ No newline at end of file
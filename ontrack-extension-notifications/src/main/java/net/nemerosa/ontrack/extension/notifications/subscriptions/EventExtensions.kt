@@ -4,14 +4,33 @@ import net.nemerosa.ontrack.model.events.Event
 import net.nemerosa.ontrack.model.structure.displayName
 
 fun Event.matchesKeywords(keywords: String?) =
-    if (!keywords.isNullOrBlank()) {
-        val tokens = keywords.split(" ").map { it.trim().lowercase() }.toSet()
-        tokens.all { matchesKeyword(it) }
-    } else {
-        true
-    }
+    EventKeywords(keywords).matches(keywordTokens())
 
-private fun Event.matchesKeyword(keyword: String) =
-    entities.values.any { entity -> entity.displayName.lowercase() == keyword }
-            || extraEntities.values.any { entity -> entity.displayName.lowercase() == keyword }
-            || values.values.any { it.value.lowercase() == keyword }
+/**
+ * Lowercased tokens of an event which can be matched by the keywords of a subscription.
+ */
+fun Event.keywordTokens(): Set<String> =
+    entities.values.map { entity -> entity.displayName.lowercase() }.toSet() +
+            extraEntities.values.map { entity -> entity.displayName.lowercase() } +
+            values.values.map { it.value.lowercase() }
+
+/**
+ * Keywords of a subscription, parsed once so that they can be matched against many events.
+ *
+ * @param keywords Space-separated list of keywords, all of them must be matched by the event
+ */
+class EventKeywords(keywords: String?) {
+
+    private val tokens: Set<String> =
+        if (!keywords.isNullOrBlank()) {
+            keywords.split(" ").map { it.trim().lowercase() }.toSet()
+        } else {
+            emptySet()
+        }
+
+    /**
+     * Checks these keywords against the [tokens of an event][keywordTokens].
+     */
+    fun matches(eventTokens: Set<String>) = tokens.all { it in eventTokens }
+
+}
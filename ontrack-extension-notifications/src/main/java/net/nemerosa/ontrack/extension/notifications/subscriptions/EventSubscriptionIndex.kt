@@ -0,0 +1,167 @@
+package net.nemerosa.ontrack.extension.notifications.subscriptions
+
+import net.nemerosa.ontrack.common.Time
+import net.nemerosa.ontrack.extension.notifications.NotificationsConfigProperties
+import net.nemerosa.ontrack.model.events.Event
+import net.nemerosa.ontrack.model.structure.*
+import net.nemerosa.ontrack.model.support.ClusterInvalidationService
+import net.nemerosa.ontrack.model.support.StorageService
+import org.springframework.stereotype.Component
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import java.time.LocalDateTime
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * In-memory index of all the subscriptions, by entity & event type, used to match
+ * the events without any call to the database.
+ *
+ * The index is loaded on demand and is versioned: any change to the subscriptions
+ * [invalidates][invalidate] the current version (on this node and, through the
+ * [ClusterInvalidationService], on the other nodes) and the index is reloaded
+ * when the next event is matched. Since an invalidation sent by another node may be lost,
+ * the index is also reloaded once it's older than
+ * [NotificationsConfigProperties.SubscriptionsProperties.indexMaxAge].
+ *
+ * Subscriptions of deleted entities are kept in the index until the next reload, but
+ * they are never matched since no event is sent for a deleted entity.
+ */
+@Component
+class EventSubscriptionIndex(
+    private val entityStore: EntityStore,
+    private val storageService: StorageService,
+    private val clusterInvalidationService: ClusterInvalidationService,
+    private val notificationsConfigProperties: NotificationsConfigProperties,
+) {
+
+    /**
+     * Current version of the subscriptions
+     */
+    private val version = AtomicLong()
+
+    /**
+     * Last loaded index
+     */
+    private val index = AtomicReference<Index?>()
+
+    init {
+        clusterInvalidationService.subscribe(CHANNEL) {
+            version.incrementAndGet()
+        }
+    }
+
+    /**
+     * Loops over all the subscriptions matching an event: the subscriptions of the entities
+     * of the event, of its extra entities and finally the global subscriptions.
+     *
+     * @param event Event to match
+     * @param code Code called for each matching subscription, with its entity (`null` for a global subscription)
+     */
+    fun forEveryMatchingSubscription(event: Event, code: (projectEntity: ProjectEntity?, record: SubscriptionRecord) -> Unit) {
+        val index = getIndex()
+        val eventType = event.eventType.id
+        val eventTokens by lazy { event.keywordTokens() }
+
+        fun matching(subscriptions: List<IndexedSubscription>?, projectEntity: ProjectEntity?) {
+            subscriptions?.forEach { subscription ->
+                if (subscription.keywords.matches(eventTokens)) {
+                    code(projectEntity, subscription.record)
+                }
+            }
+        }
+
+        // Regular entities, then extra entities
+        (event.entities.values + event.extraEntities.values).forEach { projectEntity ->
+            val id = ProjectEntityID(projectEntity.projectEntityType, projectEntity.id())
+            matching(index.entities[id]?.get(eventType), projectEntity)
+        }
+        // Global subscriptions
+        matching(index.global[eventType], null)
+    }
+
+    /**
+     * Invalidates the index after a change of the subscriptions. If a transaction is active,
+     * the invalidation is repeated once it's completed, so that the index cannot keep
+     * uncommitted or outdated subscriptions.
+     */
+    fun invalidate() {
+        clusterInvalidationService.invalidate(CHANNEL, "")
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(object : TransactionSynchronization {
+                override fun afterCompletion(status: Int) {
+                    clusterInvalidationService.invalidate(CHANNEL, "")
+                }
+            })
+        }
+    }
+
+    private fun getIndex(): Index {
+        val current = index.get()
+        return if (current != null && current.isValid(version.get())) {
+            current
+        } else {
+            load()
+        }
+    }
+
+    @Synchronized
+    private fun load(): Index {
+        // Version read before the subscriptions, so that a concurrent change triggers a new load
+        val loadedVersion = version.get()
+        val current = index.get()
+        if (current != null && current.isValid(loadedVersion)) {
+            return current
+        }
+        val loadedAt = Time.now()
+        // Entity subscriptions
+        val entities = mutableMapOf<ProjectEntityID, MutableMap<String, MutableList<IndexedSubscription>>>()
+        entityStore.forEachByStoreForAllEntities<SubscriptionRecord>(EntitySubscriptionStore.ENTITY_STORE) { entity, record ->
+            entities.getOrPut(entity) { mutableMapOf() }.add(record)
+        }
+        // Global subscriptions
+        val global = mutableMapOf<String, MutableList<IndexedSubscription>>()
+        storageService.forEach(GlobalSubscriptionStore.GLOBAL_STORE, SubscriptionRecord::class) { _, record ->
+            global.add(record)
+        }
+        // OK
+        val loaded = Index(
+            version = loadedVersion,
+            loadedAt = loadedAt,
+            global = global,
+            entities = entities,
+        )
+        index.set(loaded)
+        return loaded
+    }
+
+    private fun MutableMap<String, MutableList<IndexedSubscription>>.add(record: SubscriptionRecord) {
+        val subscription = IndexedSubscription(record, EventKeywords(record.keywords))
+        record.events.forEach { eventType ->
+            getOrPut(eventType) { mutableListOf() } += subscription
+        }
+    }
+
+    private fun Index.isValid(currentVersion: Long) =
+        version == currentVersion &&
+                loadedAt.plus(notificationsConfigProperties.subscriptions.indexMaxAge) > Time.now()
+
+    private class Index(
+        val version: Long,
+        val loadedAt: LocalDateTime,
+        val global: Map<String, List<IndexedSubscription>>,
+        val entities: Map<ProjectEntityID, Map<String, List<IndexedSubscription>>>,
+    )
+
+    private class IndexedSubscription(
+        val record: SubscriptionRecord,
+        val keywords: EventKeywords,
+    )
+
+    companion object {
+        /**
+         * Invalidation channel
+         */
+        const val CHANNEL = "event-subscriptions"
+    }
+}
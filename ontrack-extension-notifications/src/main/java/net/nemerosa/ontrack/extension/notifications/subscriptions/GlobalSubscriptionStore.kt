@@ -16,6 +16,7 @@ import java.util.*
 class GlobalSubscriptionStore(
     private val storageService: StorageService,
     private val notificationChannelRegistry: NotificationChannelRegistry,
+    private val eventSubscriptionIndex: EventSubscriptionIndex,
 ) {
     fun save(record: SubscriptionRecord) {
         storageService.store(
@@ -23,6 +24,7 @@ class GlobalSubscriptionStore(
             record.name,
             record,
         )
+        eventSubscriptionIndex.invalidate()
     }
 
     fun find(name: String): SubscriptionRecord? =
@@ -30,6 +32,7 @@ class GlobalSubscriptionStore(
 
     fun delete(name: String) {
         storageService.delete(GLOBAL_STORE, name)
+        eventSubscriptionIndex.invalidate()
     }
 
     fun filter(filter: EventSubscriptionFilter, offset: Int, size: Int): Pair<Int, List<SubscriptionRecord>> {
@@ -104,23 +107,7 @@ class GlobalSubscriptionStore(
 
     fun deleteAll() {
         storageService.deleteWithFilter(GLOBAL_STORE)
-    }
-
-    fun forEachRecord(
-        context: String = "",
-        query: String? = null,
-        queryVariables: Map<String, *>? = null,
-        code: (SubscriptionRecord) -> Unit,
-    ) {
-        storageService.forEach(
-            store = GLOBAL_STORE,
-            type = SubscriptionRecord::class,
-            context = context,
-            query = query,
-            queryVariables = queryVariables,
-        ) { _, record ->
-            code(record)
-        }
+        eventSubscriptionIndex.invalidate()
     }
 
     /**
@@ -153,10 +140,11 @@ class GlobalSubscriptionStore(
         entries.forEach { (name, record) ->
             storageService.store(GLOBAL_STORE, name, record)
         }
+        eventSubscriptionIndex.invalidate()
     }
 
     companion object {
-        private val GLOBAL_STORE = EventSubscription::class.java.name
+        internal val GLOBAL_STORE = EventSubscription::class.java.name
     }
 
 }
\ No newline at end of file
@@ -17,6 +17,7 @@ class DefaultWebhookAdminService(
     private val securityService: SecurityService,
     private val encryptionService: EncryptionService,
     private val webhookAuthenticatorRegistry: WebhookAuthenticatorRegistry,
+    private val webhookExecutionService: WebhookExecutionService,
 ) : WebhookAdminService {
 
     override val webhooks: List<Webhook>
@@ -96,6 +97,7 @@ class DefaultWebhookAdminService(
             name,
             webhook
         )
+        webhookExecutionService.evict(name)
 
         return webhook.toWebhook()
     }
@@ -103,6 +105,7 @@ class DefaultWebhookAdminService(
     override fun deleteWebhook(name: String) {
         securityService.checkGlobalFunction(WebhookManagement::class.java)
         storageService.delete(STORE, name)
+        webhookExecutionService.evict(name)
     }
 
     override fun findWebhookByName(name: String): Webhook? =
@@ -1,11 +1,16 @@
 package net.nemerosa.ontrack.extension.notifications.webhooks
 
+import io.micrometer.core.instrument.Gauge
 import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Tag
 import net.nemerosa.ontrack.common.Time
+import net.nemerosa.ontrack.extension.notifications.NotificationsConfigProperties
 import net.nemerosa.ontrack.model.metrics.increment
-import net.nemerosa.ontrack.model.metrics.time
 import net.nemerosa.ontrack.model.settings.CachedSettingsService
+import org.apache.commons.lang3.concurrent.BasicThreadFactory
 import org.apache.commons.lang3.exception.ExceptionUtils
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
 import org.springframework.stereotype.Service
 import java.net.URI
 import java.net.http.HttpClient
@@ -15,7 +20,22 @@ import java.net.http.HttpResponse
 import java.net.http.HttpResponse.BodyHandlers
 import java.time.Duration
 import java.time.LocalDateTime
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import javax.annotation.PreDestroy
 
+/**
+ * Delivery of the webhook payloads.
+ *
+ * Each webhook gets its own HTTP client, kept between the deliveries so that its connections
+ * are reused, and its own [lane][WebhookDeliveryLane] controlling the concurrency of the deliveries.
+ *
+ * The payloads are sent asynchronously, retried with an exponential backoff on errors and the
+ * exchanges are stored once the delivery is completed, outside of the calling thread.
+ */
 @Service
 class DefaultWebhookExecutionService(
     private val webhookPayloadRenderer: WebhookPayloadRenderer,
@@ -23,8 +43,33 @@ class DefaultWebhookExecutionService(
     private val cachedSettingsService: CachedSettingsService,
     private val webhookExchangeService: WebhookExchangeService,
     private val meterRegistry: MeterRegistry,
+    notificationsConfigProperties: NotificationsConfigProperties,
 ) : WebhookExecutionService {
 
+    private val logger: Logger = LoggerFactory.getLogger(DefaultWebhookExecutionService::class.java)
+
+    private val properties = notificationsConfigProperties.webhook.delivery
+
+    /**
+     * Pool used by the HTTP clients, to complete the deliveries & to store the exchanges
+     */
+    private val executor: ExecutorService = Executors.newCachedThreadPool(
+        BasicThreadFactory.Builder()
+            .daemon(true)
+            .namingPattern("webhooks-%s")
+            .build()
+    )
+
+    /**
+     * Clients & lanes per webhook name
+     */
+    private val targets = ConcurrentHashMap<String, WebhookTarget>()
+
+    @PreDestroy
+    fun stop() {
+        executor.shutdownNow()
+    }
+
     override fun send(webhook: Webhook, payload: WebhookPayload<*>) {
 
         meterRegistry.increment(
@@ -33,20 +78,12 @@ class DefaultWebhookExecutionService(
             "type" to payload.type,
         )
 
-        val client: HttpClient = HttpClient.newBuilder()
-            .version(HttpClient.Version.HTTP_1_1)
-            .followRedirects(HttpClient.Redirect.NORMAL)
-            .connectTimeout(Duration.ofSeconds(20))
-            .build()
-
         // Gets the maximum timeout between the webhook one and the general settings
         val settings = cachedSettingsService.getCachedSettings(WebhookSettings::class.java)
         val settingsTimeout = Duration.ofMinutes(settings.timeoutMinutes.toLong())
         val timeout = maxOf(settingsTimeout, webhook.timeout)
 
-        val payloadString = webhookPayloadRenderer.render(payload)
-
-        val request: HttpRequest =
+        val request: HttpRequest.Builder =
             HttpRequest.newBuilder()
                 .uri(URI.create(webhook.url))
                 .timeout(timeout)
@@ -55,53 +92,187 @@ class DefaultWebhookExecutionService(
                 .apply {
                     authenticate(webhook, this)
                 }
-                // Payload
-                .POST(BodyPublishers.ofString(payloadString))
-                // OK
-                .build()
 
-        val start = Time.now()
+        val delivery = WebhookDelivery(
+            webhook = webhook,
+            payload = payload,
+            payloadString = webhookPayloadRenderer.render(payload),
+            request = request,
+            start = Time.now(),
+            startNanos = System.nanoTime(),
+        )
+
+        val target = targets.computeIfAbsent(webhook.name) { createTarget(it) }
+        val batch = target.lane.offer(delivery)
+        if (batch == null) {
+            val reason = if (target.lane.isOpen()) "too many failures" else "too many pending deliveries"
+            rejected(delivery, reason)
+        } else if (batch.isNotEmpty()) {
+            deliver(target, batch)
+        }
 
+        // Waiting for the delivery if not asynchronous
+        if (!properties.async) {
+            delivery.completion.join()
+        }
+    }
+
+    override fun evict(name: String) {
+        val target = targets.remove(name) ?: return
+        target.lane.drain().forEach { delivery ->
+            rejected(delivery, "webhook changed or deleted")
+        }
+        listOf(WebhookMetrics.webhook_delivery_inflight, WebhookMetrics.webhook_delivery_pending).forEach { metric ->
+            meterRegistry.find(metric).tag("webhook", name).gauges().forEach {
+                meterRegistry.remove(it)
+            }
+        }
+    }
+
+    private fun createTarget(name: String): WebhookTarget {
+        val client = HttpClient.newBuilder()
+            .version(if (properties.http2) HttpClient.Version.HTTP_2 else HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(20))
+            .executor(executor)
+            .build()
+        val lane = WebhookDeliveryLane<WebhookDelivery>(
+            concurrency = properties.concurrency.coerceAtLeast(1),
+            maxPending = properties.maxPending,
+            batchSize = properties.batchSize.coerceAtLeast(1),
+            circuitBreakerThreshold = properties.circuitBreakerThreshold,
+            circuitBreakerDuration = properties.circuitBreakerDuration,
+        )
+        val tags = listOf(Tag.of("webhook", name))
+        meterRegistry.gauge(WebhookMetrics.webhook_delivery_inflight, tags, lane.inFlight)
+        Gauge.builder(WebhookMetrics.webhook_delivery_pending, lane) { it.pendingCount.toDouble() }
+            .tags(tags)
+            .register(meterRegistry)
+        return WebhookTarget(client, lane)
+    }
+
+    private fun deliver(target: WebhookTarget, batch: List<WebhookDelivery>) {
+        // Several payloads are sent as a JSON array, marked by a header
+        val request = batch.first().request.copy()
+        val body = if (batch.size == 1) {
+            batch.first().payloadString
+        } else {
+            request.header(WebhookExecutionService.HEADER_BATCH, batch.size.toString())
+            batch.joinToString(",", "[", "]") { it.payloadString }
+        }
+        target.lane.inFlight.addAndGet(batch.size)
+        attempt(target, batch, request.POST(BodyPublishers.ofString(body)).build(), body, 0)
+    }
+
+    private fun attempt(
+        target: WebhookTarget,
+        batch: List<WebhookDelivery>,
+        request: HttpRequest,
+        body: String,
+        attempt: Int,
+    ) {
+        val webhook = batch.first().webhook.name
+        val start = System.nanoTime()
+        target.client.sendAsync(request, BodyHandlers.ofString()).whenComplete { response, error ->
+            batch.forEach { delivery ->
+                meterRegistry.timer(
+                    WebhookMetrics.webhook_delivery_duration,
+                    listOf(Tag.of("webhook", webhook), Tag.of("type", delivery.payload.type)),
+                ).record(System.nanoTime() - start, TimeUnit.NANOSECONDS)
+            }
+            val failed = error != null || response.statusCode() >= 500
+            if (failed && attempt < properties.retries) {
+                batch.forEach { delivery ->
+                    meterRegistry.increment(
+                        WebhookMetrics.webhook_delivery_retried,
+                        "webhook" to webhook,
+                        "type" to delivery.payload.type,
+                    )
+                }
+                val delay = properties.retryDelay.toMillis() shl attempt
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor).execute {
+                    attempt(target, batch, request, body, attempt + 1)
+                }
+            } else {
+                target.lane.inFlight.addAndGet(-batch.size)
+                batch.forEach { delivery -> completed(delivery, body, response, error) }
+                val release = target.lane.release(success = !failed)
+                release.rejected.forEach { delivery ->
+                    rejected(delivery, "too many failures")
+                }
+                if (release.next.isNotEmpty()) {
+                    deliver(target, release.next)
+                }
+            }
+        }
+    }
+
+    private fun rejected(delivery: WebhookDelivery, reason: String) {
+        meterRegistry.increment(
+            WebhookMetrics.webhook_delivery_rejected,
+            "webhook" to delivery.webhook.name,
+            "type" to delivery.payload.type,
+        )
+        completed(
+            delivery,
+            delivery.payloadString,
+            null,
+            WebhookDeliveryRejectedException(delivery.webhook.name, reason)
+        )
+    }
+
+    /**
+     * @param body Body actually sent, containing the payloads of the whole batch
+     */
+    private fun completed(
+        delivery: WebhookDelivery,
+        body: String,
+        response: HttpResponse<String>?,
+        error: Throwable?,
+    ) {
+        val webhook = delivery.webhook.name
+        val type = delivery.payload.type
         try {
-            val response = meterRegistry.time(
-                name = WebhookMetrics.webhook_delivery_duration,
-                "webhook" to webhook.name,
-                "type" to payload.type,
-            ) {
-                client.send(request, BodyHandlers.ofString())
-            } ?: error("Did not receive a valid HTTP response")
-            meterRegistry.increment(
-                WebhookMetrics.webhook_delivery_answered,
-                "webhook" to webhook.name,
-                "type" to payload.type,
-                "status" to response.statusCode().toString(),
-            )
-            store(webhook, payload, payloadString, start, response)
+            meterRegistry.timer(
+                WebhookMetrics.webhook_delivery_latency,
+                listOf(Tag.of("webhook", webhook), Tag.of("type", type)),
+            ).record(System.nanoTime() - delivery.startNanos, TimeUnit.NANOSECONDS)
+            if (response != null) {
+                meterRegistry.increment(
+                    WebhookMetrics.webhook_delivery_answered,
+                    "webhook" to webhook,
+                    "type" to type,
+                    "status" to response.statusCode().toString(),
+                )
+                store(delivery, body, response)
+            } else {
+                meterRegistry.increment(
+                    WebhookMetrics.webhook_delivery_error,
+                    "webhook" to webhook,
+                    "type" to type,
+                )
+                store(delivery, body, error ?: IllegalStateException("Did not receive a valid HTTP response"))
+            }
         } catch (any: Exception) {
-            meterRegistry.increment(
-                WebhookMetrics.webhook_delivery_error,
-                "webhook" to webhook.name,
-                "type" to payload.type,
-            )
-            store(webhook, payload, payloadString, start, any)
+            logger.error("Cannot store the delivery ${delivery.payload.uuid} for the $webhook webhook", any)
+        } finally {
+            delivery.completion.complete(Unit)
         }
     }
 
     private fun store(
-        webhook: Webhook,
-        payload: WebhookPayload<*>,
-        payloadString: String,
-        start: LocalDateTime,
-        any: Exception,
+        delivery: WebhookDelivery,
+        body: String,
+        any: Throwable,
     ) {
         webhookExchangeService.store(
             WebhookExchange(
-                uuid = payload.uuid,
-                webhook = webhook.name,
+                uuid = delivery.payload.uuid,
+                webhook = delivery.webhook.name,
                 request = WebhookRequest(
-                    timestamp = start,
-                    type = payload.type,
-                    payload = payloadString,
+                    timestamp = delivery.start,
+                    type = delivery.payload.type,
+                    payload = body,
                 ),
                 response = null,
                 stack = ExceptionUtils.getStackTrace(any),
@@ -110,20 +281,18 @@ class DefaultWebhookExecutionService(
     }
 
     private fun store(
-        webhook: Webhook,
-        payload: WebhookPayload<*>,
-        payloadString: String,
-        start: LocalDateTime,
+        delivery: WebhookDelivery,
+        body: String,
         response: HttpResponse<String>,
     ) {
         webhookExchangeService.store(
             WebhookExchange(
-                uuid = payload.uuid,
-                webhook = webhook.name,
+                uuid = delivery.payload.uuid,
+                webhook = delivery.webhook.name,
                 request = WebhookRequest(
-                    timestamp = start,
-                    type = payload.type,
-                    payload = payloadString,
+                    timestamp = delivery.start,
+                    type = delivery.payload.type,
+                    payload = body,
                 ),
                 response = WebhookResponse(
                     timestamp = Time.now(),
@@ -150,4 +319,28 @@ class DefaultWebhookExecutionService(
         authenticator.authenticate(config, builder)
     }
 
-}
\ No newline at end of file
+    /**
+     * Client & lane for a webhook
+     */
+    private class WebhookTarget(
+        val client: HttpClient,
+        val lane: WebhookDeliveryLane<WebhookDelivery>,
+    )
+
+    /**
+     * Payload to deliver to a webhook
+     *
+     * @property request Request prepared for the webhook, without its body
+     * @property completion Completed once the exchange has been stored
+     */
+    private class WebhookDelivery(
+        val webhook: Webhook,
+        val payload: WebhookPayload<*>,
+        val payloadString: String,
+        val request: HttpRequest.Builder,
+        val start: LocalDateTime,
+        val startNanos: Long,
+        val completion: CompletableFuture<Unit> = CompletableFuture(),
+    )
+
+}
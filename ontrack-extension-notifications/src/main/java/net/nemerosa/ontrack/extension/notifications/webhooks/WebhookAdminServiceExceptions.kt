@@ -1,5 +1,6 @@
 package net.nemerosa.ontrack.extension.notifications.webhooks
 
+import net.nemerosa.ontrack.common.BaseException
 import net.nemerosa.ontrack.model.exceptions.InputException
 import net.nemerosa.ontrack.model.exceptions.NotFoundException
 
@@ -10,3 +11,7 @@ class WebhookAlreadyExistsException(name: String) : InputException(
 class WebhookNotFoundException(name: String) : NotFoundException(
     """The webhook with name [$name] does not exist."""
 )
+
+class WebhookDeliveryRejectedException(name: String, reason: String) : BaseException(
+    """The delivery to the webhook with name [$name] has been rejected: $reason"""
+)
@@ -0,0 +1,124 @@
+package net.nemerosa.ontrack.extension.notifications.webhooks
+
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Flow control of the deliveries to one webhook.
+ *
+ * * at most [concurrency] requests are running at the same time, the other deliveries are waiting
+ * * the waiting deliveries are sent by batches of at most [batchSize] deliveries
+ * * after [circuitBreakerThreshold] consecutive failures, new deliveries are rejected
+ * during [circuitBreakerDuration], after which they are tried again. The deliveries
+ * waiting when the deliveries are suspended are rejected as well.
+ *
+ * @param D Type of the deliveries
+ * @param clock Current time in milliseconds
+ */
+class WebhookDeliveryLane<D>(
+    private val concurrency: Int,
+    private val maxPending: Int,
+    private val batchSize: Int,
+    private val circuitBreakerThreshold: Int,
+    private val circuitBreakerDuration: Duration,
+    private val clock: () -> Long = System::currentTimeMillis,
+) {
+
+    /**
+     * Number of deliveries being sent
+     */
+    val inFlight = AtomicInteger()
+
+    private val pending = ArrayDeque<D>()
+    private var running = 0
+    private var failures = 0
+    private var openUntil = 0L
+
+    /**
+     * Number of deliveries waiting to be sent
+     */
+    val pendingCount: Int
+        @Synchronized get() = pending.size
+
+    /**
+     * Submits a delivery.
+     *
+     * @return Deliveries to send now (empty if the delivery is waiting) or `null` if the
+     * delivery is rejected
+     */
+    @Synchronized
+    fun offer(delivery: D): List<D>? =
+        when {
+            isOpen() -> null
+            running < concurrency -> {
+                running++
+                listOf(delivery)
+            }
+            pending.size < maxPending -> {
+                pending.addLast(delivery)
+                emptyList()
+            }
+            else -> null
+        }
+
+    /**
+     * Checks if the deliveries are suspended after too many failures.
+     */
+    @Synchronized
+    fun isOpen() = failures >= circuitBreakerThreshold && clock() < openUntil
+
+    /**
+     * Records the end of a request.
+     *
+     * @param success If the request was successful
+     * @return Next deliveries to send and the waiting deliveries rejected because
+     * the deliveries are suspended
+     */
+    @Synchronized
+    fun release(success: Boolean): Release<D> {
+        if (success) {
+            failures = 0
+        } else {
+            failures++
+            if (failures >= circuitBreakerThreshold) {
+                openUntil = clock() + circuitBreakerDuration.toMillis()
+            }
+        }
+        return when {
+            isOpen() -> {
+                running--
+                Release(next = emptyList(), rejected = removePending())
+            }
+            pending.isEmpty() -> {
+                running--
+                Release(next = emptyList(), rejected = emptyList())
+            }
+            else -> Release(
+                next = (1..minOf(batchSize, pending.size)).map { pending.removeFirst() },
+                rejected = emptyList(),
+            )
+        }
+    }
+
+    /**
+     * Removes all the waiting deliveries.
+     *
+     * @return Removed deliveries
+     */
+    @Synchronized
+    fun drain(): List<D> = removePending()
+
+    private fun removePending(): List<D> = pending.toList().also { pending.clear() }
+
+    /**
+     * Outcome of the end of a request
+     *
+     * @property next Next deliveries to send, empty if none
+     * @property rejected Waiting deliveries which won't be sent
+     */
+    class Release<D>(
+        val next: List<D>,
+        val rejected: List<D>,
+    )
+
+}
@@ -7,4 +7,20 @@ interface WebhookExecutionService {
 
     fun send(webhook: Webhook, payload: WebhookPayload<*>)
 
-}
\ No newline at end of file
+    /**
+     * Releases the resources kept for a webhook (HTTP client, waiting deliveries, metrics),
+     * when it's changed or deleted.
+     *
+     * @param name Name of the webhook
+     */
+    fun evict(name: String)
+
+    companion object {
+        /**
+         * Header set on the requests which contain several payloads, as a JSON array. Its value
+         * is the number of payloads.
+         */
+        const val HEADER_BATCH = "X-Ontrack-Webhook-Batch"
+    }
+
+}
@@ -6,6 +6,7 @@ import kotlinx.coroutines.runBlocking
 import net.nemerosa.ontrack.common.BaseException
 import net.nemerosa.ontrack.json.asJson
 import net.nemerosa.ontrack.json.format
+import net.nemerosa.ontrack.json.parse
 import net.nemerosa.ontrack.json.parseOrNull
 import net.nemerosa.ontrack.model.exceptions.NotFoundException
 import net.nemerosa.ontrack.model.security.SecurityService
@@ -14,6 +15,7 @@ import org.slf4j.LoggerFactory
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
 import org.springframework.web.bind.annotation.*
 import java.util.*
+import java.util.concurrent.CopyOnWriteArrayList
 import javax.annotation.PostConstruct
 
 /**
@@ -48,7 +50,7 @@ class WebhookInternalEndpointController(
     /**
      * Storing the payloads in memory
      */
-    private val payloads = mutableListOf<JsonWebhookPayload>()
+    private val payloads = CopyOnWriteArrayList<JsonWebhookPayload>()
 
     /**
      * Testing a webhook using the test payload
@@ -70,9 +72,22 @@ class WebhookInternalEndpointController(
 
     /**
      * The endpoint.
+     *
+     * Several payloads sent together are received as a JSON array, marked by the
+     * [batch header][WebhookExecutionService.HEADER_BATCH], and are answered by a JSON array.
      */
     @PostMapping("")
-    fun post(@RequestBody payload: JsonWebhookPayload): String {
+    fun post(
+        @RequestHeader(WebhookExecutionService.HEADER_BATCH, required = false) batch: Int?,
+        @RequestBody body: JsonNode,
+    ): String =
+        if (batch != null) {
+            body.map { post(it.parse<JsonWebhookPayload>()) }.asJson().format()
+        } else {
+            post(body.parse<JsonWebhookPayload>())
+        }
+
+    private fun post(payload: JsonWebhookPayload): String {
         payloads += payload
         return when (payload.type) {
             "test" -> test(payload) ?: "OK"
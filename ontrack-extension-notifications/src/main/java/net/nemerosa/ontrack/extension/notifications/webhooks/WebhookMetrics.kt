@@ -16,4 +16,9 @@ object WebhookMetrics {
     const val webhook_delivery_answered = "${prefix}_delivery_answered"
     const val webhook_delivery_error = "${prefix}_delivery_error"
     const val webhook_delivery_duration = "${prefix}_delivery_duration"
+    const val webhook_delivery_latency = "${prefix}_delivery_latency"
+    const val webhook_delivery_retried = "${prefix}_delivery_retried"
+    const val webhook_delivery_rejected = "${prefix}_delivery_rejected"
+    const val webhook_delivery_inflight = "${prefix}_delivery_inflight"
+    const val webhook_delivery_pending = "${prefix}_delivery_pending"
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package net.nemerosa.ontrack.extension.notifications.recording
+
+import net.nemerosa.ontrack.common.Time
+import net.nemerosa.ontrack.extension.notifications.channels.NotificationResultType
+import net.nemerosa.ontrack.extension.notifications.model.NotificationSourceData
+import net.nemerosa.ontrack.it.AbstractDSLTestSupport
+import net.nemerosa.ontrack.json.asJson
+import net.nemerosa.ontrack.model.structure.ProjectEntityID
+import net.nemerosa.ontrack.model.structure.ProjectEntityType
+import net.nemerosa.ontrack.test.TestUtils.uid
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import java.time.LocalDateTime
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+
+class NotificationRecordStoreIT : AbstractDSLTestSupport() {
+
+    @Autowired
+    private lateinit var notificationRecordStore: NotificationRecordStore
+
+    @Test
+    fun `Saving and retrieving a record`() {
+        val record = record(channel = uid("c-"))
+        notificationRecordStore.save(record)
+        assertNotNull(notificationRecordStore.findById(record.id), "Record retrieved") {
+            assertEquals(record, it)
+        }
+    }
+
+    @Test
+    fun `Records filtered on the indexed columns, the most recent first`() {
+        val channel = uid("c-")
+        val ref = Time.now()
+        val first = record(channel = channel, timestamp = ref.minusMinutes(2))
+        val second = record(channel = channel, timestamp = ref.minusMinutes(1), resultType = NotificationResultType.ERROR)
+        val third = record(channel = channel, timestamp = ref, sourceId = "other")
+        listOf(second, third, first).forEach { notificationRecordStore.save(it) }
+
+        assertEquals(
+            listOf(third.id, second.id, first.id),
+            filter(NotificationRecordFilter(channel = channel))
+        )
+        assertEquals(
+            listOf(second.id),
+            filter(NotificationRecordFilter(channel = channel, resultType = NotificationResultType.ERROR))
+        )
+        assertEquals(
+            listOf(third.id),
+            filter(NotificationRecordFilter(channel = channel, sourceId = "other"))
+        )
+        // Pagination
+        val page = notificationRecordStore.findByFilter(NotificationRecordFilter(channel = channel, offset = 1, size = 1))
+        assertEquals(listOf(second.id), page.pageItems.map { it.id })
+        assertEquals(3, page.pageInfo.totalSize)
+    }
+
+    @Test
+    fun `Records filtered on the source data`() {
+        val channel = uid("c-")
+        val record = record(channel = channel, sourceData = mapOf("name" to "one", "other" to "x"))
+        val other = record(channel = channel, sourceData = mapOf("name" to "two"))
+        listOf(record, other).forEach { notificationRecordStore.save(it) }
+        assertEquals(
+            listOf(record.id),
+            filter(
+                NotificationRecordFilter(
+                    channel = channel,
+                    sourceId = "test",
+                    sourceData = mapOf("name" to "one").asJson()
+                )
+            )
+        )
+    }
+
+    @Test
+    fun `Records filtered on the entities of the event`() {
+        val channel = uid("c-")
+        val record = record(channel = channel, buildId = 10)
+        val other = record(channel = channel, buildId = 11)
+        listOf(record, other).forEach { notificationRecordStore.save(it) }
+        assertEquals(
+            listOf(record.id),
+            filter(
+                NotificationRecordFilter(
+                    channel = channel,
+                    eventEntityId = ProjectEntityID(ProjectEntityType.BUILD, 10),
+                )
+            )
+        )
+    }
+
+    @Test
+    fun `Removing the old records`() {
+        val channel = uid("c-")
+        val ref = Time.now()
+        val old = record(channel = channel, timestamp = ref.minusDays(10))
+        val recent = record(channel = channel, timestamp = ref)
+        listOf(old, recent).forEach { notificationRecordStore.save(it) }
+
+        notificationRecordStore.removeAllBefore(ref.minusDays(1))
+
+        assertNull(notificationRecordStore.findById(old.id))
+        assertNotNull(notificationRecordStore.findById(recent.id))
+    }
+
+    private fun filter(filter: NotificationRecordFilter): List<String> =
+        notificationRecordStore.findByFilter(filter).pageItems.map { it.id }
+
+    private fun record(
+        channel: String,
+        timestamp: LocalDateTime = Time.now(),
+        resultType: NotificationResultType = NotificationResultType.OK,
+        sourceId: String = "test",
+        sourceData: Map<String, String> = emptyMap(),
+        buildId: Int = 1,
+    ) = NotificationRecord(
+        id = uid("r-"),
+        source = NotificationSourceData(
+            id = sourceId,
+            data = sourceData.asJson(),
+        ),
+        timestamp = timestamp,
+        channel = channel,
+        channelConfig = mapOf("target" to "#test").asJson(),
+        event = mapOf(
+            "eventType" to "new_build",
+            "entities" to mapOf(
+                "BUILD" to mapOf("id" to buildId)
+            )
+        ).asJson(),
+        result = NotificationRecordResult(
+            type = resultType,
+            message = null,
+            output = null,
+        ),
+    )
+
+}
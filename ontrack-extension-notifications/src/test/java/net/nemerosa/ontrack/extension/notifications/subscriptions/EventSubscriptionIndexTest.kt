@@ -0,0 +1,171 @@
+package net.nemerosa.ontrack.extension.notifications.subscriptions
+
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import net.nemerosa.ontrack.extension.notifications.NotificationsConfigProperties
+import net.nemerosa.ontrack.extension.notifications.mock.MockNotificationChannelConfig
+import net.nemerosa.ontrack.json.asJson
+import net.nemerosa.ontrack.model.events.Event
+import net.nemerosa.ontrack.model.events.EventFactory
+import net.nemerosa.ontrack.model.structure.*
+import net.nemerosa.ontrack.model.structure.NameDescription.Companion.nd
+import net.nemerosa.ontrack.model.support.ClusterInvalidationService
+import net.nemerosa.ontrack.model.support.StorageService
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.time.Duration
+import kotlin.test.assertEquals
+
+class EventSubscriptionIndexTest {
+
+    private val project = Project.of(nd("project", "")).withId(ID.of(1))
+    private val branch = Branch.of(project, nd("main", "")).withId(ID.of(2))
+    private val build = Build.of(branch, nd("1", ""), Signature.of("test")).withId(ID.of(3))
+
+    private val event = Event.of(EventFactory.NEW_BUILD)
+        .with(project)
+        .with(branch)
+        .with(build)
+        .build()
+
+    private lateinit var entityStore: EntityStore
+    private lateinit var storageService: StorageService
+    private lateinit var index: EventSubscriptionIndex
+
+    private val properties = NotificationsConfigProperties()
+
+    private val entityRecords = mutableListOf<Pair<ProjectEntityID, SubscriptionRecord>>()
+    private val globalRecords = mutableListOf<SubscriptionRecord>()
+
+    @BeforeEach
+    fun before() {
+        entityStore = mockk()
+        every {
+            entityStore.forEachByStoreForAllEntities(any(), SubscriptionRecord::class, any())
+        } answers {
+            val code = thirdArg<(ProjectEntityID, SubscriptionRecord) -> Unit>()
+            entityRecords.forEach { (entity, record) -> code(entity, record) }
+        }
+
+        storageService = mockk()
+        every {
+            storageService.forEach(any(), SubscriptionRecord::class, any(), any(), any(), any(), any())
+        } answers {
+            val code = lastArg<(String, SubscriptionRecord) -> Unit>()
+            globalRecords.forEach { record -> code(record.name, record) }
+        }
+
+        index = EventSubscriptionIndex(entityStore, storageService, LocalClusterInvalidationService(), properties)
+    }
+
+    @Test
+    fun `Matching on the entities and the global subscriptions`() {
+        entityRecords += ProjectEntityID(ProjectEntityType.PROJECT, 1) to record("project-new-build")
+        entityRecords += ProjectEntityID(ProjectEntityType.PROJECT, 1) to record("project-new-branch", "new_branch")
+        entityRecords += ProjectEntityID(ProjectEntityType.BRANCH, 2) to record("branch-new-build")
+        entityRecords += ProjectEntityID(ProjectEntityType.BRANCH, 10) to record("other-branch-new-build")
+        globalRecords += record("global-new-build")
+
+        assertEquals(
+            listOf(
+                "project" to "project-new-build",
+                "main" to "branch-new-build",
+                null to "global-new-build",
+            ),
+            match()
+        )
+    }
+
+    @Test
+    fun `Matching on the keywords`() {
+        globalRecords += record("main", keywords = "main")
+        globalRecords += record("release", keywords = "release")
+        globalRecords += record("main-project", keywords = "MAIN project")
+
+        assertEquals(
+            listOf(
+                null to "main",
+                null to "main-project",
+            ),
+            match()
+        )
+    }
+
+    @Test
+    fun `Index is loaded only once`() {
+        globalRecords += record("global-new-build")
+
+        repeat(3) { match() }
+
+        verify(exactly = 1) {
+            storageService.forEach(any(), SubscriptionRecord::class, any(), any(), any(), any(), any())
+        }
+        verify(exactly = 1) {
+            entityStore.forEachByStoreForAllEntities(any(), SubscriptionRecord::class, any())
+        }
+    }
+
+    @Test
+    fun `Index is reloaded after an invalidation`() {
+        globalRecords += record("first")
+        assertEquals(listOf(null to "first"), match())
+
+        globalRecords += record("second")
+        assertEquals(listOf(null to "first"), match())
+
+        index.invalidate()
+        assertEquals(listOf(null to "first", null to "second"), match())
+    }
+
+    @Test
+    fun `Index is reloaded once too old`() {
+        globalRecords += record("first")
+        assertEquals(listOf(null to "first"), match())
+
+        // Change not notified to this node
+        globalRecords += record("second")
+        properties.subscriptions.indexMaxAge = Duration.ZERO
+        assertEquals(listOf(null to "first", null to "second"), match())
+    }
+
+    private fun match(): List<Pair<String?, String>> {
+        val result = mutableListOf<Pair<String?, String>>()
+        index.forEveryMatchingSubscription(event) { projectEntity, record ->
+            result += projectEntity?.displayName to record.name
+        }
+        return result
+    }
+
+    private fun record(
+        name: String,
+        event: String = EventFactory.NEW_BUILD.id,
+        keywords: String? = null,
+    ) = SubscriptionRecord(
+        name = name,
+        channel = "mock",
+        channelConfig = MockNotificationChannelConfig("#target").asJson(),
+        events = setOf(event),
+        keywords = keywords,
+        disabled = false,
+        origin = "test",
+        contentTemplate = null,
+    )
+
+    private class LocalClusterInvalidationService : ClusterInvalidationService {
+
+        private val handlers = mutableMapOf<String, MutableList<(String) -> Unit>>()
+
+        override fun subscribe(channel: String, handler: (payload: String) -> Unit) {
+            handlers.getOrPut(channel) { mutableListOf() } += handler
+        }
+
+        override fun invalidate(channel: String, payload: String) {
+            receive(channel, payload)
+        }
+
+        override fun receive(channel: String, payload: String) {
+            handlers[channel]?.forEach { it(payload) }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package net.nemerosa.ontrack.extension.notifications.webhooks
+
+import com.sun.net.httpserver.HttpServer
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import net.nemerosa.ontrack.extension.notifications.NotificationsConfigProperties
+import net.nemerosa.ontrack.extension.notifications.webhooks.auth.HeaderWebhookAuthenticator
+import net.nemerosa.ontrack.model.settings.CachedSettingsService
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.net.InetSocketAddress
+import java.time.Duration
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class DefaultWebhookExecutionServiceTest {
+
+    /**
+     * Request received by the test server
+     */
+    private class Received(
+        val batch: String?,
+        val body: String,
+    )
+
+    private lateinit var server: HttpServer
+    private val statuses = ConcurrentLinkedQueue<Int>()
+    private val received = CopyOnWriteArrayList<Received>()
+    private var gate = CountDownLatch(0)
+
+    private val properties = NotificationsConfigProperties().apply {
+        webhook.delivery.async = false
+        webhook.delivery.retryDelay = Duration.ofMillis(10)
+    }
+
+    private val meterRegistry = SimpleMeterRegistry()
+
+    private val exchanges = CopyOnWriteArrayList<WebhookExchange>()
+    private val webhookExchangeService = mockk<WebhookExchangeService> {
+        every { store(any()) } answers { exchanges += firstArg<WebhookExchange>() }
+    }
+
+    private lateinit var service: DefaultWebhookExecutionService
+
+    @BeforeEach
+    fun before() {
+        server = HttpServer.create(InetSocketAddress("localhost", 0), 0)
+        server.createContext("/hook") { exchange ->
+            exchange.use {
+                received += Received(
+                    batch = it.requestHeaders.getFirst(WebhookExecutionService.HEADER_BATCH),
+                    body = it.requestBody.readAllBytes().decodeToString(),
+                )
+                gate.await(5, TimeUnit.SECONDS)
+                it.sendResponseHeaders(statuses.poll() ?: 200, -1)
+            }
+        }
+        server.executor = null
+        server.start()
+    }
+
+    @AfterEach
+    fun after() {
+        service.stop()
+        server.stop(0)
+    }
+
+    @Test
+    fun `Delivery retried after a server error`() {
+        statuses += 500
+        service = service()
+        service.send(webhook(), payload("one"))
+
+        assertEquals(listOf("""{"id":"one"}""", """{"id":"one"}"""), received.map { it.body })
+        assertEquals(1.0, meterRegistry.counter(WebhookMetrics.webhook_delivery_retried, "webhook", "test", "type", "test").count())
+        assertEquals(1, exchanges.size)
+        assertEquals(200, exchanges.first().response?.code)
+    }
+
+    @Test
+    fun `Exchanges stored once the asynchronous delivery is completed`() {
+        properties.webhook.delivery.async = true
+        gate = CountDownLatch(1)
+        service = service()
+        service.send(webhook(), payload("one"))
+
+        // The sending does not wait for the delivery
+        verify(exactly = 0) { webhookExchangeService.store(any()) }
+        gate.countDown()
+        verify(timeout = 5_000) { webhookExchangeService.store(any()) }
+        assertEquals(200, exchanges.first().response?.code)
+    }
+
+    @Test
+    fun `Deliveries rejected once the circuit is open`() {
+        properties.webhook.delivery.retries = 0
+        properties.webhook.delivery.circuitBreakerThreshold = 1
+        statuses += 500
+        service = service()
+        service.send(webhook(), payload("one"))
+        service.send(webhook(), payload("two"))
+
+        assertEquals(1, received.size, "The second delivery is not sent")
+        assertEquals(1.0, meterRegistry.counter(WebhookMetrics.webhook_delivery_rejected, "webhook", "test", "type", "test").count())
+        assertEquals(500, exchanges[0].response?.code)
+        assertNull(exchanges[1].response)
+        assertNotNull(exchanges[1].stack) {
+            assertTrue(WebhookDeliveryRejectedException::class.java.name in it)
+        }
+    }
+
+    @Test
+    fun `Waiting deliveries rejected when the circuit opens`() {
+        properties.webhook.delivery.async = true
+        properties.webhook.delivery.retries = 0
+        properties.webhook.delivery.concurrency = 1
+        properties.webhook.delivery.circuitBreakerThreshold = 1
+        statuses += 500
+        gate = CountDownLatch(1)
+        service = service()
+        service.send(webhook(), payload("one"))
+        service.send(webhook(), payload("two"))
+        gate.countDown()
+
+        verify(timeout = 5_000, exactly = 2) { webhookExchangeService.store(any()) }
+        assertEquals(1, received.size, "The waiting delivery is not sent to the failing webhook")
+        val rejected = exchanges.first { it.request.payload == """{"id":"two"}""" }
+        assertNull(rejected.response)
+    }
+
+    @Test
+    fun `Waiting deliveries sent as a batch`() {
+        properties.webhook.delivery.async = true
+        properties.webhook.delivery.concurrency = 1
+        properties.webhook.delivery.batchSize = 10
+        gate = CountDownLatch(1)
+        service = service()
+        val payloads = listOf("one", "two", "three").map { payload(it) }
+        payloads.forEach { service.send(webhook(), it) }
+        gate.countDown()
+
+        verify(timeout = 5_000, exactly = 3) { webhookExchangeService.store(any()) }
+        assertEquals(2, received.size)
+        assertNull(received[0].batch)
+        assertEquals("2", received[1].batch)
+        val batch = """[{"id":"two"},{"id":"three"}]"""
+        assertEquals(batch, received[1].body)
+        // Each exchange records the request actually sent
+        assertEquals(
+            mapOf(
+                payloads[0].uuid to """{"id":"one"}""",
+                payloads[1].uuid to batch,
+                payloads[2].uuid to batch,
+            ),
+            exchanges.associate { it.uuid to it.request.payload }
+        )
+    }
+
+    @Test
+    fun `Resources of an evicted webhook are released`() {
+        properties.webhook.delivery.async = true
+        properties.webhook.delivery.concurrency = 1
+        gate = CountDownLatch(1)
+        service = service()
+        service.send(webhook(), payload("one"))
+        service.send(webhook(), payload("two"))
+        assertNotNull(meterRegistry.find(WebhookMetrics.webhook_delivery_pending).tag("webhook", "test").gauge())
+
+        service.evict("test")
+
+        // Waiting delivery rejected
+        verify(timeout = 5_000) {
+            webhookExchangeService.store(match { it.request.payload == """{"id":"two"}""" && it.response == null })
+        }
+        assertNull(meterRegistry.find(WebhookMetrics.webhook_delivery_pending).tag("webhook", "test").gauge())
+        assertNull(meterRegistry.find(WebhookMetrics.webhook_delivery_inflight).tag("webhook", "test").gauge())
+        gate.countDown()
+    }
+
+    private fun service() = DefaultWebhookExecutionService(
+        webhookPayloadRenderer = mockk {
+            every { render(any()) } answers { """{"id":"${firstArg<WebhookPayload<*>>().data}"}""" }
+        },
+        webhookAuthenticatorRegistry = mockk {
+            every { findWebhookAuthenticator("header") } returns HeaderWebhookAuthenticator()
+        },
+        cachedSettingsService = mockk<CachedSettingsService> {
+            every { getCachedSettings(WebhookSettings::class.java) } returns WebhookSettings(enabled = true)
+        },
+        webhookExchangeService = webhookExchangeService,
+        meterRegistry = meterRegistry,
+        notificationsConfigProperties = properties,
+    )
+
+    private fun webhook() = Webhook(
+        name = "test",
+        enabled = true,
+        url = "http://localhost:${server.address.port}/hook",
+        timeout = Duration.ofSeconds(5),
+        authentication = WebhookFixtures.webhookAuthentication(),
+    )
+
+    private fun payload(data: String) = WebhookPayload(type = "test", data = data)
+
+}
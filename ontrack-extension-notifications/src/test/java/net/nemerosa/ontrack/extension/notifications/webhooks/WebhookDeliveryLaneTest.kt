@@ -0,0 +1,134 @@
+package net.nemerosa.ontrack.extension.notifications.webhooks
+
+import org.junit.jupiter.api.Test
+import java.time.Duration
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class WebhookDeliveryLaneTest {
+
+    private var now = 0L
+
+    private fun lane(
+        concurrency: Int = 2,
+        maxPending: Int = 10,
+        batchSize: Int = 1,
+    ) = WebhookDeliveryLane<String>(
+        concurrency = concurrency,
+        maxPending = maxPending,
+        batchSize = batchSize,
+        circuitBreakerThreshold = 2,
+        circuitBreakerDuration = Duration.ofSeconds(60),
+    ) { now }
+
+    @Test
+    fun `Deliveries are sent up to the concurrency limit`() {
+        val lane = lane()
+        assertEquals(listOf("1"), lane.offer("1"))
+        assertEquals(listOf("2"), lane.offer("2"))
+        assertEquals(emptyList<String>(), lane.offer("3"))
+        assertEquals(1, lane.pendingCount)
+    }
+
+    @Test
+    fun `Waiting deliveries are sent when a request is completed`() {
+        val lane = lane(concurrency = 1)
+        lane.offer("1")
+        lane.offer("2")
+        assertEquals(listOf("2"), lane.release(success = true).next)
+        assertEquals(emptyList<String>(), lane.release(success = true).next)
+        // Slot is available again
+        assertEquals(listOf("3"), lane.offer("3"))
+    }
+
+    @Test
+    fun `Waiting deliveries are sent by batches`() {
+        val lane = lane(concurrency = 1, batchSize = 2)
+        lane.offer("1")
+        lane.offer("2")
+        lane.offer("3")
+        lane.offer("4")
+        assertEquals(listOf("2", "3"), lane.release(success = true).next)
+        assertEquals(listOf("4"), lane.release(success = true).next)
+    }
+
+    @Test
+    fun `Deliveries are rejected when too many are waiting`() {
+        val lane = lane(concurrency = 1, maxPending = 1)
+        lane.offer("1")
+        lane.offer("2")
+        assertNull(lane.offer("3"))
+    }
+
+    @Test
+    fun `Deliveries are rejected after too many failures`() {
+        val lane = lane()
+        lane.offer("1")
+        lane.release(success = false)
+        assertFalse(lane.isOpen())
+        lane.offer("2")
+        lane.release(success = false)
+        assertTrue(lane.isOpen())
+        assertNull(lane.offer("3"))
+        // After the suspension
+        now += Duration.ofSeconds(61).toMillis()
+        assertFalse(lane.isOpen())
+        assertEquals(listOf("4"), lane.offer("4"))
+        // Failing again suspends the deliveries at once
+        lane.release(success = false)
+        assertTrue(lane.isOpen())
+    }
+
+    @Test
+    fun `Waiting deliveries are rejected when the deliveries are suspended`() {
+        val lane = lane(concurrency = 1)
+        lane.offer("1")
+        lane.release(success = false)
+        lane.offer("2")
+        lane.offer("3")
+        lane.offer("4")
+        val release = lane.release(success = false)
+        assertTrue(lane.isOpen())
+        assertEquals(emptyList(), release.next)
+        assertEquals(listOf("3", "4"), release.rejected)
+        assertEquals(0, lane.pendingCount)
+        // After the suspension, the slot is available again
+        now += Duration.ofSeconds(61).toMillis()
+        assertEquals(listOf("5"), lane.offer("5"))
+    }
+
+    @Test
+    fun `Waiting deliveries are sent after a failure below the threshold`() {
+        val lane = lane(concurrency = 1)
+        lane.offer("1")
+        lane.offer("2")
+        val release = lane.release(success = false)
+        assertEquals(listOf("2"), release.next)
+        assertEquals(emptyList(), release.rejected)
+    }
+
+    @Test
+    fun `Draining the waiting deliveries`() {
+        val lane = lane(concurrency = 1)
+        lane.offer("1")
+        lane.offer("2")
+        lane.offer("3")
+        assertEquals(listOf("2", "3"), lane.drain())
+        assertEquals(0, lane.pendingCount)
+        assertEquals(emptyList(), lane.release(success = true).next)
+    }
+
+    @Test
+    fun `Successful delivery resets the failures`() {
+        val lane = lane()
+        lane.offer("1")
+        lane.release(success = false)
+        lane.offer("2")
+        lane.release(success = true)
+        lane.offer("3")
+        lane.release(success = false)
+        assertFalse(lane.isOpen())
+    }
+}
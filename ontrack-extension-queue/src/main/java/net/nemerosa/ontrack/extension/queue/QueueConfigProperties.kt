@@ -1,9 +1,11 @@
 package net.nemerosa.ontrack.extension.queue
 
+import net.nemerosa.ontrack.extension.queue.record.QueueRecordDurability
 import net.nemerosa.ontrack.model.annotations.APIDescription
 import net.nemerosa.ontrack.model.annotations.APIName
 import org.springframework.boot.context.properties.ConfigurationProperties
 import org.springframework.stereotype.Component
+import java.time.Duration
 import kotlin.math.abs
 
 @Component
@@ -22,6 +24,11 @@ class QueueConfigProperties {
      */
     val specific = mutableMapOf<String, SpecificProperties>()
 
+    /**
+     * Recording of the messages
+     */
+    var records = RecordsProperties()
+
     /**
      * Processing properties
      */
@@ -46,6 +53,26 @@ class QueueConfigProperties {
         var scale: Int = 1
     }
 
+    /**
+     * Recording of the messages
+     */
+    class RecordsProperties {
+        @APIDescription("Durability of the changes on the queue records: IMMEDIATE (each change is written), COALESCED (changes written once the message is sent and once it's processed) or ASYNC (like COALESCED, but written in the background, in batches)")
+        var durability = QueueRecordDurability.COALESCED
+
+        @APIDescription("Maximum number of records written in one batch in the background")
+        var batchSize: Int = 100
+
+        @APIDescription("Interval between two background writes of the records")
+        var flushInterval: Duration = Duration.ofSeconds(1)
+
+        @APIDescription("Maximum number of records waiting to be written in the background. Beyond this, the records are written synchronously.")
+        var capacity: Int = 10_000
+
+        @APIDescription("Number of attempts to write the changes on a record which has not been created yet")
+        var attempts: Int = 10
+    }
+
     /**
      * Gets thr routing key for a message.
      */
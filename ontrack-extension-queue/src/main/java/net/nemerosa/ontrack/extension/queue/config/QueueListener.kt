@@ -7,6 +7,7 @@ import net.nemerosa.ontrack.extension.queue.metrics.queueMessageReceived
 import net.nemerosa.ontrack.extension.queue.metrics.queueProcessCompleted
 import net.nemerosa.ontrack.extension.queue.metrics.queueProcessErrored
 import net.nemerosa.ontrack.extension.queue.metrics.queueProcessTime
+import net.nemerosa.ontrack.extension.queue.record.QueueRecordBuilder
 import net.nemerosa.ontrack.extension.queue.record.QueueRecordService
 import net.nemerosa.ontrack.json.parseAsJson
 import net.nemerosa.ontrack.model.security.AccountOntrackUser
@@ -93,12 +94,16 @@ class QueueListener(
                 ackMessage(message, channel)
             }
 
+            // Changes on the record are written once the processing is over
+            var pendingRecord: QueueRecordBuilder? = null
+
             try {
                 val queue: String = message.messageProperties.consumerQueue
                 val body = message.body.toString(Charsets.UTF_8).parseAsJson()
                 val qp = QueuePayload.parse(body)
                 meterRegistry.queueMessageReceived(qp)
-                queueRecordService.received(qp, queue)
+                val record = queueRecordService.record(qp).received(queue)
+                pendingRecord = record
 
                 // Checks the processor
                 if (qp.processor != queueProcessor.id) {
@@ -108,19 +113,19 @@ class QueueListener(
                 // Parsing the payload
                 val payload = qp.parse(queueProcessor.payloadType)
                 logger.debug("Received: {}", payload)
-                queueRecordService.parsed(qp, payload)
+                record.parsed(payload)
 
                 // Check for processing
                 val cancelReason = queueProcessor.isCancelled(payload)
                 if (cancelReason != null) {
                     logger.debug("Cancelled: {}", payload)
-                    queueRecordService.cancelled(qp, cancelReason)
+                    record.cancelled(cancelReason)
                     return
                 }
 
                 // Processing
                 securityService.asAdmin {
-                    queueRecordService.processing(qp)
+                    record.processing()
 
                     // Gets the account to use from the queue payload
                     val account = securityService.asAdmin {
@@ -155,16 +160,17 @@ class QueueListener(
                             }
                         }
                         meterRegistry.queueProcessCompleted(qp)
-                        queueRecordService.completed(qp)
+                        record.completed()
                     } catch (any: Exception) {
                         meterRegistry.queueProcessErrored(qp)
-                        queueRecordService.errored(qp, any)
+                        record.errored(any)
                         throw any
                     }
                 }
             } catch (any: Throwable) {
                 logger.error("Uncaught error during the queue processing (processor = ${queueProcessor.id})", any)
             } finally {
+                pendingRecord?.let { queueRecordService.flush(it) }
                 if (queueProcessor.ackMode == QueueAckMode.END) {
                     ackMessage(message, channel)
                 }
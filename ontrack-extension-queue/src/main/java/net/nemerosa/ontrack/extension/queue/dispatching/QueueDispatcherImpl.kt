@@ -52,26 +52,31 @@ class QueueDispatcherImpl(
                 accountName = accountName,
                 body = payload
             )
-            queueRecordService.start(queuePayload, source)
-            val routingKey = queueConfigProperties.getRoutingKey(
-                queueProcessor,
-                payload
-            )
-            queueRecordService.setRouting(queuePayload, routingKey)
-            val message = queuePayload.asJson().format()
-            val topic = "ontrack.queue.${queueProcessor.id}"
-            amqpTemplate.convertAndSend(
-                topic,
-                routingKey,
-                message,
-            )
-            meterRegistry.queueMessageSent(queuePayload)
-            queueRecordService.sent(queuePayload)
-            QueueDispatchResult(
-                type = QueueDispatchResultType.PROCESSING,
-                id = queuePayload.id,
-                routingKey = routingKey,
-            )
+            // Changes on the record are written once the message has been sent
+            val record = queueRecordService.start(queuePayload, source)
+            try {
+                val routingKey = queueConfigProperties.getRoutingKey(
+                    queueProcessor,
+                    payload
+                )
+                record.setRouting(routingKey)
+                val message = queuePayload.asJson().format()
+                val topic = "ontrack.queue.${queueProcessor.id}"
+                amqpTemplate.convertAndSend(
+                    topic,
+                    routingKey,
+                    message,
+                )
+                meterRegistry.queueMessageSent(queuePayload)
+                record.sent()
+                QueueDispatchResult(
+                    type = QueueDispatchResultType.PROCESSING,
+                    id = queuePayload.id,
+                    routingKey = routingKey,
+                )
+            } finally {
+                queueRecordService.flush(record)
+            }
         }
 
     private fun <T : Any> sync(queueProcessor: QueueProcessor<T>): Boolean {
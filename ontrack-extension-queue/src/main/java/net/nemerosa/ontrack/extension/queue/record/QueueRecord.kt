@@ -48,7 +48,7 @@ data class QueueRecord(
 
     override val id: String = queuePayload.id
 
-    fun withState(state: QueueRecordState) = QueueRecord(
+    fun withState(state: QueueRecordState, time: LocalDateTime = Time.now()) = QueueRecord(
         state = state,
         queuePayload = queuePayload,
         startTime = startTime,
@@ -60,7 +60,7 @@ data class QueueRecord(
         history = listOf(
             QueueRecordHistory(
                 state = state,
-                time = Time.now()
+                time = time,
             )
         ) + history,
         source = source,
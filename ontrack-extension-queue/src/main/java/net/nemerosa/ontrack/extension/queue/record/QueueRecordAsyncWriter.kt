@@ -0,0 +1,126 @@
+package net.nemerosa.ontrack.extension.queue.record
+
+import net.nemerosa.ontrack.extension.queue.QueueConfigProperties
+import net.nemerosa.ontrack.model.support.ScheduledService
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import org.springframework.scheduling.Trigger
+import org.springframework.scheduling.support.PeriodicTrigger
+import org.springframework.stereotype.Component
+import java.util.concurrent.TimeUnit
+import javax.annotation.PreDestroy
+
+/**
+ * Writes the changes on the queue records in the background, in batches.
+ *
+ * Changes submitted for the same record while they are waiting are merged, so
+ * that only one write is done for them.
+ */
+@Component
+class QueueRecordAsyncWriter(
+    private val queueRecordWriter: QueueRecordWriter,
+    private val queueConfigProperties: QueueConfigProperties,
+) : ScheduledService {
+
+    private val logger: Logger = LoggerFactory.getLogger(QueueRecordAsyncWriter::class.java)
+
+    private val properties get() = queueConfigProperties.records
+
+    /**
+     * Changes waiting to be written, indexed by record ID, oldest first
+     */
+    private val pending = LinkedHashMap<String, Pending>()
+
+    /**
+     * Registers changes to be written.
+     *
+     * @param changes Changes to write
+     * @param attempts Number of attempts already made to write these changes
+     */
+    fun submit(changes: QueueRecordChanges, attempts: Int = 0) {
+        val accepted = synchronized(pending) {
+            val existing = pending[changes.id]
+            if (existing != null) {
+                pending[changes.id] = Pending(existing.changes.merge(changes), maxOf(existing.attempts, attempts))
+                true
+            } else if (pending.size < properties.capacity) {
+                pending[changes.id] = Pending(changes, attempts)
+                true
+            } else {
+                false
+            }
+        }
+        if (!accepted) {
+            // No capacity left, writing directly
+            write(Pending(changes, attempts))?.let { retry ->
+                logger.warn("[queue] No capacity to retry the changes on record ${retry.changes.id}, dropping them")
+            }
+        }
+    }
+
+    /**
+     * Writes all the pending changes.
+     */
+    fun flush() {
+        val retries = mutableListOf<Pending>()
+        while (true) {
+            val batch = synchronized(pending) {
+                val items = pending.values.take(properties.batchSize)
+                items.forEach { pending.remove(it.changes.id) }
+                items
+            }
+            if (batch.isEmpty()) {
+                break
+            }
+            batch.forEach { item ->
+                write(item)?.let { retries += it }
+            }
+        }
+        retries.forEach { retry ->
+            synchronized(pending) {
+                val newer = pending[retry.changes.id]
+                pending[retry.changes.id] = if (newer != null) {
+                    Pending(retry.changes.merge(newer.changes), retry.attempts)
+                } else {
+                    retry
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes some changes.
+     *
+     * @return Changes to try again or `null` if done
+     */
+    private fun write(item: Pending): Pending? {
+        val written = try {
+            queueRecordWriter.write(item.changes)
+        } catch (any: Exception) {
+            logger.error("[queue] Cannot write the changes on record ${item.changes.id}", any)
+            false
+        }
+        return if (written) {
+            null
+        } else if (item.attempts + 1 < properties.attempts) {
+            Pending(item.changes, item.attempts + 1)
+        } else {
+            logger.warn("[queue] Cannot write the changes on record ${item.changes.id} after ${item.attempts + 1} attempts, dropping them")
+            null
+        }
+    }
+
+    @PreDestroy
+    fun stop() {
+        flush()
+    }
+
+    override fun getTask() = Runnable { flush() }
+
+    override fun getTrigger(): Trigger = PeriodicTrigger(properties.flushInterval.toMillis(), TimeUnit.MILLISECONDS)
+
+    private class Pending(
+        val changes: QueueRecordChanges,
+        val attempts: Int,
+    )
+}
@@ -0,0 +1,97 @@
+package net.nemerosa.ontrack.extension.queue.record
+
+import com.fasterxml.jackson.databind.JsonNode
+import net.nemerosa.ontrack.common.Time
+import net.nemerosa.ontrack.extension.queue.QueuePayload
+import net.nemerosa.ontrack.json.asJson
+import java.time.LocalDateTime
+
+/**
+ * Accumulates in memory the changes of state of a queue message, until they
+ * are flushed using [QueueRecordService.flush].
+ *
+ * Instances are _not_ thread safe and are meant to be used by the thread
+ * sending or receiving the message.
+ *
+ * @property queuePayload Message being recorded
+ * @param record Whole record if it has not been written yet
+ * @param onTransition Called after each change of state
+ */
+class QueueRecordBuilder(
+    val queuePayload: QueuePayload,
+    private var record: QueueRecord? = null,
+    private val onTransition: (QueueRecordBuilder) -> Unit = {},
+) {
+
+    private val transitions = mutableListOf<QueueRecordTransition>()
+
+    fun setRouting(routingKey: String) =
+        transition(QueueRecordState.ROUTING_READY, fields = mapOf("routingKey" to routingKey)) {
+            it.withRoutingKey(routingKey)
+        }
+
+    fun sent() = transition(QueueRecordState.SENT)
+
+    fun received(queue: String?) =
+        transition(QueueRecordState.RECEIVED, fields = mapOf("queueName" to queue)) {
+            it.withQueue(queue)
+        }
+
+    fun parsed(payload: Any): QueueRecordBuilder {
+        val actualPayload: JsonNode = payload.asJson()
+        return transition(QueueRecordState.PARSED, fields = mapOf("actualPayload" to actualPayload)) {
+            it.withActualPayload(actualPayload)
+        }
+    }
+
+    fun cancelled(cancelReason: String) =
+        transition(QueueRecordState.CANCELLED, fields = mapOf("exception" to cancelReason)) {
+            it.withException(cancelReason)
+        }
+
+    fun processing() = transition(QueueRecordState.PROCESSING)
+
+    fun completed() = transition(QueueRecordState.COMPLETED, endTime = Time.now())
+
+    fun errored(exception: Exception): QueueRecordBuilder {
+        val stack = QueueRecordServiceImpl.reducedStackTrace(exception)
+        return transition(QueueRecordState.ERRORED, endTime = Time.now(), fields = mapOf("exception" to stack)) {
+            it.withException(stack)
+        }
+    }
+
+    /**
+     * Gets the pending changes and resets them.
+     *
+     * @return Pending changes or `null` if there are none
+     */
+    fun drain(): QueueRecordChanges? {
+        val current = record
+        return if (current == null && transitions.isEmpty()) {
+            null
+        } else {
+            val changes = QueueRecordChanges.of(queuePayload.id, current, transitions.toList())
+            record = null
+            transitions.clear()
+            changes
+        }
+    }
+
+    private fun transition(
+        state: QueueRecordState,
+        endTime: LocalDateTime? = null,
+        fields: Map<String, Any?> = emptyMap(),
+        update: (QueueRecord) -> QueueRecord = { it },
+    ): QueueRecordBuilder {
+        transitions += QueueRecordTransition(
+            state = state,
+            time = Time.now(),
+            endTime = endTime,
+            fields = fields,
+            update = update,
+        )
+        onTransition(this)
+        return this
+    }
+
+}
@@ -0,0 +1,66 @@
+package net.nemerosa.ontrack.extension.queue.record
+
+import net.nemerosa.ontrack.extension.recordings.RecordingPatch
+
+/**
+ * Changes on a queue record which have not been written yet.
+ *
+ * @property id ID of the record
+ * @property record Whole record, when it has never been written, with all the transitions applied
+ * @property transitions Transitions to apply on the stored record, oldest first. Empty when [record] is set.
+ */
+class QueueRecordChanges private constructor(
+    val id: String,
+    val record: QueueRecord?,
+    val transitions: List<QueueRecordTransition>,
+) {
+
+    /**
+     * Combines these changes with more recent ones on the same record.
+     */
+    fun merge(other: QueueRecordChanges): QueueRecordChanges {
+        check(other.id == id) { "Cannot merge changes of different queue records" }
+        return when {
+            // Record not written yet
+            record != null -> of(id, other.record ?: record, other.transitions)
+            // Transitions received before the record itself
+            other.record != null -> of(id, other.record, transitions)
+            // Transitions only
+            else -> of(id, null, transitions + other.transitions)
+        }
+    }
+
+    /**
+     * Converts the transitions into a patch on the stored record.
+     */
+    fun toPatch(): RecordingPatch {
+        val fields = mutableMapOf<String, Any?>()
+        transitions.forEach { fields += it.fields }
+        return RecordingPatch(
+            state = transitions.lastOrNull()?.state?.name,
+            endTime = transitions.lastOrNull { it.endTime != null }?.endTime,
+            fields = fields,
+            prepended = mapOf(
+                "history" to transitions.reversed().map {
+                    QueueRecordHistory(
+                        state = it.state,
+                        time = it.time,
+                    )
+                }
+            ),
+        )
+    }
+
+    companion object {
+
+        /**
+         * Creates a set of changes, applying the transitions on the record if it's set.
+         */
+        fun of(id: String, record: QueueRecord?, transitions: List<QueueRecordTransition>) =
+            if (record != null) {
+                QueueRecordChanges(id, transitions.fold(record) { r, t -> t.applyTo(r) }, emptyList())
+            } else {
+                QueueRecordChanges(id, null, transitions)
+            }
+    }
+}
@@ -0,0 +1,25 @@
+package net.nemerosa.ontrack.extension.queue.record
+
+/**
+ * Durability of the changes on the queue records.
+ */
+enum class QueueRecordDurability {
+
+    /**
+     * Each change of state is written immediately.
+     */
+    IMMEDIATE,
+
+    /**
+     * The changes of state are accumulated in memory and written synchronously
+     * once the message has been sent and once its processing is over.
+     */
+    COALESCED,
+
+    /**
+     * Like [COALESCED], but the changes are written in the background, in batches.
+     * Changes not written yet are lost if the node stops abruptly.
+     */
+    ASYNC,
+
+}
@@ -5,18 +5,25 @@ import net.nemerosa.ontrack.extension.queue.source.QueueSource
 
 /**
  * Recording events on queue items.
+ *
+ * The changes of state are accumulated into a [QueueRecordBuilder] and written
+ * when [flush] is called, according to the configured [QueueRecordDurability].
  */
 interface QueueRecordService {
 
-    fun start(queuePayload: QueuePayload, source: QueueSource?)
-    fun setRouting(queuePayload: QueuePayload, routingKey: String)
-    fun sent(queuePayload: QueuePayload)
+    /**
+     * Starts the recording of a message about to be sent.
+     */
+    fun start(queuePayload: QueuePayload, source: QueueSource?): QueueRecordBuilder
 
-    fun received(queuePayload: QueuePayload, queue: String?)
-    fun parsed(queuePayload: QueuePayload, payload: Any)
-    fun cancelled(queuePayload: QueuePayload, cancelReason: String)
-    fun processing(queuePayload: QueuePayload)
-    fun completed(queuePayload: QueuePayload)
-    fun errored(queuePayload: QueuePayload, exception: Exception)
+    /**
+     * Records the changes on a message which has already been recorded.
+     */
+    fun record(queuePayload: QueuePayload): QueueRecordBuilder
 
-}
\ No newline at end of file
+    /**
+     * Writes the changes accumulated so far.
+     */
+    fun flush(builder: QueueRecordBuilder)
+
+}
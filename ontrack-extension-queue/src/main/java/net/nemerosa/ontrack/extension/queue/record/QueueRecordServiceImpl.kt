@@ -1,84 +1,55 @@
 package net.nemerosa.ontrack.extension.queue.record
 
-import net.nemerosa.ontrack.common.Time
+import net.nemerosa.ontrack.extension.queue.QueueConfigProperties
 import net.nemerosa.ontrack.extension.queue.QueuePayload
 import net.nemerosa.ontrack.extension.queue.source.QueueSource
-import net.nemerosa.ontrack.extension.recordings.RecordingsService
-import net.nemerosa.ontrack.json.asJson
 import net.nemerosa.ontrack.model.security.SecurityService
 import org.apache.commons.lang3.exception.ExceptionUtils
 import org.springframework.stereotype.Service
-import org.springframework.transaction.annotation.Transactional
 
 @Service
-@Transactional
 class QueueRecordServiceImpl(
-    private val queueRecordingsExtension: QueueRecordingsExtension,
-    private val recordingsService: RecordingsService,
+    private val queueConfigProperties: QueueConfigProperties,
+    private val queueRecordWriter: QueueRecordWriter,
+    private val queueRecordAsyncWriter: QueueRecordAsyncWriter,
     private val securityService: SecurityService,
 ) : QueueRecordService {
 
-    override fun start(queuePayload: QueuePayload, source: QueueSource?) {
+    override fun start(queuePayload: QueuePayload, source: QueueSource?): QueueRecordBuilder {
         val record = QueueRecord.create(
             queuePayload = queuePayload,
             source = source,
             username = obfuscateUsername(),
         )
-        recordingsService.record(queueRecordingsExtension, record)
+        val builder = QueueRecordBuilder(queuePayload, record, onTransition())
+        if (durability == QueueRecordDurability.IMMEDIATE) {
+            flush(builder)
+        }
+        return builder
     }
 
     private fun obfuscateUsername() = securityService.currentAccount?.username?.let {
         if (it == "admin") it else "user"
     }
 
-    override fun setRouting(queuePayload: QueuePayload, routingKey: String) {
-        recordingsService.updateRecord(queueRecordingsExtension, queuePayload.id) {
-            it.withRoutingKey(routingKey).withState(QueueRecordState.ROUTING_READY)
-        }
-    }
-
-    override fun sent(queuePayload: QueuePayload) {
-        recordingsService.updateRecord(queueRecordingsExtension, queuePayload.id) {
-            it.withState(QueueRecordState.SENT)
-        }
-    }
-
-    override fun received(queuePayload: QueuePayload, queue: String?) {
-        recordingsService.updateRecord(queueRecordingsExtension, queuePayload.id) {
-            it.withState(QueueRecordState.RECEIVED).withQueue(queue)
-        }
-    }
+    override fun record(queuePayload: QueuePayload) =
+        QueueRecordBuilder(queuePayload, onTransition = onTransition())
 
-    override fun parsed(queuePayload: QueuePayload, payload: Any) {
-        recordingsService.updateRecord(queueRecordingsExtension, queuePayload.id) {
-            it.withActualPayload(payload.asJson()).withState(QueueRecordState.PARSED)
+    override fun flush(builder: QueueRecordBuilder) {
+        val changes = builder.drain() ?: return
+        if (durability == QueueRecordDurability.ASYNC) {
+            queueRecordAsyncWriter.submit(changes)
+        } else if (!queueRecordWriter.write(changes)) {
+            // The record has not been created yet by the sender, trying again later
+            queueRecordAsyncWriter.submit(changes, attempts = 1)
         }
     }
 
-    override fun cancelled(queuePayload: QueuePayload, cancelReason: String) {
-        recordingsService.updateRecord(queueRecordingsExtension, queuePayload.id) {
-            it.withException(cancelReason).withState(QueueRecordState.CANCELLED)
-        }
-    }
-
-    override fun processing(queuePayload: QueuePayload) {
-        recordingsService.updateRecord(queueRecordingsExtension, queuePayload.id) {
-            it.withState(QueueRecordState.PROCESSING)
-        }
-    }
-
-    override fun completed(queuePayload: QueuePayload) {
-        recordingsService.updateRecord(queueRecordingsExtension, queuePayload.id) {
-            it.withState(QueueRecordState.COMPLETED)
-                .withEndTime(Time.now())
-        }
-    }
+    private val durability get() = queueConfigProperties.records.durability
 
-    override fun errored(queuePayload: QueuePayload, exception: Exception) {
-        recordingsService.updateRecord(queueRecordingsExtension, queuePayload.id) {
-            it.withState(QueueRecordState.ERRORED)
-                .withEndTime(Time.now())
-                .withException(reducedStackTrace(exception))
+    private fun onTransition(): (QueueRecordBuilder) -> Unit = { builder ->
+        if (durability == QueueRecordDurability.IMMEDIATE) {
+            flush(builder)
         }
     }
 
@@ -89,4 +60,4 @@ class QueueRecordServiceImpl(
             ExceptionUtils.getStackFrames(error).take(MAX_STACK_HEIGHT).joinToString("\n")
     }
 
-}
\ No newline at end of file
+}
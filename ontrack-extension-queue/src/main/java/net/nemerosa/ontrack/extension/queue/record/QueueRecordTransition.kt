@@ -0,0 +1,34 @@
+package net.nemerosa.ontrack.extension.queue.record
+
+import java.time.LocalDateTime
+
+/**
+ * Change of state of a queue record, not written yet.
+ *
+ * @property state New state
+ * @property time Time of the change
+ * @property endTime End time to set, if any
+ * @property fields Fields of the record changed by this transition
+ * @property update Applies the changed fields on an in-memory record
+ */
+class QueueRecordTransition(
+    val state: QueueRecordState,
+    val time: LocalDateTime,
+    val endTime: LocalDateTime?,
+    val fields: Map<String, Any?>,
+    private val update: (QueueRecord) -> QueueRecord,
+) {
+
+    /**
+     * Applies this transition on an in-memory record.
+     */
+    fun applyTo(record: QueueRecord): QueueRecord =
+        update(record).withState(state, time).let {
+            if (endTime != null) {
+                it.withEndTime(endTime)
+            } else {
+                it
+            }
+        }
+
+}
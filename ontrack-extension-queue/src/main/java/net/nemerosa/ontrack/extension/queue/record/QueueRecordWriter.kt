@@ -0,0 +1,35 @@
+package net.nemerosa.ontrack.extension.queue.record
+
+import net.nemerosa.ontrack.extension.recordings.RecordingNotFoundException
+import net.nemerosa.ontrack.extension.recordings.RecordingsService
+import org.springframework.stereotype.Component
+
+/**
+ * Writes the changes on queue records.
+ */
+@Component
+class QueueRecordWriter(
+    private val queueRecordingsExtension: QueueRecordingsExtension,
+    private val recordingsService: RecordingsService,
+) {
+
+    /**
+     * Writes the changes on a record, in one statement.
+     *
+     * @return `false` if the changes apply on a record which does not exist yet
+     */
+    fun write(changes: QueueRecordChanges): Boolean {
+        val record = changes.record
+        if (record != null) {
+            recordingsService.record(queueRecordingsExtension, record)
+        } else if (changes.transitions.isNotEmpty()) {
+            try {
+                recordingsService.patchRecord(queueRecordingsExtension, changes.id, changes.toPatch())
+            } catch (_: RecordingNotFoundException) {
+                return false
+            }
+        }
+        return true
+    }
+
+}
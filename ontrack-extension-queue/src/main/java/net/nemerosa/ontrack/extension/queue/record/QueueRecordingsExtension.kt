@@ -27,6 +27,8 @@ class QueueRecordingsExtension(
 
     override fun fromJson(data: JsonNode): QueueRecord = data.parse()
 
+    override fun getState(recording: QueueRecord): String = recording.state.name
+
     override fun graphQLRecordFields(cache: GQLTypeCache): List<GraphQLFieldDefinition> =
             GraphQLBeanConverter.asObjectFields(QueueRecord::class, cache)
 
@@ -36,7 +38,7 @@ class QueueRecordingsExtension(
         val queries = mutableListOf<String>()
 
         if (!filter.id.isNullOrBlank()) {
-            queries += "data::jsonb->>'id' = :id"
+            queries += "ID = :id"
             queryVariables["id"] = filter.id
         }
 
@@ -46,7 +48,7 @@ class QueueRecordingsExtension(
         }
 
         if (filter.state != null) {
-            queries += "data::jsonb->'data'->>'state' = :state"
+            queries += "STATE = :state"
             queryVariables["state"] = filter.state.name
         }
 
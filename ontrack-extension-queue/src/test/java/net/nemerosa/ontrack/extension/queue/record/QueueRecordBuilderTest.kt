@@ -0,0 +1,99 @@
+package net.nemerosa.ontrack.extension.queue.record
+
+import net.nemerosa.ontrack.extension.queue.QueuePayload
+import net.nemerosa.ontrack.extension.queue.QueueTestFixtures
+import net.nemerosa.ontrack.json.asJson
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+
+class QueueRecordBuilderTest {
+
+    @Test
+    fun `New record accumulates all the transitions`() {
+        val record = QueueRecord.create(payload(), source = null, username = "admin")
+        val changes = QueueRecordBuilder(record.queuePayload, record)
+            .setRouting("routing.0")
+            .sent()
+            .drain()
+        assertNotNull(changes) {
+            assertEquals(emptyList(), it.transitions)
+            assertNotNull(it.record) { saved ->
+                assertEquals(QueueRecordState.SENT, saved.state)
+                assertEquals("routing.0", saved.routingKey)
+                assertEquals(
+                    listOf(QueueRecordState.SENT, QueueRecordState.ROUTING_READY, QueueRecordState.STARTED),
+                    saved.history.map { h -> h.state }
+                )
+            }
+        }
+    }
+
+    @Test
+    fun `Existing record is changed using one patch`() {
+        val changes = QueueRecordBuilder(payload())
+            .received("queue.0")
+            .processing()
+            .completed()
+            .drain()
+        assertNotNull(changes) {
+            assertNull(it.record)
+            val patch = it.toPatch()
+            assertEquals("COMPLETED", patch.state)
+            assertNotNull(patch.endTime)
+            assertEquals(mapOf("queueName" to "queue.0"), patch.fields)
+            assertEquals(
+                listOf(QueueRecordState.COMPLETED, QueueRecordState.PROCESSING, QueueRecordState.RECEIVED),
+                patch.prepended["history"]?.map { h -> (h as QueueRecordHistory).state }
+            )
+        }
+    }
+
+    @Test
+    fun `Nothing to drain`() {
+        val builder = QueueRecordBuilder(payload()).sent()
+        assertNotNull(builder.drain())
+        assertNull(builder.drain())
+    }
+
+    @Test
+    fun `Transitions received before the record are applied on it`() {
+        val record = QueueTestFixtures.queueRecord(state = QueueRecordState.SENT, queueName = null)
+        val received = QueueRecordBuilder(record.queuePayload).received("queue.0").drain()!!
+        val sent = QueueRecordBuilder(record.queuePayload, record).drain()!!
+        val merged = received.merge(sent)
+        assertEquals(emptyList(), merged.transitions)
+        assertNotNull(merged.record) {
+            assertEquals(QueueRecordState.RECEIVED, it.state)
+            assertEquals("queue.0", it.queueName)
+        }
+    }
+
+    @Test
+    fun `Transitions are merged`() {
+        val payload = payload()
+        val received = QueueRecordBuilder(payload).received("queue.0").drain()!!
+        val completed = QueueRecordBuilder(payload).processing().completed().drain()!!
+        val patch = received.merge(completed).toPatch()
+        assertEquals("COMPLETED", patch.state)
+        assertEquals(3, patch.prepended["history"]?.size)
+    }
+
+    @Test
+    fun `Immediate notification of the transitions`() {
+        var count = 0
+        QueueRecordBuilder(payload(), onTransition = { count++ })
+            .received("queue.0")
+            .parsed(mapOf("message" to "test"))
+        assertEquals(2, count)
+    }
+
+    private fun payload() = QueuePayload(
+        id = "test",
+        processor = "test",
+        accountName = "admin",
+        body = mapOf("message" to "test").asJson(),
+    )
+
+}
@@ -15,6 +15,7 @@ abstract class AbstractRecordingsService(
         recordingsStore.save(
                 store = extension.id,
                 recording = storedRecording,
+                state = extension.getState(recording),
         )
     }
 
@@ -25,4 +26,10 @@ abstract class AbstractRecordingsService(
         val newRecording = updating(recording)
         record(extension, newRecording)
     }
+
+    override fun <R : Recording, F : Any> patchRecord(extension: RecordingsExtension<R, F>, id: String, patch: RecordingPatch) {
+        if (!recordingsStore.patch(extension.id, id, patch)) {
+            throw RecordingNotFoundException(extension.id, id)
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package net.nemerosa.ontrack.extension.recordings
+
+import java.time.LocalDateTime
+
+/**
+ * Incremental change on a stored recording, applied without reading
+ * and rewriting the whole recording.
+ *
+ * @property state New state, if any. It's also set into the `state` field of the recording.
+ * @property endTime New end time, if any
+ * @property fields Fields of the recording to replace, indexed by name
+ * @property prepended Items to add, in this order, at the start of array fields of the recording, indexed by name
+ */
+class RecordingPatch(
+    val state: String? = null,
+    val endTime: LocalDateTime? = null,
+    val fields: Map<String, Any?> = emptyMap(),
+    val prepended: Map<String, List<Any>> = emptyMap(),
+)
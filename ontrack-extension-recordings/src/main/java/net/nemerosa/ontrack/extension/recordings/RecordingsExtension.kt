@@ -72,4 +72,10 @@ interface RecordingsExtension<R : Recording, F : Any> : Extension {
      */
     fun filterQuery(filter: F, queryVariables: MutableMap<String, Any?>): List<String>
 
+    /**
+     * Gets the state of the recording, if any. This state is stored in an indexed column
+     * and can be used in the filter queries as `STATE = :state`.
+     */
+    fun getState(recording: R): String? = null
+
 }
@@ -13,4 +13,15 @@ interface RecordingsService {
             updating: (R) -> R,
     )
 
+    /**
+     * Applies an incremental change to a recording, without reading it first.
+     *
+     * @throws RecordingNotFoundException If the recording cannot be found
+     */
+    fun <R : Recording, F : Any> patchRecord(
+            extension: RecordingsExtension<R, F>,
+            id: String,
+            patch: RecordingPatch,
+    )
+
 }
\ No newline at end of file
@@ -1,11 +1,19 @@
 package net.nemerosa.ontrack.extension.recordings.store
 
+import net.nemerosa.ontrack.extension.recordings.RecordingPatch
 import net.nemerosa.ontrack.model.pagination.PaginatedList
 import java.time.LocalDateTime
 
 interface RecordingsStore {
 
-    fun save(store: String, recording: StoredRecording)
+    fun save(store: String, recording: StoredRecording, state: String? = null)
+
+    /**
+     * Applies an incremental change to a recording.
+     *
+     * @return `false` if the recording could not be found
+     */
+    fun patch(store: String, id: String, patch: RecordingPatch): Boolean
 
     fun findById(store: String, id: String): StoredRecording?
 
@@ -27,4 +35,4 @@ interface RecordingsStore {
 
     fun removeAll(store: String)
 
-}
\ No newline at end of file
+}
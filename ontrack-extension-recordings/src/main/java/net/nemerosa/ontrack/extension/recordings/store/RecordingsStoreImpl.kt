@@ -1,25 +1,93 @@
 package net.nemerosa.ontrack.extension.recordings.store
 
+import net.nemerosa.ontrack.extension.recordings.RecordingPatch
+import net.nemerosa.ontrack.json.parse
 import net.nemerosa.ontrack.model.pagination.PaginatedList
-import net.nemerosa.ontrack.model.support.StorageService
 import net.nemerosa.ontrack.repository.support.AbstractJdbcRepository
-import org.springframework.stereotype.Component
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource
+import org.springframework.stereotype.Repository
+import java.sql.ResultSet
 import java.time.LocalDateTime
+import javax.sql.DataSource
 
-@Component
+/**
+ * Storage of the recordings in the `RECORDINGS` table.
+ *
+ * The `DATA` column contains the whole [StoredRecording] so that the JSON queries
+ * of the extensions (like `data->'data'->>'message'`) can still be used. The start &
+ * end times and the state are copied into indexed columns, used for the sorting,
+ * the filtering on the state and the cleanup.
+ */
+@Repository
 class RecordingsStoreImpl(
-        private val storageService: StorageService,
-) : RecordingsStore {
+        dataSource: DataSource,
+) : AbstractJdbcRepository(dataSource), RecordingsStore {
 
-    private fun store(store: String) =
-            "${StoredRecording::class.java.name}.$store"
+    override fun save(store: String, recording: StoredRecording, state: String?) {
+        namedParameterJdbcTemplate!!.update(
+                """
+                    INSERT INTO RECORDINGS (STORE, ID, START_TIME, END_TIME, STATE, DATA)
+                    VALUES (:store, :id, :startTime, :endTime, :state, CAST(:data AS JSONB))
+                    ON CONFLICT (STORE, ID) DO UPDATE
+                    SET START_TIME = :startTime, END_TIME = :endTime, STATE = :state, DATA = CAST(:data AS JSONB)
+                """,
+                params("store", store)
+                        .addValue("id", recording.id)
+                        .addValue("startTime", dateTimeForDB(recording.startTime))
+                        .addValue("endTime", dateTimeForDB(recording.endTime))
+                        .addValue("state", state)
+                        .addValue("data", writeJson(recording))
+        )
+    }
 
-    override fun save(store: String, recording: StoredRecording) {
-        storageService.store(store(store), recording.id, recording)
+    override fun patch(store: String, id: String, patch: RecordingPatch): Boolean {
+        val params = params("store", store).addValue("id", id)
+        var data = "DATA"
+        // End time, both at top level and in the recording
+        if (patch.endTime != null) {
+            params.addValue("endTimeJson", writeJson(patch.endTime))
+            data = "jsonb_set(jsonb_set($data, '{endTime}', CAST(:endTimeJson AS JSONB)), '{data,endTime}', CAST(:endTimeJson AS JSONB))"
+        }
+        // Fields to replace
+        val fields = if (patch.state != null) {
+            patch.fields + ("state" to patch.state)
+        } else {
+            patch.fields
+        }
+        fields.entries.forEachIndexed { index, (name, value) ->
+            checkFieldName(name)
+            params.addValue("field$index", writeJson(value))
+            data = "jsonb_set($data, '{data,$name}', CAST(:field$index AS JSONB), true)"
+        }
+        // Items to prepend to arrays
+        patch.prepended.entries.forEachIndexed { index, (name, items) ->
+            checkFieldName(name)
+            params.addValue("prepended$index", writeJson(items))
+            data = "jsonb_set($data, '{data,$name}', CAST(:prepended$index AS JSONB) || COALESCE(DATA->'data'->'$name', '[]'::jsonb), true)"
+        }
+        params.addValue("state", patch.state)
+        params.addValue("endTime", dateTimeForDB(patch.endTime))
+        return namedParameterJdbcTemplate!!.update(
+                """
+                    UPDATE RECORDINGS
+                    SET STATE = COALESCE(:state, STATE),
+                        END_TIME = COALESCE(:endTime, END_TIME),
+                        DATA = $data
+                    WHERE STORE = :store AND ID = :id
+                """,
+                params
+        ) > 0
+    }
+
+    private fun checkFieldName(name: String) {
+        require(name.matches(fieldNameRegex)) { "Invalid field name for a recording: $name" }
     }
 
     override fun findById(store: String, id: String): StoredRecording? =
-            storageService.find(store(store), id, StoredRecording::class)
+            getFirstItem(
+                    "SELECT DATA FROM RECORDINGS WHERE STORE = :store AND ID = :id",
+                    params("store", store).addValue("id", id)
+            ) { rs, _ -> toStoredRecording(rs) }
 
     override fun findByFilter(
             store: String,
@@ -28,50 +96,56 @@ class RecordingsStoreImpl(
             offset: Int,
             size: Int,
     ): PaginatedList<StoredRecording> {
-
-        val query = queries.joinToString(" AND ") { "( $it )" }
-
-        return storageService.paginatedFilter(
-                store = store(store),
-                type = StoredRecording::class,
+        val params = filterParams(store, queryVariables)
+        val items = namedParameterJdbcTemplate!!.query(
+                """
+                    SELECT DATA FROM RECORDINGS
+                    WHERE ${filterQuery(queries)}
+                    ORDER BY START_TIME DESC
+                    OFFSET :offset LIMIT :size
+                """,
+                params.addValue("offset", offset).addValue("size", size)
+        ) { rs, _ -> toStoredRecording(rs) }
+        return PaginatedList.create(
+                items = items,
                 offset = offset,
-                size = size,
-                query = query,
-                queryVariables = queryVariables,
-                orderQuery = "ORDER BY data::jsonb->>'startTime' DESC",
+                pageSize = size,
+                total = countByFilter(store, queries, queryVariables),
         )
     }
 
-    override fun countByFilter(store: String, queries: List<String>, queryVariables: Map<String, Any?>): Int {
-        val query = queries.joinToString(" AND ") { "( $it )" }
-        return storageService.count(
-                store = store(store),
-                query = query,
-                queryVariables = queryVariables,
-        )
-    }
+    override fun countByFilter(store: String, queries: List<String>, queryVariables: Map<String, Any?>): Int =
+            namedParameterJdbcTemplate!!.queryForObject(
+                    "SELECT COUNT(*) FROM RECORDINGS WHERE ${filterQuery(queries)}",
+                    filterParams(store, queryVariables),
+                    Int::class.java
+            ) ?: 0
 
     override fun removeAllBefore(store: String, retentionDate: LocalDateTime, nonRunningOnly: Boolean) {
-        if (nonRunningOnly) {
-            storageService.deleteWithFilter(
-                    store = store(store),
-                    query = "data::jsonb->>'endTime' IS NOT NULL AND data::jsonb->>'startTime' <= :beforeTime",
-                    queryVariables = mapOf(
-                            "beforeTime" to AbstractJdbcRepository.dateTimeForDB(retentionDate)
-                    )
-            )
-        } else {
-            storageService.deleteWithFilter(
-                    store = store(store),
-                    query = "data::jsonb->>'startTime' <= :beforeTime",
-                    queryVariables = mapOf(
-                            "beforeTime" to AbstractJdbcRepository.dateTimeForDB(retentionDate)
-                    )
-            )
-        }
+        val completed = if (nonRunningOnly) "AND END_TIME IS NOT NULL" else ""
+        namedParameterJdbcTemplate!!.update(
+                "DELETE FROM RECORDINGS WHERE STORE = :store AND START_TIME <= :beforeTime $completed",
+                params("store", store).addValue("beforeTime", dateTimeForDB(retentionDate))
+        )
     }
 
     override fun removeAll(store: String) {
-        storageService.deleteWithFilter(store(store))
+        namedParameterJdbcTemplate!!.update(
+                "DELETE FROM RECORDINGS WHERE STORE = :store",
+                params("store", store)
+        )
+    }
+
+    private fun filterQuery(queries: List<String>): String =
+            (listOf("STORE = :store") + queries.map { "( $it )" }).joinToString(" AND ")
+
+    private fun filterParams(store: String, queryVariables: Map<String, Any?>): MapSqlParameterSource =
+            params("store", store).addValues(queryVariables)
+
+    private fun toStoredRecording(rs: ResultSet): StoredRecording =
+            readJson(rs, "DATA").parse()
+
+    companion object {
+        private val fieldNameRegex = "[A-Za-z0-9_]+".toRegex()
     }
-}
\ No newline at end of file
+}
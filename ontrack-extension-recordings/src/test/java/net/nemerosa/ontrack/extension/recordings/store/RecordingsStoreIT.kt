@@ -1,11 +1,14 @@
 package net.nemerosa.ontrack.extension.recordings.store
 
+import net.nemerosa.ontrack.common.Time
+import net.nemerosa.ontrack.extension.recordings.RecordingPatch
 import net.nemerosa.ontrack.extension.recordings.RecordingsTestFixtures
 import net.nemerosa.ontrack.it.AbstractDSLTestSupport
 import net.nemerosa.ontrack.test.TestUtils.uid
 import org.junit.jupiter.api.Test
 import org.springframework.beans.factory.annotation.Autowired
 import kotlin.test.assertEquals
+import kotlin.test.assertFalse
 import kotlin.test.assertNotNull
 import kotlin.test.assertTrue
 
@@ -27,6 +30,48 @@ class RecordingsStoreIT : AbstractDSLTestSupport() {
         }
     }
 
+    @Test
+    fun `Patching a record`() {
+        val record = RecordingsTestFixtures.sampleRecord()
+        recordingsStore.save(RecordingsTestFixtures.testStore, record, state = "STARTED")
+        val endTime = Time.now()
+        val patched = recordingsStore.patch(
+                RecordingsTestFixtures.testStore,
+                record.id,
+                RecordingPatch(
+                        state = "DONE",
+                        endTime = endTime,
+                        fields = mapOf("result" to "OK"),
+                        prepended = mapOf("history" to listOf("DONE", "RUNNING")),
+                )
+        )
+        assertTrue(patched, "Record patched")
+        val saved = recordingsStore.findById(RecordingsTestFixtures.testStore, record.id)
+        assertNotNull(saved, "Record retrieved") {
+            assertEquals(endTime, it.endTime)
+            assertEquals("DONE", it.data.path("state").asText())
+            assertEquals("OK", it.data.path("result").asText())
+            assertEquals(record.data.path("message").asText(), it.data.path("message").asText())
+            assertEquals(listOf("DONE", "RUNNING"), it.data.path("history").map { item -> item.asText() })
+        }
+        // Filtering on the state column
+        assertEquals(
+                1,
+                recordingsStore.countByFilter(
+                        store = RecordingsTestFixtures.testStore,
+                        queries = listOf("ID = :id", "STATE = :state"),
+                        queryVariables = mapOf("id" to record.id, "state" to "DONE"),
+                )
+        )
+    }
+
+    @Test
+    fun `Patching a missing record`() {
+        assertFalse(
+                recordingsStore.patch(RecordingsTestFixtures.testStore, uid("missing_"), RecordingPatch(state = "DONE"))
+        )
+    }
+
     @Test
     fun `Pagination filter`() {
         val messages = (1..3).map { uid("msg_") }
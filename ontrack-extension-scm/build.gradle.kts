@@ -16,6 +16,7 @@ dependencies {
     implementation(project(":ontrack-repository-support"))
     implementation("io.micrometer:micrometer-core")
     implementation("com.opencsv:opencsv")
+    implementation("com.github.ben-manes.caffeine:caffeine")
 
     testImplementation(project(":ontrack-it-utils"))
     testImplementation(project(path = ":ontrack-model", configuration = "tests"))
@@ -0,0 +1,31 @@
+package net.nemerosa.ontrack.extension.scm
+
+import net.nemerosa.ontrack.model.annotations.APIDescription
+import net.nemerosa.ontrack.model.annotations.APIName
+import org.springframework.boot.context.properties.ConfigurationProperties
+import org.springframework.stereotype.Component
+
+@Component
+@ConfigurationProperties(prefix = "ontrack.extension.scm")
+@APIName("SCM configuration")
+@APIDescription("Configuration of the SCM extension")
+class SCMConfigProperties {
+
+    var changeLog = ChangeLog()
+
+    class ChangeLog {
+        var cache = ChangeLogCache()
+    }
+
+    class ChangeLogCache {
+        @APIDescription("Are the commits of the change logs cached?")
+        var enabled: Boolean = true
+
+        @APIDescription("Maximum number of commit ranges kept in memory")
+        var memorySize: Long = 500
+
+        @APIDescription("Maximum number of commit ranges kept in the database")
+        var maxEntries: Int = 10000
+    }
+
+}
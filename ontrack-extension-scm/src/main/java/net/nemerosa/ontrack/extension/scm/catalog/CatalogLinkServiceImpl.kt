@@ -13,7 +13,8 @@ class CatalogLinkServiceImpl(
         private val scmCatalog: SCMCatalog,
         private val scmCatalogProviders: List<SCMCatalogProvider>,
         private val structureService: StructureService,
-        private val entityDataService: EntityDataService
+        private val entityDataService: EntityDataService,
+        private val scmCatalogSnapshotService: SCMCatalogSnapshotService,
 ) : CatalogLinkService {
 
     private val logger: Logger = LoggerFactory.getLogger(CatalogLinkService::class.java)
@@ -24,9 +25,14 @@ class CatalogLinkServiceImpl(
         val catalogEntries = scmCatalog.catalogEntries
         val allCatalogKeys = catalogEntries.map { it.key }.toSet()
         val leftOverKeys = catalogEntries.map { it.key }.toMutableSet()
+        val links = mutableMapOf<String, Int>()
         catalogEntries.forEach {
-            if (computeCatalogLink(it, projects, providers)) {
+            val project = computeCatalogLink(it, projects, providers)
+            if (project != null) {
                 leftOverKeys.remove(it.key)
+                // A project is linked to one entry at most
+                links.values.remove(project.id())
+                links[it.key] = project.id()
             }
         }
         // Cleanup
@@ -37,6 +43,8 @@ class CatalogLinkServiceImpl(
                 entityDataService.delete(project, CatalogLinkService::class.java.name)
             }
         }
+        // Updating the snapshot
+        scmCatalogSnapshotService.updateLinks(links)
     }
 
     override fun getSCMCatalogEntry(project: Project): SCMCatalogEntry? =
@@ -59,7 +67,7 @@ class CatalogLinkServiceImpl(
             entry: SCMCatalogEntry,
             projects: List<Project>,
             providers: Map<String, SCMCatalogProvider>
-    ): Boolean {
+    ): Project? {
         logger.debug("Catalog entry ${entry.key}")
         // Gets a provider for this entry
         val provider = providers[entry.scm]
@@ -70,17 +78,22 @@ class CatalogLinkServiceImpl(
                 if (provider.matches(entry, project)) {
                     logger.debug("Catalog entry ${entry.key} --> ${project.name}")
                     // Stores the link
-                    storeLink(project, entry)
+                    storeLinkData(project, entry)
                     // OK
-                    return true
+                    return project
                 }
             }
         }
         // Not linked
-        return false
+        return null
     }
 
     override fun storeLink(project: Project, entry: SCMCatalogEntry) {
+        storeLinkData(project, entry)
+        scmCatalogSnapshotService.updateLink(entry.key, project.id())
+    }
+
+    private fun storeLinkData(project: Project, entry: SCMCatalogEntry) {
         entityDataService.store(
             project,
             CatalogLinkService::class.java.name,
@@ -13,7 +13,7 @@ import java.time.LocalDateTime
  * @param repositoryPage URL to the web repository page (a GitHub repository page for example)
  * @param lastActivity Timestamp for the last activity on this repository
  * @param createdAt Timestamp for the creation of this repository
- * @param timestamp Timestamp for the collection of the information
+ * @param timestamp Timestamp for the last collection where this information has changed
  * @param teams List of teams assigned to this entry
  */
 @JsonIgnoreProperties(ignoreUnknown = true)
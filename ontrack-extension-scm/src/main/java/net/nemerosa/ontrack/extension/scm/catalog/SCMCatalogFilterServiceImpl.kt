@@ -11,8 +11,7 @@ import org.springframework.transaction.annotation.Transactional
 @Service
 @Transactional
 class SCMCatalogFilterServiceImpl(
-    private val scmCatalog: SCMCatalog,
-    private val catalogLinkService: CatalogLinkService,
+    private val scmCatalogSnapshotService: SCMCatalogSnapshotService,
     private val structureService: StructureService,
     private val securityService: SecurityService
 ) : SCMCatalogFilterService {
@@ -20,10 +19,16 @@ class SCMCatalogFilterServiceImpl(
     override fun indexCatalogProjectEntries(): Map<SCMCatalogProjectFilterLink, Int> {
         val results = mutableMapOf<SCMCatalogProjectFilterLink, Int>()
 
-        scmCatalog.catalogEntries.forEach { entry ->
+        val snapshot = scmCatalogSnapshotService.snapshot
+        val projects = securityService.asAdmin {
+            structureService.projectList
+        }
+        val projectIds = projects.map { it.id() }.toSet()
+
+        snapshot.entries.forEach { entry ->
             incr(results, SCMCatalogProjectFilterLink.ALL)
             incr(results, SCMCatalogProjectFilterLink.ENTRY)
-            val linked = catalogLinkService.isLinked(entry)
+            val linked = snapshot.getLinkedProjectId(entry)?.let { it in projectIds } ?: false
             if (linked) {
                 incr(results, SCMCatalogProjectFilterLink.LINKED)
             } else {
@@ -31,12 +36,11 @@ class SCMCatalogFilterServiceImpl(
             }
         }
 
-        securityService.asAdmin {
-            structureService.projectList.forEach { project ->
-                if (catalogLinkService.isOrphan(project)) {
-                    incr(results, SCMCatalogProjectFilterLink.ALL)
-                    incr(results, SCMCatalogProjectFilterLink.ORPHAN)
-                }
+        val linkedProjectIds = snapshot.links.values.toSet()
+        projects.forEach { project ->
+            if (project.id() !in linkedProjectIds) {
+                incr(results, SCMCatalogProjectFilterLink.ALL)
+                incr(results, SCMCatalogProjectFilterLink.ORPHAN)
             }
         }
 
@@ -50,6 +54,18 @@ class SCMCatalogFilterServiceImpl(
     override fun findCatalogProjectEntries(filter: SCMCatalogProjectFilter): List<SCMCatalogEntryOrProject> {
         securityService.checkGlobalFunction(SCMCatalogAccessFunction::class.java)
 
+        // Snapshot of the catalog & current projects
+        val snapshot = scmCatalogSnapshotService.snapshot
+        val projects = securityService.asAdmin {
+            structureService.projectList
+        }.associateBy { it.id() }
+        val linkedProjectIds = snapshot.links.values.toSet()
+
+        // Gets the project linked to an entry, if it still exists
+        val linkedProject: (SCMCatalogEntry) -> Project? = { entry ->
+            snapshot.getLinkedProjectId(entry)?.let { projects[it] }
+        }
+
         // SCM catalog entry filter
         val repositoryRegex = filter.repository?.takeIf { it.isNotBlank() }?.toRegex()
         val entryScmFilter: (SCMCatalogEntry) -> Boolean = filter.scm?.takeIf { it.isNotBlank() }?.let {
@@ -61,7 +77,7 @@ class SCMCatalogFilterServiceImpl(
         val entryRepositoryFilter: (SCMCatalogEntry) -> Boolean = repositoryRegex?.let {
             { entry: SCMCatalogEntry -> it.matches(entry.repository) }
         } ?: { true }
-        val entryLinkFilter: (SCMCatalogEntry) -> Boolean = getEntryLinkFilter(filter.link)
+        val entryLinkFilter: (SCMCatalogEntry) -> Boolean = getEntryLinkFilter(filter.link, linkedProject)
         val entryBeforeLastActivityFilter: (SCMCatalogEntry) -> Boolean = filter.beforeLastActivity?.let {
             { entry: SCMCatalogEntry -> entry.lastActivity != null && entry.lastActivity.toLocalDate() <= it }
         } ?: { true }
@@ -98,15 +114,20 @@ class SCMCatalogFilterServiceImpl(
                 entryTeamFilter
 
         val entries: () -> Sequence<SCMCatalogEntryOrProject> = {
-            scmCatalog.catalogEntries.filter(entryFilter).map { entry ->
-                SCMCatalogEntryOrProject.entry(entry, catalogLinkService.getLinkedProject(entry))
+            snapshot.getCandidates(filter).asSequence().filter(entryFilter).map { entry ->
+                SCMCatalogEntryOrProject.entry(
+                    entry,
+                    linkedProject(entry)?.takeIf {
+                        securityService.isProjectFunctionGranted(it, ProjectView::class.java)
+                    }
+                )
             }
         }
 
         // Orphan project filter
         val projectRegex = filter.project?.takeIf { it.isNotBlank() }?.toRegex()
         val projectOrphanProject: (Project) -> Boolean = { project ->
-            catalogLinkService.isOrphan(project)
+            project.id() !in linkedProjectIds
         }
         val projectRegexFilter: (Project) -> Boolean = projectRegex?.let {
             { project: Project -> it.matches(project.name) }
@@ -117,9 +138,7 @@ class SCMCatalogFilterServiceImpl(
         val projectFilter: (Project) -> Boolean = projectOrphanProject and projectRegexFilter and projectSecurityFilter
 
         val orphanProjects: () -> Sequence<SCMCatalogEntryOrProject> = {
-            securityService.asAdmin {
-                structureService.projectList
-            }.asSequence().filter(projectFilter).map { project ->
+            projects.values.asSequence().filter(projectFilter).map { project ->
                 SCMCatalogEntryOrProject.orphanProject(project)
             }
         }
@@ -152,12 +171,15 @@ class SCMCatalogFilterServiceImpl(
         return allEntries.sortedWith(comparator).drop(filter.offset).take(filter.size).toList()
     }
 
-    private fun getEntryLinkFilter(link: SCMCatalogProjectFilterLink): (SCMCatalogEntry) -> Boolean = { entry ->
+    private fun getEntryLinkFilter(
+        link: SCMCatalogProjectFilterLink,
+        linkedProject: (SCMCatalogEntry) -> Project?,
+    ): (SCMCatalogEntry) -> Boolean = { entry ->
         when (link) {
             SCMCatalogProjectFilterLink.ALL -> true
             SCMCatalogProjectFilterLink.ENTRY -> true
-            SCMCatalogProjectFilterLink.LINKED -> catalogLinkService.isLinked(entry)
-            SCMCatalogProjectFilterLink.UNLINKED -> !catalogLinkService.isLinked(entry)
+            SCMCatalogProjectFilterLink.LINKED -> linkedProject(entry) != null
+            SCMCatalogProjectFilterLink.UNLINKED -> linkedProject(entry) == null
             SCMCatalogProjectFilterLink.ORPHAN -> false
         }
     }
@@ -14,12 +14,17 @@ import org.springframework.transaction.annotation.Transactional
 class SCMCatalogImpl(
         private val storageService: StorageService,
         private val scmCatalogProviders: List<SCMCatalogProvider>,
-        private val applicationLogService: ApplicationLogService
+        private val applicationLogService: ApplicationLogService,
+        private val scmCatalogSnapshotService: SCMCatalogSnapshotService,
 ) : SCMCatalog {
     override fun collectSCMCatalog(logger: (String) -> Unit) {
 
-        // Gets existing keys
-        val keys = storageService.getKeys(SCM_CATALOG_STORE).toMutableSet()
+        // Gets existing entries
+        val existingEntries = storageService.getData(SCM_CATALOG_STORE, SCMCatalogEntry::class.java)
+        val keys = existingEntries.keys.toMutableSet()
+
+        // Changed entries
+        val storedEntries = mutableListOf<SCMCatalogEntry>()
 
         // Getting new & updated items
         scmCatalogProviders.forEach { provider ->
@@ -49,12 +54,16 @@ class SCMCatalogImpl(
                         timestamp = Time.now(),
                         teams = source.teams
                 )
-                // Stores the entry
-                storageService.store(
-                        SCM_CATALOG_STORE,
-                        entry.key,
-                        entry
-                )
+                // Stores the entry only if it has changed
+                val existingEntry = existingEntries[entry.key]
+                if (existingEntry == null || existingEntry.copy(timestamp = entry.timestamp) != entry) {
+                    storageService.store(
+                            SCM_CATALOG_STORE,
+                            entry.key,
+                            entry
+                    )
+                    storedEntries += entry
+                }
                 // Stored
                 keys.remove(entry.key)
             }
@@ -64,14 +73,19 @@ class SCMCatalogImpl(
         keys.forEach {
             storageService.delete(SCM_CATALOG_STORE, it)
         }
+
+        // Updating the snapshot
+        if (storedEntries.isNotEmpty() || keys.isNotEmpty()) {
+            scmCatalogSnapshotService.updateEntries(storedEntries, keys)
+        }
     }
 
     override val catalogEntries: Sequence<SCMCatalogEntry>
-        get() = storageService.getData(SCM_CATALOG_STORE, SCMCatalogEntry::class.java).values.asSequence()
+        get() = scmCatalogSnapshotService.snapshot.entries.asSequence()
 
     override fun getCatalogEntry(key: String): SCMCatalogEntry? =
             storageService.retrieve(SCM_CATALOG_STORE, key, SCMCatalogEntry::class.java).getOrNull()
 
 }
 
-private const val SCM_CATALOG_STORE = "scm-catalog"
+internal const val SCM_CATALOG_STORE = "scm-catalog"
@@ -0,0 +1,119 @@
+package net.nemerosa.ontrack.extension.scm.catalog
+
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.util.*
+
+/**
+ * Immutable view of the SCM catalog entries and of their links to the projects,
+ * indexed for the filtering of the catalog.
+ *
+ * @property version Version of the catalog in the database when this snapshot was built
+ * @property links Links between the entries (indexed by [key][SCMCatalogEntry.key]) and the IDs of the projects
+ */
+class SCMCatalogSnapshot(
+    val version: String?,
+    entries: Collection<SCMCatalogEntry>,
+    val links: Map<String, Int>,
+) {
+
+    /**
+     * Entries, sorted by SCM, configuration & repository
+     */
+    val entries: List<SCMCatalogEntry> = entries.sorted()
+
+    private val byKey: Map<String, SCMCatalogEntry> = this.entries.associateBy { it.key }
+    private val byScm: Map<String, List<SCMCatalogEntry>> = this.entries.groupBy { it.scm }
+    private val byConfig: Map<String, List<SCMCatalogEntry>> = this.entries.groupBy { it.config }
+    private val withoutTeams: List<SCMCatalogEntry> = this.entries.filter { it.teams.isNullOrEmpty() }
+
+    /**
+     * Entries per lowercase team ID and name
+     */
+    private val byTeam: Map<String, List<SCMCatalogEntry>> = this.entries.flatMap { entry ->
+        entry.teams.orEmpty().flatMap { team ->
+            listOfNotNull(team.id, team.name).map { it.lowercase() to entry }
+        }
+    }.groupBy({ it.first }, { it.second })
+
+    /**
+     * Entries per day of last activity
+     */
+    private val byLastActivity: NavigableMap<LocalDate, List<SCMCatalogEntry>> = byDate { it.lastActivity }
+
+    /**
+     * Entries per day of creation
+     */
+    private val byCreatedAt: NavigableMap<LocalDate, List<SCMCatalogEntry>> = byDate { it.createdAt }
+
+    private fun byDate(selector: (SCMCatalogEntry) -> LocalDateTime?): NavigableMap<LocalDate, List<SCMCatalogEntry>> =
+        TreeMap(
+            entries.mapNotNull { entry -> selector(entry)?.let { it.toLocalDate() to entry } }
+                .groupBy({ it.first }, { it.second })
+        )
+
+    /**
+     * Gets an entry using its key
+     */
+    fun getEntry(key: String): SCMCatalogEntry? = byKey[key]
+
+    /**
+     * Gets the ID of the project linked to an entry
+     */
+    fun getLinkedProjectId(entry: SCMCatalogEntry): Int? = links[entry.key]
+
+    /**
+     * Gets the smallest list of entries matching the indexed criteria of the [filter].
+     *
+     * The returned entries must still be checked against the whole [filter].
+     */
+    fun getCandidates(filter: SCMCatalogProjectFilter): Collection<SCMCatalogEntry> {
+        val candidates = mutableListOf<Collection<SCMCatalogEntry>>()
+        filter.scm?.takeIf { it.isNotBlank() }?.let { candidates += byScm[it].orEmpty() }
+        filter.config?.takeIf { it.isNotBlank() }?.let { candidates += byConfig[it].orEmpty() }
+        filter.team?.takeIf { it.isNotBlank() }?.let { team ->
+            candidates += if (team == "-") {
+                withoutTeams
+            } else {
+                val token = team.lowercase()
+                byTeam.filterKeys { it.contains(token) }.values.flatten().distinct()
+            }
+        }
+        if (filter.afterLastActivity != null || filter.beforeLastActivity != null) {
+            candidates += range(byLastActivity, filter.afterLastActivity, filter.beforeLastActivity)
+        }
+        if (filter.afterCreatedAt != null || filter.beforeCreatedAt != null) {
+            candidates += range(byCreatedAt, filter.afterCreatedAt, filter.beforeCreatedAt)
+        }
+        return candidates.minByOrNull { it.size } ?: entries
+    }
+
+    private fun range(
+        index: NavigableMap<LocalDate, List<SCMCatalogEntry>>,
+        from: LocalDate?,
+        to: LocalDate?,
+    ): List<SCMCatalogEntry> =
+        when {
+            from != null && to != null -> if (from <= to) index.subMap(from, true, to, true) else emptyMap()
+            from != null -> index.tailMap(from, true)
+            to != null -> index.headMap(to, true)
+            else -> index
+        }.values.flatten()
+
+    /**
+     * Gets a new snapshot after some entries have been stored or deleted.
+     */
+    fun withEntries(version: String?, stored: Collection<SCMCatalogEntry>, deleted: Collection<String>): SCMCatalogSnapshot {
+        val newEntries = byKey.toMutableMap()
+        deleted.forEach { newEntries.remove(it) }
+        stored.forEach { newEntries[it.key] = it }
+        return SCMCatalogSnapshot(version, newEntries.values, links)
+    }
+
+    /**
+     * Gets a new snapshot with a new set of links.
+     */
+    fun withLinks(version: String?, links: Map<String, Int>): SCMCatalogSnapshot =
+        SCMCatalogSnapshot(version, entries, links)
+
+}
@@ -0,0 +1,39 @@
+package net.nemerosa.ontrack.extension.scm.catalog
+
+/**
+ * Maintains the [snapshot][SCMCatalogSnapshot] of the SCM catalog used for the queries.
+ *
+ * The snapshot is updated incrementally whenever the catalog entries or their links
+ * are changed on this node, and reloaded whenever they are changed by another node.
+ */
+interface SCMCatalogSnapshotService {
+
+    /**
+     * Gets the current snapshot, loading it if needed
+     */
+    val snapshot: SCMCatalogSnapshot
+
+    /**
+     * Registers some changes in the catalog entries
+     *
+     * @param stored Entries which have been created or updated
+     * @param deleted Keys of the entries which have been deleted
+     */
+    fun updateEntries(stored: Collection<SCMCatalogEntry>, deleted: Collection<String>)
+
+    /**
+     * Replaces all the links between the entries and the projects
+     *
+     * @param links Project IDs indexed by entry keys
+     */
+    fun updateLinks(links: Map<String, Int>)
+
+    /**
+     * Registers a new link between an entry and a project
+     *
+     * @param key Key of the entry
+     * @param projectId ID of the project
+     */
+    fun updateLink(key: String, projectId: Int)
+
+}
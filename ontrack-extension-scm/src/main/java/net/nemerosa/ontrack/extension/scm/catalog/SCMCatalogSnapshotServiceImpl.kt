@@ -0,0 +1,94 @@
+package net.nemerosa.ontrack.extension.scm.catalog
+
+import net.nemerosa.ontrack.model.security.SecurityService
+import net.nemerosa.ontrack.model.structure.EntityDataService
+import net.nemerosa.ontrack.model.structure.StructureService
+import net.nemerosa.ontrack.model.support.StorageService
+import org.springframework.stereotype.Service
+import org.springframework.transaction.annotation.Transactional
+import java.util.*
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * The version of the catalog is stored in the database and changed on every update,
+ * so that the nodes of a cluster can detect that their snapshot is outdated.
+ */
+@Service
+@Transactional
+class SCMCatalogSnapshotServiceImpl(
+    private val storageService: StorageService,
+    private val structureService: StructureService,
+    private val entityDataService: EntityDataService,
+    private val securityService: SecurityService,
+) : SCMCatalogSnapshotService {
+
+    private val current = AtomicReference<SCMCatalogSnapshot?>()
+
+    override val snapshot: SCMCatalogSnapshot
+        get() {
+            val version = storedVersion
+            val snapshot = current.get()
+            return if (snapshot != null && snapshot.version == version) {
+                snapshot
+            } else {
+                load(version)
+            }
+        }
+
+    @Synchronized
+    private fun load(version: String?): SCMCatalogSnapshot {
+        // Loaded in the meantime?
+        current.get()?.takeIf { it.version == version }?.let { return it }
+        // Loading the entries
+        val entries = storageService.getData(SCM_CATALOG_STORE, SCMCatalogEntry::class.java).values
+        // Loading the links
+        val links = securityService.asAdmin {
+            structureService.projectList.mapNotNull { project ->
+                entityDataService.retrieve(project, CatalogLinkService::class.java.name)?.let { key ->
+                    key to project.id()
+                }
+            }.toMap()
+        }
+        return SCMCatalogSnapshot(version, entries, links).apply {
+            current.set(this)
+        }
+    }
+
+    @Synchronized
+    override fun updateEntries(stored: Collection<SCMCatalogEntry>, deleted: Collection<String>) {
+        update { version -> withEntries(version, stored, deleted) }
+    }
+
+    @Synchronized
+    override fun updateLinks(links: Map<String, Int>) {
+        update { version -> withLinks(version, links) }
+    }
+
+    @Synchronized
+    override fun updateLink(key: String, projectId: Int) {
+        update { version ->
+            // A project is linked to one entry at most
+            withLinks(version, links.filterValues { it != projectId } + (key to projectId))
+        }
+    }
+
+    private fun update(code: SCMCatalogSnapshot.(version: String) -> SCMCatalogSnapshot) {
+        val snapshot = this.snapshot
+        val version = UUID.randomUUID().toString()
+        storageService.store(SCM_CATALOG_VERSION_STORE, SCM_CATALOG_VERSION_KEY, SCMCatalogVersion(version))
+        current.set(snapshot.code(version))
+    }
+
+    private val storedVersion: String?
+        get() = storageService.find(SCM_CATALOG_VERSION_STORE, SCM_CATALOG_VERSION_KEY, SCMCatalogVersion::class)?.version
+
+    internal data class SCMCatalogVersion(
+        val version: String,
+    )
+
+    companion object {
+        private const val SCM_CATALOG_VERSION_STORE = "scm-catalog-version"
+        private const val SCM_CATALOG_VERSION_KEY = "version"
+    }
+
+}
@@ -0,0 +1,43 @@
+package net.nemerosa.ontrack.extension.scm.changelog
+
+import java.time.LocalDateTime
+
+/**
+ * Commits between two boundaries, as stored in the [SCMChangeLogCommitsCache].
+ *
+ * @property repository Identifier of the SCM repository
+ * @property fromCommit Boundary commit
+ * @property toCommit Boundary commit
+ * @property commits Commits between the two boundaries
+ */
+data class SCMChangeLogCachedCommits(
+    val repository: String,
+    val fromCommit: String,
+    val toCommit: String,
+    val commits: List<SCMChangeLogCachedCommit>,
+)
+
+/**
+ * Stored version of a [SCMCommit].
+ */
+data class SCMChangeLogCachedCommit(
+    override val id: String,
+    override val shortId: String,
+    override val author: String,
+    override val authorEmail: String?,
+    override val timestamp: LocalDateTime,
+    override val message: String,
+    override val link: String,
+) : SCMCommit {
+    companion object {
+        fun of(commit: SCMCommit) = SCMChangeLogCachedCommit(
+            id = commit.id,
+            shortId = commit.shortId,
+            author = commit.author,
+            authorEmail = commit.authorEmail,
+            timestamp = commit.timestamp,
+            message = commit.message,
+            link = commit.link,
+        )
+    }
+}
@@ -0,0 +1,33 @@
+package net.nemerosa.ontrack.extension.scm.changelog
+
+/**
+ * Keeps the commits computed for the change logs, per SCM repository and
+ * commit range, so that all the change logs between the same builds (notifications,
+ * auto-versioning pull requests, UI) share the same computation.
+ */
+interface SCMChangeLogCommitsCache {
+
+    /**
+     * Gets the commits between two boundaries, from the cache if available.
+     *
+     * @param scm SCM to use to compute the commits if they are not cached
+     * @param fromCommit Boundary commit
+     * @param toCommit Boundary commit
+     * @return Commits between the two boundaries
+     */
+    suspend fun getCommits(scm: SCMChangeLogEnabled, fromCommit: String, toCommit: String): List<SCMCommit>
+
+    /**
+     * Removes the least recently used ranges from the database, so that
+     * only the configured maximum number of entries is kept.
+     *
+     * @return Number of removed entries
+     */
+    fun trim(): Int
+
+    /**
+     * Removes all the cached ranges
+     */
+    fun clear()
+
+}
@@ -0,0 +1,100 @@
+package net.nemerosa.ontrack.extension.scm.changelog
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import net.nemerosa.ontrack.common.Time
+import net.nemerosa.ontrack.extension.scm.SCMConfigProperties
+import org.apache.commons.codec.digest.DigestUtils
+import org.springframework.stereotype.Service
+import java.time.Duration
+
+/**
+ * Commits are kept in memory for the most used ranges and in the database for
+ * all of them, up to [SCMConfigProperties.ChangeLogCache.maxEntries].
+ *
+ * When a range is not cached, the most recently used range starting from the same
+ * commit is extended using [SCMChangeLogEnabled.getCommitsSince], if the SCM supports it.
+ *
+ * The last used time of a range is updated at most once every [TOUCH_PERIOD].
+ */
+@Service
+class SCMChangeLogCommitsCacheImpl(
+    private val store: SCMChangeLogCommitsStore,
+    scmConfigProperties: SCMConfigProperties,
+) : SCMChangeLogCommitsCache {
+
+    private val properties = scmConfigProperties.changeLog.cache
+
+    private val memory: Cache<String, List<SCMCommit>> = Caffeine.newBuilder()
+        .maximumSize(properties.memorySize)
+        .build()
+
+    override suspend fun getCommits(scm: SCMChangeLogEnabled, fromCommit: String, toCommit: String): List<SCMCommit> {
+        if (!properties.enabled) {
+            return scm.getCommits(fromCommit, toCommit)
+        }
+        val repository = "${scm.type}:${scm.repositoryURI}"
+        val key = key(repository, fromCommit, toCommit)
+        // In memory
+        memory.getIfPresent(key)?.let { return it }
+        // In the database
+        val stored = store.find(key)
+        val commits = if (stored != null) {
+            // Marks the range as being used
+            val now = Time.now()
+            store.touch(key, now, now.minus(TOUCH_PERIOD))
+            stored.commits
+        } else {
+            // Extending an existing range or computing the whole range
+            val computed = extend(scm, repository, fromCommit, toCommit)
+                ?: scm.getCommits(fromCommit, toCommit)
+            computed.map { SCMChangeLogCachedCommit.of(it) }.also {
+                store.save(
+                    key,
+                    SCMChangeLogCachedCommits(
+                        repository = repository,
+                        fromCommit = fromCommit,
+                        toCommit = toCommit,
+                        commits = it,
+                    ),
+                    Time.now(),
+                )
+            }
+        }
+        memory.put(key, commits)
+        return commits
+    }
+
+    /**
+     * Gets the commits of a range by extending the last used range starting from the same commit.
+     */
+    private suspend fun extend(
+        scm: SCMChangeLogEnabled,
+        repository: String,
+        fromCommit: String,
+        toCommit: String,
+    ): List<SCMCommit>? {
+        val prefix = store.findLastUsedFrom(repository, fromCommit) ?: return null
+        val delta = scm.getCommitsSince(prefix.toCommit, toCommit) ?: return null
+        // Newest commits first
+        return delta + prefix.commits
+    }
+
+    override fun trim(): Int = store.keepLastUsed(properties.maxEntries.coerceAtLeast(1))
+
+    override fun clear() {
+        memory.invalidateAll()
+        store.removeAll()
+    }
+
+    private fun key(repository: String, fromCommit: String, toCommit: String) =
+        DigestUtils.sha256Hex("$repository|$fromCommit|$toCommit")
+
+    companion object {
+        /**
+         * Minimum time between two updates of the last used time of a range
+         */
+        private val TOUCH_PERIOD = Duration.ofHours(1)
+    }
+
+}
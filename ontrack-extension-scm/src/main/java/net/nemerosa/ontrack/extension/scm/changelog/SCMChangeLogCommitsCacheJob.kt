@@ -0,0 +1,39 @@
+package net.nemerosa.ontrack.extension.scm.changelog
+
+import net.nemerosa.ontrack.extension.scm.SCMJobs
+import net.nemerosa.ontrack.job.*
+import net.nemerosa.ontrack.model.support.JobProvider
+import org.springframework.stereotype.Component
+
+/**
+ * Keeps the number of change log ranges stored in the database under control.
+ */
+@Component
+class SCMChangeLogCommitsCacheJob(
+    private val scmChangeLogCommitsCache: SCMChangeLogCommitsCache,
+) : JobProvider {
+
+    override fun getStartingJobs(): Collection<JobRegistration> = setOf(
+        JobRegistration(
+            createSCMChangeLogCommitsCacheJob(),
+            Schedule.EVERY_HOUR
+        )
+    )
+
+    private fun createSCMChangeLogCommitsCacheJob() = object : Job {
+
+        override fun isDisabled(): Boolean = false
+
+        override fun getKey(): JobKey = SCMJobs.category
+            .getType("change-log-cache").withName("Change log cache")
+            .getKey("trim")
+
+        override fun getDescription(): String = "Trimming the change log cache"
+
+        override fun getTask() = JobRun { listener ->
+            val count = scmChangeLogCommitsCache.trim()
+            listener.message("Removed %d change log ranges from the cache", count)
+        }
+
+    }
+}
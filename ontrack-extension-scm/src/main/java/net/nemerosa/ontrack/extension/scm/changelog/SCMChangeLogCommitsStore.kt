@@ -0,0 +1,44 @@
+package net.nemerosa.ontrack.extension.scm.changelog
+
+import java.time.LocalDateTime
+
+/**
+ * Storage of the cached change log commits.
+ */
+interface SCMChangeLogCommitsStore {
+
+    /**
+     * Gets a range by its key.
+     */
+    fun find(key: String): SCMChangeLogCachedCommits?
+
+    /**
+     * Gets the most recently used range starting from a given commit.
+     */
+    fun findLastUsedFrom(repository: String, fromCommit: String): SCMChangeLogCachedCommits?
+
+    /**
+     * Saves a range.
+     */
+    fun save(key: String, commits: SCMChangeLogCachedCommits, lastUsed: LocalDateTime)
+
+    /**
+     * Marks a range as used, only if it has not been used since [before].
+     */
+    fun touch(key: String, lastUsed: LocalDateTime, before: LocalDateTime)
+
+    /**
+     * Removes all the ranges but the [count] most recently used ones.
+     *
+     * @return Number of removed ranges
+     */
+    fun keepLastUsed(count: Int): Int
+
+    /**
+     * Number of stored ranges
+     */
+    fun count(): Int
+
+    fun removeAll()
+
+}
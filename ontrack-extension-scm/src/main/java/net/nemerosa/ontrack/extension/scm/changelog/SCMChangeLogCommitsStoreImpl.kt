@@ -0,0 +1,87 @@
+package net.nemerosa.ontrack.extension.scm.changelog
+
+import net.nemerosa.ontrack.json.parse
+import net.nemerosa.ontrack.repository.support.AbstractJdbcRepository
+import org.springframework.stereotype.Repository
+import java.sql.ResultSet
+import java.time.LocalDateTime
+import javax.sql.DataSource
+
+/**
+ * Storage of the cached change log commits in the `SCM_CHANGE_LOG_COMMITS` table.
+ *
+ * The `DATA` column contains the commits of the range. The last used time is kept
+ * in its own indexed column, so that marking a range as used does not rewrite its commits
+ * and so that the lookup of the ranges to extend or to remove does not scan the table.
+ */
+@Repository
+class SCMChangeLogCommitsStoreImpl(
+    dataSource: DataSource,
+) : AbstractJdbcRepository(dataSource), SCMChangeLogCommitsStore {
+
+    override fun find(key: String): SCMChangeLogCachedCommits? =
+        getFirstItem(
+            "SELECT DATA FROM SCM_CHANGE_LOG_COMMITS WHERE ID = :id",
+            params("id", key)
+        ) { rs, _ -> toCachedCommits(rs) }
+
+    override fun findLastUsedFrom(repository: String, fromCommit: String): SCMChangeLogCachedCommits? =
+        getFirstItem(
+            """
+                SELECT DATA FROM SCM_CHANGE_LOG_COMMITS
+                WHERE REPOSITORY = :repository AND FROM_COMMIT = :fromCommit
+                ORDER BY LAST_USED DESC
+                LIMIT 1
+            """,
+            params("repository", repository).addValue("fromCommit", fromCommit)
+        ) { rs, _ -> toCachedCommits(rs) }
+
+    override fun save(key: String, commits: SCMChangeLogCachedCommits, lastUsed: LocalDateTime) {
+        namedParameterJdbcTemplate!!.update(
+            """
+                INSERT INTO SCM_CHANGE_LOG_COMMITS (ID, REPOSITORY, FROM_COMMIT, TO_COMMIT, LAST_USED, DATA)
+                VALUES (:id, :repository, :fromCommit, :toCommit, :lastUsed, CAST(:data AS JSONB))
+                ON CONFLICT (ID) DO UPDATE
+                SET LAST_USED = :lastUsed, DATA = CAST(:data AS JSONB)
+            """,
+            params("id", key)
+                .addValue("repository", commits.repository)
+                .addValue("fromCommit", commits.fromCommit)
+                .addValue("toCommit", commits.toCommit)
+                .addValue("lastUsed", dateTimeForDB(lastUsed))
+                .addValue("data", writeJson(commits))
+        )
+    }
+
+    override fun touch(key: String, lastUsed: LocalDateTime, before: LocalDateTime) {
+        namedParameterJdbcTemplate!!.update(
+            "UPDATE SCM_CHANGE_LOG_COMMITS SET LAST_USED = :lastUsed WHERE ID = :id AND LAST_USED < :before",
+            params("id", key)
+                .addValue("lastUsed", dateTimeForDB(lastUsed))
+                .addValue("before", dateTimeForDB(before))
+        )
+    }
+
+    override fun keepLastUsed(count: Int): Int =
+        namedParameterJdbcTemplate!!.update(
+            """
+                DELETE FROM SCM_CHANGE_LOG_COMMITS
+                WHERE ID NOT IN (
+                    SELECT ID FROM SCM_CHANGE_LOG_COMMITS
+                    ORDER BY LAST_USED DESC
+                    LIMIT :count
+                )
+            """,
+            params("count", count)
+        )
+
+    override fun count(): Int =
+        jdbcTemplate!!.queryForObject("SELECT COUNT(*) FROM SCM_CHANGE_LOG_COMMITS", Int::class.java) ?: 0
+
+    override fun removeAll() {
+        jdbcTemplate!!.update("DELETE FROM SCM_CHANGE_LOG_COMMITS")
+    }
+
+    private fun toCachedCommits(rs: ResultSet): SCMChangeLogCachedCommits =
+        readJson(rs, "DATA").parse()
+}
@@ -35,6 +35,17 @@ interface SCMChangeLogEnabled : SCM {
      */
     suspend fun getCommits(fromCommit: String, toCommit: String): List<SCMCommit>
 
+    /**
+     * Gets the commits after [fromCommit] up to [toCommit], only if [fromCommit] is
+     * an ancestor of [toCommit].
+     *
+     * This is used to extend an already computed change log.
+     *
+     * @return List of commits (possibly empty) or `null` if [fromCommit] is not an ancestor
+     * of [toCommit] or if this SCM cannot tell.
+     */
+    suspend fun getCommitsSince(fromCommit: String, toCommit: String): List<SCMCommit>? = null
+
     /**
      * Gets the configured issue service for this SCM.
      */
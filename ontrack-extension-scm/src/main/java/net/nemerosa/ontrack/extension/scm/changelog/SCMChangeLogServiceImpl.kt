@@ -1,7 +1,7 @@
 package net.nemerosa.ontrack.extension.scm.changelog
 
+import net.nemerosa.ontrack.extension.issues.IssueResolutionService
 import net.nemerosa.ontrack.extension.issues.model.ConfiguredIssueService
-import net.nemerosa.ontrack.extension.issues.model.Issue
 import net.nemerosa.ontrack.extension.scm.service.SCMDetector
 import net.nemerosa.ontrack.model.structure.Build
 import net.nemerosa.ontrack.model.structure.BuildLink
@@ -12,6 +12,8 @@ import org.springframework.stereotype.Service
 class SCMChangeLogServiceImpl(
     private val scmDetector: SCMDetector,
     private val structureService: StructureService,
+    private val issueResolutionService: IssueResolutionService,
+    private val scmChangeLogCommitsCache: SCMChangeLogCommitsCache,
 ) : SCMChangeLogService {
 
     private fun getQualifiedBuild(
@@ -91,7 +93,7 @@ class SCMChangeLogServiceImpl(
         }
 
         // Getting the list of commits
-        val commits = scm.getCommits(fromCommit, toCommit)
+        val commits = scmChangeLogCommitsCache.getCommits(scm, fromCommit, toCommit)
             // ... sorted from the newest to the oldest
             .sortedByDescending { it.timestamp }
 
@@ -106,21 +108,12 @@ class SCMChangeLogServiceImpl(
         // Getting the issue service
         val configuredIssueService: ConfiguredIssueService? = scm.getConfiguredIssueService()
         val issuesChangeLog: SCMChangeLogIssues? = if (configuredIssueService != null) {
-            // Index of issues
-            val index = mutableMapOf<String, Issue>()
-            // For all commits in this commit log
-            commits.forEach { commit ->
-                val keys = configuredIssueService.extractIssueKeysFromMessage(commit.message)
-                keys.forEach { key ->
-                    val exisingIssue = index[key]
-                    if (exisingIssue == null) {
-                        val issue = configuredIssueService.getIssue(key)
-                        if (issue != null) {
-                            index[key] = issue
-                        }
-                    }
-                }
-            }
+            // Keys of the issues in all the commits of this change log
+            val keys = commits.flatMap { commit ->
+                configuredIssueService.extractIssueKeysFromMessage(commit.message)
+            }.toSet()
+            // Getting all the issues at once
+            val index = issueResolutionService.getIssues(configuredIssueService, keys)
             // OK
             val issues = index.values.sortedBy { it.key }
             val issueServiceConfiguration = configuredIssueService.issueServiceConfigurationRepresentation
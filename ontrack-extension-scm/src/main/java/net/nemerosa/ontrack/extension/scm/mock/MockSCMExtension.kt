@@ -199,6 +199,28 @@ class MockSCMExtension(
 
         fun findIssue(key: String) = issues[key]
 
+        /**
+         * Ranges requested through [getCommitsSince], in order
+         */
+        val commitsSinceRequests = mutableListOf<Pair<String, String>>()
+
+        /**
+         * Only supported for commits on the same branch
+         */
+        fun getCommitsSince(fromCommit: String, toCommit: String): List<SCMCommit>? {
+            commitsSinceRequests += fromCommit to toCommit
+            val branch = branches.find { (_, commits) ->
+                commits.any { it.id == fromCommit } && commits.any { it.id == toCommit }
+            } ?: return null
+            val indexFrom = branch.commits.indexOfFirst { it.id == fromCommit }
+            val indexTo = branch.commits.indexOfFirst { it.id == toCommit }
+            return if (indexFrom > indexTo) {
+                null
+            } else {
+                getCommits(fromCommit, toCommit)
+            }
+        }
+
         fun getCommits(fromCommit: String, toCommit: String): List<SCMCommit> {
             val fromBranch = branches.find { (_, commits) ->
                 commits.any { it.id == fromCommit }
@@ -342,6 +364,9 @@ class MockSCMExtension(
         override suspend fun getCommits(fromCommit: String, toCommit: String): List<SCMCommit> =
             repository(mockScmProjectProperty.name).getCommits(fromCommit, toCommit)
 
+        override suspend fun getCommitsSince(fromCommit: String, toCommit: String): List<SCMCommit>? =
+            repository(mockScmProjectProperty.name).getCommitsSince(fromCommit, toCommit)
+
         override fun getConfiguredIssueService(): ConfiguredIssueService? =
             if (mockScmProjectProperty.issueServiceIdentifier != null) {
                 issueServiceRegistry.getConfiguredIssueService(mockScmProjectProperty.issueServiceIdentifier)
@@ -4,6 +4,7 @@ import net.nemerosa.ontrack.extension.api.BranchDisplayNameExtension
 import net.nemerosa.ontrack.extension.scm.SCMExtensionFeature
 import net.nemerosa.ontrack.extension.support.AbstractExtension
 import net.nemerosa.ontrack.model.structure.Branch
+import net.nemerosa.ontrack.model.structure.ID
 import org.springframework.stereotype.Component
 
 @Component
@@ -14,4 +15,19 @@ class SCMPathBranchDisplayNameExtension(
     override fun getBranchDisplayName(branch: Branch): String? =
         scmDetector.getSCM(branch.project)
             ?.getSCMBranch(branch)
+
+    /**
+     * The SCM is detected only once per project.
+     */
+    override fun getBranchDisplayNames(branches: List<Branch>): Map<ID, String> =
+        branches.groupBy { it.project.id }.values.flatMap { projectBranches ->
+            val scm = scmDetector.getSCM(projectBranches.first().project)
+            if (scm != null) {
+                projectBranches.mapNotNull { branch ->
+                    scm.getSCMBranch(branch)?.let { branch.id to it }
+                }
+            } else {
+                emptyList()
+            }
+        }.toMap()
 }
\ No newline at end of file
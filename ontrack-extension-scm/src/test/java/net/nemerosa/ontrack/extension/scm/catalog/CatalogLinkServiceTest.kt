@@ -18,6 +18,7 @@ class CatalogLinkServiceTest {
     private lateinit var scmCatalogProvider: SCMCatalogProvider
     private lateinit var structureService: StructureService
     private lateinit var entityDataService: EntityDataService
+    private lateinit var scmCatalogSnapshotService: SCMCatalogSnapshotService
 
     private val project = Project(ID.of(1), "PRJ", "Project", false, Signature.of("test"))
 
@@ -30,11 +31,13 @@ class CatalogLinkServiceTest {
 
         structureService = mock()
         entityDataService = mock()
+        scmCatalogSnapshotService = mock()
         catalogLinkService = CatalogLinkServiceImpl(
                 scmCatalog,
                 listOf(scmCatalogProvider),
                 structureService,
-                entityDataService
+                entityDataService,
+                scmCatalogSnapshotService
         )
     }
 
@@ -55,6 +58,8 @@ class CatalogLinkServiceTest {
                 CatalogLinkService::class.java.name,
                 entry.key
         )
+        // Checks that the snapshot is updated
+        verify(scmCatalogSnapshotService).updateLinks(mapOf(entry.key to 1))
     }
 
     @Test
@@ -6,6 +6,7 @@ import net.nemerosa.ontrack.model.support.ApplicationLogService
 import net.nemerosa.ontrack.model.support.StorageService
 import org.junit.Before
 import org.junit.Test
+import java.time.LocalDateTime
 import java.util.*
 import kotlin.test.assertEquals
 import kotlin.test.assertNotNull
@@ -15,20 +16,23 @@ class SCMCatalogImplTest {
 
     private lateinit var storageService: StorageService
     private lateinit var applicationLogService: ApplicationLogService
+    private lateinit var scmCatalogSnapshotService: SCMCatalogSnapshotService
 
     @Before
     fun init() {
         storageService = mock()
         applicationLogService = mock()
+        scmCatalogSnapshotService = mock()
     }
 
     @Test
     fun `Registering entries without any provider`() {
-        val catalog = SCMCatalogImpl(storageService, emptyList(), applicationLogService)
-        whenever(storageService.getKeys("scm-catalog")).thenReturn(emptyList())
+        val catalog = SCMCatalogImpl(storageService, emptyList(), applicationLogService, scmCatalogSnapshotService)
+        whenever(storageService.getData("scm-catalog", SCMCatalogEntry::class.java)).thenReturn(emptyMap())
         catalog.collectSCMCatalog { println(it) }
         verify(storageService, times(0)).store(eq("scm-catalog"), any(), any())
         verify(storageService, times(0)).delete(eq("scm-catalog"), any())
+        verify(scmCatalogSnapshotService, times(0)).updateEntries(any(), any())
     }
 
     @Test
@@ -37,8 +41,8 @@ class SCMCatalogImplTest {
         whenever(provider.id).thenReturn("scm")
         whenever(provider.entries).thenReturn(listOf(source("project/repo1")))
 
-        val catalog = SCMCatalogImpl(storageService, listOf(provider), applicationLogService)
-        whenever(storageService.getKeys("scm-catalog")).thenReturn(emptyList())
+        val catalog = SCMCatalogImpl(storageService, listOf(provider), applicationLogService, scmCatalogSnapshotService)
+        whenever(storageService.getData("scm-catalog", SCMCatalogEntry::class.java)).thenReturn(emptyMap())
         catalog.collectSCMCatalog { println(it) }
         verify(storageService, times(1)).store(
                 eq("scm-catalog"),
@@ -60,8 +64,8 @@ class SCMCatalogImplTest {
         whenever(provider2.id).thenReturn("scm2")
         whenever(provider2.entries).thenReturn(listOf(source("project/repo2")))
 
-        val catalog = SCMCatalogImpl(storageService, listOf(provider1, provider2), applicationLogService)
-        whenever(storageService.getKeys("scm-catalog")).thenReturn(emptyList())
+        val catalog = SCMCatalogImpl(storageService, listOf(provider1, provider2), applicationLogService, scmCatalogSnapshotService)
+        whenever(storageService.getData("scm-catalog", SCMCatalogEntry::class.java)).thenReturn(emptyMap())
         catalog.collectSCMCatalog { println(it) }
         verify(storageService, times(1)).store(
                 eq("scm-catalog"),
@@ -86,8 +90,10 @@ class SCMCatalogImplTest {
         whenever(provider.id).thenReturn("scm")
         whenever(provider.entries).thenReturn(listOf(source("project/repo1"), source("project/repo2")))
 
-        val catalog = SCMCatalogImpl(storageService, listOf(provider), applicationLogService)
-        whenever(storageService.getKeys("scm-catalog")).thenReturn(listOf("scm::config::project/repo1"))
+        val catalog = SCMCatalogImpl(storageService, listOf(provider), applicationLogService, scmCatalogSnapshotService)
+        whenever(storageService.getData("scm-catalog", SCMCatalogEntry::class.java)).thenReturn(
+                mapOf("scm::config::project/repo1" to entry("project/repo1", repositoryPage = "https://scm/old"))
+        )
         catalog.collectSCMCatalog { println(it) }
         verify(storageService, times(1)).store(
                 eq("scm-catalog"),
@@ -112,8 +118,10 @@ class SCMCatalogImplTest {
         whenever(provider.id).thenReturn("scm")
         whenever(provider.entries).thenReturn(listOf(source("project/repo1")))
 
-        val catalog = SCMCatalogImpl(storageService, listOf(provider), applicationLogService)
-        whenever(storageService.getKeys("scm-catalog")).thenReturn(listOf("scm::config::project/repo2"))
+        val catalog = SCMCatalogImpl(storageService, listOf(provider), applicationLogService, scmCatalogSnapshotService)
+        whenever(storageService.getData("scm-catalog", SCMCatalogEntry::class.java)).thenReturn(
+                mapOf("scm::config::project/repo2" to entry("project/repo2"))
+        )
         catalog.collectSCMCatalog { println(it) }
         verify(storageService, times(1)).store(
                 eq("scm-catalog"),
@@ -123,15 +131,47 @@ class SCMCatalogImplTest {
                 }
         )
         verify(storageService).delete("scm-catalog", "scm::config::project/repo2")
+        verify(scmCatalogSnapshotService).updateEntries(
+                argThat { map { it.key } == listOf("scm::config::project/repo1") },
+                eq(setOf("scm::config::project/repo2"))
+        )
     }
 
     @Test
-    fun `Getting entries`() {
-        val catalog = SCMCatalogImpl(storageService, emptyList(), applicationLogService)
+    fun `Unchanged entries are not stored again`() {
+        val provider: SCMCatalogProvider = mock()
+        whenever(provider.id).thenReturn("scm")
+        val time = Time.now()
+        whenever(provider.entries).thenReturn(listOf(source("project/repo1", time), source("project/repo2", time)))
+
+        val catalog = SCMCatalogImpl(storageService, listOf(provider), applicationLogService, scmCatalogSnapshotService)
         whenever(storageService.getData("scm-catalog", SCMCatalogEntry::class.java)).thenReturn(
                 mapOf(
-                        "key1" to entry("project/repo1"),
-                        "key2" to entry("project/repo2")
+                        "scm::config::project/repo1" to entry("project/repo1", time = time),
+                        "scm::config::project/repo2" to entry("project/repo2", time = time.minusDays(1)),
+                )
+        )
+        catalog.collectSCMCatalog { println(it) }
+        verify(storageService, times(0)).store(eq("scm-catalog"), eq("scm::config::project/repo1"), any())
+        verify(storageService, times(1)).store(eq("scm-catalog"), eq("scm::config::project/repo2"), any())
+        verify(storageService, times(0)).delete(eq("scm-catalog"), any())
+        verify(scmCatalogSnapshotService).updateEntries(
+                argThat { map { it.key } == listOf("scm::config::project/repo2") },
+                eq(emptySet<String>())
+        )
+    }
+
+    @Test
+    fun `Getting entries`() {
+        val catalog = SCMCatalogImpl(storageService, emptyList(), applicationLogService, scmCatalogSnapshotService)
+        whenever(scmCatalogSnapshotService.snapshot).thenReturn(
+                SCMCatalogSnapshot(
+                        version = null,
+                        entries = listOf(
+                                entry("project/repo2"),
+                                entry("project/repo1")
+                        ),
+                        links = emptyMap()
                 )
         )
         val repositories = catalog.catalogEntries.map { it.repository }.sorted().toList()
@@ -143,7 +183,7 @@ class SCMCatalogImplTest {
 
     @Test
     fun `Getting an entry by key`() {
-        val catalog = SCMCatalogImpl(storageService, emptyList(), applicationLogService)
+        val catalog = SCMCatalogImpl(storageService, emptyList(), applicationLogService, scmCatalogSnapshotService)
         whenever(storageService.retrieve("scm-catalog", "key1", SCMCatalogEntry::class.java)).thenReturn(
                 Optional.of(entry("project/repo"))
         )
@@ -153,23 +193,28 @@ class SCMCatalogImplTest {
         assertNull(catalog.getCatalogEntry("key2"))
     }
 
-    private fun entry(name: String, scm: String = "scm") = SCMCatalogEntry(
+    private fun entry(
+        name: String,
+        scm: String = "scm",
+        repositoryPage: String = "https://scm/$name",
+        time: LocalDateTime = Time.now(),
+    ) = SCMCatalogEntry(
         scm = scm,
         config = "config",
         repository = name,
-        repositoryPage = "https://scm/$name",
-        lastActivity = Time.now(),
-        createdAt = Time.now(),
+        repositoryPage = repositoryPage,
+        lastActivity = time,
+        createdAt = time,
         timestamp = Time.now(),
         teams = null
     )
 
-    private fun source(name: String) = SCMCatalogSource(
+    private fun source(name: String, time: LocalDateTime = Time.now()) = SCMCatalogSource(
         config = "config",
         repository = name,
         repositoryPage = "https://scm/$name",
-        lastActivity = Time.now(),
-        createdAt = Time.now()
+        lastActivity = time,
+        createdAt = time
     )
 
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package net.nemerosa.ontrack.extension.scm.catalog
+
+import net.nemerosa.ontrack.extension.scm.catalog.CatalogFixtures.entry
+import net.nemerosa.ontrack.extension.scm.catalog.CatalogFixtures.team
+import org.junit.Test
+import java.time.LocalDate
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+class SCMCatalogSnapshotTest {
+
+    private val day = LocalDate.of(2022, 6, 15)
+
+    private val repo1 = entry(scm = "github", config = "gh", repository = "project/repo1", teams = listOf(team("Core-Team")))
+        .copy(lastActivity = day.atTime(10, 0), createdAt = day.minusYears(1).atStartOfDay())
+    private val repo2 = entry(scm = "github", config = "gh", repository = "project/repo2", teams = listOf(team("web")))
+        .copy(lastActivity = day.plusDays(10).atTime(10, 0), createdAt = day.atStartOfDay())
+    private val repo3 = entry(scm = "bitbucket", config = "bb", repository = "project/repo3")
+        .copy(lastActivity = null, createdAt = null)
+
+    private val snapshot = SCMCatalogSnapshot("v1", listOf(repo3, repo2, repo1), mapOf(repo1.key to 10))
+
+    @Test
+    fun `Entries are sorted`() {
+        assertEquals(listOf(repo3, repo1, repo2), snapshot.entries)
+    }
+
+    @Test
+    fun `No indexed criteria`() {
+        assertEquals(snapshot.entries, snapshot.getCandidates(SCMCatalogProjectFilter(repository = "repo.*")))
+    }
+
+    @Test
+    fun `Candidates by SCM`() {
+        assertEquals(listOf(repo1, repo2), snapshot.getCandidates(SCMCatalogProjectFilter(scm = "github")))
+        assertEquals(emptyList<SCMCatalogEntry>(), snapshot.getCandidates(SCMCatalogProjectFilter(scm = "gitlab")).toList())
+    }
+
+    @Test
+    fun `Candidates by configuration`() {
+        assertEquals(listOf(repo3), snapshot.getCandidates(SCMCatalogProjectFilter(config = "bb")))
+    }
+
+    @Test
+    fun `Candidates by team`() {
+        assertEquals(listOf(repo1), snapshot.getCandidates(SCMCatalogProjectFilter(team = "core")))
+        assertEquals(listOf(repo3), snapshot.getCandidates(SCMCatalogProjectFilter(team = "-")))
+    }
+
+    @Test
+    fun `Candidates by last activity`() {
+        assertEquals(
+            listOf(repo1),
+            snapshot.getCandidates(SCMCatalogProjectFilter(beforeLastActivity = day))
+        )
+        assertEquals(
+            listOf(repo2),
+            snapshot.getCandidates(SCMCatalogProjectFilter(afterLastActivity = day.plusDays(1)))
+        )
+        assertEquals(
+            listOf(repo1, repo2),
+            snapshot.getCandidates(SCMCatalogProjectFilter(afterLastActivity = day, beforeLastActivity = day.plusDays(10)))
+        )
+    }
+
+    @Test
+    fun `Candidates by creation date`() {
+        assertEquals(
+            listOf(repo2),
+            snapshot.getCandidates(SCMCatalogProjectFilter(afterCreatedAt = day))
+        )
+    }
+
+    @Test
+    fun `Smallest list of candidates`() {
+        assertEquals(
+            listOf(repo2),
+            snapshot.getCandidates(SCMCatalogProjectFilter(scm = "github", team = "web"))
+        )
+    }
+
+    @Test
+    fun `Updating the entries`() {
+        val updated = repo2.copy(repositoryPage = "uri:new")
+        val newSnapshot = snapshot.withEntries("v2", listOf(updated), listOf(repo3.key))
+        assertEquals("v2", newSnapshot.version)
+        assertEquals(listOf(repo1, updated), newSnapshot.entries)
+        assertNull(newSnapshot.getEntry(repo3.key))
+        assertEquals(10, newSnapshot.getLinkedProjectId(repo1))
+    }
+
+    @Test
+    fun `Updating the links`() {
+        val newSnapshot = snapshot.withLinks("v2", mapOf(repo2.key to 20))
+        assertNull(newSnapshot.getLinkedProjectId(repo1))
+        assertEquals(20, newSnapshot.getLinkedProjectId(repo2))
+    }
+
+}
@@ -0,0 +1,120 @@
+package net.nemerosa.ontrack.extension.scm.changelog
+
+import kotlinx.coroutines.runBlocking
+import net.nemerosa.ontrack.extension.scm.mock.MockSCMBuildCommitPropertyType
+import net.nemerosa.ontrack.extension.scm.mock.MockSCMExtension
+import net.nemerosa.ontrack.extension.scm.mock.MockSCMTester
+import net.nemerosa.ontrack.model.structure.Build
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.test.context.TestPropertySource
+import kotlin.test.assertEquals
+import kotlin.test.fail
+
+@TestPropertySource(
+    properties = [
+        "ontrack.extension.scm.change-log.cache.enabled=true",
+    ]
+)
+class SCMChangeLogCommitsCacheIT : AbstractSCMChangeLogTestSupport() {
+
+    @Autowired
+    private lateinit var mockSCMTester: MockSCMTester
+
+    @Autowired
+    private lateinit var scmChangeLogService: SCMChangeLogService
+
+    @Autowired
+    private lateinit var scmChangeLogCommitsCache: SCMChangeLogCommitsCache
+
+    @Autowired
+    private lateinit var mockSCMExtension: MockSCMExtension
+
+    @Autowired
+    private lateinit var scmChangeLogCommitsStore: SCMChangeLogCommitsStore
+
+    @BeforeEach
+    fun before() {
+        scmChangeLogCommitsCache.clear()
+    }
+
+    @Test
+    fun `Change log commits are stored`() {
+        prepareChangeLogTestCase { _, from, to ->
+            val messages = listOf(
+                "ISS-23 Fixing some CSS",
+                "ISS-22 Fixing some bugs",
+                "ISS-21 Some fixes for a feature",
+                "ISS-21 Some commits for a feature",
+            )
+            repeat(2) {
+                val changeLog = runBlocking {
+                    scmChangeLogService.getChangeLog(from, to)
+                } ?: fail("Could not get a change log")
+                assertEquals(messages, changeLog.commits.map { it.commit.message })
+            }
+            assertEquals(1, scmChangeLogCommitsStore.count())
+        }
+    }
+
+    @Test
+    fun `Change log extending an existing range`() {
+        asAdmin {
+            mockSCMTester.withMockSCMRepository {
+                project {
+                    branch {
+                        configureMockSCMBranch()
+                        val from = build {
+                            withRepositoryCommit("ISS-20 Last commit before the change log")
+                        }
+                        val mid = build {
+                            withRepositoryCommit("ISS-21 Some fixes for a feature")
+                        }
+                        val to = build {
+                            withRepositoryCommit("ISS-22 Fixing some bugs")
+                        }
+                        // First range
+                        runBlocking {
+                            scmChangeLogService.getChangeLog(from, mid)
+                        } ?: fail("Could not get a change log")
+                        // Extended range
+                        val changeLog = runBlocking {
+                            scmChangeLogService.getChangeLog(from, to)
+                        } ?: fail("Could not get a change log")
+                        assertEquals(
+                            listOf(
+                                "ISS-22 Fixing some bugs",
+                                "ISS-21 Some fixes for a feature",
+                            ),
+                            changeLog.commits.map { it.commit.message }
+                        )
+                        assertEquals(2, scmChangeLogCommitsStore.count())
+                        // Only the commits after the first range have been requested
+                        assertEquals(
+                            listOf(commit(mid) to commit(to)),
+                            mockSCMExtension.repository(repositoryName).commitsSinceRequests
+                        )
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    fun `Trimming the stored ranges`() {
+        prepareChangeLogTestCase { _, from, to ->
+            runBlocking {
+                scmChangeLogService.getChangeLog(from, to)
+            } ?: fail("Could not get a change log")
+            // Under the limit, nothing is removed
+            assertEquals(0, scmChangeLogCommitsCache.trim())
+            assertEquals(1, scmChangeLogCommitsStore.count())
+        }
+    }
+
+    private fun commit(build: Build): String =
+        propertyService.getPropertyValue(build, MockSCMBuildCommitPropertyType::class.java)?.id
+            ?: fail("No commit for build ${build.name}")
+
+}
@@ -0,0 +1,28 @@
+package net.nemerosa.ontrack.extension.stale
+
+/**
+ * Names of the metrics for the stale branches job.
+ */
+object StaleJobMetrics {
+
+    /**
+     * Time it takes to scan the branches of a project
+     */
+    const val METRIC_ONTRACK_STALE_SCAN_DURATION = "ontrack_stale_scan_duration"
+
+    /**
+     * Number of branches scanned
+     */
+    const val METRIC_ONTRACK_STALE_BRANCHES_SCANNED = "ontrack_stale_branches_scanned"
+
+    /**
+     * Number of branches deleted or disabled, per `action` and `outcome` (`success` or `error`)
+     */
+    const val METRIC_ONTRACK_STALE_BRANCHES_PROCESSED = "ontrack_stale_branches_processed"
+
+    /**
+     * Time it takes to delete or disable a chunk of branches, per `action`
+     */
+    const val METRIC_ONTRACK_STALE_CHUNK_DURATION = "ontrack_stale_chunk_duration"
+
+}
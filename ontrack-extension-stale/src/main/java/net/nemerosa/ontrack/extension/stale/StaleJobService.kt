@@ -1,10 +1,10 @@
 package net.nemerosa.ontrack.extension.stale
 
 import net.nemerosa.ontrack.job.JobRunListener
-import net.nemerosa.ontrack.job.orchestrator.JobOrchestratorSupplier
 import net.nemerosa.ontrack.model.structure.Project
+import net.nemerosa.ontrack.model.support.ProjectJobOrchestratorSupplier
 
-interface StaleJobService : JobOrchestratorSupplier {
+interface StaleJobService : ProjectJobOrchestratorSupplier {
 
     /**
      * If the project is configured for stale branches, applies its policy to all its branches.
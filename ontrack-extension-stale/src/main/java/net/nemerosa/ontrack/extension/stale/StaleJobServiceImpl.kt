@@ -1,22 +1,27 @@
 package net.nemerosa.ontrack.extension.stale
 
+import io.micrometer.core.instrument.MeterRegistry
 import net.nemerosa.ontrack.extension.api.ExtensionManager
 import net.nemerosa.ontrack.extension.stale.StaleBranchStatus.Companion.min
 import net.nemerosa.ontrack.job.*
 import net.nemerosa.ontrack.job.JobCategory.Companion.of
+import net.nemerosa.ontrack.model.metrics.increment
+import net.nemerosa.ontrack.model.metrics.time
 import net.nemerosa.ontrack.model.structure.Branch
 import net.nemerosa.ontrack.model.structure.Build
 import net.nemerosa.ontrack.model.structure.Project
 import net.nemerosa.ontrack.model.structure.StructureService
+import net.nemerosa.ontrack.model.tx.TransactionHelper
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 import org.springframework.stereotype.Component
-import kotlin.jvm.optionals.getOrNull
 
 @Component
 class StaleJobServiceImpl(
     extensionManager: ExtensionManager,
-    private val structureService: StructureService
+    private val structureService: StructureService,
+    private val transactionHelper: TransactionHelper,
+    private val meterRegistry: MeterRegistry,
 ) : StaleJobService {
 
     private val logger: Logger = LoggerFactory.getLogger(StaleJobServiceImpl::class.java)
@@ -27,10 +32,17 @@ class StaleJobServiceImpl(
 
     override val jobRegistrations: Collection<JobRegistration>
         get() = structureService.projectList
-            // ... which have a StaleProperty
-            .filter { project -> isProjectEligible(project) }
-            // ... and associates a job with them
-            .map { project -> createStaleJob(project) }
+            .flatMap { project -> getJobRegistrations(project) }
+
+    override fun getJobRegistrations(project: Project): Collection<JobRegistration> =
+        // Only for projects which have a StaleProperty
+        if (isProjectEligible(project)) {
+            listOf(createStaleJob(project))
+        } else {
+            emptyList()
+        }
+
+    override fun isProjectJob(key: JobKey, project: Project): Boolean = key == getStaleJobKey(project)
 
     private fun isProjectEligible(project: Project) = checks.any { it.isProjectEligible(project) }
 
@@ -63,21 +75,116 @@ class StaleJobServiceImpl(
 
     override fun detectAndManageStaleBranches(runListener: JobRunListener, project: Project) {
         if (isProjectEligible(project)) {
-            val context = DefaultStaleBranchCheckContext()
+            meterRegistry.time(StaleJobMetrics.METRIC_ONTRACK_STALE_SCAN_DURATION) {
+                scanAndManageStaleBranches(runListener, project)
+            }
+        }
+    }
+
+    private fun scanAndManageStaleBranches(runListener: JobRunListener, project: Project) {
+        val context = DefaultStaleBranchCheckContext()
+
+        val branches = context.getContext(StaleBranchCheckContext.ALL_BRANCHES) {
+            structureService.getBranchesForProject(project.id)
+        }
 
-            val branches = context.getContext(StaleBranchCheckContext.ALL_BRANCHES) {
-                structureService.getBranchesForProject(project.id)
+        // Last build of all the branches, in one go
+        val lastBuilds = structureService.getLastBuildsForProject(project)
+
+        // Evaluation of all the branches before acting on them
+        val statuses = branches.associateWith { branch ->
+            getBranchStaleness(context, branch, lastBuilds[branch.id])
+        }
+        meterRegistry.counter(StaleJobMetrics.METRIC_ONTRACK_STALE_BRANCHES_SCANNED).increment(branches.size.toDouble())
+        val toDelete = statuses.filterValues { it == StaleBranchStatus.DELETE }.keys
+        val toDisable = statuses.filter { (branch, status) ->
+            status == StaleBranchStatus.DISABLE && !branch.isDisabled
+        }.keys
+        runListener.message(
+            "[%s] %d branches scanned, %d to delete, %d to disable",
+            project.name, branches.size, toDelete.size, toDisable.size
+        )
+
+        // Actions, in chunks
+        apply(runListener, project, "deleted", toDelete) { structureService.deleteBranch(it.id) }
+        apply(runListener, project, "disabled", toDisable) { structureService.disableBranch(it) }
+    }
+
+    /**
+     * Applies an action on branches, by chunks of [CHUNK_SIZE] branches in one transaction.
+     *
+     * When a chunk fails, its branches are processed again one by one so that only the
+     * failing branches are left untouched, and the next chunks are still processed.
+     */
+    private fun apply(
+        runListener: JobRunListener,
+        project: Project,
+        action: String,
+        branches: Collection<Branch>,
+        code: (Branch) -> Unit,
+    ) {
+        var count = 0
+        var errors = 0
+        branches.chunked(CHUNK_SIZE).forEach { chunk ->
+            val failed = meterRegistry.time(StaleJobMetrics.METRIC_ONTRACK_STALE_CHUNK_DURATION, "action" to action) {
+                try {
+                    transactionHelper.inNewTransaction {
+                        chunk.forEach(code)
+                    }
+                    0
+                } catch (any: Exception) {
+                    logger.warn("[{}] Chunk of branches to be {} failed, processing them one by one", project.name, action, any)
+                    chunk.count { branch -> !applyOne(runListener, project, action, branch, code) }
+                }
+            } ?: 0
+            meterRegistry.counter(
+                StaleJobMetrics.METRIC_ONTRACK_STALE_BRANCHES_PROCESSED,
+                "action", action,
+                "outcome", "success",
+            ).increment((chunk.size - failed).toDouble())
+            count += chunk.size - failed
+            errors += failed
+            runListener.message("[%s] %d/%d branches %s, %d errors", project.name, count, branches.size, action, errors)
+        }
+    }
+
+    private fun applyOne(
+        runListener: JobRunListener,
+        project: Project,
+        action: String,
+        branch: Branch,
+        code: (Branch) -> Unit,
+    ): Boolean =
+        try {
+            transactionHelper.inNewTransaction {
+                code(branch)
             }
+            true
+        } catch (any: Exception) {
+            logger.error("[{}] Branch {} could not be {}", project.name, branch.name, action, any)
+            runListener.message("[%s] Branch %s could not be %s: %s", project.name, branch.name, action, any.message)
+            meterRegistry.increment(
+                StaleJobMetrics.METRIC_ONTRACK_STALE_BRANCHES_PROCESSED,
+                "action" to action,
+                "outcome" to "error",
+            )
+            false
+        }
 
-            branches.forEach { branch ->
-                // Last build on this branch
-                val lastBuild: Build? = structureService.getLastBuild(branch.id).getOrNull()
-                detectAndManageStaleBranch(context, branch, lastBuild)
+    fun detectAndManageStaleBranch(context: StaleBranchCheckContext, branch: Branch, lastBuild: Build?) {
+        // Actions
+        when (getBranchStaleness(context, branch, lastBuild)) {
+            StaleBranchStatus.DELETE -> structureService.deleteBranch(branch.id)
+            StaleBranchStatus.DISABLE -> if (!branch.isDisabled) {
+                structureService.disableBranch(branch)
+            }
+            // NUll or KEEP
+            else -> {
             }
         }
     }
 
-    fun detectAndManageStaleBranch(context: StaleBranchCheckContext, branch: Branch, lastBuild: Build?) {
+    private fun getBranchStaleness(context: StaleBranchCheckContext, branch: Branch, lastBuild: Build?): StaleBranchStatus? {
         logger.debug("[{}] Scanning branch for staleness", branch.entityDisplayName)
         // Gets all results
         val status: StaleBranchStatus? = checks.fold(null) { acc: StaleBranchStatus?, check: StaleBranchCheck ->
@@ -93,19 +200,15 @@ class StaleJobServiceImpl(
         }
         // Logging
         logger.debug("[{}] Branch staleness status: {}", branch.entityDisplayName, status)
-        // Actions
-        when (status) {
-            StaleBranchStatus.DELETE -> structureService.deleteBranch(branch.id)
-            StaleBranchStatus.DISABLE -> if (!branch.isDisabled) {
-                structureService.disableBranch(branch)
-            }
-            // NUll or KEEP
-            else -> {
-            }
-        }
+        return status
     }
 
     companion object {
+        /**
+         * Number of branches deleted or disabled in one transaction
+         */
+        private const val CHUNK_SIZE = 100
+
         val STALE_BRANCH_JOB: JobType = of("cleanup").withName("Cleanup")
             .getType("stale-branches").withName("Stale branches cleanup")
     }
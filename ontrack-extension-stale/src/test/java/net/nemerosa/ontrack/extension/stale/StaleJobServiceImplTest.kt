@@ -0,0 +1,89 @@
+package net.nemerosa.ontrack.extension.stale
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import net.nemerosa.ontrack.extension.api.ExtensionManager
+import net.nemerosa.ontrack.job.JobRunListener
+import net.nemerosa.ontrack.model.Ack
+import net.nemerosa.ontrack.model.structure.BranchFixtures
+import net.nemerosa.ontrack.model.structure.ID
+import net.nemerosa.ontrack.model.structure.ProjectFixtures
+import net.nemerosa.ontrack.model.structure.StructureService
+import net.nemerosa.ontrack.model.tx.TransactionHelper
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+
+class StaleJobServiceImplTest {
+
+    private val project = ProjectFixtures.testProject()
+    private val branches = (1..250).map { BranchFixtures.testBranch(id = it, project = project, name = "b$it") }
+
+    private lateinit var structureService: StructureService
+    private lateinit var transactionHelper: TransactionHelper
+    private lateinit var meterRegistry: SimpleMeterRegistry
+    private lateinit var service: StaleJobServiceImpl
+
+    @BeforeEach
+    fun init() {
+        val check = mockk<StaleBranchCheck> {
+            every { isProjectEligible(project) } returns true
+            every { isBranchEligible(any()) } returns true
+            every { getBranchStaleness(any(), any(), any()) } returns StaleBranchStatus.DELETE
+        }
+        val extensionManager = mockk<ExtensionManager> {
+            every { getExtensions(StaleBranchCheck::class.java) } returns listOf(check)
+        }
+        structureService = mockk {
+            every { getBranchesForProject(project.id) } returns branches
+            every { getLastBuildsForProject(project) } returns emptyMap()
+            every { deleteBranch(any()) } returns Ack.OK
+        }
+        transactionHelper = mockk {
+            every { inNewTransaction<Unit>(any()) } answers { firstArg<() -> Unit>()() }
+        }
+        meterRegistry = SimpleMeterRegistry()
+        service = StaleJobServiceImpl(extensionManager, structureService, transactionHelper, meterRegistry)
+    }
+
+    @Test
+    fun `Branches deleted in chunks`() {
+        service.detectAndManageStaleBranches(JobRunListener.out(), project)
+
+        verify(exactly = 3) { transactionHelper.inNewTransaction<Unit>(any()) }
+        branches.forEach { branch ->
+            verify(exactly = 1) { structureService.deleteBranch(branch.id) }
+        }
+        assertEquals(250.0, meterRegistry.counter(StaleJobMetrics.METRIC_ONTRACK_STALE_BRANCHES_SCANNED).count())
+        assertEquals(250.0, processed("success"))
+        assertEquals(0.0, processed("error"))
+        assertEquals(1L, meterRegistry.timer(StaleJobMetrics.METRIC_ONTRACK_STALE_SCAN_DURATION).count())
+        assertEquals(3L, meterRegistry.timer(StaleJobMetrics.METRIC_ONTRACK_STALE_CHUNK_DURATION, "action", "deleted").count())
+    }
+
+    @Test
+    fun `Failing branch isolated from the rest of its chunk and from the next chunks`() {
+        every { structureService.deleteBranch(ID.of(150)) } throws IllegalStateException("Cannot delete")
+
+        service.detectAndManageStaleBranches(JobRunListener.out(), project)
+
+        // One transaction for each chunk, plus one per branch of the failed chunk
+        verify(exactly = 3 + 100) { transactionHelper.inNewTransaction<Unit>(any()) }
+        // Branches of the next chunk are still deleted
+        (151..250).forEach { id ->
+            verify(exactly = 1) { structureService.deleteBranch(ID.of(id)) }
+        }
+        assertEquals(249.0, processed("success"))
+        assertEquals(1.0, processed("error"))
+    }
+
+    private fun processed(outcome: String) =
+        meterRegistry.counter(
+            StaleJobMetrics.METRIC_ONTRACK_STALE_BRANCHES_PROCESSED,
+            "action", "deleted",
+            "outcome", outcome,
+        ).count()
+
+}
@@ -114,6 +114,32 @@ interface GitRepositoryClient {
      */
     fun forEachCommit(code: (GitCommit) -> Unit)
 
+    /**
+     * Loops through the commits reachable from a head but not from a previous one.
+     *
+     * @param head Hash of the commit to start from
+     * @param since Hash of a previous head, `null` to loop through all the commits reachable from [head]
+     * @param exclude Hashes of other heads whose reachable commits are not looped through
+     * @param code Code to run for each commit hash
+     * @return `false` if [since] is not known or not an ancestor of [head] (like after a force push),
+     * in which case no commit is looped through
+     */
+    fun forEachCommitSince(
+        head: String,
+        since: String?,
+        exclude: Collection<String> = emptyList(),
+        code: (String) -> Unit,
+    ): Boolean
+
+    /**
+     * Checks if a commit is reachable from the head of a branch.
+     *
+     * @param commit Hash of the commit
+     * @param branch Name of the branch
+     * @return `false` if the commit or the branch cannot be found
+     */
+    fun isCommitInBranch(commit: String, branch: String): Boolean
+
     /**
      * Gets the earliest commit that contains the commit.
      *
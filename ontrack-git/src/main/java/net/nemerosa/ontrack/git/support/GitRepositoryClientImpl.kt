@@ -17,6 +17,7 @@ import org.eclipse.jgit.api.errors.InvalidRemoteException
 import org.eclipse.jgit.api.errors.NoHeadException
 import org.eclipse.jgit.diff.DiffEntry
 import org.eclipse.jgit.diff.DiffFormatter
+import org.eclipse.jgit.errors.MissingObjectException
 import org.eclipse.jgit.errors.NoRemoteRepositoryException
 import org.eclipse.jgit.lib.*
 import org.eclipse.jgit.revplot.PlotCommitList
@@ -347,6 +348,58 @@ class GitRepositoryClientImpl(
         }
     }
 
+    override fun forEachCommitSince(
+        head: String,
+        since: String?,
+        exclude: Collection<String>,
+        code: (String) -> Unit,
+    ): Boolean {
+        try {
+            val gitRepository = git.repository
+            RevWalk(gitRepository).use { walk ->
+                val headCommit = walk.parseCommit(gitRepository.resolve(head) ?: return false)
+                if (since != null) {
+                    val sinceId = gitRepository.resolve(since) ?: return false
+                    val sinceCommit = try {
+                        walk.parseCommit(sinceId)
+                    } catch (_: MissingObjectException) {
+                        return false
+                    }
+                    if (!walk.isMergedInto(sinceCommit, headCommit)) {
+                        return false
+                    }
+                    walk.reset()
+                    walk.markUninteresting(sinceCommit)
+                }
+                exclude.forEach { excluded ->
+                    gitRepository.resolve(excluded)?.let { walk.markUninteresting(walk.parseCommit(it)) }
+                }
+                walk.markStart(headCommit)
+                walk.forEach { commit -> code(commit.name) }
+                return true
+            }
+        } catch (e: IOException) {
+            throw GitRepositoryIOException(repository.remote, e)
+        }
+    }
+
+    override fun isCommitInBranch(commit: String, branch: String): Boolean {
+        try {
+            val gitRepository = git.repository
+            RevWalk(gitRepository).use { walk ->
+                val commitId = gitRepository.resolve(commit) ?: return false
+                val branchId = gitRepository.resolve(getBranchRef(branch)) ?: return false
+                return try {
+                    walk.isMergedInto(walk.parseCommit(commitId), walk.parseCommit(branchId))
+                } catch (_: MissingObjectException) {
+                    false
+                }
+            }
+        } catch (e: IOException) {
+            throw GitRepositoryIOException(repository.remote, e)
+        }
+    }
+
     override fun log(from: String, to: String): Stream<GitCommit> {
         try {
             val gitRepository = git.repository
@@ -6,7 +6,9 @@ import org.junit.Test
 import java.util.function.Consumer
 import java.util.stream.Collectors
 import kotlin.test.assertEquals
+import kotlin.test.assertFalse
 import kotlin.test.assertNotNull
+import kotlin.test.assertTrue
 
 class GitRepositoryClientImplTest {
 
@@ -226,6 +228,120 @@ class GitRepositoryClientImplTest {
      *     * C1
      * </pre>
      */
+    /**
+     * ```
+     *     *   C5 (main)
+     *     | * C4 (2.1)
+     *     |/
+     *     * C3
+     *     * C2
+     *     * C1
+     * ```
+     */
+    @Test
+    fun `Iterating over the commits since a previous head`() {
+        GitRepo.prepare {
+            gitInit()
+            commit(1)
+            commit(2)
+            commit(3)
+            git("checkout", "-b", "2.1")
+            commit(4)
+            git("checkout", "main")
+            commit(5)
+
+            log()
+        } and { client, repo ->
+            fun commitsSince(head: Int, since: Int?, exclude: List<Int> = emptyList()): Pair<Boolean, Set<String>> {
+                val commits = mutableSetOf<String>()
+                val result = client.forEachCommitSince(
+                    repo.commitLookup("Commit $head", false),
+                    since?.let { repo.commitLookup("Commit $it", false) },
+                    exclude.map { repo.commitLookup("Commit $it", false) },
+                ) { commits += it }
+                return result to commits
+            }
+            fun commits(vararg nos: Int) = nos.map { repo.commitLookup("Commit $it", false) }.toSet()
+
+            // All the commits
+            assertEquals(true to commits(1, 2, 3, 4), commitsSince(4, null))
+            // Since a previous head
+            assertEquals(true to commits(4), commitsSince(4, 3))
+            assertEquals(true to emptySet<String>(), commitsSince(4, 4))
+            // Excluding the commits of another branch
+            assertEquals(true to commits(4), commitsSince(4, null, listOf(5)))
+            assertEquals(true to emptySet<String>(), commitsSince(3, null, listOf(5)))
+            // Previous head is not an ancestor
+            assertEquals(false to emptySet<String>(), commitsSince(4, 5))
+        }
+    }
+
+    /**
+     * ```
+     *     * C3' (main, after the force push)
+     *     | * C3 (main, before the force push)
+     *     |/
+     *     * C2
+     *     * C1
+     * ```
+     */
+    @Test
+    fun `Iterating over the commits since a head removed by a force push`() {
+        GitRepo.prepare {
+            gitInit()
+            commit(1)
+            commit(2)
+            commit(3)
+
+            log()
+        } and { client, repo ->
+            val previousHead = repo.commitLookup("Commit 3", false)
+            // Rewriting the history
+            repo.git("reset", "--hard", "HEAD~1")
+            val head = repo.commit(4)
+            // Previous head no longer an ancestor
+            val commits = mutableListOf<String>()
+            assertFalse(client.forEachCommitSince(head, previousHead) { commits += it })
+            assertTrue(commits.isEmpty())
+            // Unknown previous head
+            assertFalse(client.forEachCommitSince(head, "0000000000000000000000000000000000000000") { commits += it })
+            assertTrue(commits.isEmpty())
+        }
+    }
+
+    /**
+     * ```
+     *     *   C4 (main)
+     *     | * C3 (2.1)
+     *     |/
+     *     * C2
+     *     * C1
+     * ```
+     */
+    @Test
+    fun `Commit contained by a branch`() {
+        GitRepo.prepare {
+            gitInit()
+            commit(1)
+            commit(2)
+            git("checkout", "-b", "2.1")
+            commit(3)
+            git("checkout", "main")
+            commit(4)
+
+            log()
+        } withClone { client, clientRepo, _ ->
+            client.sync(Consumer { println(it) })
+            val commit2 = clientRepo.commitLookup("Commit 2", false)
+            val commit3 = clientRepo.commitLookup("Commit 3", false)
+            assertTrue(client.isCommitInBranch(commit2, "main"))
+            assertTrue(client.isCommitInBranch(commit2, "2.1"))
+            assertTrue(client.isCommitInBranch(commit3, "2.1"))
+            assertFalse(client.isCommitInBranch(commit3, "main"))
+            assertFalse(client.isCommitInBranch(commit3, "unknown"))
+        }
+    }
+
     @Test
     fun `List of local branches with their commits`() {
         GitRepo.prepare {
@@ -46,6 +46,8 @@ import static net.nemerosa.ontrack.test.TestUtils.uid;
                 "spring.rabbitmq.host=localhost",
                 "spring.rabbitmq.username=ontrack",
                 "spring.rabbitmq.password=ontrack",
+                "ontrack.extension.issues.cache.max-size=0",
+                "ontrack.extension.scm.change-log.cache.enabled=false",
                 "spring.graphql.schema.locations=classpath*:graphql/**",
         }
 )
@@ -0,0 +1,49 @@
+package net.nemerosa.ontrack.job
+
+/**
+ * Leases on the jobs, used when several nodes share the same job definitions
+ * so that each job runs on one node only.
+ *
+ * A node keeps a lease as long as it's alive. When it stops, its leases expire
+ * and are taken over by the other nodes.
+ */
+interface JobLeases {
+
+    /**
+     * Name of the current node
+     */
+    val node: String
+
+    /**
+     * Checks if the current node can run the job, taking the lease on this job if needed.
+     *
+     * @param key Key of the job about to be run
+     * @return `true` if the current node owns the lease on this job
+     */
+    fun acquire(key: JobKey): Boolean
+
+    /**
+     * Notifies that the current node has completed a run of the job. The lease
+     * may be released in order to balance the jobs between the nodes.
+     *
+     * @param key Key of the job which has been run
+     */
+    fun done(key: JobKey)
+
+    /**
+     * Notifies that the job is no longer scheduled on the current node. Its lease
+     * is released and the job no longer counts in the share of this node.
+     *
+     * @param key Key of the job which has been unscheduled
+     */
+    fun forget(key: JobKey)
+
+    /**
+     * Gets the name of the node owning the lease on the job.
+     *
+     * @param key Key of the job
+     * @return Name of the owning node or `null` if no node owns this job
+     */
+    fun getOwner(key: JobKey): String?
+
+}
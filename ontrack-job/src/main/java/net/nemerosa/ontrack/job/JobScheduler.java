@@ -99,6 +99,7 @@ public interface JobScheduler {
      * @param jobKey Key of the job to fire immediately
      * @return Future for the job execution
      * @throws JobNotScheduledException If the job is not scheduled
+     * @throws net.nemerosa.ontrack.job.support.JobOwnedByAnotherNodeException If the job is owned by another node
      */
     Optional<CompletableFuture<?>> fireImmediately(JobKey jobKey);
 
@@ -19,7 +19,8 @@ open class JobStatus(
         val nextRunDate: LocalDateTime?,
         val lastErrorCount: Long,
         val lastTimeoutCount: Long,
-        val lastError: String?
+        val lastError: String?,
+        val node: String? = null,
 ) {
     val state: JobState
         get() = if (isRunning) {
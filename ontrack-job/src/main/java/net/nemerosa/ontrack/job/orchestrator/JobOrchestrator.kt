@@ -1,24 +1,52 @@
 package net.nemerosa.ontrack.job.orchestrator
 
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Tag
 import net.nemerosa.ontrack.job.*
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
+import java.time.Duration
 import java.util.*
-import kotlin.streams.toList
+import java.util.concurrent.TimeUnit
 import org.springframework.transaction.PlatformTransactionManager
 import org.springframework.transaction.support.TransactionTemplate
 
-class JobOrchestrator(
+/**
+ * Job which collects the job registrations from the [suppliers][JobOrchestratorSupplier] and
+ * reconciles them with the jobs actually scheduled.
+ *
+ * The [incremental][JobOrchestratorSupplier.isIncremental] suppliers are collected in full
+ * only every [fullInterval] (or when [requested][requestFullReconciliation]) since their changes
+ * are published in between using [reconcile]. A full collection where one of the suppliers fails is
+ * done again on the next run.
+ *
+ * @property fullInterval Interval between two full collections of the incremental suppliers. If `null`,
+ * all the suppliers are collected on every run.
+ * @property meterRegistry If set, the orchestrator will register its metrics
+ */
+class JobOrchestrator
+@JvmOverloads
+constructor(
     private val jobScheduler: JobScheduler,
     private val name: String,
     private val jobOrchestratorSuppliers: Collection<JobOrchestratorSupplier>,
     transactionManager: PlatformTransactionManager,
+    private val fullInterval: Duration? = null,
+    private val meterRegistry: MeterRegistry? = null,
 ) : Job {
 
-    private val cache = HashSet<JobKey>()
+    /**
+     * Keys of the scheduled jobs, per supplier
+     */
+    private val cache = IdentityHashMap<JobOrchestratorSupplier, MutableSet<JobKey>>()
     private val transactionTemplate = TransactionTemplate(transactionManager)
     private val logger: Logger = LoggerFactory.getLogger(JobOrchestrator::class.java)
 
+    /**
+     * Time (from [System.nanoTime]) of the last full collection, `null` if a full collection is needed
+     */
+    private var lastFull: Long? = null
+
     override fun getKey(): JobKey {
         return JobCategory.CORE.getType("orchestrator").withName("Orchestrator").getKey(name)
     }
@@ -27,35 +55,85 @@ class JobOrchestrator(
         return JobRun { this.orchestrate(it) }
     }
 
+    /**
+     * Makes sure that the next orchestration collects all the suppliers.
+     */
+    @Synchronized
+    fun requestFullReconciliation() {
+        lastFull = null
+    }
+
     @Synchronized
     fun orchestrate(runListener: JobRunListener) {
-        // Complete list of registrations
+        val start = System.nanoTime()
+        val full = fullInterval == null || lastFull?.let { start - it >= fullInterval.toNanos() } != true
+        val suppliers = if (full) {
+            jobOrchestratorSuppliers
+        } else {
+            jobOrchestratorSuppliers.filter { !it.isIncremental }
+        }
+        // Registrations per supplier
         val registrations = transactionTemplate.execute {
-            jobOrchestratorSuppliers.flatMap {
+            suppliers.mapNotNull { supplier ->
                 try {
-                    it.jobRegistrations
+                    supplier to supplier.jobRegistrations
                 } catch (any: Exception) {
                     // Does not collect the jobs for this collector for now, but marks the exception
-                    logger.error("Cannot collect jobs for ${it::class.java.name}", any)
-                    emptyList()
+                    logger.error("Cannot collect jobs for ${supplier::class.java.name}", any)
+                    null
                 }
             }
         } ?: return
+        // Reconciliation per supplier
+        val churn = registrations.fold(Churn()) { churn, (supplier, supplierRegistrations) ->
+            churn + reconcile(supplier, supplierRegistrations, runListener) { true }
+        }
+        // A failed supplier is collected again on the next run
+        if (full && registrations.size == suppliers.size) {
+            lastFull = start
+        }
+        record(if (full) "full" else "partial", start, churn)
+    }
+
+    /**
+     * Reconciles a part of the jobs of a supplier, typically after a change of the entities
+     * these jobs are based on.
+     *
+     * @param supplier Supplier of the jobs
+     * @param registrations Up-to-date registrations for the part of the jobs to reconcile
+     * @param scope Checks if a job key belongs to the part to reconcile. Jobs of this part which
+     * are not in the [registrations] are unscheduled.
+     */
+    @Synchronized
+    fun reconcile(
+        supplier: JobOrchestratorSupplier,
+        registrations: Collection<JobRegistration>,
+        scope: (JobKey) -> Boolean,
+    ) {
+        val start = System.nanoTime()
+        val churn = reconcile(supplier, registrations, JobRunListener.logger(logger), scope)
+        record("incremental", start, churn)
+    }
+
+    private fun reconcile(
+        supplier: JobOrchestratorSupplier,
+        registrations: Collection<JobRegistration>,
+        runListener: JobRunListener,
+        scope: (JobKey) -> Boolean,
+    ): Churn {
+        val cached = cache.getOrPut(supplier) { HashSet() }
         // List of registration keys
-        val keys = registrations.map { registration -> registration.job.key }
+        val keys = registrations.map { registration -> registration.job.key }.toSet()
         // Jobs to unschedule
-        val toRemove = HashSet(cache)
-        toRemove.removeAll(keys)
+        val toRemove = cached.filter { scope(it) && it !in keys }
         toRemove.forEach { jobScheduler.unschedule(it) }
         // Jobs to add / update
-        val toRegister = HashSet(keys)
-        toRegister.removeAll(toRemove)
-        registrations
-            .filter { jobRegistration -> toRegister.contains(jobRegistration.job.key) }
-            .forEach { jobRegistration -> schedule(jobRegistration, runListener) }
-        // Resets the cache
-        cache.clear()
-        cache.addAll(keys)
+        val added = keys.count { it !in cached }
+        registrations.forEach { jobRegistration -> schedule(jobRegistration, runListener) }
+        // Updates the cache
+        cached.removeAll(toRemove.toSet())
+        cached.addAll(keys)
+        return Churn(scheduled = added, unscheduled = toRemove.size)
     }
 
     private fun schedule(jobRegistration: JobRegistration, runListener: JobRunListener) {
@@ -63,6 +141,15 @@ class JobOrchestrator(
         jobScheduler.schedule(jobRegistration.job, jobRegistration.schedule)
     }
 
+    private fun record(mode: String, start: Long, churn: Churn) {
+        if (meterRegistry != null) {
+            val tags = listOf(Tag.of("orchestrator", name), Tag.of("mode", mode))
+            meterRegistry.timer(METRIC_DURATION, tags).record(System.nanoTime() - start, TimeUnit.NANOSECONDS)
+            meterRegistry.counter(METRIC_SCHEDULED, tags).increment(churn.scheduled.toDouble())
+            meterRegistry.counter(METRIC_UNSCHEDULED, tags).increment(churn.unscheduled.toDouble())
+        }
+    }
+
     override fun getDescription(): String {
         return name
     }
@@ -71,4 +158,28 @@ class JobOrchestrator(
         return false
     }
 
+    private data class Churn(
+        val scheduled: Int = 0,
+        val unscheduled: Int = 0,
+    ) {
+        operator fun plus(other: Churn) = Churn(scheduled + other.scheduled, unscheduled + other.unscheduled)
+    }
+
+    companion object {
+        /**
+         * Duration of an orchestration, tagged by mode (`full`, `partial` or `incremental`)
+         */
+        const val METRIC_DURATION = "ontrack_job_orchestration_duration"
+
+        /**
+         * Number of jobs scheduled by the orchestration
+         */
+        const val METRIC_SCHEDULED = "ontrack_job_orchestration_scheduled"
+
+        /**
+         * Number of jobs unscheduled by the orchestration
+         */
+        const val METRIC_UNSCHEDULED = "ontrack_job_orchestration_unscheduled"
+    }
+
 }
@@ -8,4 +8,10 @@ interface JobOrchestratorSupplier {
     fun collectJobRegistrations(): Stream<JobRegistration> = jobRegistrations.stream()
 
     val jobRegistrations: Collection<JobRegistration>
+
+    /**
+     * Incremental suppliers publish the changes of their jobs to the [JobOrchestrator] using
+     * [JobOrchestrator.reconcile], and are collected in full only at a low frequency.
+     */
+    val isIncremental: Boolean get() = false
 }
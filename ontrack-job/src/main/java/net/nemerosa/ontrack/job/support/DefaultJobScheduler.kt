@@ -19,6 +19,8 @@ import kotlin.math.abs
 
 /**
  * @property meterRegistry If set, the scheduler will register job metrics
+ * @property jobLeases If set, a job is run only if the current node owns its lease
+ * @property jobExecutors If set, selects the executor to run each job, instead of [jobExecutorService]
  */
 class DefaultJobScheduler
 @JvmOverloads
@@ -33,6 +35,8 @@ constructor(
     private val meterRegistry: MeterRegistry? = null,
     private val timeout: Duration? = null,
     timeoutControllerInterval: Duration? = null,
+    private val jobLeases: JobLeases? = null,
+    private val jobExecutors: JobExecutors? = null,
 ) : JobScheduler {
 
     private val logger = LoggerFactory.getLogger(JobScheduler::class.java)
@@ -140,6 +144,7 @@ constructor(
         return if (existingService != null) {
             logger.debug("[scheduler][job]{} Stopping running job", key)
             existingService.cancel(forceStop)
+            jobLeases?.forget(key)
             true
         } else {
             false
@@ -342,6 +347,7 @@ constructor(
                     override fun onCompletion() {
                         logger.debug("[job][task]{} Removed job execution", job.key)
                         currentExecution.set(null)
+                        jobLeases?.done(job.key)
                     }
                 })
                 val monitoredRunListener = object : MonitoredRunListener {
@@ -405,7 +411,8 @@ constructor(
                     nextRunDate = getNextRunDate(valid),
                     lastErrorCount = lastErrorCount.get(),
                     lastTimeoutCount = lastTimeoutCount.get(),
-                    lastError = lastError.get()
+                    lastError = lastError.get(),
+                    node = jobLeases?.getOwner(job.key),
                 )
             }
 
@@ -427,12 +434,20 @@ constructor(
                 } else if (currentExecution.get() != null) {
                     logger.debug("[job][run]{} Not allowed to run now because already running", job.key)
                     return Optional.empty()
+                } else if (jobLeases != null && !jobLeases.acquire(job.key)) {
+                    logger.debug("[job][run]{} Not allowed to run now because owned by another node", job.key)
+                    // A forced run is reported to the caller, which may forward it to the owner
+                    if (force) {
+                        throw JobOwnedByAnotherNodeException(job.key, jobLeases.getOwner(job.key))
+                    }
+                    return Optional.empty()
                 } else {
                     // Task to run
                     val taskRun = run
                     // Scheduling
                     logger.debug("[job][run]{} Job task submitted asynchronously", job.key)
-                    val execution = CompletableFuture.runAsync(taskRun, jobExecutorService)
+                    val executor = jobExecutors?.getExecutor(job.key) ?: jobExecutorService
+                    val execution = CompletableFuture.runAsync(taskRun, executor)
                     currentExecution.set(execution)
                     return Optional.of(execution)
                 }
@@ -0,0 +1,17 @@
+package net.nemerosa.ontrack.job.support
+
+import net.nemerosa.ontrack.job.JobKey
+import java.util.concurrent.Executor
+
+/**
+ * Selection of the executor used to run the tasks of a job, so that the jobs
+ * can run in different pools, separated from the scheduling threads.
+ */
+interface JobExecutors {
+
+    /**
+     * Gets the executor to use to run the job identified by the given key.
+     */
+    fun getExecutor(key: JobKey): Executor
+
+}
@@ -0,0 +1,12 @@
+package net.nemerosa.ontrack.job.support
+
+import net.nemerosa.ontrack.common.BaseException
+import net.nemerosa.ontrack.job.JobKey
+
+class JobOwnedByAnotherNodeException(key: JobKey, owner: String?) : BaseException(
+    if (owner != null) {
+        "Job with key $key cannot be run on this node because it is owned by node $owner."
+    } else {
+        "Job with key $key cannot be run on this node because its lease is not available."
+    }
+)
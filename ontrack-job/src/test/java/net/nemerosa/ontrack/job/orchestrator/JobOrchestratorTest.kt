@@ -8,9 +8,11 @@ import net.nemerosa.ontrack.job.support.TaskExecutor
 import org.junit.After
 import org.junit.Before
 import org.junit.Test
+import java.time.Duration
 import java.util.concurrent.Executors
 import java.util.concurrent.ScheduledExecutorService
 import java.util.function.Supplier
+import kotlin.test.assertEquals
 import kotlin.test.assertFalse
 import kotlin.test.assertNotNull
 import kotlin.test.assertNull
@@ -87,4 +89,94 @@ class JobOrchestratorTest {
         assertFalse(scheduler.getJobStatus(getKey("1")).isPresent)
         assertTrue(scheduler.getJobStatus(getKey("2")).isPresent)
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `Incremental suppliers reconciled per scope and collected only on full orchestration`() {
+        val scheduler = createJobScheduler()
+        val jobs = mutableListOf(
+            JobRegistration(TestJob("a-1"), Schedule.NONE),
+            JobRegistration(TestJob("b-1"), Schedule.NONE),
+        )
+        var collections = 0
+        val supplier = object : JobOrchestratorSupplier {
+            override val jobRegistrations: Collection<JobRegistration>
+                get() {
+                    collections++
+                    return jobs.toList()
+                }
+            override val isIncremental: Boolean = true
+        }
+        val orchestrator = JobOrchestrator(
+            scheduler,
+            "Test",
+            setOf(supplier),
+            mockk(relaxed = true),
+            fullInterval = Duration.ofHours(1),
+        )
+
+        // First orchestration is a full one
+        orchestrator.orchestrate(JobRunListener.out())
+        assertEquals(1, collections)
+        assertTrue(scheduler.getJobStatus(getKey("a-1")).isPresent)
+        assertTrue(scheduler.getJobStatus(getKey("b-1")).isPresent)
+
+        // Next one does not collect the incremental supplier
+        orchestrator.orchestrate(JobRunListener.out())
+        assertEquals(1, collections)
+
+        // Changes for the "a" scope only
+        orchestrator.reconcile(supplier, listOf(JobRegistration(TestJob("a-2"), Schedule.NONE))) {
+            it.id.startsWith("a-")
+        }
+        assertFalse(scheduler.getJobStatus(getKey("a-1")).isPresent)
+        assertTrue(scheduler.getJobStatus(getKey("a-2")).isPresent)
+        assertTrue(scheduler.getJobStatus(getKey("b-1")).isPresent)
+
+        // Full reconciliation on request
+        orchestrator.requestFullReconciliation()
+        orchestrator.orchestrate(JobRunListener.out())
+        assertEquals(2, collections)
+        assertTrue(scheduler.getJobStatus(getKey("a-1")).isPresent)
+        assertFalse(scheduler.getJobStatus(getKey("a-2")).isPresent)
+    }
+
+    @Test
+    fun `Full orchestration done again when an incremental supplier has failed`() {
+        val scheduler = createJobScheduler()
+        var failing = true
+        var collections = 0
+        val supplier = object : JobOrchestratorSupplier {
+            override val jobRegistrations: Collection<JobRegistration>
+                get() {
+                    collections++
+                    if (failing) {
+                        throw IllegalStateException("Cannot collect")
+                    }
+                    return listOf(JobRegistration(TestJob("a-1"), Schedule.NONE))
+                }
+            override val isIncremental: Boolean = true
+        }
+        val orchestrator = JobOrchestrator(
+            scheduler,
+            "Test",
+            setOf(supplier),
+            mockk(relaxed = true),
+            fullInterval = Duration.ofHours(1),
+        )
+
+        // Failing full orchestration
+        orchestrator.orchestrate(JobRunListener.out())
+        assertEquals(1, collections)
+        assertFalse(scheduler.getJobStatus(getKey("a-1")).isPresent)
+
+        // Next one is still a full one
+        failing = false
+        orchestrator.orchestrate(JobRunListener.out())
+        assertEquals(2, collections)
+        assertTrue(scheduler.getJobStatus(getKey("a-1")).isPresent)
+
+        // Until it succeeds
+        orchestrator.orchestrate(JobRunListener.out())
+        assertEquals(2, collections)
+    }
+}
@@ -56,12 +56,16 @@ abstract class AbstractJobTest {
         }
     }
 
-    protected fun scheduler(initiallyPaused: Boolean = false, code: JobSchedulerContext.() -> Unit) {
-        val jobScheduler = createJobScheduler(initiallyPaused)
+    protected fun scheduler(
+        initiallyPaused: Boolean = false,
+        jobLeases: JobLeases? = null,
+        code: JobSchedulerContext.() -> Unit,
+    ) {
+        val jobScheduler = createJobScheduler(initiallyPaused, jobLeases)
         JobSchedulerContext(jobScheduler).code()
     }
 
-    private fun createJobScheduler(initiallyPaused: Boolean): JobScheduler {
+    private fun createJobScheduler(initiallyPaused: Boolean, jobLeases: JobLeases?): JobScheduler {
         return DefaultJobScheduler(
             jobDecorator = NOPJobDecorator.INSTANCE,
             scheduler = scheduler,
@@ -69,7 +73,8 @@ abstract class AbstractJobTest {
             initiallyPaused = initiallyPaused,
             jobExecutorService = jobPool,
             scattering = false,
-            scatteringRatio = 1.0
+            scatteringRatio = 1.0,
+            jobLeases = jobLeases,
         )
     }
 
@@ -1,6 +1,8 @@
 package net.nemerosa.ontrack.job.support
 
+import io.mockk.every
 import io.mockk.mockk
+import io.mockk.verify
 import net.nemerosa.ontrack.job.*
 import net.nemerosa.ontrack.job.orchestrator.JobOrchestrator
 import net.nemerosa.ontrack.job.orchestrator.JobOrchestratorSupplier
@@ -545,5 +547,71 @@ class JobSchedulingTest : AbstractJobTest() {
         }
     }
 
+    @Test
+    fun `Job not run when the lease is owned by another node`() {
+        val jobLeases = mockk<JobLeases>(relaxed = true) {
+            every { acquire(any()) } returns false
+            every { getOwner(any()) } returns "other"
+        }
+        scheduler(jobLeases = jobLeases) {
+            job {
+                tick_seconds(3)
+                assertEquals(0, count)
+                status(key) {
+                    assertEquals("other", node)
+                }
+            }
+        }
+    }
+
+    @Test
+    fun `Forced run reported to the caller when the lease is owned by another node`() {
+        val jobLeases = mockk<JobLeases>(relaxed = true) {
+            every { acquire(any()) } returns false
+            every { getOwner(any()) } returns "other"
+        }
+        scheduler(jobLeases = jobLeases) {
+            job {
+                val ex = assertFailsWith<JobOwnedByAnotherNodeException> {
+                    fireImmediately(this)
+                }
+                assertEquals("Job with key $key cannot be run on this node because it is owned by node other.", ex.message)
+                assertEquals(0, count)
+            }
+        }
+    }
+
+    @Test
+    fun `Lease forgotten when the job is unscheduled`() {
+        val jobLeases = mockk<JobLeases>(relaxed = true) {
+            every { acquire(any()) } returns true
+        }
+        scheduler(jobLeases = jobLeases) {
+            job {
+                tick_seconds(1)
+                verify(exactly = 0) { jobLeases.forget(key) }
+                unschedule(this)
+                verify(exactly = 1) { jobLeases.forget(key) }
+            }
+        }
+    }
+
+    @Test
+    fun `Job run when the lease is owned by the current node`() {
+        val jobLeases = mockk<JobLeases>(relaxed = true) {
+            every { acquire(any()) } returns true
+            every { getOwner(any()) } returns "current"
+        }
+        scheduler(jobLeases = jobLeases) {
+            job {
+                tick_seconds(3)
+                assertEquals(4, count)
+                status(key) {
+                    assertEquals("current", node)
+                }
+                verify(exactly = 4) { jobLeases.done(key) }
+            }
+        }
+    }
 
-}
\ No newline at end of file
+}
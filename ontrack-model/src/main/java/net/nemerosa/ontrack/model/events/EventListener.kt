@@ -2,6 +2,10 @@ package net.nemerosa.ontrack.model.events
 
 /**
  * Defines a service which listens to events.
+ *
+ * When the events are dispatched asynchronously (`ontrack.config.events.dispatch=ASYNC`),
+ * they are delivered at least once: a listener may receive the same event several times
+ * and must tolerate it.
  */
 interface EventListener {
     /**
@@ -1,5 +1,7 @@
 package net.nemerosa.ontrack.model.events;
 
+import java.util.Collection;
+
 /**
  * Management of {@link EventListener} instances.
  */
@@ -12,4 +14,17 @@ public interface EventListenerService {
      */
     void onEvent(Event event);
 
+    /**
+     * Gets all the registered listeners.
+     */
+    Collection<EventListener> getListeners();
+
+    /**
+     * Sends an event to one listener only.
+     *
+     * @param eventListener Listener to notify
+     * @param event         Event which has been created.
+     */
+    void onEventForListener(EventListener eventListener, Event event);
+
 }
@@ -15,6 +15,24 @@ interface EventQueryService {
 
     fun getEvents(entityType: ProjectEntityType, entityId: ID, offset: Int, count: Int): List<Event>
 
+    /**
+     * Gets the events older than a given event, most recent first.
+     *
+     * @param before ID of the last event of the previous page, `null` for the first page
+     * @param count Maximum number of events to return
+     */
+    fun getEventsBefore(before: Int?, count: Int): List<Event>
+
+    /**
+     * Gets the events of an entity older than a given event, most recent first.
+     *
+     * @param entityType Type of the entity
+     * @param entityId ID of the entity
+     * @param before ID of the last event of the previous page, `null` for the first page
+     * @param count Maximum number of events to return
+     */
+    fun getEventsBefore(entityType: ProjectEntityType, entityId: ID, before: Int?, count: Int): List<Event>
+
     fun getEvents(entityType: ProjectEntityType, entityId: ID, eventType: EventType, offset: Int, count: Int): List<Event>
 
     fun getLastEventSignature(entityType: ProjectEntityType, entityId: ID, eventType: EventType): Signature?
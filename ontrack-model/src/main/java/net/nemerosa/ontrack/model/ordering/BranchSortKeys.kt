@@ -0,0 +1,22 @@
+package net.nemerosa.ontrack.model.ordering
+
+import net.nemerosa.ontrack.model.structure.Branch
+import java.util.*
+
+/**
+ * Comparator of branches on a sort key, in descending order, where the key of each branch
+ * is computed only once during the lifetime of the comparator (Schwartzian transform).
+ *
+ * The keys are indexed by branch instance, so the comparator is meant to be created
+ * for one sort of a given list of branches.
+ *
+ * @param key Computation of the sort key of a branch
+ */
+fun <K : Comparable<K>> compareBranchesByKeyDescending(key: (Branch) -> K?): Comparator<Branch> {
+    val keys = Collections.synchronizedMap(IdentityHashMap<Branch, SortKey<K>>())
+    return compareByDescending { branch ->
+        keys.getOrPut(branch) { SortKey(key(branch)) }.key
+    }
+}
+
+private class SortKey<K>(val key: K?)
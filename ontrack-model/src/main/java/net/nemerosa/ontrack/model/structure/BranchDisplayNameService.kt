@@ -17,4 +17,13 @@ interface BranchDisplayNameService {
      */
     fun getBranchDisplayName(branch: Branch, policy: BranchNamePolicy): String
 
+    /**
+     * Gets the display names of several branches at once, using a given branch name policy
+     *
+     * @param branches Branches to get the display names for
+     * @param policy Branch name policy
+     * @return Display names indexed by branch ID
+     */
+    fun getBranchDisplayNames(branches: List<Branch>, policy: BranchNamePolicy): Map<ID, String>
+
 }
\ No newline at end of file
@@ -2,7 +2,10 @@ package net.nemerosa.ontrack.model.structure;
 
 import net.nemerosa.ontrack.model.extension.Extension;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Produces decorations
@@ -19,4 +22,39 @@ public interface Decorator<T> extends Extension {
      */
     List<Decoration<T>> getDecorations(ProjectEntity entity);
 
+    /**
+     * Gets the decorations for several entities at once. By default, the entities are decorated one by one
+     * but decorators can override this method to perform bulk lookups.
+     *
+     * @param entities Entities to decorate
+     * @return Decorations indexed by entity. Entities without any decoration may be absent.
+     */
+    default Map<ProjectEntity, List<Decoration<T>>> getDecorations(List<? extends ProjectEntity> entities) {
+        Map<ProjectEntity, List<Decoration<T>>> decorations = new LinkedHashMap<>();
+        for (ProjectEntity entity : entities) {
+            decorations.put(entity, getDecorations(entity));
+        }
+        return decorations;
+    }
+
+    /**
+     * Does this decorator call remote services (SCM, CI, ...)?
+     * <p>
+     * Remote decorations are computed in a dedicated pool, with a timeout, and are cached for some time.
+     *
+     * @return <code>true</code> if the decorator calls remote services
+     */
+    default boolean isRemote() {
+        return false;
+    }
+
+    /**
+     * Maximum time to wait for the decorations of a {@linkplain #isRemote() remote} decorator.
+     *
+     * @return Timeout for this decorator or <code>null</code> to use <code>ontrack.config.decorations.timeout</code>
+     */
+    default Duration getTimeout() {
+        return null;
+    }
+
 }
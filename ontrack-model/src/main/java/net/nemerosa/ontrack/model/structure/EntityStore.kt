@@ -60,6 +60,19 @@ interface EntityStore {
 
     fun deleteByStoreForAllEntities(store: String)
 
+    /**
+     * Loops over all the records of a store, for all the entities
+     *
+     * @param store Name of the store
+     * @param type Type of the records
+     * @param code Code called with the ID of the entity and the record
+     */
+    fun <T : Any> forEachByStoreForAllEntities(
+        store: String,
+        type: KClass<T>,
+        code: (entity: ProjectEntityID, record: T) -> Unit
+    )
+
     fun migrateFromEntityDataStore(category: String, migration: (name: String, data: JsonNode) -> Pair<String, JsonNode>)
 
 }
\ No newline at end of file
@@ -27,3 +27,12 @@ inline fun <reified T : Any> EntityStore.forEachByFilter(
     filter = filter,
     code = code
 )
+
+inline fun <reified T : Any> EntityStore.forEachByStoreForAllEntities(
+    store: String,
+    noinline code: (entity: ProjectEntityID, record: T) -> Unit
+) = forEachByStoreForAllEntities(
+    store = store,
+    type = T::class,
+    code = code
+)
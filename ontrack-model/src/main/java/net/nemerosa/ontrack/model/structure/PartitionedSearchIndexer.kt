@@ -0,0 +1,26 @@
+package net.nemerosa.ontrack.model.structure
+
+/**
+ * [SearchIndexer] whose items can be split into partitions, which are indexed
+ * in parallel during a full indexation.
+ *
+ * Indexers which do not implement this interface are indexed sequentially
+ * using [SearchIndexer.indexAll].
+ *
+ * The partitions are indexed concurrently: the indexation of a partition must not
+ * share any mutable state with the indexation of the other partitions.
+ */
+interface PartitionedSearchIndexer<T : SearchItem> : SearchIndexer<T> {
+
+    /**
+     * Partitions of the items. Together, they must cover all the items
+     * returned by [indexAll], without overlapping.
+     */
+    fun getIndexPartitions(): List<SearchIndexPartition>
+
+    /**
+     * Index all the elements of a partition returned by [getIndexPartitions].
+     */
+    fun indexPartition(partition: SearchIndexPartition, processor: (T) -> Unit)
+
+}
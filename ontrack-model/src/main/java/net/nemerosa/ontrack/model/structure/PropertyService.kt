@@ -62,6 +62,20 @@ interface PropertyService {
      */
     fun <T> getProperty(entity: ProjectEntity, propertyTypeName: String): Property<T>
 
+    /**
+     * Gets the property of a given type for several entities at once.
+     *
+     * Entities for which the property is not opened for viewing
+     * get an [empty][net.nemerosa.ontrack.model.structure.Property.isEmpty] property.
+     *
+     * @param entities         Entities to get the property for
+     * @param propertyTypeName Fully qualified name of the property type
+     * @return Properties, in the same order as the entities
+     * @throws net.nemerosa.ontrack.model.exceptions.PropertyUnsupportedEntityTypeException If the
+     * property type does not support one of the entities
+     */
+    fun <T> getPropertyForEntities(entities: List<ProjectEntity>, propertyTypeName: String): List<Property<T>>
+
     /**
      * Same than [.getProperty] but using the class of
      * the property type.
@@ -0,0 +1,24 @@
+package net.nemerosa.ontrack.model.structure
+
+/**
+ * Subset of the items of a [PartitionedSearchIndexer] which can be indexed independently
+ * from the other subsets, allowing a full indexation to run in parallel.
+ *
+ * @property name Display name of the partition, used for logging & progress
+ * @property project ID of the project owning the items
+ */
+data class SearchIndexPartition(
+    val name: String,
+    val project: ID,
+) {
+    companion object {
+
+        /**
+         * Partition for all the items of a project
+         */
+        fun ofProject(project: Project) = SearchIndexPartition(
+            name = "project=${project.name}",
+            project = project.id,
+        )
+    }
+}
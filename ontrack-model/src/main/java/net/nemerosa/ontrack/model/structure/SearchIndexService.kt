@@ -1,6 +1,7 @@
 package net.nemerosa.ontrack.model.structure
 
 import com.fasterxml.jackson.databind.JsonNode
+import net.nemerosa.ontrack.job.JobRunListener
 import net.nemerosa.ontrack.model.search.SearchQuery
 
 /**
@@ -17,6 +18,11 @@ interface SearchIndexService {
 
     fun <T : SearchItem> index(indexer: SearchIndexer<T>)
 
+    /**
+     * Full indexation, reporting its progress.
+     */
+    fun <T : SearchItem> index(indexer: SearchIndexer<T>, listener: JobRunListener)
+
     fun <T : SearchItem> resetIndex(indexer: SearchIndexer<T>, reindex: Boolean): Boolean
 
     fun <T : SearchItem> createSearchIndex(indexer: SearchIndexer<T>, item: T)
@@ -55,6 +55,8 @@ interface SearchIndexer<T : SearchItem> {
 
     /**
      * Index all elements.
+     *
+     * @see PartitionedSearchIndexer
      */
     fun indexAll(processor: (T) -> Unit)
 
@@ -104,8 +104,21 @@ interface StructureService {
      */
     fun getBuildView(build: Build, withDecorations: Boolean): BuildView
 
+    /**
+     * Gets the aggregated views of several builds, their decorations being collected at once.
+     */
+    fun getBuildViews(builds: List<Build>, withDecorations: Boolean): List<BuildView>
+
     fun getLastBuildForBranch(branch: Branch): Build?
 
+    /**
+     * Gets the last build of each branch of a project, in one query.
+     *
+     * @param project Project to get the last builds for
+     * @return Last builds indexed by branch ID. Branches without any build are not part of the map.
+     */
+    fun getLastBuildsForProject(project: Project): Map<ID, Build>
+
     /**
      * Gets the number of builds for a branch.
      */
@@ -184,6 +197,17 @@ interface StructureService {
         filter: (link: BuildLink) -> Boolean = { true },
     ): PaginatedList<BuildLink>
 
+    /**
+     * Gets the builds used by several builds at once (first level only).
+     *
+     * Builds which cannot be viewed by the current user are ignored, both
+     * as sources and as targets.
+     *
+     * @param builds Source builds
+     * @return Qualified build links indexed by source build ID
+     */
+    fun getQualifiedBuildsUsedBy(builds: List<Build>): Map<ID, List<BuildLink>>
+
     /**
      * Gets the builds which use the given one.
      *
@@ -292,6 +316,16 @@ interface StructureService {
 
     fun getPromotionRunsForBuild(buildId: ID): List<PromotionRun>
 
+    /**
+     * Gets the promotion runs for several builds at once.
+     *
+     * Builds which cannot be viewed by the current user are ignored.
+     *
+     * @param builds Builds to get the promotion runs for
+     * @return Promotion runs indexed by build ID, most recent first
+     */
+    fun getPromotionRunsForBuilds(builds: List<Build>): Map<ID, List<PromotionRun>>
+
     fun getLastPromotionRunsForBuild(buildId: ID): List<PromotionRun>
 
     /**
@@ -314,6 +348,17 @@ interface StructureService {
     // TODO Replace by PromotionRun?
     fun getEarliestPromotionRunAfterBuild(promotionLevel: PromotionLevel, build: Build): Optional<PromotionRun>
 
+    /**
+     * Gets the earliest promotion runs after several builds at once, one build per branch.
+     *
+     * Builds which cannot be viewed by the current user are ignored.
+     *
+     * @param builds Builds to get the promotion runs after, at most one per branch
+     * @return For each build ID, the earliest promotion run of each promotion level of its branch,
+     * in the order of the promotion levels
+     */
+    fun getEarliestPromotionRunsAfterBuilds(builds: List<Build>): Map<ID, List<PromotionRun>>
+
     fun getPromotionRunsForPromotionLevel(promotionLevelId: ID): List<PromotionRun>
 
     /**
@@ -447,6 +492,24 @@ interface StructureService {
         statuses: List<String>? = null,
     ): List<ValidationRun>
 
+    /**
+     * Gets the validation runs for several builds and one validation stamp at once.
+     *
+     * Builds which cannot be viewed by the current user are ignored.
+     *
+     * @param builds          Builds to get the validation runs for
+     * @param validationStamp Validation stamp
+     * @param offset          Offset in the list of runs for each build
+     * @param count           Maximum number of runs to return for each build
+     * @return Validation runs indexed by build ID, most recent first
+     */
+    fun getValidationRunsForBuildsAndValidationStamp(
+        builds: List<Build>,
+        validationStamp: ValidationStamp,
+        offset: Int = 0,
+        count: Int = 50,
+    ): Map<ID, List<ValidationRun>>
+
     /**
      * Gets the list of validation runs for a build and a validation stamp, and a list of accepted statuses
      *
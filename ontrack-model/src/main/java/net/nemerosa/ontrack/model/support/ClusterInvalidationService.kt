@@ -0,0 +1,36 @@
+package net.nemerosa.ontrack.model.support
+
+/**
+ * Propagation of cache invalidations between the nodes of an Ontrack cluster.
+ *
+ * Local caches subscribe to a _channel_ and are notified with an opaque payload
+ * whenever an invalidation is published on this channel, either by the current
+ * node or by any other node of the cluster.
+ */
+interface ClusterInvalidationService {
+
+    /**
+     * Registers a handler for the invalidations published on a channel.
+     *
+     * @param channel Name of the channel
+     * @param handler Code called with the payload of each invalidation
+     */
+    fun subscribe(channel: String, handler: (payload: String) -> Unit)
+
+    /**
+     * Publishes an invalidation, both locally and to the other nodes.
+     *
+     * @param channel Name of the channel
+     * @param payload Payload to send to the handlers of the channel
+     */
+    fun invalidate(channel: String, payload: String)
+
+    /**
+     * Delivers an invalidation received from another node to the local handlers only.
+     *
+     * @param channel Name of the channel
+     * @param payload Payload to send to the handlers of the channel
+     */
+    fun receive(channel: String, payload: String)
+
+}
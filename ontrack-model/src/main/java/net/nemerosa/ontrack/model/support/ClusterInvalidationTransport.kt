@@ -0,0 +1,21 @@
+package net.nemerosa.ontrack.model.support
+
+/**
+ * Transport used by the [ClusterInvalidationService] to exchange invalidations
+ * with the other nodes of the cluster.
+ *
+ * When no transport is available, invalidations remain local to the node.
+ */
+interface ClusterInvalidationTransport {
+
+    /**
+     * Sends an invalidation to the other nodes.
+     */
+    fun send(channel: String, payload: String)
+
+    /**
+     * Registers the receiver for the invalidations sent by the other nodes.
+     */
+    fun listen(receiver: (channel: String, payload: String) -> Unit)
+
+}
@@ -9,13 +9,24 @@ import javax.validation.constraints.Min
 
 class JobConfigProperties {
     @Min(1)
-    @APIDescription("Number of threads to use to run the background jobs")
+    @APIDescription("Number of threads to use to run the background jobs which are not assigned to a dedicated pool")
     var poolSize = 10
 
+    @Min(1)
+    @APIDescription("Number of threads used to trigger the jobs according to their schedules. The jobs themselves are run in separate pools.")
+    var schedulerPoolSize = 2
+
+    @APIDescription("Dedicated pools for the jobs of some categories, indexed by category key and giving the number of threads of each pool. The jobs of the other categories are run in the shared pool, whose size is set by `pool-size`.")
+    var categoryPoolSizes: Map<String, Int> = emptyMap()
+
     @APIDescription("Interval (in minutes) between each refresh of the job list")
     @Min(1)
     var orchestration = 2
 
+    @APIDescription("Interval between two full collections of the jobs which are otherwise reconciled when their project or branch changes (expressed by default in minutes)")
+    @DurationUnit(ChronoUnit.MINUTES)
+    var fullOrchestration: Duration = Duration.ofHours(1)
+
     @APIDescription("Set to true to not start any job at application startup. The administrator can restore the scheduling jobs manually")
     var pausedAtStartup = false
 
@@ -35,4 +46,14 @@ class JobConfigProperties {
     @DurationUnit(ChronoUnit.MINUTES)
     var timeoutControllerInterval: Duration = Duration.ofMinutes(15)
 
-}
\ No newline at end of file
+    @APIDescription("Set to true when several nodes share the same database, so that each job runs on one node only, using leases stored in the database")
+    var cluster = false
+
+    @APIDescription("Validity of a job lease when cluster mode is enabled. A node which stops renewing its leases (because it's down) loses its jobs to the other nodes after this delay (expressed by default in minutes)")
+    @DurationUnit(ChronoUnit.MINUTES)
+    var leaseDuration: Duration = Duration.ofMinutes(5)
+
+    @APIDescription("Name of the current node when cluster mode is enabled. Defaults to the host name")
+    var node = ""
+
+}
@@ -97,6 +97,16 @@ class OntrackConfigProperties {
      */
     var templating = TemplatingProperties()
 
+    /**
+     * Events settings
+     */
+    var events = EventsProperties()
+
+    /**
+     * Decorations settings
+     */
+    var decorations = DecorationsProperties()
+
     /**
      * Key-store type
      */
@@ -109,6 +119,7 @@ class OntrackConfigProperties {
             logger.warn("[config] Tests of external configurations are disabled")
         }
         logger.info("[security] Tokens validity: ${security.tokens.validity}")
+        logger.info("[search] Engine = ${search.engine}")
         logger.info("[search] Index immediate refresh = ${search.index.immediate}")
         logger.info("[search] Index batch size = ${search.index.batch}")
         logger.info("[search] Index batch logging = ${search.index.logging}")
@@ -118,6 +129,7 @@ class OntrackConfigProperties {
         logger.info("[ui] Next UI enabled = ${ui.enabled}")
         logger.info("[ui] Next UI URI = ${ui.uri}")
         logger.info("[templating] Errors = ${templating.errors}")
+        logger.info("[events] Dispatch = ${events.dispatch}")
     }
 
     /**
@@ -191,6 +203,12 @@ class OntrackConfigProperties {
          */
         @APIDescription("HTML tags to accept on top of the default ones")
         var htmlTags: List<String> = emptyList()
+
+        /**
+         * Maximum number of compiled templates to keep in cache
+         */
+        @APIDescription("Maximum number of compiled templates to keep in cache (0 to disable the cache)")
+        var cacheSize: Long = 1000
     }
 
     /**
@@ -218,6 +236,105 @@ class OntrackConfigProperties {
         THROW,
     }
 
+    /**
+     * Decorations settings
+     */
+    class DecorationsProperties {
+        /**
+         * Number of threads used to get the remote decorations
+         */
+        @APIDescription("Number of threads used to get the remote decorations")
+        var poolSize: Int = 8
+
+        /**
+         * Maximum number of remote decorations waiting for a thread
+         */
+        @APIDescription("Maximum number of remote decorations waiting for a thread. Beyond this number, the decorations are replaced by an error.")
+        var queueSize: Int = 100
+
+        /**
+         * Maximum time to wait for a remote decoration
+         */
+        @APIDescription("Maximum time to wait for a remote decoration, unless the decorator defines its own timeout")
+        var timeout: Duration = Duration.ofSeconds(5)
+
+        /**
+         * Time to keep the remote decorations in cache
+         */
+        @APIDescription("Time to keep the remote decorations in cache (0 to disable the cache)")
+        var cacheTtl: Duration = Duration.ofMinutes(5)
+
+        /**
+         * Maximum number of entities whose remote decorations are kept in cache
+         */
+        @APIDescription("Maximum number of entities whose remote decorations are kept in cache")
+        var cacheSize: Long = 10_000
+    }
+
+    /**
+     * Events settings
+     */
+    class EventsProperties {
+        /**
+         * How the events are dispatched to the listeners
+         */
+        @APIDescription("How the events are dispatched to the listeners: SYNC (default, in the transaction which posts the event) or ASYNC (after the commit, using an outbox, at least once, the listeners receiving possibly the same event several times)")
+        var dispatch: EventDispatchMode = EventDispatchMode.SYNC
+
+        /**
+         * Number of threads used to dispatch the events in ASYNC mode
+         */
+        @APIDescription("Number of threads used to dispatch the events in ASYNC mode")
+        var poolSize: Int = 4
+
+        /**
+         * Maximum number of events being dispatched. Beyond this number, the events are left in the outbox.
+         */
+        @APIDescription("Maximum number of events being dispatched. Beyond this number, the events are left in the outbox and recovered later.")
+        var capacity: Int = 10_000
+
+        /**
+         * Number of retries for a listener in error
+         */
+        @APIDescription("Number of retries for a listener in error")
+        var retries: Int = 3
+
+        /**
+         * Delay between two retries
+         */
+        @APIDescription("Delay between two retries")
+        var retryDelay: Duration = Duration.ofSeconds(1)
+
+        /**
+         * Age of an event in the outbox after which it's dispatched again. This is also the
+         * duration of the lease of a node on the events it dispatches.
+         */
+        @APIDescription("Age of an event in the outbox after which it's dispatched again. This is also the duration of the lease of a node on the events it dispatches.")
+        var recoveryAge: Duration = Duration.ofMinutes(10)
+
+        /**
+         * Age after which the events are deleted. Zero to keep all the events.
+         */
+        @APIDescription("Age after which the events are deleted. Zero to keep all the events.")
+        var retention: Duration = Duration.ZERO
+    }
+
+    /**
+     * How the events are dispatched to the listeners
+     */
+    enum class EventDispatchMode {
+        /**
+         * In the same thread & transaction than the posting of the event
+         */
+        SYNC,
+
+        /**
+         * After the commit of the transaction, in a dedicated thread pool. The events are delivered
+         * at least once and a listener may receive the same event several times.
+         */
+        ASYNC,
+    }
+
     /**
      * Security settings
      */
@@ -286,6 +403,12 @@ class OntrackConfigProperties {
         @DurationUnit(ChronoUnit.MINUTES)
         var validity: Duration = Duration.ofDays(30)
 
+        /**
+         * Validity of a cached authentication. Kept short since the groups
+         * provided by external sources (LDAP, OIDC) are not invalidated.
+         */
+        var authenticationTtl: Duration = Duration.ofMinutes(5)
+
         /**
          * Maximum number of items in the cache. Should be aligned with the
          * number of sessions. Note that the objects stored in the cache are tiny.
@@ -319,6 +442,11 @@ class OntrackConfigProperties {
          */
         const val SEARCH_PROPERTY = "$PREFIX.$SEARCH"
 
+        /**
+         * Search engine
+         */
+        const val SEARCH_ENGINE = "$SEARCH_PROPERTY.engine"
+
         /**
          * Key store type
          */
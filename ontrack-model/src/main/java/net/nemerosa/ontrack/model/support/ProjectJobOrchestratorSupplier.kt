@@ -0,0 +1,33 @@
+package net.nemerosa.ontrack.model.support
+
+import net.nemerosa.ontrack.job.JobKey
+import net.nemerosa.ontrack.job.JobRegistration
+import net.nemerosa.ontrack.job.orchestrator.JobOrchestratorSupplier
+import net.nemerosa.ontrack.model.structure.Project
+
+/**
+ * Supplier of jobs which are defined per project (or per branch).
+ *
+ * When a project, one of its branches or one of their properties is changed,
+ * only the jobs of this project are reconciled. All the jobs are still collected
+ * at a low frequency, as a safety net.
+ */
+interface ProjectJobOrchestratorSupplier : JobOrchestratorSupplier {
+
+    override val isIncremental: Boolean get() = true
+
+    /**
+     * Gets the job registrations for the given project and its branches.
+     */
+    fun getJobRegistrations(project: Project): Collection<JobRegistration>
+
+    /**
+     * Checks if the given job key is one of the jobs of the given project
+     * which are managed by this supplier.
+     *
+     * The keys must not depend on the name of the project, since the previous
+     * name of a renamed project is not known anymore: the project ID must be used instead.
+     */
+    fun isProjectJob(key: JobKey, project: Project): Boolean
+
+}
@@ -1,17 +1,26 @@
 package net.nemerosa.ontrack.model.support
 
 import net.nemerosa.ontrack.model.annotations.APIDescription
+import java.time.Duration
 
 /**
  * Configuration properties for the search
  */
 class SearchConfigProperties {
 
+    @APIDescription("Search engine to use: `elasticsearch` for an external ElasticSearch cluster, `lucene` for embedded indexes stored on the local disk.")
+    var engine: String = DEFAULT_ENGINE
+
     /**
      * Index configuration
      */
     var index = SearchIndexProperties()
 
+    /**
+     * Embedded Lucene engine configuration
+     */
+    var lucene = SearchLuceneProperties()
+
     class SearchIndexProperties {
 
         @APIDescription("By default, indexation is ElasticSearch is done after some time after the index has been requested. The flag below forces the index to be refreshed immediately. This SHOULD NOT be used in production but is very useful when testing Ontrack search capabilities")
@@ -28,5 +37,49 @@ class SearchConfigProperties {
 
         @APIDescription("Option to ignore errors when creating indexes. For test only, allowing for concurrent testing.")
         var ignoreExisting = false
+
+        @APIDescription("When performing full indexation of an indexer supporting partitions, number of partitions indexed in parallel.")
+        var parallelism = 4
+
+        @APIDescription("When performing full indexation, maximum size in bytes of a bulk request. The batch size still applies as a maximum number of items.")
+        var bulkBytes: Long = 5L * 1024 * 1024
+
+        @APIDescription("When performing full indexation, maximum number of bulk requests being processed at the same time.")
+        var bulkInFlight = 2
+    }
+
+    class SearchLuceneProperties {
+
+        @APIDescription("Directory where the Lucene indexes are stored. If blank, a subdirectory of the working directory is used.")
+        var directory: String = ""
+
+        @APIDescription("Interval between two refreshes of the Lucene indexes, making the indexed items visible to the search.")
+        var refresh: Duration = Duration.ofSeconds(1)
+
+        @APIDescription("Interval between two commits of the Lucene indexes on the disk.")
+        var commit: Duration = Duration.ofSeconds(30)
+
+        @APIDescription("Directory where the snapshots of the Lucene indexes are copied. If blank, no backup is performed.")
+        var backupDirectory: String = ""
+
+        @APIDescription("Cron schedule for the backup of the Lucene indexes.")
+        var backupCron: String = "0 0 2 * * *"
+    }
+
+    companion object {
+        /**
+         * External ElasticSearch cluster
+         */
+        const val ELASTICSEARCH = "elasticsearch"
+
+        /**
+         * Embedded Lucene indexes
+         */
+        const val LUCENE = "lucene"
+
+        /**
+         * Default engine
+         */
+        const val DEFAULT_ENGINE = ELASTICSEARCH
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package net.nemerosa.ontrack.model.ordering
+
+import net.nemerosa.ontrack.model.structure.Branch
+import net.nemerosa.ontrack.model.structure.NameDescription
+import net.nemerosa.ontrack.model.structure.Project
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+
+class BranchSortKeysTest {
+
+    private val project = Project.of(NameDescription.nd("P", ""))
+
+    private fun branches(vararg names: String) = names.map { Branch.of(project, NameDescription.nd(it, "")) }
+
+    @Test
+    fun `Branches sorted by descending key`() {
+        val branches = branches("release-1.0", "release-1.10", "main", "release-1.2")
+        val sorted = branches.sortedWith(
+            compareBranchesByKeyDescending { VersionUtils.getVersion(VersionUtils.semVerSuffixRegex, it.name) }
+        )
+        assertEquals(
+            listOf("release-1.10", "release-1.2", "release-1.0", "main"),
+            sorted.map { it.name }
+        )
+    }
+
+    @Test
+    fun `Key computed only once per branch`() {
+        val branches = branches(*(1..100).map { "release-1.$it" }.shuffled().toTypedArray())
+        val calls = mutableMapOf<String, Int>()
+        val sorted = branches.sortedWith(
+            compareBranchesByKeyDescending { branch ->
+                calls[branch.name] = (calls[branch.name] ?: 0) + 1
+                VersionUtils.getVersion(VersionUtils.semVerSuffixRegex, branch.name)
+            }
+        )
+        assertEquals("release-1.100", sorted.first().name)
+        assertEquals(100, calls.size)
+        assertEquals(setOf(1), calls.values.toSet())
+    }
+
+}
@@ -17,6 +17,9 @@ class OntrackRabbitMQConfigProperties {
     @APIDescription("True (default) to make the sending of messages part of the current transaction.")
     var transactional = true
 
+    @APIDescription("True to propagate the invalidations of the local caches to the other nodes of the cluster.")
+    var clusterInvalidation = false
+
     companion object {
         /**
          * Prefix for the properties
@@ -0,0 +1,74 @@
+package net.nemerosa.ontrack.rabbitmq
+
+import net.nemerosa.ontrack.model.support.ClusterInvalidationTransport
+import org.springframework.amqp.core.*
+import org.springframework.amqp.rabbit.annotation.RabbitListener
+import org.springframework.amqp.rabbit.core.RabbitTemplate
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+import java.util.*
+
+/**
+ * Exchanging the cache invalidations between the nodes using a fanout exchange.
+ *
+ * Each node listens on its own anonymous queue and ignores the messages it sent itself.
+ */
+@Configuration
+@ConditionalOnProperty(
+    prefix = OntrackRabbitMQConfigProperties.PREFIX,
+    name = ["cluster-invalidation"],
+    havingValue = "true",
+    matchIfMissing = false,
+)
+class RabbitMQClusterInvalidationTransport(
+    private val rabbitTemplate: RabbitTemplate,
+) : ClusterInvalidationTransport {
+
+    private val node = UUID.randomUUID().toString()
+
+    @Volatile
+    private var receiver: ((channel: String, payload: String) -> Unit)? = null
+
+    @Bean
+    fun ontrackClusterInvalidationExchange() = FanoutExchange(EXCHANGE, false, false)
+
+    @Bean
+    fun ontrackClusterInvalidationQueue() = AnonymousQueue()
+
+    @Bean
+    fun ontrackClusterInvalidationBinding(): Binding =
+        BindingBuilder.bind(ontrackClusterInvalidationQueue()).to(ontrackClusterInvalidationExchange())
+
+    override fun send(channel: String, payload: String) {
+        val properties = MessageProperties().apply {
+            contentType = MessageProperties.CONTENT_TYPE_TEXT_PLAIN
+            setHeader(HEADER_CHANNEL, channel)
+            setHeader(HEADER_NODE, node)
+        }
+        rabbitTemplate.send(EXCHANGE, "", Message(payload.toByteArray(Charsets.UTF_8), properties))
+    }
+
+    override fun listen(receiver: (channel: String, payload: String) -> Unit) {
+        this.receiver = receiver
+    }
+
+    @RabbitListener(queues = ["#{ontrackClusterInvalidationQueue.name}"])
+    fun onMessage(message: Message) {
+        val headers = message.messageProperties.headers
+        val channel = headers[HEADER_CHANNEL]?.toString()
+        if (channel != null && headers[HEADER_NODE]?.toString() != node) {
+            receiver?.invoke(channel, message.body.toString(Charsets.UTF_8))
+        }
+    }
+
+    companion object {
+        /**
+         * Name of the fanout exchange
+         */
+        const val EXCHANGE = "ontrack.cluster.invalidation"
+
+        private const val HEADER_CHANNEL = "ontrack-channel"
+        private const val HEADER_NODE = "ontrack-node"
+    }
+}
@@ -2,6 +2,7 @@ package net.nemerosa.ontrack.repository
 
 import net.nemerosa.ontrack.model.structure.Build
 import net.nemerosa.ontrack.model.structure.BuildLink
+import net.nemerosa.ontrack.model.structure.ID
 import net.nemerosa.ontrack.repository.support.AbstractJdbcRepository
 import org.springframework.stereotype.Repository
 import javax.sql.DataSource
@@ -56,7 +57,7 @@ class BuildLinkJdbcRepository(
         ) ?: 0
 
     override fun getQualifiedBuildsUsedBy(build: Build): List<BuildLink> {
-        return namedParameterJdbcTemplate!!.query(
+        return StructureHydration(this).queryBuildLinks(
             """
                 SELECT B.*, BL.QUALIFIER AS QUALIFIER
                 FROM BUILDS B
@@ -65,16 +66,27 @@ class BuildLinkJdbcRepository(
                 ORDER BY B.ID DESC
             """,
             mapOf("buildId" to build.id())
-        ) { rs, _ ->
-            BuildLink(
-                build = buildJdbcRepositoryAccessor.getBuild(id(rs)),
-                qualifier = rs.getString("QUALIFIER"),
+        )
+    }
+
+    override fun getQualifiedBuildsUsedBy(builds: List<Build>): Map<ID, List<BuildLink>> =
+        if (builds.isEmpty()) {
+            emptyMap()
+        } else {
+            StructureHydration(this).queryBuildLinksBySource(
+                """
+                    SELECT B.*, BL.QUALIFIER AS QUALIFIER, BL.BUILDID AS SOURCE
+                    FROM BUILDS B
+                    INNER JOIN BUILD_LINKS BL ON B.ID = BL.TARGETBUILDID
+                    WHERE BL.BUILDID IN (:buildIds)
+                    ORDER BY B.ID DESC
+                """,
+                mapOf("buildIds" to builds.map { it.id() })
             )
         }
-    }
 
     override fun getQualifiedBuildsUsing(build: Build): List<BuildLink> {
-        return namedParameterJdbcTemplate!!.query(
+        return StructureHydration(this).queryBuildLinks(
             """
                 SELECT F.*, BL.QUALIFIER 
                 FROM BUILDS F 
@@ -82,13 +94,8 @@ class BuildLinkJdbcRepository(
                 WHERE BL.TARGETBUILDID = :buildId 
                 ORDER BY F.ID DESC
                 """,
-            params("buildId", build.id())
-        ) { rs, _ ->
-            BuildLink(
-                build = buildJdbcRepositoryAccessor.getBuild(id(rs)),
-                qualifier = rs.getString("QUALIFIER")
-            )
-        }
+            mapOf("buildId" to build.id())
+        )
     }
 
     override fun isLinkedTo(build: Build, project: String, buildPattern: String?, qualifier: String?): Boolean =
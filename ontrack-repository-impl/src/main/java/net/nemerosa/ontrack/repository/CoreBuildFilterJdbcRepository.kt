@@ -354,12 +354,7 @@ class CoreBuildFilterJdbcRepository(
         val withValidationStamp = data.withValidationStamp
         if (!withValidationStamp.isNullOrBlank()) {
             tables.add(
-                "  LEFT JOIN (" +
-                        " SELECT R.BUILDID,  R.VALIDATIONSTAMPID, VRS.VALIDATIONRUNSTATUSID " +
-                        " FROM VALIDATION_RUNS R" +
-                        " INNER JOIN VALIDATION_RUN_STATUSES VRS ON VRS.ID = (SELECT ID FROM VALIDATION_RUN_STATUSES WHERE VALIDATIONRUNID = R.ID ORDER BY ID DESC LIMIT 1)" +
-                        " AND R.ID = (SELECT MAX(ID) FROM VALIDATION_RUNS WHERE BUILDID = R.BUILDID AND VALIDATIONSTAMPID = R.VALIDATIONSTAMPID)" +
-                        " ) S ON S.BUILDID = B.ID"
+                "  LEFT JOIN VALIDATION_RUNS S ON S.BUILDID = B.ID AND S.LATEST"
             )
             // Gets the validation stamp ID
             val validationStampId = getValidationStampId(branch, withValidationStamp)
@@ -371,7 +366,7 @@ class CoreBuildFilterJdbcRepository(
             // withValidationStampStatus
             val withValidationStampStatus = data.withValidationStampStatus
             if (isNotBlank(withValidationStampStatus)) {
-                criteria.add("S.VALIDATIONRUNSTATUSID = :withValidationStampStatus")
+                criteria.add("S.STATUS = :withValidationStampStatus")
                 params["withValidationStampStatus"] = withValidationStampStatus
             }
         }
@@ -508,13 +503,16 @@ class CoreBuildFilterJdbcRepository(
     }
 
     private fun loadBuilds(sql: String, params: Map<String, Any?>): List<Build> {
-        return namedParameterJdbcTemplate!!
+        val ids = namedParameterJdbcTemplate!!
             .queryForList(
                 sql,
                 params,
                 Int::class.java
             )
-            .map { id -> structureRepository.getBuild(ID.of(id)) }
+        // Loading all the builds, their branches & projects at once
+        val hydration = StructureHydration(this)
+        hydration.preloadBuilds(ids)
+        return ids.map { id -> hydration.getBuild(ID.of(id)) }
     }
 
     override fun nameFilter(
@@ -722,15 +720,14 @@ class CoreBuildFilterJdbcRepository(
 
     private fun findLastBuildWithValidationStamp(validationStampId: Int, status: String?): Int? {
         val sql = StringBuilder(
-            "SELECT VR.BUILDID FROM VALIDATION_RUN_STATUSES VRS\n" +
-                    "INNER JOIN VALIDATION_RUNS VR ON VR.ID = VRS.VALIDATIONRUNID\n" +
+            "SELECT VR.BUILDID FROM VALIDATION_RUNS VR\n" +
                     "WHERE VR.VALIDATIONSTAMPID = :validationStampId\n"
         )
         // Parameters
         val params = params("validationStampId", validationStampId)
-        // Status criteria
+        // Status criteria (current status of the runs)
         if (isNotBlank(status)) {
-            sql.append("AND VRS.VALIDATIONRUNSTATUSID = :status\n")
+            sql.append("AND VR.STATUS = :status\n")
             params.addValue("status", status)
         }
         // Order & limit
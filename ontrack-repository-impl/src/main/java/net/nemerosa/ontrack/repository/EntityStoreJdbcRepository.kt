@@ -5,6 +5,8 @@ import net.nemerosa.ontrack.json.parseInto
 import net.nemerosa.ontrack.model.structure.EntityStore
 import net.nemerosa.ontrack.model.structure.EntityStoreFilter
 import net.nemerosa.ontrack.model.structure.ProjectEntity
+import net.nemerosa.ontrack.model.structure.ProjectEntityID
+import net.nemerosa.ontrack.model.structure.ProjectEntityType
 import net.nemerosa.ontrack.repository.support.AbstractJdbcRepository
 import org.springframework.stereotype.Repository
 import java.sql.ResultSet
@@ -167,6 +169,31 @@ class EntityStoreJdbcRepository(dataSource: DataSource) : AbstractJdbcRepository
         )
     }
 
+    override fun <T : Any> forEachByStoreForAllEntities(
+        store: String,
+        type: KClass<T>,
+        code: (entity: ProjectEntityID, record: T) -> Unit
+    ) {
+        namedParameterJdbcTemplate!!.query(
+            """
+                SELECT *
+                FROM ENTITY_STORE
+                WHERE STORE = :store
+                ORDER BY ID DESC
+            """,
+            mapOf("store" to store)
+        ) { rs: ResultSet, _: Int ->
+            // Only one entity column is filled in
+            val entity = ProjectEntityType.values().firstNotNullOf { entityType ->
+                rs.getInt(entityType.name).takeIf { !rs.wasNull() }?.let { id ->
+                    ProjectEntityID(entityType, id)
+                }
+            }
+            val record = readJson(rs, "DATA").parseInto(type)
+            code(entity, record)
+        }
+    }
+
     private fun buildCriteria(
         entity: ProjectEntity,
         store: String,
@@ -12,6 +12,7 @@ import net.nemerosa.ontrack.repository.support.AbstractJdbcRepository
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource
 import org.springframework.stereotype.Repository
 import java.sql.ResultSet
+import java.time.LocalDateTime
 import java.util.*
 import javax.sql.DataSource
 
@@ -55,43 +56,43 @@ class EventJdbcRepository(
 
     override fun query(
         allowedProjects: List<Int>,
+        before: Int?,
         offset: Int,
         count: Int,
         entityLoader: (type: ProjectEntityType, id: ID) -> ProjectEntity,
         eventTypeLoader: (type: String) -> EventType,
     ): List<Event> {
-        return namedParameterJdbcTemplate!!.query(
-            "SELECT * FROM EVENTS WHERE PROJECT IS NULL OR PROJECT IN (:projects)" +
-                    " ORDER BY ID DESC" +
-                    " LIMIT :count OFFSET :offset",
-            params("projects", allowedProjects)
-                .addValue("count", count)
-                .addValue("offset", offset)
-        ) { rs: ResultSet, _: Int -> toEvent(rs, entityLoader, eventTypeLoader) }
+        val params = params("projects", allowedProjects)
+        return queryPage(
+            "(PROJECT IS NULL OR PROJECT IN (:projects))",
+            params,
+            before,
+            offset,
+            count,
+            entityLoader,
+            eventTypeLoader
+        )
     }
 
     @Suppress("SqlResolve")
     override fun query(
         entityType: ProjectEntityType,
         entityId: ID,
+        before: Int?,
         offset: Int,
         count: Int,
         entityLoader: (type: ProjectEntityType, id: ID) -> ProjectEntity,
         eventTypeLoader: (type: String) -> EventType,
     ): List<Event> {
-        return namedParameterJdbcTemplate!!.query(
-            """
-                SELECT * 
-                FROM EVENTS 
-                WHERE ${entityType.name} = :entityId 
-                OR X_${entityType.name} = :entityId 
-                ORDER BY ID DESC 
-                LIMIT :count OFFSET :offset
-            """,
-            params("entityId", entityId.get())
-                .addValue("count", count)
-                .addValue("offset", offset)
-        ) { rs: ResultSet, _: Int -> toEvent(rs, entityLoader, eventTypeLoader) }
+        return queryPage(
+            "(${entityType.name} = :entityId OR X_${entityType.name} = :entityId)",
+            params("entityId", entityId.get()),
+            before,
+            offset,
+            count,
+            entityLoader,
+            eventTypeLoader
+        )
     }
 
     @Suppress("SqlResolve")
@@ -99,25 +100,49 @@ class EventJdbcRepository(
         eventType: EventType,
         entityType: ProjectEntityType,
         entityId: ID,
+        before: Int?,
         offset: Int,
         count: Int,
         entityLoader: (type: ProjectEntityType, id: ID) -> ProjectEntity,
         eventTypeLoader: (type: String) -> EventType,
     ): List<Event> {
-        return namedParameterJdbcTemplate!!.query(
-            """
-                SELECT *
-                FROM EVENTS 
-                WHERE (${entityType.name} = :entityId OR X_${entityType.name} = :entityId)
-                AND EVENT_TYPE = :eventType 
-                ORDER BY ID DESC 
-                LIMIT :count OFFSET :offset
-            """,
-            params("entityId", entityId.get())
-                .addValue("eventType", eventType.id)
-                .addValue("count", count)
-                .addValue("offset", offset)
-        ) { rs: ResultSet, _: Int -> toEvent(rs, entityLoader, eventTypeLoader) }
+        return queryPage(
+            "(${entityType.name} = :entityId OR X_${entityType.name} = :entityId) AND EVENT_TYPE = :eventType",
+            params("entityId", entityId.get()).addValue("eventType", eventType.id),
+            before,
+            offset,
+            count,
+            entityLoader,
+            eventTypeLoader
+        )
+    }
+
+    /**
+     * Gets a page of events, most recent first.
+     *
+     * When [before] is set, the page starts right after this event ID, so that
+     * the index on the ID can be used whatever the depth of the page. Otherwise,
+     * the [offset] is used.
+     */
+    private fun queryPage(
+        criteria: String,
+        params: MapSqlParameterSource,
+        before: Int?,
+        offset: Int,
+        count: Int,
+        entityLoader: (type: ProjectEntityType, id: ID) -> ProjectEntity,
+        eventTypeLoader: (type: String) -> EventType,
+    ): List<Event> {
+        params.addValue("count", count)
+        val sql = if (before != null) {
+            params.addValue("before", before)
+            "SELECT * FROM EVENTS WHERE $criteria AND ID < :before ORDER BY ID DESC LIMIT :count"
+        } else {
+            params.addValue("offset", offset)
+            "SELECT * FROM EVENTS WHERE $criteria ORDER BY ID DESC LIMIT :count OFFSET :offset"
+        }
+        val rows = namedParameterJdbcTemplate!!.query(sql, params) { rs: ResultSet, _: Int -> toEventRow(rs) }
+        return toEvents(rows, entityLoader, eventTypeLoader)
     }
 
     override fun getLastEventSignature(
@@ -152,53 +177,96 @@ class EventJdbcRepository(
             LIMIT 1
         """,
         params("entityId", entityId.get()).addValue("eventType", eventType.id)
-    ) { rs: ResultSet, _: Int -> toEvent(rs, entityLoader, eventTypeLoader) }
+    ) { rs: ResultSet, _: Int -> toEventRow(rs) }?.let { toEvents(listOf(it), entityLoader, eventTypeLoader).first() }
 
-    private fun toEvent(
-        rs: ResultSet,
+    override fun getEvent(
+        id: Int,
         entityLoader: (type: ProjectEntityType, id: ID) -> ProjectEntity,
         eventTypeLoader: (type: String) -> EventType,
-    ): Event {
-        // Event type name
-        val eventTypeName = rs.getString("event_type")
-        // Signature
-        val signature = readSignature(rs, "event_time", "event_user")
+    ): Event? = getFirstItem(
+        "SELECT * FROM EVENTS WHERE ID = :id",
+        params("id", id)
+    ) { rs: ResultSet, _: Int -> toEventRow(rs) }?.let { toEvents(listOf(it), entityLoader, eventTypeLoader).first() }
+
+    override fun deleteBefore(time: LocalDateTime, limit: Int): Int =
+        // Only the oldest events are looked at, without scanning the whole table
+        namedParameterJdbcTemplate!!.update(
+            """
+                DELETE FROM EVENTS
+                WHERE ID IN (SELECT ID FROM EVENTS ORDER BY ID LIMIT :limit)
+                AND EVENT_TIME < :time
+            """,
+            params("limit", limit).addValue("time", dateTimeForDB(time))
+        )
+
+    private fun toEventRow(rs: ResultSet): EventRow {
         // Entities
-        val entities: MutableMap<ProjectEntityType, ProjectEntity> = LinkedHashMap()
+        val entities: MutableMap<ProjectEntityType, Int> = LinkedHashMap()
+        val extraEntities: MutableMap<ProjectEntityType, Int> = LinkedHashMap()
         for (type in ProjectEntityType.values()) {
             val entityId = rs.getInt(type.name)
             if (!rs.wasNull()) {
-                val entity = entityLoader(type, of(entityId))
-                entities[type] = entity
+                entities[type] = entityId
             }
-        }
-        // Extra entities
-        val extraEntities: MutableMap<ProjectEntityType, ProjectEntity> = LinkedHashMap()
-        for (type in ProjectEntityType.values()) {
-            val entityId = rs.getInt("X_" + type.name)
+            val extraEntityId = rs.getInt("X_" + type.name)
             if (!rs.wasNull()) {
-                val entity = entityLoader(type, of(entityId))
-                extraEntities[type] = entity
+                extraEntities[type] = extraEntityId
             }
         }
-        // Reference (if any)
-        val refEntity = getEnum(
-            ProjectEntityType::class.java, rs, "ref"
-        )
-        // Values
-        val values = loadValues(rs)
-        // OK
-        return Event(
+        return EventRow(
             id = rs.getInt("id"),
-            eventType = eventTypeLoader(eventTypeName),
-            signature = signature,
+            eventType = rs.getString("event_type"),
+            signature = readSignature(rs, "event_time", "event_user"),
             entities = entities,
             extraEntities = extraEntities,
-            ref = refEntity,
-            values = values
+            ref = getEnum(ProjectEntityType::class.java, rs, "ref"),
+            values = loadValues(rs),
         )
     }
 
+    /**
+     * Hydrates the rows once they have all been read.
+     *
+     * The projects, branches and builds of the page are grouped by type and
+     * loaded in one query per type. The other entities and the event types are
+     * loaded only once for the whole page.
+     */
+    private fun toEvents(
+        rows: List<EventRow>,
+        entityLoader: (type: ProjectEntityType, id: ID) -> ProjectEntity,
+        eventTypeLoader: (type: String) -> EventType,
+    ): List<Event> {
+        val hydration = StructureHydration(this)
+        val refs = rows.flatMap { it.entities.entries + it.extraEntities.entries }
+            .groupBy({ it.key }, { it.value })
+        // Builds first, since they preload their branches & projects
+        refs[ProjectEntityType.BUILD]?.let { hydration.preloadBuilds(it) }
+        refs[ProjectEntityType.BRANCH]?.let { hydration.preloadBranches(it) }
+        refs[ProjectEntityType.PROJECT]?.let { hydration.preloadProjects(it) }
+        val entities = mutableMapOf<Pair<ProjectEntityType, Int>, ProjectEntity>()
+        val eventTypes = mutableMapOf<String, EventType>()
+        fun load(refs: Map<ProjectEntityType, Int>): Map<ProjectEntityType, ProjectEntity> =
+            refs.mapValuesTo(LinkedHashMap()) { (type, id) ->
+                when (type) {
+                    ProjectEntityType.PROJECT -> hydration.getProject(of(id))
+                    ProjectEntityType.BRANCH -> hydration.getBranch(of(id))
+                    ProjectEntityType.BUILD -> hydration.getBuild(of(id))
+                    else -> entities.getOrPut(type to id) { entityLoader(type, of(id)) }
+                }
+            }
+        return rows.map { row ->
+            Event(
+                id = row.id,
+                eventType = eventTypes.getOrPut(row.eventType) { eventTypeLoader(row.eventType) },
+                signature = row.signature,
+                entities = load(row.entities),
+                extraEntities = load(row.extraEntities),
+                ref = row.ref,
+                values = row.values
+            )
+        }
+    }
+
     private fun loadValues(rs: ResultSet): Map<String, NameValue> {
         val map: MutableMap<String, NameValue> = LinkedHashMap()
         val node = readJson(rs, "event_values")
@@ -212,4 +280,14 @@ class EventJdbcRepository(
         }
         return map
     }
-}
\ No newline at end of file
+
+    private class EventRow(
+        val id: Int,
+        val eventType: String,
+        val signature: Signature,
+        val entities: Map<ProjectEntityType, Int>,
+        val extraEntities: Map<ProjectEntityType, Int>,
+        val ref: ProjectEntityType?,
+        val values: Map<String, NameValue>,
+    )
+}
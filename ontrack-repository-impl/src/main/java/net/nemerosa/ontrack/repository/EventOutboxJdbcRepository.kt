@@ -0,0 +1,60 @@
+package net.nemerosa.ontrack.repository
+
+import net.nemerosa.ontrack.repository.support.AbstractJdbcRepository
+import org.springframework.stereotype.Repository
+import java.time.LocalDateTime
+import javax.sql.DataSource
+
+@Repository
+class EventOutboxJdbcRepository(
+    dataSource: DataSource,
+) : AbstractJdbcRepository(dataSource), EventOutboxRepository {
+
+    override fun add(eventId: Int, creation: LocalDateTime, owner: String, expires: LocalDateTime) {
+        namedParameterJdbcTemplate!!.update(
+            "INSERT INTO EVENT_OUTBOX(EVENT_ID, CREATION, OWNER, EXPIRES) VALUES (:eventId, :creation, :owner, :expires)",
+            params("eventId", eventId)
+                .addValue("creation", dateTimeForDB(creation))
+                .addValue("owner", owner)
+                .addValue("expires", dateTimeForDB(expires))
+        )
+    }
+
+    override fun remove(eventId: Int) {
+        namedParameterJdbcTemplate!!.update(
+            "DELETE FROM EVENT_OUTBOX WHERE EVENT_ID = :eventId",
+            params("eventId", eventId)
+        )
+    }
+
+    override fun claim(
+        before: LocalDateTime,
+        owner: String,
+        now: LocalDateTime,
+        expires: LocalDateTime,
+        count: Int,
+    ): List<Int> =
+        namedParameterJdbcTemplate!!.queryForList(
+            """
+                UPDATE EVENT_OUTBOX SET OWNER = :owner, EXPIRES = :expires
+                WHERE EVENT_ID IN (
+                    SELECT EVENT_ID FROM EVENT_OUTBOX
+                    WHERE CREATION < :before
+                    AND (EXPIRES IS NULL OR EXPIRES < :now)
+                    ORDER BY EVENT_ID
+                    LIMIT :count
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING EVENT_ID
+            """,
+            params("before", dateTimeForDB(before))
+                .addValue("owner", owner)
+                .addValue("now", dateTimeForDB(now))
+                .addValue("expires", dateTimeForDB(expires))
+                .addValue("count", count),
+            Int::class.java
+        ).sorted()
+
+    override val count: Int
+        get() = jdbcTemplate!!.queryForObject("SELECT COUNT(*) FROM EVENT_OUTBOX", Int::class.java) ?: 0
+}
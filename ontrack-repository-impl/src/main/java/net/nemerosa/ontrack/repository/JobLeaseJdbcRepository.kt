@@ -0,0 +1,73 @@
+package net.nemerosa.ontrack.repository
+
+import net.nemerosa.ontrack.repository.support.AbstractJdbcRepository
+import org.springframework.stereotype.Repository
+import java.time.LocalDateTime
+import javax.sql.DataSource
+
+@Repository
+class JobLeaseJdbcRepository(
+    dataSource: DataSource,
+) : AbstractJdbcRepository(dataSource), JobLeaseRepository {
+
+    override fun heartbeat(node: String, expires: LocalDateTime) {
+        namedParameterJdbcTemplate!!.update(
+            """
+                INSERT INTO JOB_NODES (NODE, EXPIRES) VALUES (:node, :expires)
+                ON CONFLICT (NODE) DO UPDATE SET EXPIRES = :expires
+            """,
+            params("node", node).addValue("expires", dateTimeForDB(expires))
+        )
+    }
+
+    override fun findNodes(now: LocalDateTime): List<String> =
+        namedParameterJdbcTemplate!!.queryForList(
+            "SELECT NODE FROM JOB_NODES WHERE EXPIRES > :now ORDER BY NODE",
+            params("now", dateTimeForDB(now)),
+            String::class.java
+        )
+
+    override fun acquire(key: String, node: String, now: LocalDateTime, expires: LocalDateTime): Boolean =
+        namedParameterJdbcTemplate!!.update(
+            """
+                INSERT INTO JOB_LEASES (JOB_KEY, NODE, EXPIRES) VALUES (:key, :node, :expires)
+                ON CONFLICT (JOB_KEY) DO UPDATE SET NODE = :node, EXPIRES = :expires
+                WHERE JOB_LEASES.NODE = :node OR JOB_LEASES.EXPIRES <= :now
+            """,
+            params("key", key)
+                .addValue("node", node)
+                .addValue("now", dateTimeForDB(now))
+                .addValue("expires", dateTimeForDB(expires))
+        ) > 0
+
+    override fun renew(node: String, now: LocalDateTime, expires: LocalDateTime): List<String> =
+        namedParameterJdbcTemplate!!.queryForList(
+            """
+                UPDATE JOB_LEASES SET EXPIRES = :expires
+                WHERE NODE = :node AND EXPIRES > :now
+                RETURNING JOB_KEY
+            """,
+            params("node", node)
+                .addValue("now", dateTimeForDB(now))
+                .addValue("expires", dateTimeForDB(expires)),
+            String::class.java
+        )
+
+    override fun release(key: String, node: String) {
+        namedParameterJdbcTemplate!!.update(
+            "DELETE FROM JOB_LEASES WHERE JOB_KEY = :key AND NODE = :node",
+            params("key", key).addValue("node", node)
+        )
+    }
+
+    override fun findOwners(now: LocalDateTime): Map<String, String> {
+        val owners = mutableMapOf<String, String>()
+        namedParameterJdbcTemplate!!.query(
+            "SELECT JOB_KEY, NODE FROM JOB_LEASES WHERE EXPIRES > :now",
+            params("now", dateTimeForDB(now))
+        ) { rs ->
+            owners[rs.getString("JOB_KEY")] = rs.getString("NODE")
+        }
+        return owners
+    }
+}
@@ -0,0 +1,248 @@
+package net.nemerosa.ontrack.repository
+
+import net.nemerosa.ontrack.model.exceptions.BranchNotFoundException
+import net.nemerosa.ontrack.model.exceptions.BuildNotFoundException
+import net.nemerosa.ontrack.model.exceptions.ProjectNotFoundException
+import net.nemerosa.ontrack.model.structure.*
+import net.nemerosa.ontrack.repository.support.AbstractJdbcRepository
+import java.sql.ResultSet
+
+/**
+ * Identity map used to hydrate the parents of a page of structure entities.
+ *
+ * Instead of loading the branch (and then the project) of each build row
+ * with dedicated queries, the IDs of the parents are collected first and
+ * then loaded in one `IN (...)` query per level. Within the same hydration,
+ * a given branch or project is loaded only once and the same instance
+ * is shared by all the children.
+ *
+ * Instances are _not_ thread safe and are meant to be created for the
+ * duration of one repository call.
+ *
+ * @param repository Repository used to access the database & to read the signatures
+ */
+class StructureHydration(
+    private val repository: AbstractJdbcRepository,
+) {
+
+    private val projects = mutableMapOf<Int, Project>()
+    private val branches = mutableMapOf<Int, Branch>()
+    private val builds = mutableMapOf<Int, Build>()
+
+    /**
+     * Registers a project which is already known by the caller.
+     */
+    fun register(project: Project): StructureHydration {
+        projects[project.id()] = project
+        return this
+    }
+
+    /**
+     * Registers a branch which is already known by the caller.
+     */
+    fun register(branch: Branch): StructureHydration {
+        register(branch.project)
+        branches[branch.id()] = branch
+        return this
+    }
+
+    /**
+     * Loads all the branches of a project in one query.
+     */
+    fun preloadProjectBranches(project: Project): StructureHydration {
+        register(project)
+        repository.namedParameterJdbcTemplate!!.query(
+            "SELECT * FROM BRANCHES WHERE PROJECTID = :projectId",
+            mapOf("projectId" to project.id())
+        ) { rs ->
+            val branch = toBranch(rs, project)
+            branches[branch.id()] = branch
+        }
+        return this
+    }
+
+    /**
+     * Loads the given projects, in one query, if they are not loaded yet.
+     */
+    fun preloadProjects(ids: Collection<Int>) {
+        val missing = ids.filter { it !in projects }.distinct()
+        if (missing.isNotEmpty()) {
+            repository.namedParameterJdbcTemplate!!.query(
+                "SELECT * FROM PROJECTS WHERE ID IN (:ids)",
+                mapOf("ids" to missing)
+            ) { rs ->
+                val project = Project(
+                    id = ID.of(rs.getInt("id")),
+                    name = rs.getString("name"),
+                    description = rs.getString("description"),
+                    isDisabled = rs.getBoolean("disabled"),
+                    signature = repository.readSignature(rs),
+                )
+                projects[project.id()] = project
+            }
+        }
+    }
+
+    /**
+     * Loads the given branches, and their projects, in two queries,
+     * if they are not loaded yet.
+     */
+    fun preloadBranches(ids: Collection<Int>) {
+        val missing = ids.filter { it !in branches }.distinct()
+        if (missing.isNotEmpty()) {
+            val rows = repository.namedParameterJdbcTemplate!!.query(
+                "SELECT * FROM BRANCHES WHERE ID IN (:ids)",
+                mapOf("ids" to missing)
+            ) { rs, _ ->
+                BranchRow(
+                    projectId = rs.getInt("projectid"),
+                    id = rs.getInt("id"),
+                    name = rs.getString("name"),
+                    description = rs.getString("description"),
+                    disabled = rs.getBoolean("disabled"),
+                    signature = repository.readSignature(rs),
+                )
+            }
+            preloadProjects(rows.map { it.projectId })
+            rows.forEach { row ->
+                branches[row.id] = Branch(
+                    id = ID.of(row.id),
+                    name = row.name,
+                    description = row.description,
+                    isDisabled = row.disabled,
+                    project = getProject(ID.of(row.projectId)),
+                    signature = row.signature,
+                )
+            }
+        }
+    }
+
+    /**
+     * Loads the given builds, and their branches & projects, in three queries,
+     * if they are not loaded yet.
+     */
+    fun preloadBuilds(ids: Collection<Int>) {
+        val missing = ids.filter { it !in builds }.distinct()
+        if (missing.isNotEmpty()) {
+            queryBuilds(
+                "SELECT * FROM BUILDS WHERE ID IN (:ids)",
+                mapOf("ids" to missing)
+            )
+        }
+    }
+
+    /**
+     * Gets a project, loading it if needed.
+     */
+    fun getProject(id: ID): Project {
+        preloadProjects(listOf(id.value))
+        return projects[id.value] ?: throw ProjectNotFoundException(id)
+    }
+
+    /**
+     * Gets a branch, loading it if needed.
+     */
+    fun getBranch(id: ID): Branch {
+        preloadBranches(listOf(id.value))
+        return branches[id.value] ?: throw BranchNotFoundException(id)
+    }
+
+    /**
+     * Gets a build, loading it if needed.
+     */
+    fun getBuild(id: ID): Build {
+        preloadBuilds(listOf(id.value))
+        return builds[id.value] ?: throw BuildNotFoundException(id)
+    }
+
+    /**
+     * Runs a query returning rows from the `BUILDS` table and hydrates
+     * their branches & projects in batch.
+     */
+    fun queryBuilds(sql: String, params: Map<String, *>): List<Build> =
+        queryBuildRows(sql, params, links = false).map { toBuild(it) }
+
+    /**
+     * Runs a query returning rows from the `BUILDS` table, together with
+     * a `QUALIFIER` column, and hydrates them as build links.
+     */
+    fun queryBuildLinks(sql: String, params: Map<String, *>): List<BuildLink> =
+        queryBuildRows(sql, params, links = true).map { toBuildLink(it) }
+
+    /**
+     * Runs a query returning rows from the `BUILDS` table, together with
+     * a `QUALIFIER` column and a `SOURCE` column, and hydrates them as build links
+     * grouped by the `SOURCE` build ID.
+     */
+    fun queryBuildLinksBySource(sql: String, params: Map<String, *>): Map<ID, List<BuildLink>> =
+        queryBuildRows(sql, params, links = true, source = true)
+            .groupBy(
+                keySelector = { ID.of(it.source!!) },
+                valueTransform = { toBuildLink(it) },
+            )
+
+    private fun queryBuildRows(
+        sql: String,
+        params: Map<String, *>,
+        links: Boolean,
+        source: Boolean = false,
+    ): List<BuildRow> {
+        val rows = repository.namedParameterJdbcTemplate!!.query(sql, params) { rs, _ ->
+            BuildRow(
+                branchId = rs.getInt("branchid"),
+                id = rs.getInt("id"),
+                name = rs.getString("name"),
+                description = rs.getString("description"),
+                signature = repository.readSignature(rs),
+                qualifier = if (links) rs.getString("QUALIFIER") else null,
+                source = if (source) rs.getInt("SOURCE") else null,
+            )
+        }
+        preloadBranches(rows.map { it.branchId })
+        return rows
+    }
+
+    private fun toBuild(row: BuildRow): Build =
+        builds.getOrPut(row.id) {
+            Build(
+                id = ID.of(row.id),
+                name = row.name,
+                description = row.description,
+                signature = row.signature,
+                branch = getBranch(ID.of(row.branchId)),
+            )
+        }
+
+    private fun toBuildLink(row: BuildRow) = BuildLink(
+        build = toBuild(row),
+        qualifier = row.qualifier ?: BuildLink.DEFAULT,
+    )
+
+    private fun toBranch(rs: ResultSet, project: Project) = Branch(
+        id = ID.of(rs.getInt("id")),
+        name = rs.getString("name"),
+        description = rs.getString("description"),
+        isDisabled = rs.getBoolean("disabled"),
+        project = project,
+        signature = repository.readSignature(rs),
+    )
+
+    private class BranchRow(
+        val projectId: Int,
+        val id: Int,
+        val name: String,
+        val description: String?,
+        val disabled: Boolean,
+        val signature: Signature,
+    )
+
+    private class BuildRow(
+        val branchId: Int,
+        val id: Int,
+        val name: String,
+        val description: String?,
+        val signature: Signature,
+        val qualifier: String?,
+        val source: Int?,
+    )
+}
@@ -12,12 +12,16 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.stereotype.Repository;
 
 import javax.sql.DataSource;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -254,6 +258,8 @@ public class StructureJdbcRepository extends AbstractJdbcRepository implements S
 
     @Override
     public void builds(Project project, Predicate<Build> buildPredicate) {
+        // All the branches of the project are loaded at once
+        StructureHydration hydration = new StructureHydration(this).preloadProjectBranches(project);
         getNamedParameterJdbcTemplate().execute(
                 "SELECT B.* FROM BUILDS B INNER JOIN BRANCHES R ON R.ID = B.BRANCHID AND R.PROJECTID = :projectId ORDER BY B.ID DESC",
                 params("projectId", project.id()),
@@ -264,7 +270,7 @@ public class StructureJdbcRepository extends AbstractJdbcRepository implements S
                         // Gets the builds
                         Build build = toBuild(
                                 rs,
-                                this::getBranch
+                                hydration::getBranch
                         );
                         // Dealing with this build
                         goingOn = buildPredicate.test(build);
@@ -284,6 +290,24 @@ public class StructureJdbcRepository extends AbstractJdbcRepository implements S
         );
     }
 
+    @Override
+    public Map<ID, Build> getLastBuildsForProject(Project project) {
+        // All the branches of the project are loaded at once
+        StructureHydration hydration = new StructureHydration(this).preloadProjectBranches(project);
+        Map<ID, Build> builds = new HashMap<>();
+        getNamedParameterJdbcTemplate().query(
+                "SELECT B.* FROM BRANCHES R " +
+                        "CROSS JOIN LATERAL (SELECT * FROM BUILDS WHERE BRANCHID = R.ID ORDER BY ID DESC LIMIT 1) B " +
+                        "WHERE R.PROJECTID = :projectId",
+                params("projectId", project.id()),
+                (RowCallbackHandler) rs -> {
+                    Build build = toBuild(rs, hydration::getBranch);
+                    builds.put(build.getBranch().getId(), build);
+                }
+        );
+        return builds;
+    }
+
     @Override
     public Ack deleteBuild(ID buildId) {
         return Ack.one(
@@ -296,25 +320,23 @@ public class StructureJdbcRepository extends AbstractJdbcRepository implements S
 
     @Override
     public List<Build> getBuildsUsedBy(Build build) {
-        return getNamedParameterJdbcTemplate().query(
+        return new StructureHydration(this).queryBuilds(
                 "SELECT F.* FROM BUILDS F " +
                         "INNER JOIN BUILD_LINKS BL ON BL.TARGETBUILDID = F.ID " +
                         "WHERE BL.BUILDID = :buildId " +
                         "ORDER BY F.ID DESC ",
-                params("buildId", build.id()),
-                (rs, num) -> toBuild(rs, this::getBranch)
+                Map.of("buildId", build.id())
         );
     }
 
     @Override
     public List<Build> getBuildsUsing(Build build) {
-        return getNamedParameterJdbcTemplate().query(
+        return new StructureHydration(this).queryBuilds(
                 "SELECT F.* FROM BUILDS F " +
                         "INNER JOIN BUILD_LINKS BL ON BL.BUILDID = F.ID " +
                         "WHERE BL.TARGETBUILDID = :buildId " +
                         "ORDER BY F.ID DESC ",
-                params("buildId", build.id()),
-                (rs, num) -> toBuild(rs, this::getBranch)
+                Map.of("buildId", build.id())
         );
     }
 
@@ -635,6 +657,29 @@ public class StructureJdbcRepository extends AbstractJdbcRepository implements S
         );
     }
 
+    @Override
+    public Map<ID, List<PromotionRun>> getPromotionRunsForBuilds(List<Build> builds) {
+        Map<ID, List<PromotionRun>> result = new HashMap<>();
+        if (builds.isEmpty()) {
+            return result;
+        }
+        Map<ID, Build> buildsById = builds.stream().collect(Collectors.toMap(Build::getId, b -> b, (a, b) -> a));
+        // Promotion levels are shared between the builds
+        Map<ID, PromotionLevel> promotionLevels = new HashMap<>();
+        getNamedParameterJdbcTemplate().query(
+                "SELECT * FROM PROMOTION_RUNS WHERE BUILDID IN (:buildIds) ORDER BY CREATION DESC",
+                params("buildIds", buildsById.keySet().stream().map(ID::get).collect(Collectors.toList())),
+                (RowCallbackHandler) rs -> {
+                    PromotionRun run = toPromotionRun(rs,
+                            buildsById::get,
+                            id -> promotionLevels.computeIfAbsent(id, this::getPromotionLevel)
+                    );
+                    result.computeIfAbsent(run.getBuild().getId(), id -> new ArrayList<>()).add(run);
+                }
+        );
+        return result;
+    }
+
     @Override
     public List<PromotionRun> getLastPromotionRunsForBuild(Build build) {
         // Branch
@@ -727,6 +772,37 @@ public class StructureJdbcRepository extends AbstractJdbcRepository implements S
         );
     }
 
+    @Override
+    public Map<ID, List<PromotionRun>> getEarliestPromotionRunsAfterBuilds(List<Build> builds) {
+        Map<ID, List<PromotionRun>> result = new HashMap<>();
+        if (builds.isEmpty()) {
+            return result;
+        }
+        Map<ID, Build> buildsByBranch = builds.stream().collect(Collectors.toMap(b -> b.getBranch().getId(), b -> b, (a, b) -> a));
+        // Builds & promotion levels are shared between the runs
+        Map<ID, Build> runBuilds = new HashMap<>();
+        Map<ID, PromotionLevel> promotionLevels = new HashMap<>();
+        getNamedParameterJdbcTemplate().query(
+                "SELECT DISTINCT ON (PL.ORDERNB, PL.ID) PR.* " +
+                        "FROM PROMOTION_RUNS PR " +
+                        "INNER JOIN PROMOTION_LEVELS PL ON PL.ID = PR.PROMOTIONLEVELID " +
+                        "INNER JOIN BUILDS B ON B.BRANCHID = PL.BRANCHID " +
+                        "WHERE B.ID IN (:buildIds) " +
+                        "AND PR.BUILDID >= B.ID " +
+                        "ORDER BY PL.ORDERNB, PL.ID, PR.CREATION ASC, PR.ID ASC",
+                params("buildIds", buildsByBranch.values().stream().map(Build::id).collect(Collectors.toList())),
+                (RowCallbackHandler) rs -> {
+                    PromotionRun run = toPromotionRun(rs,
+                            id -> runBuilds.computeIfAbsent(id, this::getBuild),
+                            id -> promotionLevels.computeIfAbsent(id, this::getPromotionLevel)
+                    );
+                    Build build = buildsByBranch.get(run.getPromotionLevel().getBranch().getId());
+                    result.computeIfAbsent(build.getId(), id -> new ArrayList<>()).add(run);
+                }
+        );
+        return result;
+    }
+
     protected PromotionRun toPromotionRun(ResultSet rs,
                                           Function<ID, Build> buildLoader,
                                           Function<ID, PromotionLevel> promotionLevelLoader) throws SQLException {
@@ -903,12 +979,20 @@ public class StructureJdbcRepository extends AbstractJdbcRepository implements S
 
     @Override
     public Ack deleteValidationRun(ID validationRunId) {
-        return Ack.one(
-                getNamedParameterJdbcTemplate().update(
-                        "DELETE FROM VALIDATION_RUNS WHERE ID = :id",
-                        params("id", validationRunId.getValue())
-                )
+        List<Map<String, Object>> deleted = getNamedParameterJdbcTemplate().queryForList(
+                "DELETE FROM VALIDATION_RUNS WHERE ID = :id RETURNING BUILDID, VALIDATIONSTAMPID, LATEST",
+                params("id", validationRunId.getValue())
         );
+        // If the latest run was deleted, the previous one becomes the latest
+        deleted.stream()
+                .filter(row -> Boolean.TRUE.equals(row.get("latest")))
+                .forEach(row -> getNamedParameterJdbcTemplate().update(
+                        "UPDATE VALIDATION_RUNS SET LATEST = TRUE " +
+                                "WHERE ID = (SELECT MAX(ID) FROM VALIDATION_RUNS WHERE BUILDID = :buildId AND VALIDATIONSTAMPID = :validationStampId)",
+                        params("buildId", row.get("buildid"))
+                                .addValue("validationStampId", row.get("validationstampid"))
+                ));
+        return Ack.one(deleted.size());
     }
 
     @Override
@@ -951,11 +1035,25 @@ public class StructureJdbcRepository extends AbstractJdbcRepository implements S
     @Override
     public ValidationRun newValidationRun(ValidationRun validationRun, Function<String, ValidationRunStatusID> validationRunStatusService) {
 
+        MapSqlParameterSource runParams = params("buildId", validationRun.getBuild().id())
+                .addValue("validationStampId", validationRun.getValidationStamp().id());
+
+        // Serializes the creation of the runs for the same build, so that only one is the latest
+        getNamedParameterJdbcTemplate().query(
+                "SELECT ID FROM BUILDS WHERE ID = :buildId FOR NO KEY UPDATE",
+                runParams,
+                (RowCallbackHandler) rs -> {
+                }
+        );
+        getNamedParameterJdbcTemplate().update(
+                "UPDATE VALIDATION_RUNS SET LATEST = FALSE WHERE BUILDID = :buildId AND VALIDATIONSTAMPID = :validationStampId AND LATEST",
+                runParams
+        );
+
         // Validation run itself (parent)
         int id = dbCreate(
-                "INSERT INTO VALIDATION_RUNS(BUILDID, VALIDATIONSTAMPID) VALUES (:buildId, :validationStampId)",
-                params("buildId", validationRun.getBuild().id())
-                        .addValue("validationStampId", validationRun.getValidationStamp().id())
+                "INSERT INTO VALIDATION_RUNS(BUILDID, VALIDATIONSTAMPID, LATEST) VALUES (:buildId, :validationStampId, TRUE)",
+                runParams
         );
 
         // Data
@@ -1025,8 +1123,7 @@ public class StructureJdbcRepository extends AbstractJdbcRepository implements S
         params.put("limit", count);
 
         if (statuses != null && !statuses.isEmpty()) {
-            sql += "INNER JOIN VALIDATION_RUN_STATUSES VRS ON VRS.ID = (SELECT ID FROM VALIDATION_RUN_STATUSES WHERE VALIDATIONRUNID = VR.ID ORDER BY ID DESC LIMIT 1) ";
-            criterias += "AND VRS.VALIDATIONRUNSTATUSID IN (:statuses) ";
+            criterias += "AND VR.STATUS IN (:statuses) ";
             params.put("statuses", statuses);
         }
 
@@ -1073,8 +1170,7 @@ public class StructureJdbcRepository extends AbstractJdbcRepository implements S
         params.put("buildId", build.id());
 
         if (statuses != null && !statuses.isEmpty()) {
-            sql += "INNER JOIN VALIDATION_RUN_STATUSES VRS ON VRS.ID = (SELECT ID FROM VALIDATION_RUN_STATUSES WHERE VALIDATIONRUNID = VR.ID ORDER BY ID DESC LIMIT 1) ";
-            criterias += "AND VRS.VALIDATIONRUNSTATUSID IN (:statuses) ";
+            criterias += "AND VR.STATUS IN (:statuses) ";
             params.put("statuses", statuses);
         }
 
@@ -1110,8 +1206,7 @@ public class StructureJdbcRepository extends AbstractJdbcRepository implements S
         params.put("limit", count);
 
         if (statuses != null && !statuses.isEmpty()) {
-            sql += "INNER JOIN VALIDATION_RUN_STATUSES VRS ON VRS.ID = (SELECT ID FROM VALIDATION_RUN_STATUSES WHERE VALIDATIONRUNID = VR.ID ORDER BY ID DESC LIMIT 1) ";
-            criterias += "AND VRS.VALIDATIONRUNSTATUSID IN (:statuses) ";
+            criterias += "AND VR.STATUS IN (:statuses) ";
             params.put("statuses", statuses);
         }
 
@@ -1146,16 +1241,72 @@ public class StructureJdbcRepository extends AbstractJdbcRepository implements S
         );
     }
 
+    @Override
+    public Map<ID, List<ValidationRun>> getValidationRunsForBuildsAndValidationStamp(
+            List<Build> builds,
+            ValidationStamp validationStamp,
+            int offset,
+            int count,
+            Function<String, ValidationRunStatusID> validationRunStatusService
+    ) {
+        Map<ID, List<ValidationRun>> result = new HashMap<>();
+        if (builds.isEmpty()) {
+            return result;
+        }
+        Map<ID, Build> buildsById = builds.stream().collect(Collectors.toMap(Build::getId, b -> b, (a, b) -> a));
+        // Runs numbered per build, with their run order
+        String runs = "SELECT * FROM (" +
+                "SELECT VR.*, VDR.DATA_TYPE_ID, VDR.DATA, " +
+                "ROW_NUMBER() OVER (PARTITION BY VR.BUILDID ORDER BY VR.ID DESC) AS RN, " +
+                "ROW_NUMBER() OVER (PARTITION BY VR.BUILDID ORDER BY VR.ID ASC) AS RUN_ORDER " +
+                "FROM VALIDATION_RUNS VR " +
+                "LEFT JOIN VALIDATION_RUN_DATA VDR ON VDR.VALIDATION_RUN = VR.ID " +
+                "WHERE VR.BUILDID IN (:buildIds) AND VR.VALIDATIONSTAMPID = :validationStampId" +
+                ") X WHERE X.RN > :offset AND X.RN <= :limit";
+        MapSqlParameterSource params = params("buildIds", buildsById.keySet().stream().map(ID::get).collect(Collectors.toList()))
+                .addValue("validationStampId", validationStamp.id())
+                .addValue("offset", offset)
+                .addValue("limit", offset + count);
+        // Statuses for all the runs at once
+        Map<Integer, List<ValidationRunStatus>> statuses = new HashMap<>();
+        getNamedParameterJdbcTemplate().query(
+                "SELECT VRS.* FROM VALIDATION_RUN_STATUSES VRS " +
+                        "INNER JOIN (" + runs + ") R ON R.ID = VRS.VALIDATIONRUNID " +
+                        "ORDER BY VRS.CREATION DESC",
+                params,
+                (RowCallbackHandler) rs -> statuses.computeIfAbsent(rs.getInt("validationRunId"), id -> new ArrayList<>())
+                        .add(toValidationRunStatus(rs, validationRunStatusService))
+        );
+        // Runs
+        getNamedParameterJdbcTemplate().query(
+                runs + " ORDER BY X.ID DESC",
+                params,
+                (RowCallbackHandler) rs -> {
+                    int id = rs.getInt("id");
+                    Build build = buildsById.get(id(rs, "buildId"));
+                    ValidationRun run = ValidationRun.of(
+                                    build,
+                                    validationStamp,
+                                    rs.getInt("RUN_ORDER"),
+                                    statuses.getOrDefault(id, Collections.emptyList())
+                            )
+                            .withId(ID.of(id))
+                            .withData(readValidationRunData(rs));
+                    result.computeIfAbsent(build.getId(), buildId -> new ArrayList<>()).add(run);
+                }
+        );
+        return result;
+    }
+
     @Override
     public List<ValidationRun> getValidationRunsForBuildAndValidationStampAndStatus(Build build, ValidationStamp validationStamp, List<ValidationRunStatusID> statuses, int offset, int count, Function<String, ValidationRunStatusID> validationRunStatusService) {
         return getNamedParameterJdbcTemplate().query(
                 "SELECT VR.*, VDR.DATA_TYPE_ID, VDR.DATA " +
                         "FROM VALIDATION_RUNS VR " +
                         "LEFT JOIN VALIDATION_RUN_DATA VDR ON VDR.VALIDATION_RUN = VR.ID " +
-                        "LEFT JOIN VALIDATION_RUN_STATUSES VST ON VST.VALIDATIONRUNID = VR.ID " +
                         "WHERE VR.BUILDID = :buildId " +
                         "AND VR.VALIDATIONSTAMPID = :validationStampId " +
-                        "AND VST.VALIDATIONRUNSTATUSID IN (:statuses) " +
+                        "AND VR.STATUS IN (:statuses) " +
                         "ORDER BY VR.ID DESC " +
                         "LIMIT :limit OFFSET :offset",
                 params("buildId", build.id()).addValue("validationStampId", validationStamp.id())
@@ -1185,8 +1336,7 @@ public class StructureJdbcRepository extends AbstractJdbcRepository implements S
         params.put("validationStampId", validationStampId.get());
 
         if (statuses != null && !statuses.isEmpty()) {
-            sql += "INNER JOIN VALIDATION_RUN_STATUSES VRS ON VRS.ID = (SELECT ID FROM VALIDATION_RUN_STATUSES WHERE VALIDATIONRUNID = VR.ID ORDER BY ID DESC LIMIT 1) ";
-            criterias += "AND VRS.VALIDATIONRUNSTATUSID IN (:statuses) ";
+            criterias += "AND VR.STATUS IN (:statuses) ";
             params.put("statuses", statuses);
         }
 
@@ -1225,9 +1375,11 @@ public class StructureJdbcRepository extends AbstractJdbcRepository implements S
                 "SELECT VR.*, VDR.DATA_TYPE_ID, VDR.DATA " +
                         "FROM VALIDATION_RUNS VR " +
                         "LEFT JOIN VALIDATION_RUN_DATA VDR ON VDR.VALIDATION_RUN = VR.ID " +
-                        "INNER JOIN VALIDATION_RUN_STATUSES VRS ON VRS.ID = (SELECT ID FROM VALIDATION_RUN_STATUSES WHERE VALIDATIONRUNID = VR.ID ORDER BY ID DESC LIMIT 1) " +
+                        "INNER JOIN VALIDATION_RUN_STATUSES VRS ON VRS.VALIDATIONRUNID = VR.ID " +
                         "WHERE VR.VALIDATIONSTAMPID = :validationStampId " +
                         "AND VRS.CREATION >= :start AND VRS.CREATION <= :end " +
+                        // Only the last status of the run
+                        "AND NOT EXISTS (SELECT 1 FROM VALIDATION_RUN_STATUSES NXT WHERE NXT.VALIDATIONRUNID = VR.ID AND NXT.ID > VRS.ID) " +
                         "ORDER BY VR.BUILDID DESC, VR.ID DESC ",
                 params("validationStampId", validationStamp.id())
                         .addValue("start", Time.forStorage(start))
@@ -1247,9 +1399,8 @@ public class StructureJdbcRepository extends AbstractJdbcRepository implements S
                 "SELECT VR.*, VDR.DATA_TYPE_ID, VDR.DATA " +
                         "FROM VALIDATION_RUNS VR " +
                         "LEFT JOIN VALIDATION_RUN_DATA VDR ON VDR.VALIDATION_RUN = VR.ID " +
-                        "LEFT JOIN VALIDATION_RUN_STATUSES VST ON VST.VALIDATIONRUNID = VR.ID " +
                         "WHERE VR.VALIDATIONSTAMPID = :validationStampId " +
-                        "AND VST.VALIDATIONRUNSTATUSID IN (:statuses) " +
+                        "AND VR.STATUS IN (:statuses) " +
                         "ORDER BY VR.BUILDID DESC, VR.ID DESC " +
                         "LIMIT :limit OFFSET :offset",
                 params("validationStampId", validationStamp.id())
@@ -1271,10 +1422,9 @@ public class StructureJdbcRepository extends AbstractJdbcRepository implements S
                 "SELECT VR.*, VDR.DATA_TYPE_ID, VDR.DATA " +
                         "FROM VALIDATION_RUNS VR " +
                         "LEFT JOIN VALIDATION_RUN_DATA VDR ON VDR.VALIDATION_RUN = VR.ID " +
-                        "INNER JOIN VALIDATION_RUN_STATUSES VST ON VST.VALIDATIONRUNID = VR.ID " +
                         "INNER JOIN BUILDS B ON B.ID = VR.BUILDID " +
                         "WHERE B.BRANCHID = :branchId " +
-                        "AND VST.VALIDATIONRUNSTATUSID IN (:statuses) " +
+                        "AND VR.STATUS IN (:statuses) " +
                         "ORDER BY VR.BUILDID DESC, VR.ID DESC " +
                         "LIMIT :limit OFFSET :offset",
                 params("branchId", branch.id())
@@ -1357,6 +1507,13 @@ public class StructureJdbcRepository extends AbstractJdbcRepository implements S
                         .addValue("creation", dateTimeForDB(validationRunStatus.getSignature().getTime()))
                         .addValue("creator", validationRunStatus.getSignature().getUser().getName())
         );
+        // Current status of the run
+        getNamedParameterJdbcTemplate().update(
+                "UPDATE VALIDATION_RUNS SET STATUS = " +
+                        "(SELECT VALIDATIONRUNSTATUSID FROM VALIDATION_RUN_STATUSES WHERE VALIDATIONRUNID = :validationRunId ORDER BY ID DESC LIMIT 1) " +
+                        "WHERE ID = :validationRunId",
+                params("validationRunId", validationRunId)
+        );
     }
 
     protected ValidationRun toValidationRun(ResultSet rs,
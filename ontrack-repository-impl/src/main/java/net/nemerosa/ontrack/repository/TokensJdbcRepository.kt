@@ -4,8 +4,10 @@ import net.nemerosa.ontrack.model.security.Account
 import net.nemerosa.ontrack.model.structure.Token
 import net.nemerosa.ontrack.model.structure.TokenScope
 import net.nemerosa.ontrack.repository.support.AbstractJdbcRepository
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource
 import org.springframework.stereotype.Repository
 import java.sql.ResultSet
+import java.sql.Types
 import java.time.LocalDateTime
 import javax.sql.DataSource
 
@@ -117,6 +119,21 @@ class TokensJdbcRepository(dataSource: DataSource) : AbstractJdbcRepository(data
         )
     }
 
+    override fun updateUsages(usages: Map<String, Pair<LocalDateTime, LocalDateTime?>>) {
+        if (usages.isNotEmpty()) {
+            namedParameterJdbcTemplate!!.batchUpdate(
+                "UPDATE TOKENS SET LAST_USED = :lastUsed, VALID_UNTIL = COALESCE(:validUntil, VALID_UNTIL) WHERE VALUE = :token",
+                usages.map { (token, usage) ->
+                    val (lastUsed, validUntil) = usage
+                    MapSqlParameterSource()
+                        .addValue("lastUsed", dateTimeForDB(lastUsed))
+                        .addValue("validUntil", dateTimeForDB(validUntil), Types.VARCHAR)
+                        .addValue("token", token)
+                }.toTypedArray()
+            )
+        }
+    }
+
     private fun toToken(rs: ResultSet): Token {
         return Token(
             name = rs.getString("NAME"),
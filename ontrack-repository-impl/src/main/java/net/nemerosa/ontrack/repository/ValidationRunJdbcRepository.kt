@@ -37,13 +37,11 @@ class ValidationRunJdbcRepository(
     override fun isValidationRunPassed(build: Build, validationStamp: ValidationStamp): Boolean {
         return namedParameterJdbcTemplate!!.queryForList(
             """
-                    SELECT VRS.VALIDATIONRUNSTATUSID
-                    FROM VALIDATION_RUNS VR
-                    INNER JOIN VALIDATION_RUN_STATUSES VRS ON VRS.ID = (SELECT VRST.ID FROM VALIDATION_RUN_STATUSES VRST WHERE VRST.VALIDATIONRUNID = VR.ID ORDER BY VRST.ID DESC LIMIT 1) 
-                    WHERE VR.BUILDID = :buildId
-                    AND VR.VALIDATIONSTAMPID = :validationStampId
-                    ORDER BY VR.ID DESC
-                    LIMIT 1
+                    SELECT STATUS
+                    FROM VALIDATION_RUNS
+                    WHERE BUILDID = :buildId
+                    AND VALIDATIONSTAMPID = :validationStampId
+                    AND LATEST
             """,
             mapOf(
                 "buildId" to build.id(),
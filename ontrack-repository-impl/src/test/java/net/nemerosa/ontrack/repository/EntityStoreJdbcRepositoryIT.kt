@@ -141,6 +141,28 @@ class EntityStoreJdbcRepositoryIT : AbstractRepositoryTestSupport() {
         }
     }
 
+    @Test
+    fun `Iterating over records for all entities`() {
+        val store = uid("store_")
+        val branch = do_create_branch()
+        val r1 = record().apply { repository.store(branch, store, this) }
+        val project = do_create_project()
+        val r2 = record().apply { repository.store(project, store, this) }
+
+        val records = mutableMapOf<String, ProjectEntityID>()
+        repository.forEachByStoreForAllEntities<Record>(store) { entity, record ->
+            records[record.name] = entity
+        }
+
+        assertEquals(
+            mapOf(
+                r1.name to ProjectEntityID(ProjectEntityType.BRANCH, branch.id()),
+                r2.name to ProjectEntityID(ProjectEntityType.PROJECT, project.id()),
+            ),
+            records
+        )
+    }
+
     companion object {
         private const val STORE = "testing_store"
 
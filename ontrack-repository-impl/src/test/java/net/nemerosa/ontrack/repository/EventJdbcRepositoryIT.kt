@@ -0,0 +1,124 @@
+package net.nemerosa.ontrack.repository
+
+import net.nemerosa.ontrack.common.Time
+import net.nemerosa.ontrack.model.events.Event
+import net.nemerosa.ontrack.model.events.EventFactory
+import net.nemerosa.ontrack.model.events.EventType
+import net.nemerosa.ontrack.model.structure.ID
+import net.nemerosa.ontrack.model.structure.Project
+import net.nemerosa.ontrack.model.structure.ProjectEntity
+import net.nemerosa.ontrack.model.structure.ProjectEntityType
+import net.nemerosa.ontrack.model.structure.Signature
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import java.time.LocalDateTime
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+
+class EventJdbcRepositoryIT : AbstractRepositoryTestSupport() {
+
+    @Autowired
+    private lateinit var eventRepository: EventRepository
+
+    @Test
+    fun `Keyset pagination of the events`() {
+        val project = do_create_project()
+        val ids = (1..5).map { post(project) }
+
+        // First page
+        assertEquals(ids.reversed().take(2), page(project, before = null))
+        // Next pages start strictly after the last event of the previous one
+        assertEquals(listOf(ids[2], ids[1]), page(project, before = ids[3]))
+        assertEquals(listOf(ids[0]), page(project, before = ids[1]))
+        // No more page
+        assertEquals(emptyList(), page(project, before = ids[0]))
+        // Boundary above the last event
+        assertEquals(ids.reversed().take(2), page(project, before = ids[4] + 1))
+    }
+
+    @Test
+    fun `Offset pagination of the events`() {
+        val project = do_create_project()
+        val ids = (1..5).map { post(project) }
+        assertEquals(listOf(ids[2], ids[1]), page(project, before = null, offset = 2))
+        assertEquals(emptyList(), page(project, before = null, offset = 5))
+    }
+
+    @Test
+    fun `Projects and branches of a page are loaded once and shared`() {
+        val branch = do_create_branch()
+        repeat(3) {
+            eventRepository.post(
+                Event.of(EventFactory.NEW_BRANCH).withBranch(branch).with(Signature.of("test")).build()
+            )
+        }
+        val events = eventRepository.query(
+            ProjectEntityType.BRANCH,
+            branch.id,
+            null,
+            0,
+            10,
+            ::entity,
+            ::eventType,
+        )
+        assertEquals(3, events.size)
+        val branches = events.map { it.entities[ProjectEntityType.BRANCH] }
+        branches.forEach { assertSame(branches.first(), it) }
+        assertEquals(branch.id, branches.first()?.id)
+        events.forEach { assertSame(events.first().entities[ProjectEntityType.PROJECT], it.entities[ProjectEntityType.PROJECT]) }
+    }
+
+    @Test
+    fun `Deleting the oldest events`() {
+        val project = do_create_project()
+        val old = Time.now().minusYears(50)
+        val cutoff = old.plusDays(1)
+        val first = post(project, old)
+        val second = post(project, old)
+        val recent = post(project)
+        val third = post(project, old)
+
+        // Only the events with the lowest IDs are looked at
+        val limit = namedParameterJdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM EVENTS WHERE ID <= :id",
+            mapOf("id" to second),
+            Int::class.java
+        )!!
+        assertEquals(2, eventRepository.deleteBefore(cutoff, limit))
+        assertNull(event(first))
+        assertNull(event(second))
+        assertNotNull(event(third))
+
+        // Beyond the limit
+        assertEquals(1, eventRepository.deleteBefore(cutoff, Int.MAX_VALUE))
+        assertNull(event(third))
+        assertNotNull(event(recent))
+    }
+
+    private fun post(project: Project, time: LocalDateTime = Time.now()): Int =
+        eventRepository.post(
+            Event.of(EventFactory.UPDATE_PROJECT).withProject(project).with(Signature.of(time, "test")).build()
+        ).id
+
+    private fun page(project: Project, before: Int?, offset: Int = 0): List<Int> =
+        eventRepository.query(
+            ProjectEntityType.PROJECT,
+            project.id,
+            before,
+            offset,
+            2,
+            ::entity,
+            ::eventType,
+        ).map { it.id }
+
+    private fun event(id: Int): Event? = eventRepository.getEvent(id, ::entity, ::eventType)
+
+    private fun entity(type: ProjectEntityType, id: ID): ProjectEntity =
+        error("$type#$id must be hydrated in batch")
+
+    private fun eventType(id: String): EventType =
+        listOf(EventFactory.NEW_BRANCH, EventFactory.UPDATE_PROJECT).first { it.id == id }
+
+}
@@ -0,0 +1,69 @@
+package net.nemerosa.ontrack.repository
+
+import net.nemerosa.ontrack.common.Time
+import net.nemerosa.ontrack.model.events.Event
+import net.nemerosa.ontrack.model.events.EventFactory
+import net.nemerosa.ontrack.model.structure.Signature
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import java.time.Duration
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class EventOutboxJdbcRepositoryIT : AbstractRepositoryTestSupport() {
+
+    @Autowired
+    private lateinit var eventRepository: EventRepository
+
+    @Autowired
+    private lateinit var repository: EventOutboxRepository
+
+    private val now = Time.now()
+    private val lease = Duration.ofMinutes(10)
+
+    @Test
+    fun `Claiming the events whose lease has expired`() {
+        val old = now.minusHours(1)
+        val expired = event()
+        val leased = event()
+        val recent = event()
+        repository.add(expired, old, "node-1", now.minusMinutes(1))
+        repository.add(leased, old, "node-1", now.plus(lease))
+        repository.add(recent, now, "node-1", now.minusMinutes(1))
+
+        val claimed = repository.claim(now.minus(lease), "node-2", now, now.plus(lease), 1000)
+        assertTrue(expired in claimed, "Expired lease is claimed")
+        assertFalse(leased in claimed, "Leased event is not claimed")
+        assertFalse(recent in claimed, "Recent event is not claimed")
+    }
+
+    @Test
+    fun `Claimed events are not claimed again by another node`() {
+        val id = event()
+        repository.add(id, now.minusHours(1), "node-1", now.minusMinutes(1))
+
+        assertTrue(id in repository.claim(now.minus(lease), "node-2", now, now.plus(lease), 1000))
+        assertFalse(id in repository.claim(now.minus(lease), "node-3", now, now.plus(lease), 1000))
+
+        // Once the new lease has expired
+        val later = now.plus(lease).plusMinutes(1)
+        assertTrue(id in repository.claim(later.minus(lease), "node-3", later, later.plus(lease), 1000))
+    }
+
+    @Test
+    fun `Dispatched events are not claimed`() {
+        val id = event()
+        repository.add(id, now.minusHours(1), "node-1", now.minusMinutes(1))
+        repository.remove(id)
+        assertFalse(id in repository.claim(now.minus(lease), "node-2", now, now.plus(lease), 1000))
+    }
+
+    private fun event(): Int =
+        eventRepository.post(
+            Event.of(EventFactory.NEW_PROJECT)
+                .with(do_create_project())
+                .with(Signature.of("test"))
+                .build()
+        ).id
+
+}
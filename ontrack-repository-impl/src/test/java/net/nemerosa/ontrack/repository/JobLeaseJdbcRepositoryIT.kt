@@ -0,0 +1,71 @@
+package net.nemerosa.ontrack.repository
+
+import net.nemerosa.ontrack.common.Time
+import net.nemerosa.ontrack.test.TestUtils.uid
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import java.time.Duration
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class JobLeaseJdbcRepositoryIT : AbstractRepositoryTestSupport() {
+
+    @Autowired
+    private lateinit var repository: JobLeaseRepository
+
+    private val now = Time.now()
+    private val expires = now.plus(Duration.ofMinutes(5))
+
+    @Test
+    fun `Lease taken by one node only`() {
+        val key = uid("job-")
+        assertTrue(repository.acquire(key, "node-1", now, expires))
+        assertFalse(repository.acquire(key, "node-2", now, expires))
+        assertTrue(repository.acquire(key, "node-1", now, expires), "Owner can extend its lease")
+        assertEquals("node-1", repository.findOwners(now)[key])
+    }
+
+    @Test
+    fun `Expired lease taken over by another node`() {
+        val key = uid("job-")
+        assertTrue(repository.acquire(key, "node-1", now, expires))
+        val later = expires.plusSeconds(1)
+        assertTrue(repository.acquire(key, "node-2", later, later.plus(Duration.ofMinutes(5))))
+        assertEquals("node-2", repository.findOwners(later)[key])
+        // The first node cannot renew the lease any longer
+        assertFalse(key in repository.renew("node-1", later, later.plus(Duration.ofMinutes(5))))
+    }
+
+    @Test
+    fun `Released lease taken by another node`() {
+        val key = uid("job-")
+        assertTrue(repository.acquire(key, "node-1", now, expires))
+        repository.release(key, "node-2")
+        assertEquals("node-1", repository.findOwners(now)[key], "Only the owner can release the lease")
+        repository.release(key, "node-1")
+        assertNull(repository.findOwners(now)[key])
+        assertTrue(repository.acquire(key, "node-2", now, expires))
+    }
+
+    @Test
+    fun `Renewing the leases of a node`() {
+        val node = uid("node-")
+        val keys = listOf(uid("job-"), uid("job-"))
+        keys.forEach { assertTrue(repository.acquire(it, node, now, expires)) }
+        val later = expires.minusSeconds(1)
+        val renewed = repository.renew(node, later, later.plus(Duration.ofMinutes(5)))
+        assertEquals(keys.toSet(), renewed.toSet())
+        assertEquals(node, repository.findOwners(expires.plusSeconds(1))[keys.first()])
+    }
+
+    @Test
+    fun `Live nodes`() {
+        val node = uid("node-")
+        repository.heartbeat(node, expires)
+        assertTrue(node in repository.findNodes(now))
+        assertFalse(node in repository.findNodes(expires.plusSeconds(1)))
+    }
+
+}
@@ -3,12 +3,18 @@ package net.nemerosa.ontrack.repository;
 import net.nemerosa.ontrack.model.structure.*;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
 
 import static net.nemerosa.ontrack.test.TestUtils.uid;
 import static org.junit.Assert.*;
 
 public class StructureJdbcRepositoryIT extends AbstractRepositoryJUnit4TestSupport {
 
+    @Autowired
+    private BuildLinkRepository buildLinkRepository;
+
     @Test(expected = IllegalStateException.class)
     public void create_branch_project_not_defined() {
         structureRepository.newBranch(Branch.of(
@@ -96,4 +102,24 @@ public class StructureJdbcRepositoryIT extends AbstractRepositoryJUnit4TestSuppo
         assertTrue("Project must be disabled", p.isDisabled());
     }
 
+    @Test
+    public void builds_used_by_share_their_branch() {
+        Branch source = do_create_branch();
+        Branch target = do_create_branch();
+        Build build = structureRepository.newBuild(Build.of(source, nameDescription(), Signature.of("test")));
+        Build t1 = structureRepository.newBuild(Build.of(target, nameDescription(), Signature.of("test")));
+        Build t2 = structureRepository.newBuild(Build.of(target, nameDescription(), Signature.of("test")));
+        buildLinkRepository.createBuildLink(build, t1, "");
+        buildLinkRepository.createBuildLink(build, t2, "");
+        // Gets the linked builds
+        List<Build> builds = structureRepository.getBuildsUsedBy(build);
+        assertEquals(2, builds.size());
+        assertEquals(t2.getId(), builds.get(0).getId());
+        assertEquals(t1.getId(), builds.get(1).getId());
+        // Checks the branch is loaded only once
+        assertEquals(target, builds.get(0).getBranch());
+        assertSame(builds.get(0).getBranch(), builds.get(1).getBranch());
+        assertSame(builds.get(0).getProject(), builds.get(1).getProject());
+    }
+
 }
@@ -2,11 +2,20 @@ package net.nemerosa.ontrack.repository
 
 import net.nemerosa.ontrack.model.structure.Build
 import net.nemerosa.ontrack.model.structure.BuildLink
+import net.nemerosa.ontrack.model.structure.ID
 
 interface BuildLinkRepository {
 
     fun getCountQualifiedBuildsUsedBy(build: Build): Int
     fun getQualifiedBuildsUsedBy(build: Build): List<BuildLink>
+
+    /**
+     * Gets the builds used by several builds in one query.
+     *
+     * @param builds Source builds
+     * @return Qualified build links indexed by source build ID
+     */
+    fun getQualifiedBuildsUsedBy(builds: List<Build>): Map<ID, List<BuildLink>>
     fun getQualifiedBuildsUsing(build: Build): List<BuildLink>
 
     fun createBuildLink(fromBuild: Build, toBuild: Build, qualifier: String)
@@ -0,0 +1,46 @@
+package net.nemerosa.ontrack.repository
+
+import java.time.LocalDateTime
+
+/**
+ * Storage of the events which have not been dispatched to the listeners yet.
+ *
+ * Each pending event is leased by the node which dispatches it, so that the
+ * other nodes do not dispatch it at the same time.
+ */
+interface EventOutboxRepository {
+
+    /**
+     * Registers an event as pending, as part of the current transaction, leased by the posting node.
+     *
+     * @param eventId ID of the event
+     * @param creation Creation time of the event
+     * @param owner Node which dispatches the event
+     * @param expires End of the lease
+     */
+    fun add(eventId: Int, creation: LocalDateTime, owner: String, expires: LocalDateTime)
+
+    /**
+     * Marks an event as dispatched.
+     */
+    fun remove(eventId: Int)
+
+    /**
+     * Leases the events still pending since before the given time and whose lease has expired,
+     * oldest first. Events leased by another node at the same time are skipped.
+     *
+     * @param before Creation time of the events to claim
+     * @param owner Node claiming the events
+     * @param now Current time, to check the existing leases
+     * @param expires End of the new leases
+     * @param count Maximum number of events to claim
+     * @return IDs of the claimed events
+     */
+    fun claim(before: LocalDateTime, owner: String, now: LocalDateTime, expires: LocalDateTime, count: Int): List<Int>
+
+    /**
+     * Number of pending events
+     */
+    val count: Int
+
+}
@@ -6,13 +6,26 @@ import net.nemerosa.ontrack.model.structure.ID
 import net.nemerosa.ontrack.model.structure.ProjectEntity
 import net.nemerosa.ontrack.model.structure.ProjectEntityType
 import net.nemerosa.ontrack.model.structure.Signature
+import java.time.LocalDateTime
 
 interface EventRepository {
 
     fun post(event: Event): Event
 
+    /**
+     * Gets a page of events, most recent first.
+     *
+     * @param allowedProjects IDs of the projects the events must be attached to (events without project are always returned)
+     * @param before If set, only the events whose ID is strictly lower than this one are returned (keyset pagination)
+     * @param offset Offset of the page, used only when [before] is not set
+     * @param count Maximum number of events to return
+     * @param entityLoader Loading of the entities other than the projects, branches & builds (these
+     * ones are loaded in batch, without any security check), called once per distinct entity in the page
+     * @param eventTypeLoader Loading of the event types
+     */
     fun query(
         allowedProjects: List<Int>,
+        before: Int?,
         offset: Int,
         count: Int,
         entityLoader: (type: ProjectEntityType, id: ID) -> ProjectEntity,
@@ -22,6 +35,7 @@ interface EventRepository {
     fun query(
         entityType: ProjectEntityType,
         entityId: ID,
+        before: Int?,
         offset: Int,
         count: Int,
         entityLoader: (type: ProjectEntityType, id: ID) -> ProjectEntity,
@@ -32,6 +46,7 @@ interface EventRepository {
         eventType: EventType,
         entityType: ProjectEntityType,
         entityId: ID,
+        before: Int?,
         offset: Int,
         count: Int,
         entityLoader: (type: ProjectEntityType, id: ID) -> ProjectEntity,
@@ -52,4 +67,19 @@ interface EventRepository {
         eventTypeLoader: (type: String) -> EventType,
     ): Event?
 
-}
\ No newline at end of file
+    fun getEvent(
+        id: Int,
+        entityLoader: (type: ProjectEntityType, id: ID) -> ProjectEntity,
+        eventTypeLoader: (type: String) -> EventType,
+    ): Event?
+
+    /**
+     * Deletes the oldest events, created before the given time.
+     *
+     * @param time Events created before this time are deleted
+     * @param limit Maximum number of events to delete
+     * @return Number of deleted events
+     */
+    fun deleteBefore(time: LocalDateTime, limit: Int): Int
+
+}
@@ -0,0 +1,46 @@
+package net.nemerosa.ontrack.repository
+
+import java.time.LocalDateTime
+
+/**
+ * Storage of the nodes and of their leases on the jobs, when several nodes
+ * share the same database.
+ */
+interface JobLeaseRepository {
+
+    /**
+     * Registers a node as alive until the given time.
+     */
+    fun heartbeat(node: String, expires: LocalDateTime)
+
+    /**
+     * Gets the names of the nodes which are still alive.
+     */
+    fun findNodes(now: LocalDateTime): List<String>
+
+    /**
+     * Takes the lease on a job if it's not owned by another node, or if the lease
+     * of this other node has expired.
+     *
+     * @return `true` if the node now owns the lease
+     */
+    fun acquire(key: String, node: String, now: LocalDateTime, expires: LocalDateTime): Boolean
+
+    /**
+     * Extends the leases owned by a node.
+     *
+     * @return Keys of the jobs whose leases are still owned by the node
+     */
+    fun renew(node: String, now: LocalDateTime, expires: LocalDateTime): List<String>
+
+    /**
+     * Releases the lease of a node on a job.
+     */
+    fun release(key: String, node: String)
+
+    /**
+     * Gets the owners of the leases which have not expired, indexed by job key.
+     */
+    fun findOwners(now: LocalDateTime): Map<String, String>
+
+}
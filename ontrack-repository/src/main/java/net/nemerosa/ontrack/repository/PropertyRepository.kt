@@ -18,6 +18,13 @@ interface PropertyRepository {
 
     fun loadProperty(typeName: String, entityType: ProjectEntityType, entityId: ID): TProperty?
 
+    /**
+     * Loads the properties of a given type for several entities of the same type, in one query.
+     *
+     * @return Raw properties indexed by entity ID. Entities without the property are not included.
+     */
+    fun loadProperties(typeName: String, entityType: ProjectEntityType, entityIds: Collection<ID>): Map<ID, TProperty>
+
     fun saveProperty(typeName: String, entityType: ProjectEntityType, entityId: ID, data: JsonNode)
 
     fun deleteProperty(typeName: String, entityType: ProjectEntityType, entityId: ID): Ack
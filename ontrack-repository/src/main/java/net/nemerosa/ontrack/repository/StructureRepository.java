@@ -8,6 +8,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -135,6 +136,14 @@ public interface StructureRepository {
 
     Build getLastBuildForBranch(Branch branch);
 
+    /**
+     * Gets the last build of each branch of a project, in one query.
+     *
+     * @param project Project to get the last builds for
+     * @return Last builds indexed by branch ID. Branches without any build are not part of the map.
+     */
+    Map<ID, Build> getLastBuildsForProject(Project project);
+
     Ack deleteBuild(ID buildId);
 
     /**
@@ -205,6 +214,14 @@ public interface StructureRepository {
 
     List<PromotionRun> getPromotionRunsForBuild(Build build);
 
+    /**
+     * Gets the promotion runs for several builds in one query.
+     *
+     * @param builds Builds to get the promotion runs for
+     * @return Promotion runs indexed by build ID, most recent first
+     */
+    Map<ID, List<PromotionRun>> getPromotionRunsForBuilds(List<Build> builds);
+
     List<PromotionRun> getLastPromotionRunsForBuild(Build build);
 
     /**
@@ -223,6 +240,15 @@ public interface StructureRepository {
 
     Optional<PromotionRun> getEarliestPromotionRunAfterBuild(PromotionLevel promotionLevel, Build build);
 
+    /**
+     * Gets, in one query, the earliest promotion runs after several builds, one build per branch.
+     *
+     * @param builds Builds to get the promotion runs after, at most one per branch
+     * @return For each build ID, the earliest promotion run of each promotion level of its branch
+     * on this build or any later one, in the order of the promotion levels
+     */
+    Map<ID, List<PromotionRun>> getEarliestPromotionRunsAfterBuilds(List<Build> builds);
+
     /**
      * Updates all promotion levels having the same name than the model, on all branches. The description
      * and the image are copied from the model.
@@ -322,6 +348,23 @@ public interface StructureRepository {
             Function<String, ValidationRunStatusID> validationRunStatusService
     );
 
+    /**
+     * Gets the validation runs for several builds and one validation stamp in one query.
+     *
+     * @param builds          Builds to get the validation runs for
+     * @param validationStamp Validation stamp of the runs
+     * @param offset          Offset in the list of runs for each build
+     * @param count           Maximum number of runs to return for each build
+     * @return Validation runs indexed by build ID, most recent first
+     */
+    Map<ID, List<ValidationRun>> getValidationRunsForBuildsAndValidationStamp(
+            List<Build> builds,
+            ValidationStamp validationStamp,
+            int offset,
+            int count,
+            Function<String, ValidationRunStatusID> validationRunStatusService
+    );
+
     List<ValidationRun> getValidationRunsForBuildAndValidationStampAndStatus(Build build, ValidationStamp validationStamp, List<ValidationRunStatusID> statuses, int offset, int count, Function<String, ValidationRunStatusID> validationRunStatusService);
 
     List<ValidationRun> getValidationRunsForValidationStamp(ValidationStamp validationStamp, int offset, int count, Function<String, ValidationRunStatusID> validationRunStatusService);
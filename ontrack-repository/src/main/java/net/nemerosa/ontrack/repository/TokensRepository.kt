@@ -70,4 +70,11 @@ interface TokensRepository {
      */
     fun updateValidUntil(token: Token, validUntil: LocalDateTime)
 
-}
\ No newline at end of file
+    /**
+     * Updates the last used dates and, when not `null`, the validities of several tokens at once.
+     *
+     * @param usages Token values associated with their last used date and new validity
+     */
+    fun updateUsages(usages: Map<String, Pair<LocalDateTime, LocalDateTime?>>)
+
+}
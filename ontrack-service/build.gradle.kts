@@ -1,5 +1,6 @@
 plugins {
     `java-library`
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 dependencies {
@@ -19,6 +20,7 @@ dependencies {
     implementation("org.jgrapht:jgrapht-core")
     implementation("com.github.ben-manes.caffeine:caffeine")
     implementation("org.elasticsearch.client:elasticsearch-rest-high-level-client")
+    implementation("org.apache.lucene:lucene-core")
     implementation("org.flywaydb:flyway-core")
 
     runtimeOnly("org.hibernate.validator:hibernate-validator")
@@ -31,4 +33,12 @@ dependencies {
     testRuntimeOnly(project(":ontrack-repository-impl"))
     testRuntimeOnly("io.micrometer:micrometer-registry-prometheus")
 
+    jmhImplementation(project(":ontrack-model"))
+}
+
+// Benchmarks, run using ./gradlew :ontrack-service:jmh
+jmh {
+    fork.set(1)
+    warmupIterations.set(2)
+    iterations.set(5)
 }
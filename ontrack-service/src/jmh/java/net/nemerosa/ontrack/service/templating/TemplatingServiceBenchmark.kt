@@ -0,0 +1,97 @@
+package net.nemerosa.ontrack.service.templating
+
+import net.nemerosa.ontrack.model.events.PlainEventRenderer
+import net.nemerosa.ontrack.model.structure.*
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import net.nemerosa.ontrack.model.templating.TemplatingService
+import org.openjdk.jmh.annotations.*
+import java.util.concurrent.TimeUnit
+
+/**
+ * Rendering of a typical notification template, with and without the cache
+ * of compiled templates. Without the cache, the template is parsed for each
+ * rendering, like it was before the templates were compiled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class TemplatingServiceBenchmark {
+
+    @Param("0", "1000")
+    var cacheSize: Long = 0
+
+    private lateinit var templatingService: TemplatingService
+
+    private lateinit var context: Map<String, Any>
+
+    private val template = """
+        Build ${'$'}{build} has been promoted to ${'$'}{promotionLevel}
+        for branch ${'$'}{branch|uppercase} in ${'$'}{project}.
+        
+        Link: ${'$'}{#.link?text=PL&href=PL_URL}
+        Costs: $$10
+    """.trimIndent()
+
+    @Setup
+    fun setup() {
+        val ontrackConfigProperties = OntrackConfigProperties()
+        ontrackConfigProperties.templating.cacheSize = cacheSize
+        templatingService = TemplatingServiceImpl(
+            templatingSources = emptyList(),
+            templatingFilters = listOf(UppercaseTemplatingFilter()),
+            templatingFunctions = listOf(LinkTemplatingFunction()),
+            templatingContextHandlers = emptyList(),
+            ontrackConfigProperties = ontrackConfigProperties,
+            entityDisplayNameService = object : EntityDisplayNameService {
+                override fun getEntityDisplayName(entity: ProjectEntity): String = entity.displayName
+            },
+        )
+        val project = Project(
+            id = ID.of(1),
+            name = "project",
+            description = null,
+            isDisabled = false,
+            signature = Signature.of("test"),
+        )
+        val branch = Branch(
+            id = ID.of(1),
+            name = "main",
+            description = null,
+            isDisabled = false,
+            project = project,
+            signature = Signature.of("test"),
+        )
+        val build = Build(
+            id = ID.of(1),
+            name = "1.0.0",
+            description = null,
+            signature = Signature.of("test"),
+            branch = branch,
+        )
+        val promotionLevel = PromotionLevel(
+            id = ID.of(1),
+            name = "BRONZE",
+            description = null,
+            branch = branch,
+            isImage = false,
+            signature = Signature.of("test"),
+        )
+        context = mapOf(
+            "project" to project,
+            "branch" to branch,
+            "build" to build,
+            "promotionLevel" to promotionLevel,
+            "PL" to "Promotion",
+            "PL_URL" to "https://ontrack/promotionLevel/1",
+        )
+    }
+
+    @Benchmark
+    fun render(): String =
+        templatingService.render(
+            template = template,
+            context = context,
+            renderer = PlainEventRenderer.INSTANCE,
+        )
+
+}
@@ -5,6 +5,7 @@ import net.nemerosa.ontrack.extension.api.ExtensionManager
 import net.nemerosa.ontrack.model.structure.Branch
 import net.nemerosa.ontrack.model.structure.BranchDisplayNameService
 import net.nemerosa.ontrack.model.structure.BranchNamePolicy
+import net.nemerosa.ontrack.model.structure.ID
 import org.springframework.stereotype.Service
 import org.springframework.transaction.annotation.Transactional
 
@@ -30,4 +31,26 @@ class BranchDisplayNameServiceImpl(
             BranchNamePolicy.DISPLAY_NAME_ONLY -> displayName ?: error("No display name for $branch")
         }
     }
+
+    override fun getBranchDisplayNames(branches: List<Branch>, policy: BranchNamePolicy): Map<ID, String> {
+        val displayNames = mutableMapOf<ID, String>()
+        if (policy != BranchNamePolicy.NAME_ONLY) {
+            extensionManager.getExtensions(BranchDisplayNameExtension::class.java).forEach { extension ->
+                // First extension giving a display name wins
+                val remaining = branches.filter { it.id !in displayNames }
+                if (remaining.isNotEmpty()) {
+                    extension.getBranchDisplayNames(remaining).forEach { (id, displayName) ->
+                        displayNames.putIfAbsent(id, displayName)
+                    }
+                }
+            }
+        }
+        return branches.associate { branch ->
+            branch.id to when (policy) {
+                BranchNamePolicy.NAME_ONLY -> branch.name
+                BranchNamePolicy.DISPLAY_NAME_OR_NAME -> displayNames[branch.id] ?: branch.name
+                BranchNamePolicy.DISPLAY_NAME_ONLY -> displayNames[branch.id] ?: error("No display name for $branch")
+            }
+        }
+    }
 }
\ No newline at end of file
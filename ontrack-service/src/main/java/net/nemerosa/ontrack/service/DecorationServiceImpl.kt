@@ -1,34 +1,184 @@
 package net.nemerosa.ontrack.service
 
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
 import net.nemerosa.ontrack.common.BaseException
 import net.nemerosa.ontrack.extension.api.DecorationExtension
 import net.nemerosa.ontrack.extension.api.ExtensionManager
+import net.nemerosa.ontrack.model.events.Event
+import net.nemerosa.ontrack.model.events.EventListener
 import net.nemerosa.ontrack.model.security.SecurityService
 import net.nemerosa.ontrack.model.structure.*
 import net.nemerosa.ontrack.model.support.ApplicationLogEntry
 import net.nemerosa.ontrack.model.support.ApplicationLogService
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import org.springframework.security.core.context.SecurityContextHolder
 import org.springframework.stereotype.Service
 import org.springframework.transaction.annotation.Transactional
+import java.util.concurrent.*
+import java.util.concurrent.atomic.AtomicInteger
+import javax.annotation.PreDestroy
 
+/**
+ * Decorations of the entities.
+ *
+ * The [remote][Decorator.isRemote] decorators are run in a dedicated pool, in parallel with the
+ * local ones, and are given at most their own [timeout][Decorator.getTimeout] or `ontrack.config.decorations.timeout`
+ * to complete. At most `ontrack.config.decorations.queue-size` of them can wait for a thread of the pool. Their
+ * decorations are cached per entity, decorator and user for `ontrack.config.decorations.cache-ttl`
+ * and evicted whenever an event is posted on the entity. Error decorations are not cached.
+ */
 @Service
 @Transactional
 class DecorationServiceImpl(
     private val extensionManager: ExtensionManager,
     private val securityService: SecurityService,
     private val applicationLogService: ApplicationLogService,
-) : DecorationService {
+    ontrackConfigProperties: OntrackConfigProperties,
+) : DecorationService, EventListener {
 
-    override fun getDecorations(entity: ProjectEntity): List<Decoration<*>> {
-        // Downloading a decoration with the current security context
-        val securedDecoratorFunction = securityService.runner { decorator: Decorator<*> -> getDecorations(entity, decorator) }
-        // OK
-        return extensionManager.getExtensions(DecorationExtension::class.java)
-                // ... and filters per entity
-                .filter { decorator: DecorationExtension<*> -> decorator.scope.contains(entity.projectEntityType) }
-                // ... and gets the decoration
-                .flatMap(securedDecoratorFunction)
+    private val properties = ontrackConfigProperties.decorations
+
+    private val executor: ExecutorService = ThreadPoolExecutor(
+        properties.poolSize,
+        properties.poolSize,
+        0L,
+        TimeUnit.MILLISECONDS,
+        ArrayBlockingQueue(properties.queueSize),
+        object : ThreadFactory {
+            private val count = AtomicInteger()
+            override fun newThread(r: Runnable) = Thread(r, "decoration-${count.incrementAndGet()}").apply {
+                isDaemon = true
+            }
+        }
+    )
+
+    /**
+     * Cached decorations, indexed by entity, so that they can be evicted together
+     */
+    private val cache: Cache<EntityKey, ConcurrentMap<DecorationKey, List<Decoration<*>>>>? =
+        if (properties.cacheTtl.isZero) {
+            null
+        } else {
+            Caffeine.newBuilder()
+                .maximumSize(properties.cacheSize)
+                .expireAfterWrite(properties.cacheTtl)
+                .build()
+        }
+
+    @PreDestroy
+    fun stop() {
+        executor.shutdownNow()
+    }
+
+    override fun getDecorations(entity: ProjectEntity): List<Decoration<*>> =
+        getDecorations(listOf(entity))[entity] ?: emptyList()
+
+    override fun getDecorations(entities: List<ProjectEntity>): Map<ProjectEntity, List<Decoration<*>>> {
+        if (entities.isEmpty()) {
+            return emptyMap()
+        }
+        val decorators = extensionManager.getExtensions(DecorationExtension::class.java)
+            // ... and filters per entity
+            .filter { decorator -> entities.any { decorator.scope.contains(it.projectEntityType) } }
+        // Remote decorators are started first, in the background
+        val securityContext = SecurityContextHolder.getContext()
+        val user = securityService.currentAccount?.id()
+        val remotes = decorators.filter { it.isRemote }.associateWith { decorator ->
+            val scoped = entities.filter { decorator.scope.contains(it.projectEntityType) }
+            val cached = scoped.associateWith { entity -> getCached(entity, DecorationKey(decorator, user)) }
+            val missing = scoped.filter { cached[it] == null }
+            val future = if (missing.isNotEmpty()) {
+                try {
+                    executor.submit(Callable {
+                        val previousContext = SecurityContextHolder.getContext()
+                        SecurityContextHolder.setContext(securityContext)
+                        try {
+                            getDecorations(missing, decorator)
+                        } finally {
+                            SecurityContextHolder.setContext(previousContext)
+                        }
+                    })
+                } catch (_: RejectedExecutionException) {
+                    // Pool saturated, errors are not cached
+                    CompletableFuture.completedFuture(
+                        missing.associateWith { listOf(Decoration.error(decorator, "Too many pending decorations")) }
+                    )
+                }
+            } else {
+                null
+            }
+            RemoteDecorations(user, cached, missing, future)
+        }
+        // Local decorators, in the current thread
+        val securedDecoratorFunction = securityService.runner { decorator: DecorationExtension<*> ->
+            getDecorations(entities.filter { decorator.scope.contains(it.projectEntityType) }, decorator)
+        }
+        val locals = decorators.filterNot { it.isRemote }.associateWith(securedDecoratorFunction)
+        // Collecting the results, in the order of the decorators
+        val start = System.nanoTime()
+        val results = decorators.associateWith { decorator ->
+            locals[decorator] ?: remotes.getValue(decorator).await(
+                decorator,
+                start + (decorator.timeout ?: properties.timeout).toNanos()
+            )
+        }
+        return entities.associateWith { entity ->
+            decorators.flatMap { decorator -> results.getValue(decorator)[entity] ?: emptyList() }
+        }
+    }
+
+    private fun RemoteDecorations.await(
+        decorator: Decorator<*>,
+        deadline: Long,
+    ): Map<ProjectEntity, List<Decoration<*>>> {
+        val loaded = future?.let {
+            try {
+                it.get(maxOf(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS).onEach { (entity, decorations) ->
+                    // Errors are not cached, so that they are retried on the next call
+                    if (decorations.none { decoration -> decoration.error != null }) {
+                        putCached(entity, DecorationKey(decorator, user), decorations)
+                    }
+                }
+            } catch (_: TimeoutException) {
+                it.cancel(true)
+                missing.associateWith { listOf(Decoration.error(decorator, "Timeout while getting decoration")) }
+            }
+        } ?: emptyMap()
+        return cached.mapValues { (entity, decorations) ->
+            decorations ?: loaded[entity] ?: emptyList()
+        }
+    }
+
+    private fun getCached(entity: ProjectEntity, key: DecorationKey): List<Decoration<*>>? =
+        cache?.getIfPresent(EntityKey(entity))?.get(key)
+
+    private fun putCached(entity: ProjectEntity, key: DecorationKey, decorations: List<Decoration<*>>) {
+        cache?.get(EntityKey(entity)) { ConcurrentHashMap() }?.put(key, decorations)
     }
 
+    /**
+     * Gets the decoration for a list of entities, and returns an "error" decoration for each entity
+     * in case of problem.
+     */
+    private fun <T> getDecorations(
+        entities: List<ProjectEntity>,
+        decorator: Decorator<T>,
+    ): Map<ProjectEntity, List<Decoration<*>>> =
+        if (entities.size == 1) {
+            val entity = entities.first()
+            mapOf(entity to getDecorations(entity, decorator))
+        } else {
+            try {
+                decorator.getDecorations(entities).let { decorations ->
+                    entities.associateWith { decorations[it] ?: emptyList() }
+                }
+            } catch (ex: Exception) {
+                // Falling back to the entities one by one
+                entities.associateWith { getDecorations(it, decorator) }
+            }
+        }
+
     /**
      * Gets the decoration for an entity, and returns an "error" decoration in case of problem.
      */
@@ -60,4 +210,40 @@ class DecorationServiceImpl(
         "Problem while getting decoration"
     }
 
-}
\ No newline at end of file
+    /**
+     * Evicts the cached decorations of the entities targeted by the event.
+     */
+    override fun onEvent(event: Event) {
+        cache?.invalidateAll(
+            (event.entities.values + event.extraEntities.values).map { EntityKey(it) }
+        )
+    }
+
+    private class RemoteDecorations(
+        val user: Int?,
+        val cached: Map<ProjectEntity, List<Decoration<*>>?>,
+        val missing: List<ProjectEntity>,
+        val future: Future<Map<ProjectEntity, List<Decoration<*>>>>?,
+    )
+
+    private data class EntityKey(
+        val type: ProjectEntityType,
+        val id: Int,
+    ) {
+        constructor(entity: ProjectEntity) : this(entity.projectEntityType, entity.id())
+    }
+
+    /**
+     * Decorations of an entity are cached per decorator and per user, since
+     * the decorators may return different results depending on the user rights.
+     *
+     * @property user ID of the account, `null` if not authenticated
+     */
+    private data class DecorationKey(
+        val decorator: String,
+        val user: Int?,
+    ) {
+        constructor(decorator: Decorator<*>, user: Int?) : this(decorator::class.java.name, user)
+    }
+
+}
@@ -27,7 +27,8 @@ class PropertyServiceImpl(
         private val eventFactory: EventFactory,
         private val propertyRepository: PropertyRepository,
         private val securityService: SecurityService,
-        private val extensionManager: ExtensionManager
+        private val extensionManager: ExtensionManager,
+        private val propertyValueCache: PropertyValueCache,
 ) : PropertyService {
 
     override val propertyTypes: List<PropertyType<*>> by lazy {
@@ -69,6 +70,40 @@ class PropertyServiceImpl(
         return getProperty(propertyType, entity)
     }
 
+    override fun <T> getPropertyForEntities(entities: List<ProjectEntity>, propertyTypeName: String): List<Property<T>> {
+        val propertyType: PropertyType<T> = getPropertyTypeByName(propertyTypeName)
+        val typeName = propertyType.javaClass.name
+        // Supported entities
+        entities.forEach { entity ->
+            if (!propertyType.supportedEntityTypes.contains(entity.projectEntityType)) {
+                throw PropertyUnsupportedEntityTypeException(typeName, entity.projectEntityType)
+            }
+        }
+        // Gets the decoded values from the cache, loading the missing ones with one query per type of entity
+        val values = entities
+            .filter { entity -> propertyType.canView(entity, securityService) }
+            .groupBy { it.projectEntityType }
+            .flatMap { (entityType, typedEntities) ->
+                propertyValueCache.getAllOrLoad(entityType, typedEntities.map { it.id() }, typeName) { missing ->
+                    propertyRepository.loadProperties(typeName, entityType, missing.map { ID.of(it) })
+                        .values
+                        .associate { t -> t.entityId.value to propertyType.fromStorage(t.json) }
+                }.map { (entityId, value) ->
+                    ProjectEntityID(entityType, entityId) to value
+                }
+            }
+            .toMap()
+        // Properties in the same order
+        return entities.map { entity ->
+            val value = values[ProjectEntityID(entity.projectEntityType, entity.id())]
+            if (value != null) {
+                Property.of(propertyType, value, propertyType.getPropertyDecorations(value))
+            } else {
+                Property.empty(propertyType)
+            }
+        }
+    }
+
     override fun <T> getProperty(entity: ProjectEntity, propertyTypeClass: Class<out PropertyType<T>>): Property<T> {
         return getProperty(entity, propertyTypeClass.name)
     }
@@ -106,6 +141,8 @@ class PropertyServiceImpl(
         return if (value != null) {
             val ack = propertyRepository.deleteProperty(propertyType.javaClass.name, entity.projectEntityType, entity.id)
             if (ack.isSuccess) {
+                // Cached value
+                propertyValueCache.evict(entity.projectEntityType, entity.id(), propertyType.javaClass.name)
                 // Property deletion event
                 eventPostService.post(eventFactory.propertyDelete(entity, propertyType))
                 // Listener
@@ -146,6 +183,8 @@ class PropertyServiceImpl(
                 entity.id,
                 storage
         )
+        // Cached value
+        propertyValueCache.evict(entity.projectEntityType, entity.id(), propertyType.javaClass.name)
         // Property change event
         eventPostService.post(eventFactory.propertyChange(entity, propertyType))
         // Listener
@@ -169,15 +208,17 @@ class PropertyServiceImpl(
         if (!type.canView(entity, securityService)) {
             throw AccessDeniedException("Property is not opened for viewing.")
         }
-        // Gets the raw information from the repository
-        val t = propertyRepository.loadProperty(
-            typeName,
-                entity.projectEntityType,
-                entity.id)
-                ?: return null
-        // If null, returns null
-        // Converts the stored value into an actual value
-        return type.fromStorage(t.json)
+        // Gets the decoded value from the cache
+        return propertyValueCache.getOrLoad(entity.projectEntityType, entity.id(), typeName) {
+            // Gets the raw information from the repository
+            val t = propertyRepository.loadProperty(
+                typeName,
+                    entity.projectEntityType,
+                    entity.id)
+            // If null, returns null
+            // Converts the stored value into an actual value
+            t?.let { type.fromStorage(it.json) }
+        }
     }
 
     override fun getPropertyEditionForm(entity: ProjectEntity, propertyTypeName: String): Form {
@@ -0,0 +1,204 @@
+package net.nemerosa.ontrack.service
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics
+import net.nemerosa.ontrack.model.events.Event
+import net.nemerosa.ontrack.model.events.EventFactory
+import net.nemerosa.ontrack.model.events.EventListener
+import net.nemerosa.ontrack.model.structure.ProjectEntityType
+import net.nemerosa.ontrack.model.support.ClusterInvalidationService
+import org.springframework.stereotype.Component
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+
+/**
+ * Cache of the decoded values of the properties, indexed by entity & property type.
+ *
+ * The absence of a property is cached as well. Entries are evicted when the
+ * property is edited or deleted and when the entity is deleted, on this node and,
+ * through the [ClusterInvalidationService], on the other nodes.
+ *
+ * The Caffeine specification can be overridden using `ontrack.config.cache.specs.property-values`.
+ */
+@Component
+class PropertyValueCache(
+    cacheConfigProperties: CacheConfigProperties,
+    meterRegistry: MeterRegistry,
+    private val clusterInvalidationService: ClusterInvalidationService,
+) : EventListener {
+
+    private val cache: Cache<Key, Holder> = Caffeine.from(
+        cacheConfigProperties.specs[CACHE_NAME] ?: DEFAULT_SPEC
+    ).build()
+
+    init {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME)
+        clusterInvalidationService.subscribe(CHANNEL) { payload ->
+            receive(payload)
+        }
+    }
+
+    /**
+     * Gets a property value, loading it if not cached yet.
+     */
+    fun <T> getOrLoad(
+        entityType: ProjectEntityType,
+        entityId: Int,
+        typeName: String,
+        loader: () -> T?,
+    ): T? {
+        val holder = cache.get(Key(entityType, entityId, typeName)) {
+            Holder(loader())
+        }
+        @Suppress("UNCHECKED_CAST")
+        return holder?.value as T?
+    }
+
+    /**
+     * Gets the property values of several entities of the same type, loading
+     * the missing ones in one call.
+     *
+     * @param loader Loads the values for the IDs of the entities which are not cached yet. The
+     * entities without any value can be omitted from the returned map.
+     * @return Values indexed by entity ID, `null` when an entity has no value
+     */
+    fun <T> getAllOrLoad(
+        entityType: ProjectEntityType,
+        entityIds: Collection<Int>,
+        typeName: String,
+        loader: (List<Int>) -> Map<Int, T?>,
+    ): Map<Int, T?> {
+        val holders = cache.getAll(entityIds.map { Key(entityType, it, typeName) }) { missing ->
+            val values = loader(missing.map { it.entityId })
+            missing.associateWith { key -> Holder(values[key.entityId]) }
+        }
+        @Suppress("UNCHECKED_CAST")
+        return holders.entries.associate { (key, holder) -> key.entityId to holder.value as T? }
+    }
+
+    /**
+     * Evicts a property value on all the nodes.
+     */
+    fun evict(entityType: ProjectEntityType, entityId: Int, typeName: String) {
+        invalidate(Key(entityType, entityId, typeName).format())
+    }
+
+    /**
+     * Evicts all the property values of an entity on all the nodes.
+     */
+    fun evictEntity(entityType: ProjectEntityType, entityId: Int) {
+        invalidate("$entityType:$entityId:$ALL")
+    }
+
+    /**
+     * Evicts all the cached values on all the nodes.
+     */
+    fun evictAll() {
+        invalidate(ALL)
+    }
+
+    /**
+     * Sends an eviction to all the nodes. If a transaction is active, the eviction
+     * is repeated once it's completed (committed or rolled back), so that a concurrent
+     * reader cannot keep the old value.
+     */
+    private fun invalidate(payload: String) {
+        clusterInvalidationService.invalidate(CHANNEL, payload)
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(object : TransactionSynchronization {
+                override fun afterCompletion(status: Int) {
+                    clusterInvalidationService.invalidate(CHANNEL, payload)
+                }
+            })
+        }
+    }
+
+    private fun receive(payload: String) {
+        if (payload == ALL) {
+            cache.invalidateAll()
+        } else {
+            val key = Key.parse(payload)
+            if (key != null) {
+                if (key.typeName == ALL) {
+                    cache.asMap().keys.removeIf { it.entityType == key.entityType && it.entityId == key.entityId }
+                } else {
+                    cache.invalidate(key)
+                }
+            }
+        }
+    }
+
+    /**
+     * Evicts the values of a deleted entity. Deleting a project or a branch removes
+     * a whole tree of entities and the cache is cleared entirely.
+     */
+    override fun onEvent(event: Event) {
+        when (event.eventType) {
+            EventFactory.DELETE_PROJECT, EventFactory.DELETE_BRANCH -> evictAll()
+            EventFactory.DELETE_BUILD -> evictEntity(ProjectEntityType.BUILD, event.getIntValue("BUILD_ID"))
+            EventFactory.DELETE_PROMOTION_LEVEL -> evictEntity(
+                ProjectEntityType.PROMOTION_LEVEL,
+                event.getIntValue("PROMOTION_LEVEL_ID")
+            )
+            EventFactory.DELETE_VALIDATION_STAMP -> evictEntity(
+                ProjectEntityType.VALIDATION_STAMP,
+                event.getIntValue("VALIDATION_STAMP_ID")
+            )
+            EventFactory.DELETE_PROMOTION_RUN -> evictEntity(
+                ProjectEntityType.PROMOTION_RUN,
+                event.getIntValue("PROMOTION_RUN_ID")
+            )
+        }
+    }
+
+    private data class Key(
+        val entityType: ProjectEntityType,
+        val entityId: Int,
+        val typeName: String,
+    ) {
+        fun format() = "$entityType:$entityId:$typeName"
+
+        companion object {
+            fun parse(payload: String): Key? {
+                val tokens = payload.split(":", limit = 3)
+                return if (tokens.size == 3) {
+                    val entityType = ProjectEntityType.values().find { it.name == tokens[0] }
+                    val entityId = tokens[1].toIntOrNull()
+                    if (entityType != null && entityId != null) {
+                        Key(entityType, entityId, tokens[2])
+                    } else {
+                        null
+                    }
+                } else {
+                    null
+                }
+            }
+        }
+    }
+
+    private class Holder(val value: Any?)
+
+    companion object {
+        /**
+         * Name of the cache, used for the metrics & for the specification
+         */
+        const val CACHE_NAME = "property-values"
+
+        /**
+         * Default Caffeine specification
+         */
+        const val DEFAULT_SPEC = "maximumSize=10000,expireAfterWrite=1h,recordStats"
+
+        /**
+         * Invalidation channel
+         */
+        const val CHANNEL = "property-values"
+
+        /**
+         * Payload token to evict all the values (of an entity)
+         */
+        private const val ALL = "*"
+    }
+}
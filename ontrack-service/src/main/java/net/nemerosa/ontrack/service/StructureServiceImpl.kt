@@ -64,14 +64,17 @@ class StructureServiceImpl(
     }
 
     override val projectStatusViews: List<ProjectStatusView>
-        get() = projectList
-            .map { project ->
+        get() {
+            val projects = projectList
+            val decorations = decorationService.getDecorations(projects)
+            return projects.map { project ->
                 ProjectStatusView(
                     project,
-                    decorationService.getDecorations(project),
+                    decorations[project] ?: emptyList(),
                     getBranchStatusViews(project.id)
                 )
             }
+        }
 
     override val projectList: List<Project>
         get() {
@@ -183,14 +186,20 @@ class StructureServiceImpl(
     }
 
     override fun getBranchStatusViews(projectId: ID): List<BranchStatusView> {
-        return getBranchesForProject(projectId)
-            .map { this.getBranchStatusView(it) }
+        val branches = getBranchesForProject(projectId)
+        val decorations = decorationService.getDecorations(branches)
+        return branches.map { branch ->
+            getBranchStatusView(branch, decorations[branch] ?: emptyList())
+        }
     }
 
-    override fun getBranchStatusView(branch: Branch): BranchStatusView {
+    override fun getBranchStatusView(branch: Branch): BranchStatusView =
+        getBranchStatusView(branch, decorationService.getDecorations(branch))
+
+    private fun getBranchStatusView(branch: Branch, decorations: List<Decoration<*>>): BranchStatusView {
         return BranchStatusView(
             branch,
-            decorationService.getDecorations(branch),
+            decorations,
             getLastBuildForBranch(branch),
             getPromotionLevelListForBranch(branch.id).map { this.toPromotionView(it) }
         )
@@ -267,6 +276,11 @@ class StructureServiceImpl(
         return structureRepository.getEarliestPromotionRunAfterBuild(promotionLevel, build)
     }
 
+    override fun getEarliestPromotionRunsAfterBuilds(builds: List<Build>): Map<ID, List<PromotionRun>> =
+        structureRepository.getEarliestPromotionRunsAfterBuilds(
+            builds.filter { securityService.isProjectFunctionGranted(it, ProjectView::class.java) }
+        )
+
     override fun getPromotionRunsForPromotionLevel(promotionLevelId: ID): List<PromotionRun> {
         val promotionLevel = getPromotionLevel(promotionLevelId)
         return structureRepository.getPromotionRunsForPromotionLevel(promotionLevel)
@@ -279,6 +293,13 @@ class StructureServiceImpl(
         return structureRepository.getLastBuildForBranch(branch)
     }
 
+    override fun getLastBuildsForProject(project: Project): Map<ID, Build> {
+        // Checks the accesses
+        securityService.checkProjectFunction(project, ProjectView::class.java)
+        // Gets the last builds
+        return structureRepository.getLastBuildsForProject(project)
+    }
+
     override fun getBuildCount(branch: Branch): Int {
         return structureRepository.getBuildCount(branch)
     }
@@ -495,6 +516,15 @@ class StructureServiceImpl(
         return PaginatedList.create(list.filter(filter), offset, size)
     }
 
+    override fun getQualifiedBuildsUsedBy(builds: List<Build>): Map<ID, List<BuildLink>> =
+        buildLinkRepository.getQualifiedBuildsUsedBy(
+            builds.filter { securityService.isProjectFunctionGranted(it, ProjectView::class.java) }
+        ).mapValues { (_, links) ->
+            links.filter { link ->
+                securityService.isProjectFunctionGranted(link.build, ProjectView::class.java)
+            }
+        }
+
     private fun internalQualifiedBuildsUsedBy(
         build: Build,
         depth: Int,
@@ -886,6 +916,11 @@ class StructureServiceImpl(
         return structureRepository.getPromotionRunsForBuild(build)
     }
 
+    override fun getPromotionRunsForBuilds(builds: List<Build>): Map<ID, List<PromotionRun>> =
+        structureRepository.getPromotionRunsForBuilds(
+            builds.filter { securityService.isProjectFunctionGranted(it, ProjectView::class.java) }
+        )
+
     override fun getLastPromotionRunsForBuild(buildId: ID): List<PromotionRun> {
         val build = getBuild(buildId)
         securityService.checkProjectFunction(build.branch.project.id(), ProjectView::class.java)
@@ -1027,6 +1062,21 @@ class StructureServiceImpl(
         return view
     }
 
+    override fun getBuildViews(builds: List<Build>, withDecorations: Boolean): List<BuildView> {
+        val decorations = if (withDecorations) {
+            decorationService.getDecorations(builds)
+        } else {
+            emptyMap()
+        }
+        return builds.map { build ->
+            var view = getBuildView(build, withDecorations = false)
+            if (withDecorations) {
+                view = view.withDecorations(decorations[build] ?: emptyList())
+            }
+            view
+        }
+    }
+
     override fun getValidationStampImage(validationStampId: ID): Document {
         // Checks access
         getValidationStamp(validationStampId)
@@ -1466,6 +1516,19 @@ class StructureServiceImpl(
         ) { validationRunStatusService.getValidationRunStatus(it) }
     }
 
+    override fun getValidationRunsForBuildsAndValidationStamp(
+        builds: List<Build>,
+        validationStamp: ValidationStamp,
+        offset: Int,
+        count: Int,
+    ): Map<ID, List<ValidationRun>> =
+        structureRepository.getValidationRunsForBuildsAndValidationStamp(
+            builds.filter { securityService.isProjectFunctionGranted(it, ProjectView::class.java) },
+            validationStamp,
+            offset,
+            count,
+        ) { validationRunStatusService.getValidationRunStatus(it) }
+
     override fun getValidationRunsForBuildAndValidationStampAndStatus(
         buildId: ID,
         validationStampId: ID,
@@ -0,0 +1,127 @@
+package net.nemerosa.ontrack.service.elasticsearch
+
+import net.nemerosa.ontrack.model.structure.SearchItem
+import org.elasticsearch.action.ActionListener
+import org.elasticsearch.action.bulk.BulkRequest
+import org.elasticsearch.action.bulk.BulkResponse
+import org.elasticsearch.action.index.IndexRequest
+import org.elasticsearch.client.RequestOptions
+import org.elasticsearch.client.RestHighLevelClient
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.util.concurrent.Semaphore
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * Sends the items of a full indexation using asynchronous bulk requests.
+ *
+ * The items are grouped into bulk requests limited both in size (bytes) and in
+ * number of items. At most [inFlight] bulk requests are processed at the same time,
+ * the senders being blocked until one of them completes.
+ *
+ * @param client Client to ElasticSearch
+ * @param indexName Index to fill
+ * @param maxBytes Maximum size of a bulk request
+ * @param maxItems Maximum number of items in a bulk request
+ * @param inFlight Maximum number of bulk requests being processed
+ */
+class ElasticSearchBulkIndexer(
+    private val client: RestHighLevelClient,
+    private val indexName: String,
+    private val maxBytes: Long,
+    private val maxItems: Int,
+    private val inFlight: Int,
+) {
+
+    private val logger: Logger = LoggerFactory.getLogger(ElasticSearchBulkIndexer::class.java)
+
+    private val permits = Semaphore(inFlight)
+
+    private val error = AtomicReference<Exception?>()
+
+    private val indexedCount = AtomicLong()
+
+    private val failedCount = AtomicLong()
+
+    /**
+     * Number of items indexed so far
+     */
+    val indexed: Long get() = indexedCount.get()
+
+    /**
+     * Number of items which could not be indexed so far
+     */
+    val failed: Long get() = failedCount.get()
+
+    /**
+     * Creates a buffer of items, to be used by one thread only.
+     */
+    fun buffer() = Buffer()
+
+    /**
+     * Waits for all the bulk requests to be processed.
+     */
+    fun await() {
+        permits.acquire(inFlight)
+        permits.release(inFlight)
+        checkError()
+    }
+
+    private fun checkError() {
+        error.get()?.let { throw it }
+    }
+
+    private fun send(bulk: BulkRequest) {
+        checkError()
+        permits.acquire()
+        val count = bulk.numberOfActions()
+        client.bulkAsync(bulk, RequestOptions.DEFAULT, object : ActionListener<BulkResponse> {
+            override fun onResponse(response: BulkResponse) {
+                try {
+                    val failures = if (response.hasFailures()) {
+                        logger.warn("[elasticsearch][index][$indexName] Bulk failures: ${response.buildFailureMessage()}")
+                        response.items.count { it.isFailed }
+                    } else {
+                        0
+                    }
+                    failedCount.addAndGet(failures.toLong())
+                    indexedCount.addAndGet((count - failures).toLong())
+                } finally {
+                    permits.release()
+                }
+            }
+
+            override fun onFailure(e: Exception) {
+                logger.error("[elasticsearch][index][$indexName] Bulk request of $count items failed", e)
+                error.compareAndSet(null, e)
+                permits.release()
+            }
+        })
+    }
+
+    /**
+     * Accumulates the items until a bulk request is full.
+     */
+    inner class Buffer {
+
+        private var bulk = BulkRequest(indexName)
+
+        fun add(item: SearchItem) {
+            bulk.add(IndexRequest().id(item.id).source(item.fields))
+            if (bulk.numberOfActions() >= maxItems || bulk.estimatedSizeInBytes() >= maxBytes) {
+                flush()
+            }
+        }
+
+        /**
+         * Sends the remaining items.
+         */
+        fun flush() {
+            if (bulk.numberOfActions() > 0) {
+                send(bulk)
+                bulk = BulkRequest(indexName)
+            }
+        }
+    }
+}
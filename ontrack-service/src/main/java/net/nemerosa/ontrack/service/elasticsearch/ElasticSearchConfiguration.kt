@@ -1,11 +1,19 @@
 package net.nemerosa.ontrack.service.elasticsearch
 
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import net.nemerosa.ontrack.model.support.SearchConfigProperties
 import org.elasticsearch.client.RestHighLevelClient
 import org.springframework.boot.actuate.elasticsearch.ElasticsearchRestHealthIndicator
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
 
 @Configuration
+@ConditionalOnProperty(
+        name = [OntrackConfigProperties.SEARCH_ENGINE],
+        havingValue = SearchConfigProperties.ELASTICSEARCH,
+        matchIfMissing = true
+)
 class ElasticSearchConfiguration(
         val client: RestHighLevelClient
 ) {
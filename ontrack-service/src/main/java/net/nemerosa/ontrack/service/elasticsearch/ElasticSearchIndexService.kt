@@ -1,10 +1,13 @@
 package net.nemerosa.ontrack.service.elasticsearch
 
 import com.fasterxml.jackson.databind.JsonNode
+import net.nemerosa.ontrack.job.JobRunListener
 import net.nemerosa.ontrack.json.asJson
 import net.nemerosa.ontrack.model.search.SearchQuery
 import net.nemerosa.ontrack.model.structure.*
 import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import net.nemerosa.ontrack.model.support.SearchConfigProperties
+import net.nemerosa.ontrack.service.support.indexPartitionsInParallel
 import org.elasticsearch.ElasticsearchStatusException
 import org.elasticsearch.action.DocWriteRequest
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest
@@ -22,10 +25,16 @@ import org.elasticsearch.client.indices.PutMappingRequest
 import org.elasticsearch.search.builder.SearchSourceBuilder
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
 import org.springframework.stereotype.Service
 import org.springframework.transaction.annotation.Transactional
 
 @Service
+@ConditionalOnProperty(
+        name = [OntrackConfigProperties.SEARCH_ENGINE],
+        havingValue = SearchConfigProperties.ELASTICSEARCH,
+        matchIfMissing = true
+)
 @Transactional
 class ElasticSearchIndexService(
         private val client: RestHighLevelClient,
@@ -41,18 +50,46 @@ class ElasticSearchIndexService(
     }
 
     override fun <T : SearchItem> index(indexer: SearchIndexer<T>) {
-        val batchSize = indexer.indexBatch ?: ontrackConfigProperties.search.index.batch
-        logger.debug("Full indexation for ${indexer.indexName} with batch size = $batchSize")
-        val buffer = mutableListOf<T>()
-        indexer.indexAll { item ->
-            buffer.add(item)
-            if (buffer.size == batchSize) {
-                index(indexer, buffer)
-                buffer.clear()
+        index(indexer, JobRunListener.logger(logger))
+    }
+
+    override fun <T : SearchItem> index(indexer: SearchIndexer<T>, listener: JobRunListener) {
+        val properties = ontrackConfigProperties.search.index
+        val batchSize = indexer.indexBatch ?: properties.batch
+        val bulkIndexer = ElasticSearchBulkIndexer(
+            client = client,
+            indexName = indexer.indexName,
+            maxBytes = properties.bulkBytes,
+            maxItems = batchSize,
+            inFlight = properties.bulkInFlight.coerceAtLeast(1),
+        )
+        val partitions = if (indexer is PartitionedSearchIndexer<T>) indexer.getIndexPartitions() else emptyList()
+        if (indexer !is PartitionedSearchIndexer<T> || partitions.isEmpty()) {
+            logger.debug("Full indexation for ${indexer.indexName} with batch size = $batchSize")
+            val buffer = bulkIndexer.buffer()
+            indexer.indexAll { item ->
+                buffer.add(item)
+            }
+            // Remaining items
+            buffer.flush()
+        } else {
+            logger.debug("Full indexation for ${indexer.indexName} with batch size = $batchSize and ${partitions.size} partitions")
+            indexPartitionsInParallel(indexer, partitions, properties.parallelism, listener) { partition ->
+                val buffer = bulkIndexer.buffer()
+                indexer.indexPartition(partition) { item ->
+                    buffer.add(item)
+                }
+                buffer.flush()
             }
         }
-        // Remaining items
-        index(indexer, buffer)
+        // Waiting for all the items to be indexed
+        bulkIndexer.await()
+        listener.message(
+            "[%s] %d items indexed, %d failed",
+            indexer.indexName,
+            bulkIndexer.indexed,
+            bulkIndexer.failed
+        )
         // Refreshes the index
         immediateRefreshIfRequested(indexer)
     }
@@ -144,19 +181,6 @@ class ElasticSearchIndexService(
         return true
     }
 
-    private fun <T : SearchItem> index(indexer: SearchIndexer<T>, items: List<T>) {
-        // Bulk indexation of the items
-        val bulk = items.fold(BulkRequest(indexer.indexName)) { acc, item ->
-            acc.add(IndexRequest().id(item.id).source(item.fields))
-        }
-        if (bulk.numberOfActions() > 0) {
-            // Launching the indexation of this batch
-            client.bulk(bulk, RequestOptions.DEFAULT)
-            // Refreshes the index
-            immediateRefreshIfRequested(indexer)
-        }
-    }
-
     private fun <T : SearchItem> immediateRefreshIfRequested(indexer: SearchIndexer<T>) {
         if (ontrackConfigProperties.search.index.immediate) {
             refreshIndex(indexer)
@@ -6,6 +6,7 @@ import kotlinx.coroutines.launch
 import kotlinx.coroutines.runBlocking
 import kotlinx.coroutines.withTimeout
 import net.nemerosa.ontrack.job.*
+import net.nemerosa.ontrack.job.support.JobOwnedByAnotherNodeException
 import net.nemerosa.ontrack.job.orchestrator.JobOrchestratorSupplier
 import net.nemerosa.ontrack.model.structure.SearchIndexService
 import net.nemerosa.ontrack.model.structure.SearchIndexer
@@ -54,7 +55,12 @@ class ElasticSearchIndexationJobs(
                         !indexer.isIndexationDisabled
                     }.mapNotNull { indexer ->
                         val key = indexationJobType.getKey(indexer.indexerId)
-                        jobScheduler.fireImmediately(key).orElse(null)
+                        try {
+                            jobScheduler.fireImmediately(key).orElse(null)
+                        } catch (ex: JobOwnedByAnotherNodeException) {
+                            listener.message(ex.message)
+                            null
+                        }
                     }.map { stage ->
                         launch {
                             stage.await()
@@ -89,7 +95,7 @@ class ElasticSearchIndexationJobs(
 
         override fun getTask() = JobRun { listener ->
             listener.message("Launching indexation for ${indexer.indexerName}")
-            elasticSearchService.index(indexer)
+            elasticSearchService.index(indexer, listener)
         }
     }
 
@@ -3,16 +3,24 @@ package net.nemerosa.ontrack.service.elasticsearch
 import net.nemerosa.ontrack.json.asJson
 import net.nemerosa.ontrack.model.Ack
 import net.nemerosa.ontrack.model.structure.*
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import net.nemerosa.ontrack.model.support.SearchConfigProperties
 import org.elasticsearch.client.RequestOptions
 import org.elasticsearch.client.RestHighLevelClient
 import org.elasticsearch.index.query.MultiMatchQueryBuilder
 import org.elasticsearch.search.builder.SearchSourceBuilder
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
 import org.springframework.stereotype.Service
 import org.springframework.transaction.annotation.Transactional
 
 typealias ESSearchRequest = org.elasticsearch.action.search.SearchRequest
 
 @Service
+@ConditionalOnProperty(
+        name = [OntrackConfigProperties.SEARCH_ENGINE],
+        havingValue = SearchConfigProperties.ELASTICSEARCH,
+        matchIfMissing = true
+)
 @Transactional
 class ElasticSearchServiceImpl(
     private val client: RestHighLevelClient,
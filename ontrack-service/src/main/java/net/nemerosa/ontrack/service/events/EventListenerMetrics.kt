@@ -9,4 +9,16 @@ object EventListenerMetrics {
 
     const val METRIC_ONTRACK_EVENT_LISTENER_TIME = "ontrack_event_listener_time"
 
+    const val METRIC_ONTRACK_EVENT_DISPATCH_LAG = "ontrack_event_dispatch_lag"
+
+    const val METRIC_ONTRACK_EVENT_DISPATCH_PENDING = "ontrack_event_dispatch_pending"
+
+    const val METRIC_ONTRACK_EVENT_DISPATCH_RETRIES = "ontrack_event_dispatch_retries"
+
+    const val METRIC_ONTRACK_EVENT_DISPATCH_ERRORS = "ontrack_event_dispatch_errors"
+
+    const val METRIC_ONTRACK_EVENT_DISPATCH_OVERFLOW = "ontrack_event_dispatch_overflow"
+
+    const val METRIC_ONTRACK_EVENT_DISPATCH_RECOVERED = "ontrack_event_dispatch_recovered"
+
 }
\ No newline at end of file
@@ -16,19 +16,21 @@ class EventListenerServiceImpl(
 
     // private val logger = LoggerFactory.getLogger(EventListenerServiceImpl::class.java)
 
-    private val listeners: Collection<EventListener> by lazy {
+    private val registeredListeners: Collection<EventListener> by lazy {
         context.getBeansOfType(
             EventListener::class.java
         ).values
     }
 
+    override fun getListeners(): Collection<EventListener> = registeredListeners
+
     override fun onEvent(event: Event) {
-        listeners.forEach {
+        registeredListeners.forEach {
             onEventForListener(it, event)
         }
     }
 
-    private fun onEventForListener(eventListener: EventListener, event: Event) {
+    override fun onEventForListener(eventListener: EventListener, event: Event) {
         meterRegistry.time(
             name = EventListenerMetrics.METRIC_ONTRACK_EVENT_LISTENER_TIME,
             EventListenerMetrics.TAG_EVENT_LISTENER to eventListener::class.java.name,
@@ -0,0 +1,276 @@
+package net.nemerosa.ontrack.service.events
+
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Tag
+import net.nemerosa.ontrack.common.Time
+import net.nemerosa.ontrack.job.JobLeases
+import net.nemerosa.ontrack.model.events.Event
+import net.nemerosa.ontrack.model.events.EventListener
+import net.nemerosa.ontrack.model.events.EventListenerService
+import net.nemerosa.ontrack.model.metrics.increment
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import net.nemerosa.ontrack.model.tx.TransactionHelper
+import net.nemerosa.ontrack.repository.EventOutboxRepository
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import org.springframework.security.core.context.SecurityContext
+import org.springframework.security.core.context.SecurityContextHolder
+import org.springframework.stereotype.Component
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import java.util.concurrent.*
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import javax.annotation.PreDestroy
+
+/**
+ * Asynchronous dispatch of the events to the listeners, using the `EVENT_OUTBOX` table.
+ *
+ * The event is registered in the outbox as part of the transaction which posts it, leased
+ * by the current node, and, once this transaction is committed, it's delivered to each listener.
+ * Each listener has its own lane, so that the events are received in the order they
+ * were committed, while the listeners are processed in parallel on a shared pool.
+ *
+ * The event is removed from the outbox once all the listeners have received it.
+ * Events left in the outbox (node stopped, no capacity) are claimed again by
+ * the [EventOutboxRecoveryJob] once their lease has expired.
+ *
+ * The delivery is _at least once_: an event may be received several times by a listener,
+ * for example when a node stops before removing the event from the outbox or when the
+ * dispatch of an event lasts longer than its lease. The listeners must therefore tolerate
+ * duplicate events. The order of the events is only guaranteed for the events dispatched
+ * by the same node.
+ */
+@Component
+class EventOutboxDispatcher(
+    private val eventListenerService: EventListenerService,
+    private val eventOutboxRepository: EventOutboxRepository,
+    private val jobLeases: JobLeases,
+    private val transactionHelper: TransactionHelper,
+    private val meterRegistry: MeterRegistry,
+    ontrackConfigProperties: OntrackConfigProperties,
+) {
+
+    private val logger: Logger = LoggerFactory.getLogger(EventOutboxDispatcher::class.java)
+
+    private val properties = ontrackConfigProperties.events
+
+    private val executor: ExecutorService = Executors.newFixedThreadPool(
+        properties.poolSize,
+        object : ThreadFactory {
+            private val count = AtomicInteger()
+            override fun newThread(r: Runnable) = Thread(r, "event-dispatch-${count.incrementAndGet()}").apply {
+                isDaemon = true
+            }
+        }
+    )
+
+    /**
+     * Runs the retries of the deliveries on the dispatch pool, after a delay
+     */
+    private val retryExecutor: Executor =
+        CompletableFuture.delayedExecutor(properties.retryDelay.toMillis(), TimeUnit.MILLISECONDS, executor)
+
+    /**
+     * Number of events being dispatched
+     */
+    private val capacity = Semaphore(properties.capacity)
+
+    /**
+     * IDs of the events being dispatched by this node
+     */
+    private val inFlight: MutableSet<Int> = ConcurrentHashMap.newKeySet()
+
+    private val lanes = ConcurrentHashMap<EventListener, Lane>()
+
+    init {
+        meterRegistry.gauge(EventListenerMetrics.METRIC_ONTRACK_EVENT_DISPATCH_PENDING, capacity) {
+            (properties.capacity - it.availablePermits()).toDouble()
+        }
+    }
+
+    @PreDestroy
+    fun stop() {
+        executor.shutdown()
+    }
+
+    /**
+     * Name of the current node, owning the leases of the events it dispatches
+     */
+    val node: String get() = jobLeases.node
+
+    /**
+     * Registers the event into the outbox and dispatches it once the current
+     * transaction is committed.
+     */
+    fun post(event: Event) {
+        val now = Time.now()
+        eventOutboxRepository.add(event.id, now, node, now.plus(properties.recoveryAge))
+        val securityContext = SecurityContextHolder.getContext()
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(object : TransactionSynchronization {
+                override fun afterCommit() {
+                    dispatch(event, securityContext)
+                }
+            })
+        } else {
+            dispatch(event, securityContext)
+        }
+    }
+
+    /**
+     * Checks if an event is currently dispatched by this node.
+     */
+    fun isInFlight(eventId: Int) = eventId in inFlight
+
+    /**
+     * Dispatches an event to all the listeners. This method never blocks: when there is
+     * no capacity left, the event is left in the outbox.
+     *
+     * @param event Event to dispatch
+     * @param securityContext Security context to use when calling the listeners
+     * @return `false` if there was no capacity to dispatch the event
+     */
+    fun dispatch(event: Event, securityContext: SecurityContext): Boolean {
+        if (!capacity.tryAcquire()) {
+            meterRegistry.increment(EventListenerMetrics.METRIC_ONTRACK_EVENT_DISPATCH_OVERFLOW)
+            logger.warn("[event-dispatch] No capacity to dispatch event ${event.id}, leaving it in the outbox")
+            return false
+        }
+        val listeners = eventListenerService.listeners
+        if (listeners.isEmpty()) {
+            done(event)
+        } else {
+            inFlight += event.id
+            val delivery = Delivery(
+                event = event,
+                securityContext = securityContext,
+                dispatchTime = System.nanoTime(),
+                remaining = AtomicInteger(listeners.size),
+            )
+            listeners.forEach { listener ->
+                lanes.computeIfAbsent(listener) { Lane(it) }.submit(delivery)
+            }
+        }
+        return true
+    }
+
+    /**
+     * Delivers an event to a listener.
+     *
+     * @param attempt Number of previous attempts for this delivery
+     * @return `false` if the delivery failed and must be retried
+     */
+    private fun deliver(listener: EventListener, delivery: Delivery, attempt: Int): Boolean {
+        val listenerName = listener::class.java.name
+        if (attempt == 0) {
+            meterRegistry.timer(
+                EventListenerMetrics.METRIC_ONTRACK_EVENT_DISPATCH_LAG,
+                listOf(Tag.of(EventListenerMetrics.TAG_EVENT_LISTENER, listenerName))
+            ).record(System.nanoTime() - delivery.dispatchTime, TimeUnit.NANOSECONDS)
+        }
+        val previousContext = SecurityContextHolder.getContext()
+        SecurityContextHolder.setContext(delivery.securityContext)
+        try {
+            transactionHelper.inNewTransaction {
+                eventListenerService.onEventForListener(listener, delivery.event)
+            }
+        } catch (any: Exception) {
+            if (attempt < properties.retries) {
+                meterRegistry.increment(
+                    EventListenerMetrics.METRIC_ONTRACK_EVENT_DISPATCH_RETRIES,
+                    EventListenerMetrics.TAG_EVENT_LISTENER to listenerName
+                )
+                return false
+            } else {
+                meterRegistry.increment(
+                    EventListenerMetrics.METRIC_ONTRACK_EVENT_DISPATCH_ERRORS,
+                    EventListenerMetrics.TAG_EVENT_LISTENER to listenerName
+                )
+                logger.error(
+                    "[event-dispatch] Listener $listenerName failed for event ${delivery.event.id} after $attempt retries",
+                    any
+                )
+            }
+        } finally {
+            SecurityContextHolder.setContext(previousContext)
+        }
+        if (delivery.remaining.decrementAndGet() == 0) {
+            done(delivery.event)
+        }
+        return true
+    }
+
+    private fun done(event: Event) {
+        try {
+            transactionHelper.inNewTransaction {
+                eventOutboxRepository.remove(event.id)
+            }
+        } catch (any: Exception) {
+            logger.error("[event-dispatch] Cannot remove event ${event.id} from the outbox", any)
+        } finally {
+            inFlight -= event.id
+            capacity.release()
+        }
+    }
+
+    private class Delivery(
+        val event: Event,
+        val securityContext: SecurityContext,
+        val dispatchTime: Long,
+        val remaining: AtomicInteger,
+    )
+
+    /**
+     * Ordered queue of deliveries for one listener, drained by at most one thread at a time.
+     */
+    private inner class Lane(
+        private val listener: EventListener,
+    ) {
+        private val queue = ConcurrentLinkedQueue<Delivery>()
+        private val scheduled = AtomicBoolean(false)
+
+        /**
+         * Number of failed attempts for the delivery at the head of the queue,
+         * only accessed by the thread draining the lane
+         */
+        private var attempts = 0
+
+        fun submit(delivery: Delivery) {
+            queue += delivery
+            schedule()
+        }
+
+        private fun schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute { drain() }
+            }
+        }
+
+        private fun drain() {
+            var retrying = false
+            try {
+                while (true) {
+                    val delivery = queue.peek() ?: break
+                    if (deliver(listener, delivery, attempts)) {
+                        queue.poll()
+                        attempts = 0
+                    } else {
+                        // Retried later without holding a thread, the lane staying busy to keep the order
+                        attempts++
+                        retrying = true
+                        retryExecutor.execute { drain() }
+                        break
+                    }
+                }
+            } finally {
+                if (!retrying) {
+                    scheduled.set(false)
+                    if (queue.isNotEmpty()) {
+                        schedule()
+                    }
+                }
+            }
+        }
+    }
+}
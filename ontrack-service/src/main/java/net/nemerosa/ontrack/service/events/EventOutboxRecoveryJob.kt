@@ -0,0 +1,101 @@
+package net.nemerosa.ontrack.service.events
+
+import io.micrometer.core.instrument.MeterRegistry
+import net.nemerosa.ontrack.common.Time
+import net.nemerosa.ontrack.job.*
+import net.nemerosa.ontrack.model.events.EventFactory
+import net.nemerosa.ontrack.model.metrics.increment
+import net.nemerosa.ontrack.model.security.SecurityService
+import net.nemerosa.ontrack.model.structure.StructureService
+import net.nemerosa.ontrack.model.support.JobProvider
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import net.nemerosa.ontrack.repository.EventOutboxRepository
+import net.nemerosa.ontrack.repository.EventRepository
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import org.springframework.security.core.context.SecurityContextHolder
+import org.springframework.stereotype.Component
+
+/**
+ * Dispatches again the events which have been left in the outbox for too long and
+ * whose lease has expired.
+ */
+@Component
+class EventOutboxRecoveryJob(
+    private val ontrackConfigProperties: OntrackConfigProperties,
+    private val eventOutboxRepository: EventOutboxRepository,
+    private val eventOutboxDispatcher: EventOutboxDispatcher,
+    private val eventRepository: EventRepository,
+    private val eventFactory: EventFactory,
+    private val structureService: StructureService,
+    private val securityService: SecurityService,
+    private val meterRegistry: MeterRegistry,
+) : JobProvider, Job {
+
+    private val logger: Logger = LoggerFactory.getLogger(EventOutboxRecoveryJob::class.java)
+
+    override fun getStartingJobs(): Collection<JobRegistration> =
+        listOf(
+            JobRegistration.of(this).withSchedule(Schedule.EVERY_MINUTE)
+        )
+
+    override fun getKey(): JobKey =
+        JobCategory.CORE.getType("event-outbox").withName("Event outbox")
+            .getKey("recovery")
+
+    override fun getTask() = JobRun { listener ->
+        securityService.asAdmin {
+            recover(listener)
+        }
+    }
+
+    private fun recover(listener: JobRunListener) {
+        val now = Time.now()
+        val recoveryAge = ontrackConfigProperties.events.recoveryAge
+        // Claiming the events, so that they are not recovered by other nodes at the same time
+        val ids = eventOutboxRepository.claim(
+            before = now.minus(recoveryAge),
+            owner = eventOutboxDispatcher.node,
+            now = now,
+            expires = now.plus(recoveryAge),
+            count = BATCH,
+        ).filterNot { eventOutboxDispatcher.isInFlight(it) }
+        if (ids.isNotEmpty()) {
+            listener.message("Recovering ${ids.size} events from the outbox")
+        }
+        val securityContext = SecurityContextHolder.getContext()
+        for (id in ids) {
+            val event = try {
+                eventRepository.getEvent(
+                    id,
+                    { type, entityId -> type.getEntityFn(structureService).apply(entityId) },
+                    { eventFactory.toEventType(it) }
+                )
+            } catch (any: Exception) {
+                logger.error("[event-dispatch] Cannot load event $id from the outbox, discarding it", any)
+                null
+            }
+            if (event != null) {
+                meterRegistry.increment(EventListenerMetrics.METRIC_ONTRACK_EVENT_DISPATCH_RECOVERED)
+                if (!eventOutboxDispatcher.dispatch(event, securityContext)) {
+                    // No capacity, waiting for the next run
+                    break
+                }
+            } else {
+                eventOutboxRepository.remove(id)
+            }
+        }
+    }
+
+    override fun getDescription(): String = "Dispatch of the events left in the outbox"
+
+    override fun isDisabled(): Boolean =
+        ontrackConfigProperties.events.dispatch != OntrackConfigProperties.EventDispatchMode.ASYNC
+
+    companion object {
+        /**
+         * Maximum number of events to recover in one run
+         */
+        private const val BATCH = 100
+    }
+}
@@ -4,6 +4,7 @@ import net.nemerosa.ontrack.model.events.Event
 import net.nemerosa.ontrack.model.events.EventListenerService
 import net.nemerosa.ontrack.model.events.EventPostService
 import net.nemerosa.ontrack.model.security.SecurityService
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
 import net.nemerosa.ontrack.repository.EventRepository
 import org.springframework.stereotype.Service
 import org.springframework.transaction.annotation.Transactional
@@ -13,7 +14,9 @@ import org.springframework.transaction.annotation.Transactional
 class EventPostServiceImpl (
     private val securityService: SecurityService,
     private val eventRepository: EventRepository,
-    private val eventListenerService: EventListenerService
+    private val eventListenerService: EventListenerService,
+    private val eventOutboxDispatcher: EventOutboxDispatcher,
+    private val ontrackConfigProperties: OntrackConfigProperties,
 ) : EventPostService {
 
     override fun post(event: Event) {
@@ -23,6 +26,9 @@ class EventPostServiceImpl (
         }
         e = eventRepository.post(e)
         // Notification to the listeners
-        eventListenerService.onEvent(e)
+        when (ontrackConfigProperties.events.dispatch) {
+            OntrackConfigProperties.EventDispatchMode.SYNC -> eventListenerService.onEvent(e)
+            OntrackConfigProperties.EventDispatchMode.ASYNC -> eventOutboxDispatcher.post(e)
+        }
     }
 }
@@ -20,29 +20,45 @@ class EventQueryServiceImpl(
     private val eventRepository: EventRepository,
 ) : EventQueryService {
 
-    override fun getEvents(offset: Int, count: Int): List<Event> {
+    override fun getEvents(offset: Int, count: Int): List<Event> = getEvents(null, offset, count)
+
+    override fun getEventsBefore(before: Int?, count: Int): List<Event> = getEvents(before, 0, count)
+
+    private fun getEvents(before: Int?, offset: Int, count: Int): List<Event> {
         // Gets the list of projects the current user is allowed to view
         val projectIds = structureService.projectList.map { it.id() }
         // Performs the query
-        return eventRepository.query(
-            projectIds,
-            offset,
-            count,
-            { type, id -> type.getEntityFn(structureService).apply(id) },
-            { eventFactory.toEventType(it) }
-        )
+        return collect(before, offset, count) { cursor, skip ->
+            eventRepository.query(
+                projectIds,
+                cursor,
+                skip,
+                count,
+                { type, id -> type.getEntityFn(structureService).apply(id) },
+                { eventFactory.toEventType(it) }
+            )
+        }
     }
 
-    override fun getEvents(entityType: ProjectEntityType, entityId: ID, offset: Int, count: Int): List<Event> {
+    override fun getEvents(entityType: ProjectEntityType, entityId: ID, offset: Int, count: Int): List<Event> =
+        getEvents(entityType, entityId, null, offset, count)
+
+    override fun getEventsBefore(entityType: ProjectEntityType, entityId: ID, before: Int?, count: Int): List<Event> =
+        getEvents(entityType, entityId, before, 0, count)
+
+    private fun getEvents(entityType: ProjectEntityType, entityId: ID, before: Int?, offset: Int, count: Int): List<Event> {
         checkAccess(entityType, entityId)
-        return eventRepository.query(
-            entityType,
-            entityId,
-            offset,
-            count,
-            { type, id -> type.getEntityFn(structureService).apply(id) },
-            { eventFactory.toEventType(it) }
-        )
+        return collect(before, offset, count) { cursor, skip ->
+            eventRepository.query(
+                entityType,
+                entityId,
+                cursor,
+                skip,
+                count,
+                { type, id -> type.getEntityFn(structureService).apply(id) },
+                { eventFactory.toEventType(it) }
+            )
+        }
     }
 
     override fun getEvents(
@@ -53,15 +69,18 @@ class EventQueryServiceImpl(
         count: Int,
     ): List<Event> {
         checkAccess(entityType, entityId)
-        return eventRepository.query(
-            eventType,
-            entityType,
-            entityId,
-            offset,
-            count,
-            { type, id -> type.getEntityFn(structureService).apply(id) },
-            { eventFactory.toEventType(it) }
-        )
+        return collect(null, offset, count) { cursor, skip ->
+            eventRepository.query(
+                eventType,
+                entityType,
+                entityId,
+                cursor,
+                skip,
+                count,
+                { type, id -> type.getEntityFn(structureService).apply(id) },
+                { eventFactory.toEventType(it) }
+            )
+        }
     }
 
     override fun getLastEventSignature(
@@ -82,13 +101,53 @@ class EventQueryServiceImpl(
         )
     }
 
+    /**
+     * The projects, branches & builds of the events are loaded without any security check, so the events
+     * referring to entities the current user cannot see (like the target of a build link) are left out.
+     */
+    private fun isViewable(event: Event): Boolean =
+        (event.entities.values + event.extraEntities.values).all {
+            securityService.isProjectFunctionGranted(it, ProjectView::class.java)
+        }
+
+    /**
+     * Since the events are filtered after having been read, pages of events are read until
+     * [count] visible events are found or until there are no more events, so that the pages
+     * are not returned short and the next page starts after the last returned event.
+     *
+     * @param before Keyset boundary of the first page
+     * @param offset Offset of the first page
+     * @param query Reading a page of events, before a given ID and after an offset
+     */
+    private fun collect(
+        before: Int?,
+        offset: Int,
+        count: Int,
+        query: (before: Int?, offset: Int) -> List<Event>,
+    ): List<Event> {
+        val events = mutableListOf<Event>()
+        var cursor = before
+        var skip = offset
+        while (events.size < count) {
+            val page = query(cursor, skip)
+            page.filterTo(events) { isViewable(it) }
+            if (page.size < count) {
+                break
+            }
+            // Next page, after the last row read
+            cursor = page.last().id
+            skip = 0
+        }
+        return events.take(count)
+    }
+
     override fun getLastEvent(entityType: ProjectEntityType, entityId: ID, eventType: EventType): Event? {
         checkAccess(entityType, entityId)
         return eventRepository.getLastEvent(
             entityType, entityId, eventType,
             { type, id -> type.getEntityFn(structureService).apply(id) },
             { eventFactory.toEventType(it) }
-        )
+        )?.takeIf { isViewable(it) }
     }
 
     override fun getLastEvent(entity: ProjectEntity, eventType: EventType): Event? =
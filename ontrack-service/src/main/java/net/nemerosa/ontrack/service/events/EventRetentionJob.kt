@@ -0,0 +1,55 @@
+package net.nemerosa.ontrack.service.events
+
+import net.nemerosa.ontrack.common.Time
+import net.nemerosa.ontrack.job.*
+import net.nemerosa.ontrack.model.support.JobProvider
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import net.nemerosa.ontrack.model.tx.TransactionHelper
+import net.nemerosa.ontrack.repository.EventRepository
+import org.springframework.stereotype.Component
+
+/**
+ * Deletes the events older than `ontrack.config.events.retention`, oldest first
+ * and in small batches, so that the `EVENTS` table keeps a bounded size.
+ */
+@Component
+class EventRetentionJob(
+    private val ontrackConfigProperties: OntrackConfigProperties,
+    private val eventRepository: EventRepository,
+    private val transactionHelper: TransactionHelper,
+) : JobProvider, Job {
+
+    override fun getStartingJobs(): Collection<JobRegistration> =
+        listOf(
+            JobRegistration.of(this).withSchedule(Schedule.EVERY_DAY)
+        )
+
+    override fun getKey(): JobKey =
+        JobCategory.CORE.getType("events").withName("Events")
+            .getKey("retention")
+
+    override fun getTask() = JobRun { listener ->
+        val before = Time.now().minus(ontrackConfigProperties.events.retention)
+        var total = 0
+        do {
+            val deleted = transactionHelper.inNewTransaction {
+                eventRepository.deleteBefore(before, BATCH)
+            }
+            total += deleted
+            if (deleted > 0) {
+                listener.message("Deleted $total events created before $before")
+            }
+        } while (deleted >= BATCH)
+    }
+
+    override fun getDescription(): String = "Deletion of the old events"
+
+    override fun isDisabled(): Boolean = ontrackConfigProperties.events.retention.isZero
+
+    companion object {
+        /**
+         * Maximum number of events to delete in one transaction
+         */
+        private const val BATCH = 1_000
+    }
+}
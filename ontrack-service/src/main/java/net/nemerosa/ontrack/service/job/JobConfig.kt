@@ -2,9 +2,11 @@ package net.nemerosa.ontrack.service.job
 
 import io.micrometer.core.instrument.MeterRegistry
 import net.nemerosa.ontrack.common.Time
+import net.nemerosa.ontrack.job.JobLeases
 import net.nemerosa.ontrack.job.JobListener
 import net.nemerosa.ontrack.job.JobScheduler
 import net.nemerosa.ontrack.job.support.DefaultJobScheduler
+import net.nemerosa.ontrack.job.support.JobExecutors
 import net.nemerosa.ontrack.job.support.TaskExecutor
 import net.nemerosa.ontrack.model.support.ApplicationLogService
 import net.nemerosa.ontrack.model.support.OntrackConfigProperties
@@ -26,6 +28,8 @@ class JobConfig(
     private val logService: ApplicationLogService,
     private val meterRegistry: MeterRegistry,
     private val settingsRepository: SettingsRepository,
+    private val jobLeases: JobLeases,
+    private val jobExecutors: JobExecutors,
 ) {
     @Bean
     fun jobListener(): JobListener = DefaultJobListener(
@@ -35,11 +39,11 @@ class JobConfig(
     )
 
     private fun jobTaskScheduler(): TaskScheduler = ThreadPoolTaskScheduler().apply {
-        poolSize = ontrackConfigProperties.jobs.poolSize
+        poolSize = ontrackConfigProperties.jobs.schedulerPoolSize
         setThreadFactory(
             BasicThreadFactory.Builder()
                 .daemon(true)
-                .namingPattern("job-%s")
+                .namingPattern("job-scheduler-%s")
                 .build()
         )
         initialize()
@@ -75,6 +79,8 @@ class JobConfig(
             meterRegistry = meterRegistry,
             timeout = jobConfigProperties.timeout,
             timeoutControllerInterval = jobConfigProperties.timeoutControllerInterval,
+            jobLeases = jobLeases.takeIf { jobConfigProperties.cluster },
+            jobExecutors = jobExecutors,
         )
     }
 }
\ No newline at end of file
@@ -0,0 +1,129 @@
+package net.nemerosa.ontrack.service.job
+
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Tag
+import io.micrometer.core.instrument.Timer
+import net.nemerosa.ontrack.job.JobCategory
+import net.nemerosa.ontrack.job.JobKey
+import net.nemerosa.ontrack.job.support.JobExecutors
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import org.apache.commons.lang3.concurrent.BasicThreadFactory
+import org.springframework.stereotype.Component
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import javax.annotation.PreDestroy
+
+/**
+ * Pools used to run the jobs.
+ *
+ * The categories listed in `ontrack.config.jobs.category-pool-sizes` get their own pool, so that
+ * their long-running jobs do not delay the other ones. All the other jobs share a pool whose size
+ * is given by `ontrack.config.jobs.pool-size`.
+ *
+ * For each category, the number of queued jobs, the time spent in the queue and the run time
+ * are exported as metrics.
+ */
+@Component
+class JobExecutorsImpl(
+    ontrackConfigProperties: OntrackConfigProperties,
+    private val meterRegistry: MeterRegistry,
+) : JobExecutors {
+
+    private val properties = ontrackConfigProperties.jobs
+
+    private val sharedPool = createPool("shared", properties.poolSize)
+
+    private val categoryPools: Map<String, ThreadPoolExecutor> =
+        properties.categoryPoolSizes.mapValues { (category, size) -> createPool(category, size) }
+
+    private val executors = ConcurrentHashMap<JobCategory, CategoryExecutor>()
+
+    @PreDestroy
+    fun stop() {
+        sharedPool.shutdownNow()
+        categoryPools.values.forEach { it.shutdownNow() }
+    }
+
+    override fun getExecutor(key: JobKey): Executor =
+        executors.computeIfAbsent(key.type.category) { category ->
+            CategoryExecutor(category, categoryPools[category.key] ?: sharedPool)
+        }
+
+    private fun createPool(name: String, size: Int) = ThreadPoolExecutor(
+        size,
+        size,
+        1,
+        TimeUnit.MINUTES,
+        LinkedBlockingQueue(),
+        BasicThreadFactory.Builder()
+            .daemon(true)
+            .namingPattern("job-$name-%s")
+            .build()
+    ).apply {
+        allowCoreThreadTimeOut(true)
+    }
+
+    /**
+     * Executor for the jobs of one category, measuring their queueing & run times.
+     */
+    private inner class CategoryExecutor(
+        category: JobCategory,
+        private val pool: Executor,
+    ) : Executor {
+
+        private val tags = listOf(Tag.of("job-category", category.key))
+
+        private val queued = meterRegistry.gauge(METRIC_QUEUE_SIZE, tags, AtomicInteger())!!
+
+        private val waitTimer = Timer.builder(METRIC_QUEUE_WAIT)
+            .tags(tags)
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+
+        private val runTimer = Timer.builder(METRIC_RUN_TIME)
+            .tags(tags)
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+
+        override fun execute(command: Runnable) {
+            val submitted = System.nanoTime()
+            queued.incrementAndGet()
+            try {
+                pool.execute {
+                    queued.decrementAndGet()
+                    val start = System.nanoTime()
+                    waitTimer.record(start - submitted, TimeUnit.NANOSECONDS)
+                    try {
+                        command.run()
+                    } finally {
+                        runTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS)
+                    }
+                }
+            } catch (any: Exception) {
+                queued.decrementAndGet()
+                throw any
+            }
+        }
+    }
+
+    companion object {
+        /**
+         * Number of jobs waiting for a thread, per category
+         */
+        const val METRIC_QUEUE_SIZE = "ontrack_job_queue_size"
+
+        /**
+         * Time spent by the jobs waiting for a thread, per category
+         */
+        const val METRIC_QUEUE_WAIT = "ontrack_job_queue_wait"
+
+        /**
+         * Run time of the jobs, per category
+         */
+        const val METRIC_RUN_TIME = "ontrack_job_category_run_time"
+    }
+}
@@ -0,0 +1,159 @@
+package net.nemerosa.ontrack.service.job
+
+import net.nemerosa.ontrack.common.Time
+import net.nemerosa.ontrack.job.JobKey
+import net.nemerosa.ontrack.job.JobLeases
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import net.nemerosa.ontrack.model.support.ScheduledService
+import net.nemerosa.ontrack.repository.JobLeaseRepository
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import org.springframework.scheduling.Trigger
+import org.springframework.scheduling.support.PeriodicTrigger
+import org.springframework.stereotype.Component
+import java.net.InetAddress
+import java.time.LocalDateTime
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+
+/**
+ * Leases on the jobs, stored in the `JOB_LEASES` table and used when `ontrack.config.jobs.cluster`
+ * is enabled.
+ *
+ * Each node registers itself in the `JOB_NODES` table and renews its own leases on a regular basis.
+ * A node does not take more than its fair share of the jobs (number of jobs divided by the number of
+ * live nodes) and releases its surplus jobs when they complete, so that the jobs get balanced
+ * between the nodes. A job left without any owner for more than a lease duration is taken anyway.
+ */
+@Component
+class JobLeasesImpl(
+    private val jobLeaseRepository: JobLeaseRepository,
+    ontrackConfigProperties: OntrackConfigProperties,
+) : JobLeases, ScheduledService {
+
+    private val logger: Logger = LoggerFactory.getLogger(JobLeasesImpl::class.java)
+
+    private val properties = ontrackConfigProperties.jobs
+
+    override val node: String by lazy {
+        properties.node.takeIf { it.isNotBlank() } ?: InetAddress.getLocalHost().hostName
+    }
+
+    /**
+     * Keys of all the jobs this node is asked to run
+     */
+    private val keys: MutableSet<String> = ConcurrentHashMap.newKeySet()
+
+    /**
+     * Keys of the jobs whose leases are owned by this node
+     */
+    private val held: MutableSet<String> = ConcurrentHashMap.newKeySet()
+
+    /**
+     * Jobs not taken because of the fair share, with the time they were refused first
+     */
+    private val waiting = ConcurrentHashMap<String, LocalDateTime>()
+
+    /**
+     * Owners of the jobs, as of the last renewal
+     */
+    @Volatile
+    private var owners: Map<String, String> = emptyMap()
+
+    /**
+     * Number of live nodes, as of the last renewal
+     */
+    @Volatile
+    private var nodes = 1
+
+    override fun acquire(key: JobKey): Boolean {
+        val id = key.toString()
+        keys += id
+        if (id in held) {
+            return true
+        }
+        val now = Time.now()
+        if (held.size >= fairShare()) {
+            val since = waiting.computeIfAbsent(id) { now }
+            if (since.plus(properties.leaseDuration) > now) {
+                return false
+            }
+        }
+        return try {
+            jobLeaseRepository.acquire(id, node, now, now.plus(properties.leaseDuration)).also { acquired ->
+                waiting.remove(id)
+                if (acquired) {
+                    logger.debug("[job][lease]{} Lease taken by {}", key, node)
+                    held += id
+                    owners = owners + (id to node)
+                }
+            }
+        } catch (any: Exception) {
+            logger.error("[job][lease]$key Cannot take the lease", any)
+            false
+        }
+    }
+
+    override fun done(key: JobKey) {
+        val id = key.toString()
+        if (id in held && held.size > fairShare()) {
+            logger.debug("[job][lease]{} Lease released by {} for balancing", key, node)
+            held -= id
+            owners = owners - id
+            release(id)
+        }
+    }
+
+    override fun forget(key: JobKey) {
+        val id = key.toString()
+        keys -= id
+        waiting -= id
+        if (held.remove(id)) {
+            logger.debug("[job][lease]{} Lease released by {} after unscheduling", key, node)
+            owners = owners - id
+            release(id)
+        }
+    }
+
+    private fun release(id: String) {
+        try {
+            jobLeaseRepository.release(id, node)
+        } catch (any: Exception) {
+            // The lease will expire by itself
+            logger.error("[job][lease]$id Cannot release the lease", any)
+        }
+    }
+
+    override fun getOwner(key: JobKey): String? = owners[key.toString()]
+
+    private fun fairShare(): Int = (keys.size + nodes - 1) / nodes
+
+    /**
+     * Registers this node as alive, renews its leases and refreshes the view of the cluster.
+     */
+    fun renew() {
+        if (properties.cluster) {
+            try {
+                val now = Time.now()
+                val expires = now.plus(properties.leaseDuration)
+                jobLeaseRepository.heartbeat(node, expires)
+                val renewed = jobLeaseRepository.renew(node, now, expires).toSet()
+                // Leases which have expired in the meantime may have been taken by other nodes
+                held.retainAll(renewed)
+                // Leases of jobs which are not scheduled any longer must not be kept alive
+                (renewed - keys).forEach { release(it) }
+                nodes = jobLeaseRepository.findNodes(now).size.coerceAtLeast(1)
+                owners = jobLeaseRepository.findOwners(now)
+            } catch (any: Exception) {
+                logger.error("[job][lease] Cannot renew the leases of $node", any)
+            }
+        }
+    }
+
+    override fun getTask() = Runnable { renew() }
+
+    override fun getTrigger(): Trigger = PeriodicTrigger(
+        (properties.leaseDuration.toMillis() / 3).coerceAtLeast(1000),
+        TimeUnit.MILLISECONDS
+    )
+}
@@ -1,5 +1,6 @@
 package net.nemerosa.ontrack.service.job
 
+import io.micrometer.core.instrument.MeterRegistry
 import net.nemerosa.ontrack.job.JobRegistration
 import net.nemerosa.ontrack.job.JobScheduler
 import net.nemerosa.ontrack.job.Schedule
@@ -17,6 +18,7 @@ class JobOrchestrationConfig(
     private val configProperties: OntrackConfigProperties,
     private val jobScheduler: JobScheduler,
     private val platformTransactionManager: PlatformTransactionManager,
+    private val meterRegistry: MeterRegistry,
     @Autowired(required = false)
     private val jobOrchestratorSuppliers: Collection<JobOrchestratorSupplier>?
 ) {
@@ -27,7 +29,9 @@ class JobOrchestrationConfig(
             jobScheduler,
             "Collection of jobs",
             jobOrchestratorSuppliers ?: emptyList(),
-            platformTransactionManager
+            platformTransactionManager,
+            fullInterval = configProperties.jobs.fullOrchestration,
+            meterRegistry = meterRegistry,
         )
 
     @Bean
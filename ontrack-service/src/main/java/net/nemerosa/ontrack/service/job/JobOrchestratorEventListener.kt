@@ -0,0 +1,96 @@
+package net.nemerosa.ontrack.service.job
+
+import net.nemerosa.ontrack.job.orchestrator.JobOrchestrator
+import net.nemerosa.ontrack.model.events.Event
+import net.nemerosa.ontrack.model.events.EventFactory
+import net.nemerosa.ontrack.model.events.EventListener
+import net.nemerosa.ontrack.model.security.SecurityService
+import net.nemerosa.ontrack.model.structure.Project
+import net.nemerosa.ontrack.model.structure.ProjectEntityType
+import net.nemerosa.ontrack.model.structure.StructureService
+import net.nemerosa.ontrack.model.support.ProjectJobOrchestratorSupplier
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import org.springframework.stereotype.Component
+
+/**
+ * Reconciles the jobs of a project whenever this project, one of its branches or one of
+ * their properties is changed.
+ *
+ * Deletions of projects and changes of configurations cannot be mapped to the jobs of a
+ * given project and trigger a full reconciliation on the next orchestration instead.
+ */
+@Component
+class JobOrchestratorEventListener(
+    private val jobOrchestrator: JobOrchestrator,
+    private val suppliers: List<ProjectJobOrchestratorSupplier>,
+    private val structureService: StructureService,
+    private val securityService: SecurityService,
+) : EventListener {
+
+    private val logger: Logger = LoggerFactory.getLogger(JobOrchestratorEventListener::class.java)
+
+    override fun onEvent(event: Event) {
+        if (suppliers.isEmpty()) {
+            return
+        }
+        when (event.eventType) {
+            in projectEvents -> reconcile(event)
+            in propertyEvents -> if (event.ref == ProjectEntityType.PROJECT || event.ref == ProjectEntityType.BRANCH) {
+                reconcile(event)
+            }
+            in globalEvents -> jobOrchestrator.requestFullReconciliation()
+        }
+    }
+
+    private fun reconcile(event: Event) {
+        val project = event.entities[ProjectEntityType.PROJECT] as Project? ?: return
+        securityService.asAdmin {
+            // Up-to-date version of the project
+            val current = structureService.findProjectByID(project.id)
+            suppliers.forEach { supplier ->
+                try {
+                    val registrations = if (current != null) {
+                        supplier.getJobRegistrations(current)
+                    } else {
+                        emptyList()
+                    }
+                    // Job keys are based on the project ID and survive a renaming
+                    jobOrchestrator.reconcile(supplier, registrations) { key ->
+                        supplier.isProjectJob(key, project)
+                    }
+                } catch (any: Exception) {
+                    // The next full reconciliation will fix the jobs
+                    logger.error("Cannot reconcile the jobs of ${supplier::class.java.name} for project ${project.name}", any)
+                    jobOrchestrator.requestFullReconciliation()
+                }
+            }
+        }
+    }
+
+    companion object {
+        private val projectEvents = setOf(
+            EventFactory.NEW_PROJECT,
+            EventFactory.UPDATE_PROJECT,
+            EventFactory.ENABLE_PROJECT,
+            EventFactory.DISABLE_PROJECT,
+            EventFactory.NEW_BRANCH,
+            EventFactory.UPDATE_BRANCH,
+            EventFactory.ENABLE_BRANCH,
+            EventFactory.DISABLE_BRANCH,
+            EventFactory.DELETE_BRANCH,
+        )
+
+        private val propertyEvents = setOf(
+            EventFactory.PROPERTY_CHANGE,
+            EventFactory.PROPERTY_DELETE,
+        )
+
+        private val globalEvents = setOf(
+            EventFactory.DELETE_PROJECT,
+            EventFactory.NEW_CONFIGURATION,
+            EventFactory.UPDATE_CONFIGURATION,
+            EventFactory.DELETE_CONFIGURATION,
+        )
+    }
+}
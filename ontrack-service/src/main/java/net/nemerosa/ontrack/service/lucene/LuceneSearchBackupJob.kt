@@ -0,0 +1,58 @@
+package net.nemerosa.ontrack.service.lucene
+
+import net.nemerosa.ontrack.common.Time
+import net.nemerosa.ontrack.job.*
+import net.nemerosa.ontrack.model.support.JobProvider
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import net.nemerosa.ontrack.model.support.SearchConfigProperties
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.stereotype.Component
+import java.io.File
+import java.time.format.DateTimeFormatter
+
+/**
+ * Copies a snapshot of the Lucene indexes into the backup directory
+ * (`ontrack.config.search.lucene.backup-directory`), one subdirectory per backup.
+ *
+ * The indexes remain available for both indexation & search during the backup.
+ */
+@Component
+@ConditionalOnProperty(
+    name = [OntrackConfigProperties.SEARCH_ENGINE],
+    havingValue = SearchConfigProperties.LUCENE,
+)
+class LuceneSearchBackupJob(
+    private val luceneSearchIndexes: LuceneSearchIndexes,
+    ontrackConfigProperties: OntrackConfigProperties,
+) : JobProvider, Job {
+
+    private val properties = ontrackConfigProperties.search.lucene
+
+    override fun getStartingJobs() = listOf(
+        JobRegistration(
+            this,
+            if (properties.backupCron.isNotBlank()) {
+                Schedule.cron(properties.backupCron)
+            } else {
+                Schedule.NONE
+            }
+        )
+    )
+
+    override fun getKey(): JobKey =
+        JobCategory.CORE.getType("search").withName("Search jobs").getKey("lucene-backup")
+
+    override fun getTask() = JobRun { listener ->
+        val target = File(properties.backupDirectory)
+            .toPath()
+            .resolve(Time.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")))
+        listener.message("Backup of the search indexes into %s", target)
+        val count = luceneSearchIndexes.backup(target)
+        listener.message("%d files copied", count)
+    }
+
+    override fun getDescription(): String = "Backup of the search indexes"
+
+    override fun isDisabled(): Boolean = properties.backupDirectory.isBlank()
+
+}
@@ -0,0 +1,211 @@
+package net.nemerosa.ontrack.service.lucene
+
+import com.fasterxml.jackson.databind.JsonNode
+import net.nemerosa.ontrack.json.parseAsJson
+import net.nemerosa.ontrack.model.structure.SearchIndexMapping
+import org.apache.lucene.analysis.Analyzer
+import org.apache.lucene.index.*
+import org.apache.lucene.search.*
+import org.apache.lucene.store.MMapDirectory
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.io.Closeable
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+
+/**
+ * Lucene index stored on the local disk and accessed through memory mapping.
+ *
+ * The index writer is shared by all the threads. The changes become visible
+ * to the searches when the index is [refreshed][refresh] (near-real-time search)
+ * and are persisted when the index is [committed][commit].
+ *
+ * @param name Name of the index
+ * @param path Directory containing the index
+ * @param analyzer Analyzer for the text fields
+ */
+class LuceneSearchIndex(
+    val name: String,
+    path: Path,
+    private val analyzer: Analyzer,
+) : Closeable {
+
+    private val logger: Logger = LoggerFactory.getLogger(LuceneSearchIndex::class.java)
+
+    private val directory = MMapDirectory(path)
+
+    /**
+     * Keeps the commits used by the backups
+     */
+    private val snapshots = SnapshotDeletionPolicy(KeepOnlyLastCommitDeletionPolicy())
+
+    private val writer = IndexWriter(
+        directory,
+        IndexWriterConfig(analyzer)
+            .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+            .setIndexDeletionPolicy(snapshots)
+    )
+
+    private val searcherManager = SearcherManager(writer, SearcherFactory())
+
+    @Volatile
+    var mapping = LuceneSearchMapping(null, analyzer)
+        private set
+
+    /**
+     * Sets the mapping to use for the next documents.
+     */
+    fun updateMapping(mapping: SearchIndexMapping?) {
+        this.mapping = LuceneSearchMapping(mapping, analyzer)
+    }
+
+    /**
+     * Creates or replaces an item.
+     */
+    fun index(id: String, source: JsonNode) {
+        writer.updateDocument(idTerm(id), mapping.toDocument(id, source))
+    }
+
+    /**
+     * Deletes an item.
+     */
+    fun delete(id: String) {
+        writer.deleteDocuments(idTerm(id))
+    }
+
+    /**
+     * Deletes all the items.
+     */
+    fun deleteAll() {
+        writer.deleteAll()
+    }
+
+    /**
+     * Checks if an item exists, as of the last refresh.
+     */
+    fun exists(id: String): Boolean =
+        withSearcher { searcher ->
+            searcher.count(TermQuery(idTerm(id))) > 0
+        }
+
+    /**
+     * Searches the index.
+     *
+     * @param query Lucene query
+     * @param size Maximum number of hits to return
+     * @param after Last hit of the previous page, if any
+     */
+    fun search(query: Query, size: Int, after: ScoreDoc? = null): LuceneSearchHits =
+        withSearcher { searcher ->
+            val topDocs = if (after != null) {
+                searcher.searchAfter(after, query, size)
+            } else {
+                searcher.search(query, size)
+            }
+            LuceneSearchHits(
+                total = topDocs.totalHits.value,
+                hits = topDocs.scoreDocs.map { scoreDoc ->
+                    val document = searcher.doc(scoreDoc.doc)
+                    LuceneSearchHit(
+                        index = name,
+                        id = document.get(LuceneSearchMapping.ID_FIELD),
+                        score = scoreDoc.score,
+                        source = document.get(LuceneSearchMapping.SOURCE_FIELD).parseAsJson(),
+                        scoreDoc = scoreDoc,
+                    )
+                },
+            )
+        }
+
+    private fun <R> withSearcher(code: (IndexSearcher) -> R): R {
+        val searcher = searcherManager.acquire()
+        try {
+            return code(searcher)
+        } finally {
+            searcherManager.release(searcher)
+        }
+    }
+
+    /**
+     * Makes the changes visible to the searches.
+     *
+     * @param blocking If `true`, waits for any concurrent refresh
+     */
+    fun refresh(blocking: Boolean = false) {
+        if (blocking) {
+            searcherManager.maybeRefreshBlocking()
+        } else {
+            searcherManager.maybeRefresh()
+        }
+    }
+
+    /**
+     * Persists the changes on the disk.
+     */
+    fun commit() {
+        if (writer.hasUncommittedChanges()) {
+            writer.commit()
+        }
+    }
+
+    /**
+     * Copies the files of the last commit into a directory, without blocking the writes.
+     *
+     * @param target Directory to copy the files into
+     * @return Number of copied files
+     */
+    fun backup(target: Path): Int {
+        // Makes sure all the changes are part of the snapshot
+        writer.commit()
+        val commit = snapshots.snapshot()
+        try {
+            Files.createDirectories(target)
+            val files = commit.fileNames
+            files.forEach { file ->
+                Files.copy(directory.directory.resolve(file), target.resolve(file), StandardCopyOption.REPLACE_EXISTING)
+            }
+            logger.info("[search][lucene][$name] Backup of ${files.size} files into $target")
+            return files.size
+        } finally {
+            snapshots.release(commit)
+            writer.deleteUnusedFiles()
+        }
+    }
+
+    override fun close() {
+        searcherManager.close()
+        writer.close()
+        directory.close()
+    }
+
+    private fun idTerm(id: String) = Term(LuceneSearchMapping.ID_FIELD, id)
+}
+
+/**
+ * Page of hits
+ *
+ * @property total Total number of hits
+ * @property hits Hits in this page
+ */
+class LuceneSearchHits(
+    val total: Long,
+    val hits: List<LuceneSearchHit>,
+)
+
+/**
+ * Search hit
+ *
+ * @property index Name of the index
+ * @property id ID of the item
+ * @property score Score of the hit
+ * @property source Fields of the item
+ * @property scoreDoc Lucene hit, used for the pagination
+ */
+class LuceneSearchHit(
+    val index: String,
+    val id: String,
+    val score: Float,
+    val source: JsonNode,
+    val scoreDoc: ScoreDoc,
+)
@@ -0,0 +1,146 @@
+package net.nemerosa.ontrack.service.lucene
+
+import com.fasterxml.jackson.databind.JsonNode
+import net.nemerosa.ontrack.job.JobRunListener
+import net.nemerosa.ontrack.json.asJson
+import net.nemerosa.ontrack.model.search.SearchQuery
+import net.nemerosa.ontrack.model.structure.*
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import net.nemerosa.ontrack.model.support.SearchConfigProperties
+import net.nemerosa.ontrack.service.support.indexPartitionsInParallel
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.stereotype.Service
+import org.springframework.transaction.annotation.Transactional
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Management of the search indexes using the embedded Lucene indexes.
+ */
+@Service
+@ConditionalOnProperty(
+    name = [OntrackConfigProperties.SEARCH_ENGINE],
+    havingValue = SearchConfigProperties.LUCENE,
+)
+@Transactional
+class LuceneSearchIndexService(
+    private val luceneSearchIndexes: LuceneSearchIndexes,
+    private val ontrackConfigProperties: OntrackConfigProperties,
+) : SearchIndexService {
+
+    private val logger: Logger = LoggerFactory.getLogger(LuceneSearchIndexService::class.java)
+
+    override val searchIndexesAvailable: Boolean = true
+
+    override fun <T : SearchItem> initIndex(indexer: SearchIndexer<T>) {
+        logger.info("[search][lucene][${indexer.indexName}] Init")
+        luceneSearchIndexes.getIndex(indexer).updateMapping(indexer.indexMapping)
+    }
+
+    override fun <T : SearchItem> index(indexer: SearchIndexer<T>) {
+        index(indexer, JobRunListener.logger(logger))
+    }
+
+    override fun <T : SearchItem> index(indexer: SearchIndexer<T>, listener: JobRunListener) {
+        val index = luceneSearchIndexes.getIndex(indexer)
+        val count = AtomicLong()
+        val processor: (T) -> Unit = { item ->
+            index.index(item.id, item.fields.asJson())
+            count.incrementAndGet()
+        }
+        val partitions = if (indexer is PartitionedSearchIndexer<T>) indexer.getIndexPartitions() else emptyList()
+        if (indexer !is PartitionedSearchIndexer<T> || partitions.isEmpty()) {
+            logger.debug("Full indexation for ${indexer.indexName}")
+            indexer.indexAll(processor)
+        } else {
+            logger.debug("Full indexation for ${indexer.indexName} with ${partitions.size} partitions")
+            indexPartitionsInParallel(indexer, partitions, ontrackConfigProperties.search.index.parallelism, listener) { partition ->
+                indexer.indexPartition(partition, processor)
+            }
+        }
+        index.commit()
+        index.refresh(blocking = true)
+        listener.message("[%s] %d items indexed", indexer.indexName, count.get())
+    }
+
+    override fun <T : SearchItem> resetIndex(indexer: SearchIndexer<T>, reindex: Boolean): Boolean {
+        val index = luceneSearchIndexes.getIndex(indexer)
+        index.deleteAll()
+        initIndex(indexer)
+        if (reindex) {
+            index(indexer)
+        }
+        index.commit()
+        index.refresh(blocking = true)
+        return true
+    }
+
+    override fun <T : SearchItem> createSearchIndex(indexer: SearchIndexer<T>, item: T) {
+        luceneSearchIndexes.getIndex(indexer).index(item.id, item.fields.asJson())
+        immediateRefreshIfRequested(indexer)
+    }
+
+    override fun <T : SearchItem> updateSearchIndex(indexer: SearchIndexer<T>, item: T) {
+        luceneSearchIndexes.getIndex(indexer).index(item.id, item.fields.asJson())
+    }
+
+    override fun <T : SearchItem> deleteSearchIndex(indexer: SearchIndexer<T>, id: String) {
+        luceneSearchIndexes.getIndex(indexer).delete(id)
+        immediateRefreshIfRequested(indexer)
+    }
+
+    override fun <T : SearchItem> batchSearchIndex(
+        indexer: SearchIndexer<T>,
+        items: Collection<T>,
+        mode: BatchIndexMode,
+    ): BatchIndexResults {
+        val index = luceneSearchIndexes.getIndex(indexer)
+        // Makes sure the pending changes are taken into account
+        index.refresh(blocking = true)
+        val indexed = mutableSetOf<String>()
+        val results = items.fold(BatchIndexResults.NONE) { acc, item ->
+            val result = if (item.id in indexed || index.exists(item.id)) {
+                when (mode) {
+                    BatchIndexMode.KEEP -> BatchIndexResults.KEEP
+                    BatchIndexMode.UPDATE -> {
+                        index.index(item.id, item.fields.asJson())
+                        BatchIndexResults.UPDATE
+                    }
+                }
+            } else {
+                index.index(item.id, item.fields.asJson())
+                BatchIndexResults.ADD
+            }
+            indexed += item.id
+            acc + result
+        }
+        logger.info("[search][batch-index] index=${indexer.indexName},items=${items.size},mode=$mode,results=$results")
+        immediateRefreshIfRequested(indexer)
+        return results
+    }
+
+    override fun <T : SearchItem> query(
+        indexer: SearchIndexer<T>,
+        size: Int,
+        query: SearchQuery,
+        handler: (source: JsonNode) -> Unit,
+    ) {
+        val index = luceneSearchIndexes.getIndex(indexer)
+        val luceneQuery = index.mapping.query(query)
+        var after: LuceneSearchHit? = null
+        do {
+            val hits = index.search(luceneQuery, size, after?.scoreDoc).hits
+            hits.forEach { hit ->
+                handler(hit.source)
+            }
+            after = hits.lastOrNull()
+        } while (hits.size >= size)
+    }
+
+    private fun <T : SearchItem> immediateRefreshIfRequested(indexer: SearchIndexer<T>) {
+        if (ontrackConfigProperties.search.index.immediate) {
+            luceneSearchIndexes.getIndex(indexer).refresh(blocking = true)
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package net.nemerosa.ontrack.service.lucene
+
+import net.nemerosa.ontrack.model.structure.SearchIndexer
+import net.nemerosa.ontrack.model.support.EnvService
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import net.nemerosa.ontrack.model.support.ScheduledService
+import net.nemerosa.ontrack.model.support.SearchConfigProperties
+import org.apache.lucene.analysis.standard.StandardAnalyzer
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.scheduling.Trigger
+import org.springframework.scheduling.support.PeriodicTrigger
+import org.springframework.stereotype.Component
+import java.io.File
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import javax.annotation.PreDestroy
+
+/**
+ * Registry of the embedded Lucene indexes, one per search indexer.
+ *
+ * The indexes are refreshed on a regular basis (`ontrack.config.search.lucene.refresh`)
+ * so that the indexed items become visible to the search, and committed on the disk
+ * less often (`ontrack.config.search.lucene.commit`).
+ */
+@Component
+@ConditionalOnProperty(
+    name = [OntrackConfigProperties.SEARCH_ENGINE],
+    havingValue = SearchConfigProperties.LUCENE,
+)
+class LuceneSearchIndexes(
+    ontrackConfigProperties: OntrackConfigProperties,
+    envService: EnvService,
+) : ScheduledService {
+
+    private val logger: Logger = LoggerFactory.getLogger(LuceneSearchIndexes::class.java)
+
+    private val properties = ontrackConfigProperties.search.lucene
+
+    private val root: Path = properties.directory
+        .takeIf { it.isNotBlank() }
+        ?.let { File(it).toPath() }
+        ?: envService.getWorkingDir("search", "lucene").toPath()
+
+    private val analyzer = StandardAnalyzer()
+
+    private val indexes = ConcurrentHashMap<String, LuceneSearchIndex>()
+
+    @Volatile
+    private var lastCommit = System.nanoTime()
+
+    init {
+        logger.info("[search][lucene] Indexes stored in $root")
+    }
+
+    /**
+     * Gets the index for an indexer, opening it if needed.
+     */
+    fun getIndex(indexer: SearchIndexer<*>): LuceneSearchIndex =
+        indexes.computeIfAbsent(indexer.indexName) { name ->
+            val path = root.resolve(name)
+            Files.createDirectories(path)
+            LuceneSearchIndex(name, path, analyzer).apply {
+                updateMapping(indexer.indexMapping)
+            }
+        }
+
+    /**
+     * Gets an index by name, only if already opened.
+     */
+    fun findIndex(name: String): LuceneSearchIndex? = indexes[name]
+
+    /**
+     * All opened indexes
+     */
+    val allIndexes: Collection<LuceneSearchIndex> get() = indexes.values
+
+    /**
+     * Copies a snapshot of all the indexes into a directory.
+     *
+     * @param target Directory which contains one subdirectory per index
+     * @return Number of copied files
+     */
+    fun backup(target: Path): Int =
+        indexes.values.sumOf { index ->
+            index.backup(target.resolve(index.name))
+        }
+
+    /**
+     * Refreshes all the indexes and commits them if the commit interval has elapsed.
+     */
+    fun refresh() {
+        val commit = System.nanoTime() - lastCommit >= properties.commit.toNanos()
+        indexes.values.forEach { index ->
+            try {
+                index.refresh()
+                if (commit) {
+                    index.commit()
+                }
+            } catch (any: Exception) {
+                logger.error("[search][lucene][${index.name}] Cannot refresh the index", any)
+            }
+        }
+        if (commit) {
+            lastCommit = System.nanoTime()
+        }
+    }
+
+    override fun getTask() = Runnable { refresh() }
+
+    override fun getTrigger(): Trigger = PeriodicTrigger(properties.refresh.toMillis(), TimeUnit.MILLISECONDS)
+
+    @PreDestroy
+    fun close() {
+        indexes.values.forEach { index ->
+            try {
+                index.commit()
+                index.close()
+            } catch (any: Exception) {
+                logger.error("[search][lucene][${index.name}] Cannot close the index", any)
+            }
+        }
+        indexes.clear()
+    }
+}
@@ -0,0 +1,281 @@
+package net.nemerosa.ontrack.service.lucene
+
+import com.fasterxml.jackson.databind.JsonNode
+import net.nemerosa.ontrack.model.search.*
+import net.nemerosa.ontrack.model.structure.SearchIndexMapping
+import org.apache.lucene.analysis.Analyzer
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute
+import org.apache.lucene.document.*
+import org.apache.lucene.index.Term
+import org.apache.lucene.search.*
+import org.apache.lucene.util.BytesRef
+
+/**
+ * Translation of a [SearchIndexMapping] into Lucene fields & queries, mimicking
+ * the way ElasticSearch maps the same fields:
+ *
+ * * `keyword` fields are indexed as-is and matched exactly
+ * * `text` fields are analyzed and matched token by token
+ * * `long` & `date` fields are indexed as points
+ * * additional types of a field are indexed as sub-fields, like `name.text`
+ * * `object` fields and unmapped fields are indexed dynamically (strings as
+ *   text with a `.keyword` sub-field)
+ * * `nested` fields are only indexed for the field queries, not for the full text search
+ *
+ * Unmapped fields are also indexed into a [ALL_FIELD] catch-all field, used by the
+ * full text search.
+ */
+class LuceneSearchMapping(
+    mapping: SearchIndexMapping?,
+    private val analyzer: Analyzer,
+) {
+
+    /**
+     * Mapped fields, indexed by the name of the item field. The first one is the primary
+     * type, the other ones are the sub-fields.
+     */
+    private val mappedFields: Map<String, List<LuceneSearchField>> = mapping?.fields
+        ?.associate { field ->
+            field.name to field.types.mapIndexedNotNull { index, type ->
+                LuceneSearchFieldKind.of(type.type)?.let { kind ->
+                    LuceneSearchField(
+                        name = if (index == 0) field.name else "${field.name}.${type.type}",
+                        kind = kind,
+                        indexed = type.index ?: true,
+                        boost = type.scoreBoost?.toFloat(),
+                    )
+                }
+            }
+        }
+        ?.filterValues { it.isNotEmpty() }
+        ?: emptyMap()
+
+    /**
+     * All the mapped fields & sub-fields, indexed by their Lucene name.
+     */
+    private val fields: Map<String, LuceneSearchField> =
+        mappedFields.values.flatten().associateBy { it.name }
+
+    /**
+     * Converts the fields of an item into a Lucene document.
+     *
+     * @param id ID of the item
+     * @param source Fields of the item as JSON
+     */
+    fun toDocument(id: String, source: JsonNode): Document {
+        val document = Document()
+        document.add(StringField(ID_FIELD, id, Field.Store.YES))
+        document.add(StoredField(SOURCE_FIELD, source.toString()))
+        source.fields().forEach { (name, value) ->
+            addField(document, name, value, all = true)
+        }
+        return document
+    }
+
+    private fun addField(document: Document, name: String, value: JsonNode, all: Boolean) {
+        if (value.isArray) {
+            value.forEach { addField(document, name, it, all) }
+            return
+        }
+        val mapped = mappedFields[name]
+        if (mapped == null) {
+            addDynamicField(document, name, value, all)
+        } else {
+            mapped.filter { it.indexed }.forEach { field ->
+                addMappedField(document, field, value)
+            }
+        }
+    }
+
+    private fun addMappedField(document: Document, field: LuceneSearchField, value: JsonNode) {
+        when (field.kind) {
+            LuceneSearchFieldKind.KEYWORD -> if (value.isValueNode && !value.isNull) {
+                document.add(StringField(field.name, value.asText(), Field.Store.NO))
+            }
+            LuceneSearchFieldKind.TEXT -> if (value.isValueNode && !value.isNull) {
+                document.add(TextField(field.name, value.asText(), Field.Store.NO))
+            }
+            LuceneSearchFieldKind.LONG -> if (value.canConvertToLong()) {
+                document.add(LongPoint(field.name, value.asLong()))
+            }
+            LuceneSearchFieldKind.DATE -> if (value.canConvertToLong()) {
+                document.add(LongPoint(field.name, value.asLong()))
+            } else if (value.isTextual) {
+                document.add(StringField(field.name, value.asText(), Field.Store.NO))
+            }
+            LuceneSearchFieldKind.OBJECT -> value.fields().forEach { (childName, child) ->
+                addField(document, "${field.name}.$childName", child, all = true)
+            }
+            LuceneSearchFieldKind.NESTED -> value.fields().forEach { (childName, child) ->
+                addField(document, "${field.name}.$childName", child, all = false)
+            }
+        }
+    }
+
+    private fun addDynamicField(document: Document, name: String, value: JsonNode, all: Boolean) {
+        when {
+            value.isObject -> value.fields().forEach { (childName, child) ->
+                addField(document, "$name.$childName", child, all)
+            }
+            value.isIntegralNumber -> {
+                document.add(LongPoint(name, value.asLong()))
+                document.add(StringField("$name.$KEYWORD", value.asText(), Field.Store.NO))
+            }
+            value.isValueNode && !value.isNull -> {
+                val text = value.asText()
+                document.add(TextField(name, text, Field.Store.NO))
+                document.add(StringField("$name.$KEYWORD", text, Field.Store.NO))
+                if (all) {
+                    document.add(TextField(ALL_FIELD, text, Field.Store.NO))
+                }
+            }
+        }
+    }
+
+    /**
+     * Full text query on all the indexed fields, using the best matching field
+     * for the score (like the `best_fields` multi match query of ElasticSearch).
+     */
+    fun textQuery(token: String): Query {
+        val queries = fields.values
+            .filter { it.indexed }
+            .mapNotNull { field ->
+                val query = when (field.kind) {
+                    LuceneSearchFieldKind.KEYWORD -> TermQuery(Term(field.name, token))
+                    LuceneSearchFieldKind.TEXT -> analyzedQuery(field.name, token)
+                    LuceneSearchFieldKind.LONG -> token.toLongOrNull()?.let { LongPoint.newExactQuery(field.name, it) }
+                    else -> null
+                }
+                if (query != null && field.boost != null) {
+                    BoostQuery(query, field.boost)
+                } else {
+                    query
+                }
+            } + listOfNotNull(analyzedQuery(ALL_FIELD, token))
+        return DisjunctionMaxQuery(queries, 0.0f)
+    }
+
+    /**
+     * Converts a field query into a Lucene query.
+     */
+    fun query(query: SearchQuery): Query =
+        when (query) {
+            is SearchOrQuery -> DisjunctionMaxQuery(listOf(query(query.left), query(query.right)), 0.0f)
+            is SearchGtQuery -> rangeQuery(query.field, query.operand, gt = true)
+            is SearchLtQuery -> rangeQuery(query.field, query.operand, gt = false)
+            is SearchEqQuery -> eqQuery(query.field, query.operand)
+        }
+
+    private fun eqQuery(name: String, operand: Any): Query {
+        val field = fields[name]
+        return when {
+            operand is Number && (field == null || field.isNumeric) -> LongPoint.newExactQuery(name, operand.toLong())
+            field == null -> BooleanQuery.Builder()
+                .add(TermQuery(Term(name, operand.toString())), BooleanClause.Occur.SHOULD)
+                .add(TermQuery(Term("$name.$KEYWORD", operand.toString())), BooleanClause.Occur.SHOULD)
+                .build()
+            field.kind == LuceneSearchFieldKind.TEXT -> TermQuery(Term(name, operand.toString().lowercase()))
+            else -> TermQuery(Term(name, operand.toString()))
+        }
+    }
+
+    private fun rangeQuery(name: String, operand: Any, gt: Boolean): Query {
+        val field = fields[name]
+        return if (operand is Number && (field == null || field.isNumeric)) {
+            val value = operand.toLong()
+            if (gt) {
+                LongPoint.newRangeQuery(name, Math.addExact(value, 1), Long.MAX_VALUE)
+            } else {
+                LongPoint.newRangeQuery(name, Long.MIN_VALUE, Math.addExact(value, -1))
+            }
+        } else {
+            val term = BytesRef(operand.toString())
+            val keywordName = if (field == null) "$name.$KEYWORD" else name
+            if (gt) {
+                TermRangeQuery(keywordName, term, null, false, false)
+            } else {
+                TermRangeQuery(keywordName, null, term, false, false)
+            }
+        }
+    }
+
+    /**
+     * Analyzed query, matching any of the tokens of the text (like the `match` query
+     * of ElasticSearch).
+     */
+    private fun analyzedQuery(name: String, text: String): Query? {
+        val terms = mutableListOf<String>()
+        analyzer.tokenStream(name, text).use { stream ->
+            val attribute = stream.addAttribute(CharTermAttribute::class.java)
+            stream.reset()
+            while (stream.incrementToken()) {
+                terms += attribute.toString()
+            }
+            stream.end()
+        }
+        return when (terms.size) {
+            0 -> null
+            1 -> TermQuery(Term(name, terms.first()))
+            else -> BooleanQuery.Builder().apply {
+                terms.forEach { add(TermQuery(Term(name, it)), BooleanClause.Occur.SHOULD) }
+            }.build()
+        }
+    }
+
+    companion object {
+        /**
+         * Field containing the ID of the item
+         */
+        const val ID_FIELD = "_id"
+
+        /**
+         * Field containing the JSON representation of the item
+         */
+        const val SOURCE_FIELD = "_source"
+
+        /**
+         * Catch-all field used for the full text search on the unmapped fields
+         */
+        const val ALL_FIELD = "_all"
+
+        /**
+         * Sub-field used for the exact values of the unmapped fields
+         */
+        private const val KEYWORD = "keyword"
+    }
+}
+
+/**
+ * Mapped field
+ *
+ * @property name Name of the field, including the type for sub-fields
+ * @property kind Type of field
+ * @property indexed If the field is indexed at all
+ * @property boost Score boost for the full text search
+ */
+class LuceneSearchField(
+    val name: String,
+    val kind: LuceneSearchFieldKind,
+    val indexed: Boolean,
+    val boost: Float?,
+) {
+    val isNumeric: Boolean get() = kind == LuceneSearchFieldKind.LONG || kind == LuceneSearchFieldKind.DATE
+}
+
+/**
+ * Supported types of fields, using the ElasticSearch type names.
+ */
+enum class LuceneSearchFieldKind(
+    private val type: String,
+) {
+    KEYWORD("keyword"),
+    TEXT("text"),
+    LONG("long"),
+    DATE("date"),
+    OBJECT("object"),
+    NESTED("nested");
+
+    companion object {
+        fun of(type: String?): LuceneSearchFieldKind? = values().find { it.type == type }
+    }
+}
@@ -0,0 +1,126 @@
+package net.nemerosa.ontrack.service.lucene
+
+import net.nemerosa.ontrack.json.asJson
+import net.nemerosa.ontrack.json.toJsonMap
+import net.nemerosa.ontrack.model.Ack
+import net.nemerosa.ontrack.model.structure.*
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import net.nemerosa.ontrack.model.support.SearchConfigProperties
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.stereotype.Service
+import org.springframework.transaction.annotation.Transactional
+
+/**
+ * Search using the embedded Lucene indexes.
+ *
+ * Each index is searched separately and the hits are merged by score.
+ */
+@Service
+@ConditionalOnProperty(
+    name = [OntrackConfigProperties.SEARCH_ENGINE],
+    havingValue = SearchConfigProperties.LUCENE,
+)
+@Transactional
+class LuceneSearchServiceImpl(
+    private val luceneSearchIndexes: LuceneSearchIndexes,
+    private val searchIndexers: List<SearchIndexer<*>>,
+    private val searchIndexService: SearchIndexService,
+) : SearchService {
+
+    val indexers: Map<String, SearchIndexer<*>> by lazy {
+        searchIndexers.associateBy { it.indexName }
+    }
+
+    val indexerByResultType: Map<String, SearchIndexer<*>> by lazy {
+        searchIndexers.filter { it.searchResultType != null }.associateBy { it.searchResultType!!.id }
+    }
+
+    override fun paginatedSearch(request: SearchRequest): SearchResults = rawSearch(
+        token = request.token,
+        indexName = request.type?.let { type ->
+            indexerByResultType[type]?.indexName
+        },
+        offset = request.offset,
+        size = request.size,
+    ).run {
+        SearchResults(
+            items = items.mapNotNull { toResult(it) },
+            offset = offset,
+            total = total,
+            message = message,
+        )
+    }
+
+    override fun rawSearch(
+        token: String,
+        indexName: String?,
+        offset: Int,
+        size: Int,
+    ): SearchNodeResults {
+        val searchedIndexers = if (indexName != null) {
+            listOfNotNull(indexers[indexName])
+        } else {
+            indexers.values
+        }
+        // Collecting enough hits in each index for the requested page
+        val results = searchedIndexers.map { indexer ->
+            val index = luceneSearchIndexes.getIndex(indexer)
+            index.search(index.mapping.textQuery(token), offset + size)
+        }
+        val totalHits = results.sumOf { it.total }
+        // Merging the hits
+        val hits = results.flatMap { it.hits }
+            .sortedByDescending { it.score }
+            .drop(offset)
+            .take(size)
+            .map { hit ->
+                SearchResultNode(
+                    hit.index,
+                    hit.id,
+                    hit.score.toDouble(),
+                    hit.source.toJsonMap()
+                )
+            }
+        return SearchNodeResults(
+            items = hits,
+            offset = offset,
+            total = totalHits.toInt(),
+            message = when {
+                totalHits <= 0 -> "The number of total matches is not known and pagination is not possible."
+                else -> null
+            }
+        )
+    }
+
+    override val searchResultTypes: List<SearchResultType>
+        get() =
+            indexers
+                .mapNotNull { (_, indexer) -> indexer.searchResultType }
+                .sortedBy { it.order }
+
+    override fun indexReset(reindex: Boolean): Ack {
+        val ok = indexers.all { (_, indexer) ->
+            searchIndexService.resetIndex(indexer, reindex)
+        }
+        return Ack(ok)
+    }
+
+    override fun indexInit() {
+        indexers.forEach { (_, indexer) -> searchIndexService.initIndex(indexer) }
+    }
+
+    private fun toResult(hitNode: SearchResultNode): SearchResult? {
+        // Gets the indexer
+        val indexer = indexers[hitNode.index]
+        // Transformation
+        return indexer?.let { toResult(hitNode, it) }
+    }
+
+    private fun <T : SearchItem> toResult(hitNode: SearchResultNode, indexer: SearchIndexer<T>): SearchResult? =
+        indexer.toSearchResult(
+            hitNode.id,
+            hitNode.score,
+            hitNode.source.asJson()
+        )
+
+}
@@ -3,6 +3,7 @@ package net.nemerosa.ontrack.service.metrics
 import net.nemerosa.ontrack.extension.api.ExtensionManager
 import net.nemerosa.ontrack.extension.api.MetricsExportExtension
 import net.nemerosa.ontrack.job.*
+import net.nemerosa.ontrack.job.support.JobOwnedByAnotherNodeException
 import net.nemerosa.ontrack.model.metrics.MetricsReexportJobProvider
 import net.nemerosa.ontrack.model.support.JobProvider
 import org.springframework.stereotype.Component
@@ -37,7 +38,11 @@ class MetricsReexportJob(
         metricsReexportJobProviders.forEach { metricsReexportJobProvider ->
             val key = metricsReexportJobProvider.getReexportJobKey()
             listener.message("Launching (asynchronously) the re-exportation for $key...")
-            jobScheduler.fireImmediately(key).orElse(null)
+            try {
+                jobScheduler.fireImmediately(key).orElse(null)
+            } catch (ex: JobOwnedByAnotherNodeException) {
+                listener.message(ex.message)
+            }
         }
     }
 
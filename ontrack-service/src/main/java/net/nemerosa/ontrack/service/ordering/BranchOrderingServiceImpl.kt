@@ -4,6 +4,7 @@ import net.nemerosa.ontrack.model.ordering.BranchOrdering
 import net.nemerosa.ontrack.model.ordering.BranchOrderingService
 import net.nemerosa.ontrack.model.ordering.VersionUtils
 import net.nemerosa.ontrack.model.ordering.VersionUtils.semVerSuffixRegex
+import net.nemerosa.ontrack.model.ordering.compareBranchesByKeyDescending
 import net.nemerosa.ontrack.model.structure.Branch
 import net.nemerosa.ontrack.model.structure.BranchDisplayNameService
 import net.nemerosa.ontrack.model.structure.BranchNamePolicy
@@ -24,7 +25,7 @@ class BranchOrderingServiceImpl(
     override val branchOrderings: List<BranchOrdering> = index.values.sortedBy { it.id }
 
     override fun getSemVerBranchOrdering(branchNamePolicy: BranchNamePolicy): Comparator<Branch> {
-        return compareByDescending { branch ->
+        return compareBranchesByKeyDescending { branch ->
             val name = branchDisplayNameService.getBranchDisplayName(branch, branchNamePolicy)
             VersionUtils.getVersion(semVerSuffixRegex, name)
         }
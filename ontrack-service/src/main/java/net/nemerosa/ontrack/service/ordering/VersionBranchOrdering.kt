@@ -3,6 +3,7 @@ package net.nemerosa.ontrack.service.ordering
 import net.nemerosa.ontrack.common.Version
 import net.nemerosa.ontrack.common.toVersion
 import net.nemerosa.ontrack.model.ordering.BranchOrdering
+import net.nemerosa.ontrack.model.ordering.compareBranchesByKeyDescending
 import net.nemerosa.ontrack.model.structure.Branch
 import net.nemerosa.ontrack.model.structure.BranchDisplayNameService
 import org.springframework.stereotype.Component
@@ -21,7 +22,7 @@ class VersionBranchOrdering(
     override fun getComparator(param: String?): Comparator<Branch> {
         return if (param != null && param.isNotBlank()) {
             val regex = param.toRegex()
-            compareByDescending { it.getVersion(regex) }
+            compareBranchesByKeyDescending { it.getVersion(regex) }
         } else {
             throw IllegalArgumentException("`param` argument for the version branch ordering is required.")
         }
@@ -11,7 +11,8 @@ import org.springframework.transaction.annotation.Transactional
 @Service
 @Transactional
 class AccountGroupMappingServiceImpl(
-        private val accountGroupMappingRepository: AccountGroupMappingRepository
+        private val accountGroupMappingRepository: AccountGroupMappingRepository,
+        private val tokenAuthenticationCache: TokenAuthenticationCache,
 ) : AccountGroupMappingService {
 
     override fun getGroups(authenticationSource: AuthenticationSource, mappedName: String): Collection<AccountGroup> =
@@ -24,7 +25,9 @@ class AccountGroupMappingServiceImpl(
             accountGroupMappingRepository.getMappings(authenticationSource)
 
     override fun newMapping(authenticationSource: AuthenticationSource, input: AccountGroupMappingInput): AccountGroupMapping =
-            accountGroupMappingRepository.newMapping(authenticationSource, input)
+            accountGroupMappingRepository.newMapping(authenticationSource, input).also {
+                tokenAuthenticationCache.invalidateAll()
+            }
 
     override fun getMapping(authenticationSource: AuthenticationSource, id: ID): AccountGroupMapping {
         val o = accountGroupMappingRepository.getMapping(id)
@@ -37,12 +40,16 @@ class AccountGroupMappingServiceImpl(
 
     override fun updateMapping(authenticationSource: AuthenticationSource, id: ID, input: AccountGroupMappingInput): AccountGroupMapping {
         getMapping(authenticationSource, id)
-        return accountGroupMappingRepository.updateMapping(id, input)
+        return accountGroupMappingRepository.updateMapping(id, input).also {
+            tokenAuthenticationCache.invalidateAll()
+        }
     }
 
     override fun deleteMapping(authenticationSource: AuthenticationSource, id: ID): Ack {
         getMapping(authenticationSource, id)
-        return accountGroupMappingRepository.deleteMapping(id)
+        return accountGroupMappingRepository.deleteMapping(id).also {
+            tokenAuthenticationCache.invalidateAll()
+        }
     }
 
     override fun getMappingsForGroup(group: AccountGroup): List<AccountGroupMapping> {
@@ -51,6 +58,7 @@ class AccountGroupMappingServiceImpl(
 
     override fun deleteMappingsBySource(source: AuthenticationSource) {
         accountGroupMappingRepository.deleteMappingsBySource(source)
+        tokenAuthenticationCache.invalidateAll()
     }
 
 }
\ No newline at end of file
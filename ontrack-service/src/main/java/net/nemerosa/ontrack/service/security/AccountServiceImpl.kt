@@ -29,6 +29,7 @@ class AccountServiceImpl(
     private val securityService: SecurityService,
     private val accountGroupContributors: List<AccountGroupContributor>,
     private val builtinAuthenticationSourceProvider: BuiltinAuthenticationSourceProvider,
+    private val tokenAuthenticationCache: TokenAuthenticationCache,
 ) : AccountService {
 
     private val passwordEncoder: PasswordEncoder = PasswordEncoderFactories.createDelegatingPasswordEncoder()
@@ -123,6 +124,8 @@ class AccountServiceImpl(
         }
         // Account groups
         accountGroupRepository.linkAccountToGroups(account.id(), input.groups)
+        // Cached authentications
+        tokenAuthenticationCache.invalidateAll()
         // OK
         return getAccount(accountId)
     }
@@ -134,7 +137,9 @@ class AccountServiceImpl(
             throw AccountDefaultAdminCannotDeleteException()
         }
         // Deletion
-        return accountRepository.deleteAccount(accountId)
+        return accountRepository.deleteAccount(accountId).also {
+            tokenAuthenticationCache.invalidateAll()
+        }
     }
 
     override fun getAccountGroups(): List<AccountGroup> {
@@ -159,12 +164,15 @@ class AccountServiceImpl(
         securityService.checkGlobalFunction(AccountGroupManagement::class.java)
         val group = getAccountGroup(groupId).update(input)
         accountGroupRepository.update(group)
+        tokenAuthenticationCache.invalidateAll()
         return group
     }
 
     override fun deleteGroup(groupId: ID): Ack {
         securityService.checkGlobalFunction(AccountGroupManagement::class.java)
-        return accountGroupRepository.delete(groupId)
+        return accountGroupRepository.delete(groupId).also {
+            tokenAuthenticationCache.invalidateAll()
+        }
     }
 
     override fun getAccountGroupsForSelection(accountId: ID): List<AccountGroupSelection> { // Account groups or none
@@ -202,6 +210,8 @@ class AccountServiceImpl(
                 roleRepository.saveGlobalRoleForGroup(id, input.role)
             }
             else -> Ack.NOK
+        }.also {
+            tokenAuthenticationCache.invalidateAll()
         }
     }
 
@@ -230,6 +240,8 @@ class AccountServiceImpl(
                 roleRepository.deleteGlobalRoleForGroup(id)
             }
             else -> Ack.NOK
+        }.also {
+            tokenAuthenticationCache.invalidateAll()
         }
     }
 
@@ -259,6 +271,8 @@ class AccountServiceImpl(
             PermissionTargetType.ACCOUNT -> roleRepository.saveProjectRoleForAccount(projectId.value, id, input.role)
             PermissionTargetType.GROUP -> roleRepository.saveProjectRoleForGroup(projectId.value, id, input.role)
             else -> Ack.NOK
+        }.also {
+            tokenAuthenticationCache.invalidateAll()
         }
     }
 
@@ -268,6 +282,8 @@ class AccountServiceImpl(
             PermissionTargetType.ACCOUNT -> roleRepository.deleteProjectRoleForAccount(projectId.value, id)
             PermissionTargetType.GROUP -> roleRepository.deleteProjectRoleForGroup(projectId.value, id)
             else -> Ack.NOK
+        }.also {
+            tokenAuthenticationCache.invalidateAll()
         }
     }
 
@@ -422,16 +438,19 @@ class AccountServiceImpl(
     override fun deleteAccountBySource(source: AuthenticationSource) {
         securityService.checkGlobalFunction(AccountManagement::class.java)
         accountRepository.deleteAccountBySource(source)
+        tokenAuthenticationCache.invalidateAll()
     }
 
     override fun setAccountDisabled(id: ID, disabled: Boolean) {
         securityService.checkGlobalFunction(AccountManagement::class.java)
         accountRepository.setAccountDisabled(id, disabled)
+        tokenAuthenticationCache.invalidateAll()
     }
 
     override fun setAccountLocked(id: ID, locked: Boolean) {
         securityService.checkGlobalFunction(AccountManagement::class.java)
         accountRepository.setAccountLocked(id, locked)
+        tokenAuthenticationCache.invalidateAll()
     }
 
     private fun getGroupACL(group: AccountGroup): Authorisations =
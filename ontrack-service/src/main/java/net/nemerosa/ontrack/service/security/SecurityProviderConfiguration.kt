@@ -18,14 +18,15 @@ class SecurityProviderConfiguration(
         private val accountService: AccountService,
         private val accountRepository: AccountRepository,
         private val tokensService: TokensService,
-        private val ontrackConfigProperties: OntrackConfigProperties
+        private val ontrackConfigProperties: OntrackConfigProperties,
+        private val tokenAuthenticationCache: TokenAuthenticationCache,
 ) {
 
     @Bean
     fun tokenAsPasswordAuthenticationProvider() = TokenAsPasswordAuthenticationProvider(tokensService, accountService, ontrackConfigProperties)
 
     @Bean
-    fun tokenHeaderAuthenticationProvider() = TokenHeaderAuthenticationProvider(tokensService, accountService)
+    fun tokenHeaderAuthenticationProvider() = TokenHeaderAuthenticationProvider(tokensService, accountService, tokenAuthenticationCache)
 
     @Bean
     fun builtinAuthenticationProvider() = DaoAuthenticationProvider().apply {
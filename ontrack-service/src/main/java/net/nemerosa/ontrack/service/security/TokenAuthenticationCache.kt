@@ -0,0 +1,198 @@
+package net.nemerosa.ontrack.service.security
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics
+import net.nemerosa.ontrack.model.security.OntrackAuthenticatedUser
+import net.nemerosa.ontrack.model.structure.Token
+import net.nemerosa.ontrack.model.support.ClusterInvalidationService
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import net.nemerosa.ontrack.model.support.ScheduledService
+import net.nemerosa.ontrack.repository.TokensRepository
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import org.springframework.scheduling.Trigger
+import org.springframework.scheduling.support.PeriodicTrigger
+import org.springframework.stereotype.Component
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import java.security.MessageDigest
+import java.time.LocalDateTime
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+
+/**
+ * Cache of the authenticated users, indexed by the hash of their token.
+ *
+ * On a cache hit, neither the token nor the ACL are loaded again. The last used dates
+ * (and the validity of the transient tokens) are kept in memory and written in batch
+ * on a regular basis.
+ *
+ * The cache is configured using `ontrack.config.security.tokens.cache`. Its entries expire
+ * after `authentication-ttl` so that the groups provided by external sources (LDAP, OIDC),
+ * which are not notified, are eventually refreshed. The cache is cleared
+ * on all the nodes whenever a token is revoked or whenever the accounts, groups,
+ * mappings or permissions are changed.
+ */
+@Component
+class TokenAuthenticationCache(
+    private val ontrackConfigProperties: OntrackConfigProperties,
+    private val tokensRepository: TokensRepository,
+    private val clusterInvalidationService: ClusterInvalidationService,
+    meterRegistry: MeterRegistry,
+) : ScheduledService {
+
+    private val logger: Logger = LoggerFactory.getLogger(TokenAuthenticationCache::class.java)
+
+    @Suppress("DEPRECATION")
+    private val properties = ontrackConfigProperties.security.tokens.cache
+
+    private val cache: Cache<String, CachedTokenAuthentication> = Caffeine.newBuilder()
+        .maximumSize(properties.maxCount)
+        .expireAfterWrite(properties.authenticationTtl)
+        .recordStats()
+        .build()
+
+    /**
+     * Usages of the tokens which have not been written yet, indexed by token hash
+     */
+    private val usages = ConcurrentHashMap<String, PendingUsage>()
+
+    init {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME)
+        clusterInvalidationService.subscribe(CHANNEL) {
+            cache.invalidateAll()
+        }
+    }
+
+    /**
+     * Gets the cached authentication for a token, registering its usage.
+     *
+     * @param token Token value
+     * @param refTime Time of the usage
+     * @return Cached authentication, with an up-to-date token, or `null` if not cached
+     */
+    fun get(token: String, refTime: LocalDateTime): CachedTokenAuthentication? {
+        if (!properties.enabled) {
+            return null
+        }
+        val key = hash(token)
+        val cached = cache.getIfPresent(key) ?: return null
+        // Checks the validity before it's extended
+        if (!cached.token.isValid(refTime)) {
+            cache.invalidate(key)
+            return cached
+        }
+        // Updating the token in place, without resetting the expiration of the entry
+        val validUntil = if (cached.token.scope.transient) {
+            refTime + transientValidity()
+        } else {
+            null
+        }
+        cached.token = cached.token.copy(
+            validUntil = validUntil ?: cached.token.validUntil,
+            lastUsed = refTime,
+        )
+        usages[key] = PendingUsage(cached.token.value, refTime, validUntil)
+        return cached
+    }
+
+    /**
+     * Caches the authentication for a token.
+     */
+    fun put(token: Token, user: OntrackAuthenticatedUser) {
+        if (properties.enabled) {
+            cache.put(hash(token.value), CachedTokenAuthentication(token, user))
+        }
+    }
+
+    /**
+     * Clears the cache on all the nodes. If a transaction is active, the cache
+     * is cleared again once it's completed, so that an authentication loaded
+     * concurrently, before the commit, is not kept.
+     */
+    fun invalidateAll() {
+        clusterInvalidationService.invalidate(CHANNEL, "")
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(object : TransactionSynchronization {
+                override fun afterCompletion(status: Int) {
+                    clusterInvalidationService.invalidate(CHANNEL, "")
+                }
+            })
+        }
+    }
+
+    /**
+     * Writes the pending usages of the tokens.
+     */
+    fun flush() {
+        if (usages.isNotEmpty()) {
+            val batch = mutableMapOf<String, Pair<LocalDateTime, LocalDateTime?>>()
+            usages.keys.toList().forEach { key ->
+                usages.remove(key)?.let { usage ->
+                    batch[usage.token] = usage.lastUsed to usage.validUntil
+                }
+            }
+            try {
+                tokensRepository.updateUsages(batch)
+            } catch (any: Exception) {
+                logger.error("[token] Cannot write the usages of ${batch.size} tokens", any)
+            }
+        }
+    }
+
+    override fun getTask() = Runnable { flush() }
+
+    override fun getTrigger(): Trigger = PeriodicTrigger(FLUSH_PERIOD_SECONDS, TimeUnit.SECONDS)
+
+    private fun transientValidity() = ontrackConfigProperties.security.tokens.transientValidity
+        .takeIf { !it.isZero }
+        ?: OntrackConfigProperties.TokensProperties.DEFAULT_TRANSIENT_VALIDITY
+
+    private fun hash(token: String): String =
+        MessageDigest.getInstance("SHA-256")
+            .digest(token.toByteArray(Charsets.UTF_8))
+            .joinToString("") { "%02x".format(it) }
+
+    /**
+     * Cached authentication
+     *
+     * @property token Token, with up-to-date usage information
+     * @property user Authenticated user, with its ACL
+     */
+    class CachedTokenAuthentication(
+        token: Token,
+        val user: OntrackAuthenticatedUser,
+    ) {
+        @Volatile
+        var token: Token = token
+            internal set
+    }
+
+    /**
+     * Usage of a token, waiting to be written
+     */
+    private class PendingUsage(
+        val token: String,
+        val lastUsed: LocalDateTime,
+        val validUntil: LocalDateTime?,
+    )
+
+    companion object {
+        /**
+         * Name of the cache, used for the metrics
+         */
+        const val CACHE_NAME = "token-authentications"
+
+        /**
+         * Invalidation channel
+         */
+        const val CHANNEL = "token-authentications"
+
+        /**
+         * Period between two writes of the token usages
+         */
+        private const val FLUSH_PERIOD_SECONDS = 30L
+    }
+}
@@ -1,5 +1,6 @@
 package net.nemerosa.ontrack.service.security
 
+import net.nemerosa.ontrack.common.Time
 import net.nemerosa.ontrack.model.security.AccountOntrackUser
 import net.nemerosa.ontrack.model.security.AccountService
 import net.nemerosa.ontrack.model.security.TokenAuthenticationToken
@@ -10,13 +11,27 @@ import org.springframework.security.core.Authentication
 
 class TokenHeaderAuthenticationProvider(
         private val tokensService: TokensService,
-        private val accountService: AccountService
+        private val accountService: AccountService,
+        private val tokenAuthenticationCache: TokenAuthenticationCache?,
 ) : AuthenticationProvider {
 
     override fun authenticate(authentication: Authentication): Authentication? {
         return if (authentication is TokenAuthenticationToken) {
             val token = authentication.credentials.toString()
-            val tokenAccount = tokensService.findAccountByToken(token)
+            val refTime = Time.now()
+            // Cached authentication
+            val cached = tokenAuthenticationCache?.get(token, refTime)
+            if (cached != null) {
+                if (!cached.token.isValid(refTime)) {
+                    throw CredentialsExpiredException("Token is expired.")
+                }
+                return TokenAuthenticationToken(
+                        token = token,
+                        authorities = cached.user.user.authorities,
+                        principal = cached.user
+                )
+            }
+            val tokenAccount = tokensService.findAccountByToken(token, refTime)
             if (tokenAccount != null) {
                 // Validity of the token
                 val tokenValid = tokenAccount.token.isValid()
@@ -27,6 +42,8 @@ class TokenHeaderAuthenticationProvider(
                 val user = AccountOntrackUser(tokenAccount.account)
                 // Provides the ACL
                 val authenticatedUser = accountService.withACL(user)
+                // Caching
+                tokenAuthenticationCache?.put(tokenAccount.token, authenticatedUser)
                 // Authentication OK
                 TokenAuthenticationToken(
                         token = token,
@@ -46,4 +63,4 @@ class TokenHeaderAuthenticationProvider(
 
     override fun supports(authentication: Class<*>): Boolean =
             TokenAuthenticationToken::class.java.isAssignableFrom(authentication)
-}
\ No newline at end of file
+}
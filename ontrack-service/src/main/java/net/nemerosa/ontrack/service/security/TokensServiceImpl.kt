@@ -21,7 +21,8 @@ class TokensServiceImpl(
     private val securityService: SecurityService,
     private val tokenGenerator: TokenGenerator,
     private val ontrackConfigProperties: OntrackConfigProperties,
-    private val accountService: AccountService
+    private val accountService: AccountService,
+    private val tokenAuthenticationCache: TokenAuthenticationCache,
 ) : TokensService {
 
     @Deprecated("Use named tokens")
@@ -107,6 +108,8 @@ class TokensServiceImpl(
             tokenObject.creation,
             tokenObject.validUntil
         )
+        // Any previous token with the same name is replaced
+        tokenAuthenticationCache.invalidateAll()
         // ... and returns it
         return tokenObject
     }
@@ -122,6 +125,7 @@ class TokensServiceImpl(
         // Revokes its token
         account?.apply {
             tokensRepository.invalidate(id(), name)
+            tokenAuthenticationCache.invalidateAll()
         }
     }
 
@@ -174,7 +178,9 @@ class TokensServiceImpl(
 
     override fun revokeAll(): Int {
         securityService.checkGlobalFunction(AccountManagement::class.java)
-        return tokensRepository.revokeAll()
+        return tokensRepository.revokeAll().also {
+            tokenAuthenticationCache.invalidateAll()
+        }
     }
 
     @Deprecated("Use named tokens")
@@ -185,10 +191,12 @@ class TokensServiceImpl(
     override fun revokeToken(accountId: Int, name: String) {
         securityService.checkGlobalFunction(AccountManagement::class.java)
         tokensRepository.invalidate(accountId, name)
+        tokenAuthenticationCache.invalidateAll()
     }
 
     override fun revokeAllTokens(accountId: Int) {
         securityService.checkGlobalFunction(AccountManagement::class.java)
         tokensRepository.invalidateAll(accountId)
+        tokenAuthenticationCache.invalidateAll()
     }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package net.nemerosa.ontrack.service.support
+
+import net.nemerosa.ontrack.model.support.ClusterInvalidationService
+import net.nemerosa.ontrack.model.support.ClusterInvalidationTransport
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import org.springframework.stereotype.Service
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import javax.annotation.PostConstruct
+
+@Service
+class ClusterInvalidationServiceImpl(
+    private val transports: List<ClusterInvalidationTransport>,
+) : ClusterInvalidationService {
+
+    private val logger: Logger = LoggerFactory.getLogger(ClusterInvalidationServiceImpl::class.java)
+
+    private val handlers = ConcurrentHashMap<String, MutableList<(payload: String) -> Unit>>()
+
+    @PostConstruct
+    fun start() {
+        transports.forEach { transport ->
+            transport.listen(::receive)
+        }
+    }
+
+    override fun subscribe(channel: String, handler: (payload: String) -> Unit) {
+        handlers.computeIfAbsent(channel) { CopyOnWriteArrayList() }.add(handler)
+    }
+
+    override fun invalidate(channel: String, payload: String) {
+        receive(channel, payload)
+        transports.forEach { transport ->
+            try {
+                transport.send(channel, payload)
+            } catch (any: Exception) {
+                // Remote nodes will rely on the expiration of their entries
+                logger.error("Cannot send the invalidation for $channel", any)
+            }
+        }
+    }
+
+    override fun receive(channel: String, payload: String) {
+        handlers[channel]?.forEach { handler ->
+            handler(payload)
+        }
+    }
+}
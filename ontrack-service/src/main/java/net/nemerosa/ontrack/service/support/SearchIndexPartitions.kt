@@ -0,0 +1,67 @@
+package net.nemerosa.ontrack.service.support
+
+import net.nemerosa.ontrack.job.JobRunListener
+import net.nemerosa.ontrack.model.structure.SearchIndexPartition
+import net.nemerosa.ontrack.model.structure.SearchIndexer
+import org.springframework.security.core.context.SecurityContextHolder
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Indexes the partitions of an indexer in parallel, using the security context
+ * of the caller, and waits for all of them to be indexed.
+ *
+ * @param indexer Indexer being run
+ * @param partitions Partitions to index
+ * @param parallelism Maximum number of partitions indexed at the same time
+ * @param listener Used to report the progress
+ * @param index Indexation of one partition
+ */
+internal fun indexPartitionsInParallel(
+    indexer: SearchIndexer<*>,
+    partitions: List<SearchIndexPartition>,
+    parallelism: Int,
+    listener: JobRunListener,
+    index: (SearchIndexPartition) -> Unit,
+) {
+    val count = AtomicInteger()
+    val executor = Executors.newFixedThreadPool(parallelism.coerceIn(1, partitions.size), object : ThreadFactory {
+        private val threadCount = AtomicInteger()
+        override fun newThread(r: Runnable) =
+            Thread(r, "search-index-${indexer.indexName}-${threadCount.incrementAndGet()}").apply {
+                isDaemon = true
+            }
+    })
+    // The items are collected using the security context of the caller
+    val securityContext = SecurityContextHolder.getContext()
+    try {
+        val futures = partitions.map { partition ->
+            executor.submit {
+                SecurityContextHolder.setContext(securityContext)
+                try {
+                    index(partition)
+                } finally {
+                    SecurityContextHolder.clearContext()
+                }
+                listener.message(
+                    "[%s] Partition %s indexed (%d/%d)",
+                    indexer.indexName,
+                    partition.name,
+                    count.incrementAndGet(),
+                    partitions.size
+                )
+            }
+        }
+        futures.forEach { future ->
+            try {
+                future.get()
+            } catch (ex: ExecutionException) {
+                throw ex.cause ?: ex
+            }
+        }
+    } finally {
+        executor.shutdownNow()
+    }
+}
@@ -0,0 +1,76 @@
+package net.nemerosa.ontrack.service.templating
+
+import net.nemerosa.ontrack.model.structure.ProjectEntityType
+import net.nemerosa.ontrack.model.templating.TemplatingException
+import net.nemerosa.ontrack.model.templating.TemplatingFilter
+import net.nemerosa.ontrack.model.templating.TemplatingFunction
+import net.nemerosa.ontrack.model.templating.TemplatingSource
+
+/**
+ * Template parsed into a list of literal texts & expressions.
+ */
+internal class CompiledTemplate(
+    val nodes: List<CompiledTemplateNode>,
+)
+
+internal sealed interface CompiledTemplateNode
+
+/**
+ * Text to output as is.
+ */
+internal class CompiledTemplateLiteral(
+    val text: String,
+) : CompiledTemplateNode
+
+/**
+ * Expression which cannot be parsed.
+ */
+internal class CompiledTemplateInvalidExpression(
+    val expression: String,
+) : CompiledTemplateNode
+
+/**
+ * Parsed expression, with its references resolved once.
+ *
+ * Resolution errors are kept and thrown only when the expression is rendered, so
+ * that they are handled like any other rendering error.
+ *
+ * @property contextKey Key in the context, or `#` for a function
+ * @property field Field to render, if any
+ * @property config Raw configuration, if any
+ * @property configMap Parsed configuration or the error raised when parsing it
+ * @property function Function to call, if [contextKey] is `#` and if the function exists
+ * @property sources Sources for the [field], indexed by entity type
+ * @property filterId ID of the filter to apply, if any
+ * @property filter Filter to apply, if it exists
+ */
+internal class CompiledTemplateExpression(
+    val contextKey: String,
+    val field: String?,
+    val config: String?,
+    private val configMap: Result<Map<String, String>>,
+    val function: TemplatingFunction?,
+    val sources: Map<ProjectEntityType, List<TemplatingSource>>,
+    val filterId: String?,
+    val filter: TemplatingFilter?,
+) : CompiledTemplateNode {
+
+    /**
+     * Gets the parsed configuration.
+     *
+     * @throws TemplatingException If the configuration is not valid
+     */
+    fun getConfigMap(): Map<String, String> = configMap.getOrThrow()
+
+    companion object {
+        /**
+         * Parses a configuration, keeping the templating errors for later.
+         */
+        fun parseConfig(parser: () -> Map<String, String>): Result<Map<String, String>> =
+            try {
+                Result.success(parser())
+            } catch (ex: TemplatingException) {
+                Result.failure(ex)
+            }
+    }
+}
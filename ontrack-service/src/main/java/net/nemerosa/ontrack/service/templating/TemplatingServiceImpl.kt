@@ -1,6 +1,8 @@
 package net.nemerosa.ontrack.service.templating
 
 import com.fasterxml.jackson.databind.JsonNode
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
 import net.nemerosa.ontrack.common.SimpleExpand
 import net.nemerosa.ontrack.model.events.EventRenderer
 import net.nemerosa.ontrack.model.structure.EntityDisplayNameService
@@ -47,60 +49,116 @@ class TemplatingServiceImpl(
         SimpleExpand.regex.containsMatchIn(template) &&
                 !regexExpressions.containsMatchIn(template)
 
+    /**
+     * Compiled templates, indexed by template text
+     */
+    private val compiledTemplates: Cache<String, CompiledTemplate>? =
+        ontrackConfigProperties.templating.cacheSize.takeIf { it > 0 }?.let { size ->
+            Caffeine.newBuilder()
+                .maximumSize(size)
+                .build()
+        }
+
     override fun render(
         template: String,
         context: Map<String, Any>,
         renderer: EventRenderer,
-    ): String =
-        regexExpressions.replace(template) { m ->
-            val expression = m.groupValues[1]
-            renderExpression(
-                expression = expression,
-                context = context,
-                renderer = renderer,
-            )
+    ): String {
+        val compiledTemplate = compiledTemplates?.get(template) { compile(it) } ?: compile(template)
+        return buildString {
+            compiledTemplate.nodes.forEach { node ->
+                append(
+                    renderNode(
+                        node = node,
+                        context = context,
+                        renderer = renderer,
+                    )
+                )
+            }
         }.replace("$$", "$")
+    }
 
-    private fun renderExpression(
-        expression: String,
+    /**
+     * Parses a template into literals & expressions.
+     */
+    private fun compile(template: String): CompiledTemplate {
+        val nodes = mutableListOf<CompiledTemplateNode>()
+        var last = 0
+        regexExpressions.findAll(template).forEach { m ->
+            if (m.range.first > last) {
+                nodes += CompiledTemplateLiteral(template.substring(last, m.range.first))
+            }
+            nodes += compileExpression(m.groupValues[1])
+            last = m.range.last + 1
+        }
+        if (last < template.length) {
+            nodes += CompiledTemplateLiteral(template.substring(last))
+        }
+        return CompiledTemplate(nodes)
+    }
+
+    /**
+     * Parses an expression and resolves its function, sources & filter.
+     */
+    private fun compileExpression(expression: String): CompiledTemplateNode {
+        val m = regexToken.matchEntire(expression)
+            ?: return CompiledTemplateInvalidExpression(expression)
+        val contextKey = m.groupValues[1]
+        val field = m.groupValues.getOrNull(2)
+        val config = m.groupValues.getOrNull(3)
+        val filter = m.groupValues.getOrNull(4)
+        return CompiledTemplateExpression(
+            contextKey = contextKey,
+            field = field,
+            config = config,
+            configMap = CompiledTemplateExpression.parseConfig { parseConfigMap(config) },
+            function = if (contextKey == "#" && !field.isNullOrBlank()) functionsById[field] else null,
+            sources = if (field.isNullOrBlank()) {
+                emptyMap()
+            } else {
+                sourcesPerProjectEntityType.mapValues { (_, sources) ->
+                    sources.filter { it.field == field }
+                }
+            },
+            filterId = filter,
+            filter = filter?.let { filtersById[it] },
+        )
+    }
+
+    private fun renderNode(
+        node: CompiledTemplateNode,
         context: Map<String, Any>,
         renderer: EventRenderer,
     ): String {
         try {
-            val m = regexToken.matchEntire(expression)
-            if (m != null) {
-                val contextKey = m.groupValues[1]
-                val field = m.groupValues.getOrNull(2)
-                val config = m.groupValues.getOrNull(3)
-                val filter = m.groupValues.getOrNull(4)
-                val text = if (contextKey == "#") {
-                    if (field.isNullOrBlank()) {
-                        throw TemplatingMissingFunctionException()
+            return when (node) {
+                is CompiledTemplateLiteral -> node.text
+                is CompiledTemplateInvalidExpression -> throw TemplatingExpressionFormatException(node.expression)
+                is CompiledTemplateExpression -> {
+                    val text = if (node.contextKey == "#") {
+                        if (node.field.isNullOrBlank()) {
+                            throw TemplatingMissingFunctionException()
+                        } else {
+                            renderFunction(
+                                node = node,
+                                context = context,
+                                renderer = renderer,
+                            )
+                        }
                     } else {
-                        renderFunction(
-                            functionId = field,
-                            config = config,
+                        renderContext(
+                            node = node,
                             context = context,
                             renderer = renderer,
                         )
                     }
-                } else {
-                    renderContext(
-                        contextKey = contextKey,
-                        field = field,
-                        config = config,
-                        context = context,
-                        renderer = renderer,
-                    )
-                }
-                // Filtering
-                return if (filter.isNullOrBlank()) {
-                    text
-                } else {
-                    applyFilter(filter, text, renderer)
+                    // Filtering
+                    if (node.filterId.isNullOrBlank()) {
+                        text
+                    } else {
+                        applyFilter(node, text, renderer)
+                    }
                 }
-            } else {
-                throw TemplatingExpressionFormatException(expression)
             }
         } catch (ex: TemplatingException) {
             // Dealing with the error
@@ -118,31 +176,31 @@ class TemplatingServiceImpl(
     }
 
     private fun renderFunction(
-        functionId: String,
-        config: String?,
+        node: CompiledTemplateExpression,
         context: Map<String, Any>,
         renderer: EventRenderer
     ): String {
         // Gets the function
-        val function = functionsById[functionId]
-            ?: throw TemplatingFunctionNotFoundException(functionId)
+        val function = node.function
+            ?: throw TemplatingFunctionNotFoundException(node.field ?: "")
         // Configuration
-        val configMap: Map<String, String> = parseConfigMap(config)
+        val configMap: Map<String, String> = node.getConfigMap()
         // Callback
         val expressionResolver: (String) -> String = { expression: String ->
-            renderExpression(expression, context, renderer)
+            renderNode(compileExpression(expression), context, renderer)
         }
         // Rendering of the function
         return function.render(configMap, context, renderer, expressionResolver)
     }
 
     private fun renderContext(
-        contextKey: String,
-        field: String?,
-        config: String?,
+        node: CompiledTemplateExpression,
         context: Map<String, Any>,
         renderer: EventRenderer
     ): String {
+        val contextKey = node.contextKey
+        val field = node.field
+        val config = node.config
         // Gets the context
         val contextValue = context[contextKey]
         // If no context, we need to throw an error
@@ -151,22 +209,20 @@ class TemplatingServiceImpl(
         return if (contextValue is ProjectEntity) {
             renderEntity(
                 entity = contextValue,
-                field = field,
-                config = config,
+                node = node,
                 renderer = renderer
             )
         }
         // Renderable
         else if (contextValue is TemplatingRenderable) {
-            val configMap = parseConfigMap(config)
+            val configMap = node.getConfigMap()
             contextValue.render(field, configMap, renderer)
         }
         // Context data
         else if (contextValue is TemplatingContextData) {
             renderContextData(
                 contextData = contextValue,
-                field = field,
-                config = config,
+                node = node,
                 renderer = renderer,
             )
         }
@@ -180,14 +236,15 @@ class TemplatingServiceImpl(
         }
     }
 
-    private fun applyFilter(filter: String, text: String, renderer: EventRenderer): String =
-        filtersById[filter]?.apply(text, renderer)
-            ?: throw TemplatingFilterNotFoundException(filter)
+    private fun applyFilter(node: CompiledTemplateExpression, text: String, renderer: EventRenderer): String =
+        node.filter?.apply(text, renderer)
+            ?: throw TemplatingFilterNotFoundException(node.filterId ?: "")
 
-    private fun renderEntity(entity: ProjectEntity, field: String?, config: String?, renderer: EventRenderer): String =
+    private fun renderEntity(entity: ProjectEntity, node: CompiledTemplateExpression, renderer: EventRenderer): String {
+        val field = node.field
         // If not field, using the entity name
-        if (field.isNullOrBlank()) {
-            if (config.isNullOrBlank()) {
+        return if (field.isNullOrBlank()) {
+            if (node.config.isNullOrBlank()) {
                 renderer.render(entity, entityDisplayNameService.getEntityDisplayName(entity))
             } else {
                 throw TemplatingEntityNameHavingConfigException()
@@ -195,15 +252,13 @@ class TemplatingServiceImpl(
         }
         // Having a field, looking for a specific field renderer
         else {
-            val sources = sourcesPerProjectEntityType[entity.projectEntityType]
-                ?.filter { it.field == field }
-                ?: emptyList()
+            val sources = node.sources[entity.projectEntityType] ?: emptyList()
             if (sources.isNotEmpty()) {
                 if (sources.size > 1) {
                     throw TemplatingMultipleFieldSourcesException(field)
                 } else {
                     val source = sources.first()
-                    val configMap: Map<String, String> = parseConfigMap(config)
+                    val configMap: Map<String, String> = node.getConfigMap()
                     source.render(entity, configMap, renderer)
                 }
             } else {
@@ -211,6 +266,7 @@ class TemplatingServiceImpl(
                 throw TemplatingNoFieldSourceException(field)
             }
         }
+    }
 
     private fun parseConfigMap(config: String?): Map<String, String> {
         val configMap: Map<String, String> = if (config.isNullOrBlank()) {
@@ -223,8 +279,7 @@ class TemplatingServiceImpl(
 
     private fun renderContextData(
         contextData: TemplatingContextData,
-        field: String?,
-        config: String?,
+        node: CompiledTemplateExpression,
         renderer: EventRenderer,
     ): String {
         val handler = contextHandlers[contextData.id]
@@ -232,8 +287,7 @@ class TemplatingServiceImpl(
         return renderContextData(
             handler = handler,
             data = contextData.data,
-            field = field,
-            config = config,
+            node = node,
             renderer = renderer,
         )
     }
@@ -241,15 +295,14 @@ class TemplatingServiceImpl(
     private fun <T : TemplatingContext> renderContextData(
         handler: TemplatingContextHandler<T>,
         data: JsonNode,
-        field: String?,
-        config: String?,
+        node: CompiledTemplateExpression,
         renderer: EventRenderer,
     ): String {
         val parsedData = handler.deserialize(data)
         return handler.render(
             data = parsedData,
-            field = field,
-            config = parseConfigMap(config),
+            field = node.field,
+            config = node.getConfigMap(),
             renderer = renderer,
         )
     }
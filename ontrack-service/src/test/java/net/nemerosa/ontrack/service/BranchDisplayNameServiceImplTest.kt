@@ -0,0 +1,64 @@
+package net.nemerosa.ontrack.service
+
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import net.nemerosa.ontrack.extension.api.BranchDisplayNameExtension
+import net.nemerosa.ontrack.extension.api.ExtensionManager
+import net.nemerosa.ontrack.model.structure.Branch
+import net.nemerosa.ontrack.model.structure.BranchFixtures
+import net.nemerosa.ontrack.model.structure.BranchNamePolicy
+import net.nemerosa.ontrack.model.structure.ID
+import net.nemerosa.ontrack.model.structure.ProjectFixtures
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+
+class BranchDisplayNameServiceImplTest {
+
+    private val project = ProjectFixtures.testProject()
+    private val branches = (1..3).map { BranchFixtures.testBranch(id = it, project = project, name = "b$it") }
+
+    private val extension = mockk<BranchDisplayNameExtension> {
+        every { getBranchDisplayNames(any()) } answers {
+            firstArg<List<Branch>>().filter { it.id() != 3 }.associate { it.id to "path/${it.name}" }
+        }
+    }
+
+    private val service = BranchDisplayNameServiceImpl(
+        mockk<ExtensionManager> {
+            every { getExtensions(BranchDisplayNameExtension::class.java) } returns listOf(extension)
+        }
+    )
+
+    @Test
+    fun `Display names loaded at once for several branches`() {
+        assertEquals(
+            mapOf(
+                ID.of(1) to "path/b1",
+                ID.of(2) to "path/b2",
+                ID.of(3) to "b3",
+            ),
+            service.getBranchDisplayNames(branches, BranchNamePolicy.DISPLAY_NAME_OR_NAME)
+        )
+        verify(exactly = 1) { extension.getBranchDisplayNames(branches) }
+        verify(exactly = 0) { extension.getBranchDisplayName(any()) }
+    }
+
+    @Test
+    fun `Names only without any call to the extensions`() {
+        assertEquals(
+            branches.associate { it.id to it.name },
+            service.getBranchDisplayNames(branches, BranchNamePolicy.NAME_ONLY)
+        )
+        verify(exactly = 0) { extension.getBranchDisplayNames(any()) }
+    }
+
+    @Test
+    fun `Missing display names when required`() {
+        assertFailsWith<IllegalStateException> {
+            service.getBranchDisplayNames(branches, BranchNamePolicy.DISPLAY_NAME_ONLY)
+        }
+    }
+
+}
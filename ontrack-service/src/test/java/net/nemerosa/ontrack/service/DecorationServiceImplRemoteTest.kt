@@ -0,0 +1,243 @@
+package net.nemerosa.ontrack.service
+
+import io.mockk.every
+import io.mockk.mockk
+import net.nemerosa.ontrack.extension.api.DecorationExtension
+import net.nemerosa.ontrack.extension.api.ExtensionManager
+import net.nemerosa.ontrack.model.events.Event
+import net.nemerosa.ontrack.model.events.EventFactory
+import net.nemerosa.ontrack.model.extension.ExtensionFeature
+import net.nemerosa.ontrack.model.security.OntrackAuthenticatedUser
+import net.nemerosa.ontrack.model.security.SecurityService
+import net.nemerosa.ontrack.model.structure.*
+import net.nemerosa.ontrack.model.support.ApplicationLogService
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.time.Duration
+import java.util.*
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.test.assertEquals
+
+class DecorationServiceImplRemoteTest {
+
+    private val project = ProjectFixtures.testProject()
+    private val branch = BranchFixtures.testBranch(project = project)
+
+    private lateinit var extensionManager: ExtensionManager
+    private lateinit var securityService: SecurityService
+    private lateinit var service: DecorationServiceImpl
+
+    private var user: OntrackAuthenticatedUser? = null
+
+    @BeforeEach
+    fun before() {
+        extensionManager = mockk()
+        securityService = mockk()
+        every { securityService.currentAccount } answers { user }
+        every { securityService.runner<Any, Any>(any()) } answers { firstArg() }
+        user = user(1)
+        service = service()
+    }
+
+    private fun service(poolSize: Int = 8, queueSize: Int = 100) = DecorationServiceImpl(
+        extensionManager = extensionManager,
+        securityService = securityService,
+        applicationLogService = mockk(relaxed = true),
+        ontrackConfigProperties = OntrackConfigProperties().apply {
+            decorations.timeout = Duration.ofMillis(500)
+            decorations.poolSize = poolSize
+            decorations.queueSize = queueSize
+        },
+    )
+
+    @AfterEach
+    fun after() {
+        service.stop()
+    }
+
+    @Test
+    fun `Remote decorations not available in time are replaced by an error`() {
+        val release = CountDownLatch(1)
+        val slow = object : TestDecorator(remote = true, code = {
+            release.await(10, TimeUnit.SECONDS)
+            "slow"
+        }) {}
+        val local = object : TestDecorator(remote = false, code = { "local" }) {}
+        decorators(slow, local)
+        try {
+            val decorations = service.getDecorations(project)
+            assertEquals(
+                listOf(null to "Timeout while getting decoration", "local" to null),
+                decorations.map { it.data to it.error }
+            )
+        } finally {
+            release.countDown()
+        }
+    }
+
+    @Test
+    fun `Remote decorators can define their own timeout`() {
+        val slow = object : TestDecorator(remote = true, timeout = Duration.ofSeconds(5), code = {
+            Thread.sleep(1_000)
+            "slow"
+        }) {}
+        decorators(slow)
+        assertEquals(
+            listOf("slow" to null),
+            service.getDecorations(project).map { it.data to it.error }
+        )
+    }
+
+    @Test
+    fun `Remote decorations replaced by an error when too many are pending`() {
+        service.stop()
+        service = service(poolSize = 1, queueSize = 1)
+        val release = CountDownLatch(1)
+        fun blocking(name: String) = {
+            release.await(10, TimeUnit.SECONDS)
+            name
+        }
+        decorators(
+            object : TestDecorator(remote = true, code = blocking("running")) {},
+            object : TestDecorator(remote = true, code = blocking("waiting")) {},
+            object : TestDecorator(remote = true, code = { "rejected" }) {},
+        )
+        try {
+            assertEquals(
+                listOf(
+                    "Timeout while getting decoration",
+                    "Timeout while getting decoration",
+                    "Too many pending decorations",
+                ),
+                service.getDecorations(project).map { it.error }
+            )
+        } finally {
+            release.countDown()
+        }
+    }
+
+    @Test
+    fun `Remote decorators are run in parallel`() {
+        // Each decorator waits for the other one to be started
+        val started = CountDownLatch(2)
+        fun waiting(name: String) = {
+            started.countDown()
+            if (started.await(2, TimeUnit.SECONDS)) name else "not parallel"
+        }
+        decorators(
+            object : TestDecorator(remote = true, code = waiting("first")) {},
+            object : TestDecorator(remote = true, code = waiting("second")) {},
+        )
+        assertEquals(
+            listOf("first", "second"),
+            service.getDecorations(project).map { it.data }
+        )
+    }
+
+    @Test
+    fun `Remote decorations are cached per user`() {
+        val decorator = object : TestDecorator(remote = true, code = { "remote" }) {}
+        decorators(decorator)
+
+        service.getDecorations(project)
+        service.getDecorations(project)
+        assertEquals(1, decorator.calls.get())
+
+        // Another user
+        user = user(2)
+        service.getDecorations(project)
+        assertEquals(2, decorator.calls.get())
+
+        // Anonymous access
+        user = null
+        service.getDecorations(project)
+        service.getDecorations(project)
+        assertEquals(3, decorator.calls.get())
+    }
+
+    @Test
+    fun `Remote decorations are cached per entity`() {
+        val decorator = object : TestDecorator(remote = true, code = { it.entityDisplayName }) {}
+        decorators(decorator)
+
+        val decorations = service.getDecorations(listOf(project, branch))
+        assertEquals(listOf(project.entityDisplayName), decorations[project]?.map { it.data })
+        assertEquals(listOf(branch.entityDisplayName), decorations[branch]?.map { it.data })
+        assertEquals(2, decorator.calls.get())
+
+        // Only the missing entities are decorated
+        val other = BranchFixtures.testBranch(id = 11, project = project, name = "other")
+        service.getDecorations(listOf(project, branch, other))
+        assertEquals(3, decorator.calls.get())
+    }
+
+    @Test
+    fun `Remote errors are not cached`() {
+        val decorator = object : TestDecorator(remote = true, code = { throw IllegalStateException("Remote error") }) {}
+        decorators(decorator)
+
+        val decorations = service.getDecorations(project)
+        assertEquals(listOf("Problem while getting decoration"), decorations.map { it.error })
+        service.getDecorations(project)
+        assertEquals(2, decorator.calls.get())
+    }
+
+    @Test
+    fun `Cached decorations are evicted by an event on the entity`() {
+        val decorator = object : TestDecorator(remote = true, code = { it.entityDisplayName }) {}
+        decorators(decorator)
+
+        service.getDecorations(listOf(project, branch))
+        assertEquals(2, decorator.calls.get())
+
+        service.onEvent(Event.of(EventFactory.UPDATE_BRANCH).with(branch).build())
+
+        service.getDecorations(listOf(project, branch))
+        assertEquals(3, decorator.calls.get())
+    }
+
+    @Test
+    fun `Local decorations are not cached`() {
+        val decorator = object : TestDecorator(remote = false, code = { "local" }) {}
+        decorators(decorator)
+
+        service.getDecorations(project)
+        service.getDecorations(project)
+        assertEquals(2, decorator.calls.get())
+    }
+
+    private fun decorators(vararg decorators: TestDecorator) {
+        every { extensionManager.getExtensions(DecorationExtension::class.java) } returns decorators.toList()
+    }
+
+    private fun user(id: Int): OntrackAuthenticatedUser = mockk {
+        every { id() } returns id
+    }
+
+    abstract class TestDecorator(
+        private val remote: Boolean,
+        private val timeout: Duration? = null,
+        private val code: (ProjectEntity) -> String,
+    ) : DecorationExtension<String> {
+
+        val calls = AtomicInteger()
+
+        override val feature: ExtensionFeature = mockk(relaxed = true)
+
+        override fun getScope(): EnumSet<ProjectEntityType> = EnumSet.allOf(ProjectEntityType::class.java)
+
+        override fun isRemote(): Boolean = remote
+
+        override fun getTimeout(): Duration? = timeout
+
+        override fun getDecorations(entity: ProjectEntity): List<Decoration<String>> {
+            calls.incrementAndGet()
+            return listOf(Decoration.of(this, code(entity)))
+        }
+    }
+
+}
@@ -7,6 +7,7 @@ import net.nemerosa.ontrack.model.security.SecurityService;
 import net.nemerosa.ontrack.model.structure.Decoration;
 import net.nemerosa.ontrack.model.structure.ProjectEntity;
 import net.nemerosa.ontrack.model.support.ApplicationLogService;
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties;
 import org.junit.Test;
 
 import java.util.Collections;
@@ -33,7 +34,7 @@ public class DecorationServiceImplTest {
 
         SecurityService securityService = mock(SecurityService.class);
 
-        DecorationServiceImpl service = new DecorationServiceImpl(extensionManager, securityService, mock(ApplicationLogService.class));
+        DecorationServiceImpl service = new DecorationServiceImpl(extensionManager, securityService, mock(ApplicationLogService.class), new OntrackConfigProperties());
 
         @SuppressWarnings("unchecked")
         List<? extends Decoration> decorations = service.getDecorations(projectEntity, decorator);
@@ -59,7 +60,7 @@ public class DecorationServiceImplTest {
 
         SecurityService securityService = mock(SecurityService.class);
 
-        DecorationServiceImpl service = new DecorationServiceImpl(extensionManager, securityService, mock(ApplicationLogService.class));
+        DecorationServiceImpl service = new DecorationServiceImpl(extensionManager, securityService, mock(ApplicationLogService.class), new OntrackConfigProperties());
 
         @SuppressWarnings("unchecked")
         List<? extends Decoration> decorations = service.getDecorations(projectEntity, decorator);
@@ -1,10 +1,15 @@
 package net.nemerosa.ontrack.service
 
 import net.nemerosa.ontrack.it.AbstractServiceTestSupport
+import net.nemerosa.ontrack.model.events.Event
 import net.nemerosa.ontrack.model.events.EventFactory
 import net.nemerosa.ontrack.model.events.EventQueryService
+import net.nemerosa.ontrack.model.structure.ProjectEntityType
+import net.nemerosa.ontrack.model.structure.Signature
+import net.nemerosa.ontrack.repository.EventRepository
 import org.junit.jupiter.api.Test
 import org.springframework.beans.factory.annotation.Autowired
+import kotlin.test.assertEquals
 import kotlin.test.assertNotNull
 
 class EventQueryServiceIT : AbstractServiceTestSupport() {
@@ -12,6 +17,9 @@ class EventQueryServiceIT : AbstractServiceTestSupport() {
     @Autowired
     private lateinit var eventQueryService: EventQueryService
 
+    @Autowired
+    private lateinit var eventRepository: EventRepository
+
     @Test
     fun `Branch creation`() {
         // Creates a branch
@@ -24,4 +32,65 @@ class EventQueryServiceIT : AbstractServiceTestSupport() {
         assertNotNull(o, "Signature is present")
     }
 
+    @Test
+    fun `Events referring to entities which cannot be viewed are left out`() {
+        withNoGrantViewToAll {
+            val project = doCreateProject()
+            val target = doCreateBuild()
+            val event = eventRepository.post(
+                Event.of(EventFactory.UPDATE_PROJECT)
+                    .withProject(project)
+                    .withExtra(target)
+                    .with(Signature.of("test"))
+                    .build()
+            )
+            val visible = asUserWithView(project, target).call {
+                eventQueryService.getEvents(ProjectEntityType.PROJECT, project.id, EventFactory.UPDATE_PROJECT, 0, 10).map { it.id }
+            }
+            assertEquals(listOf(event.id), visible)
+            val hidden = asUserWithView(project).call {
+                eventQueryService.getEvents(ProjectEntityType.PROJECT, project.id, EventFactory.UPDATE_PROJECT, 0, 10).map { it.id }
+            }
+            assertEquals(emptyList(), hidden)
+        }
+    }
+
+    @Test
+    fun `Pages of events are filled with the visible events`() {
+        withNoGrantViewToAll {
+            val project = doCreateProject()
+            val target = doCreateBuild()
+            fun post(hidden: Boolean) = eventRepository.post(
+                Event.of(EventFactory.UPDATE_PROJECT)
+                    .withProject(project)
+                    .apply { if (hidden) withExtra(target) }
+                    .with(Signature.of("test"))
+                    .build()
+            ).id
+            val first = post(hidden = false)
+            post(hidden = true)
+            val second = post(hidden = false)
+            post(hidden = true)
+            post(hidden = true)
+
+            asUserWithView(project).call {
+                // Page whose rows are all hidden
+                assertEquals(
+                    listOf(second),
+                    eventQueryService.getEvents(ProjectEntityType.PROJECT, project.id, EventFactory.UPDATE_PROJECT, 0, 1).map { it.id }
+                )
+                // Partly hidden pages are not returned short
+                assertEquals(
+                    listOf(second, first),
+                    eventQueryService.getEventsBefore(ProjectEntityType.PROJECT, project.id, null, 2).map { it.id }
+                )
+                // Next page after the last returned event
+                assertEquals(
+                    listOf(first),
+                    eventQueryService.getEventsBefore(ProjectEntityType.PROJECT, project.id, second, 1).map { it.id }
+                )
+            }
+        }
+    }
+
 }
@@ -5,7 +5,9 @@ import net.nemerosa.ontrack.extension.api.support.TestSimplePropertyType
 import net.nemerosa.ontrack.it.AbstractDSLTestJUnit4Support
 import net.nemerosa.ontrack.model.security.ProjectEdit
 import org.junit.Test
+import kotlin.test.assertEquals
 import kotlin.test.assertFalse
+import kotlin.test.assertNull
 import kotlin.test.assertTrue
 
 class PropertyServiceIT : AbstractDSLTestJUnit4Support() {
@@ -22,4 +24,23 @@ class PropertyServiceIT : AbstractDSLTestJUnit4Support() {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    fun `Cached property value is evicted on edition and deletion`() {
+        project {
+            asUser().with(this, ProjectEdit::class.java).call {
+                // No value, cached as such
+                assertNull(propertyService.getPropertyValue(this, TestSimplePropertyType::class.java))
+                // Setting the property
+                propertyService.editProperty(this, TestSimplePropertyType::class.java, TestSimpleProperty("value-1"))
+                assertEquals("value-1", propertyService.getPropertyValue(this, TestSimplePropertyType::class.java)?.value)
+                // Changing the property
+                propertyService.editProperty(this, TestSimplePropertyType::class.java, TestSimpleProperty("value-2"))
+                assertEquals("value-2", propertyService.getPropertyValue(this, TestSimplePropertyType::class.java)?.value)
+                // Deleting the property
+                propertyService.deleteProperty(this, TestSimplePropertyType::class.java)
+                assertNull(propertyService.getPropertyValue(this, TestSimplePropertyType::class.java))
+            }
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+package net.nemerosa.ontrack.service
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.mockk.MockKMatcherScope
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import net.nemerosa.ontrack.extension.api.ExtensionManager
+import net.nemerosa.ontrack.extension.api.support.TestExtensionFeature
+import net.nemerosa.ontrack.extension.api.support.TestSimpleProperty
+import net.nemerosa.ontrack.extension.api.support.TestSimplePropertyType
+import net.nemerosa.ontrack.json.asJson
+import net.nemerosa.ontrack.model.exceptions.PropertyUnsupportedEntityTypeException
+import net.nemerosa.ontrack.model.structure.*
+import net.nemerosa.ontrack.model.structure.NameDescription.Companion.nd
+import net.nemerosa.ontrack.repository.PropertyRepository
+import net.nemerosa.ontrack.repository.TProperty
+import net.nemerosa.ontrack.service.support.ClusterInvalidationServiceImpl
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.util.*
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+
+class PropertyServiceImplTest {
+
+    private val propertyType = TestSimplePropertyType(TestExtensionFeature())
+    private val typeName = TestSimplePropertyType::class.java.name
+
+    private val branch = BranchFixtures.testBranch()
+    private val builds = (1..3).map { id ->
+        Build.of(branch, nd("$id", ""), Signature.of("test")).withId(ID.of(id))
+    }
+
+    private lateinit var propertyRepository: PropertyRepository
+    private lateinit var service: PropertyServiceImpl
+
+    @BeforeEach
+    fun before() {
+        propertyRepository = mockk()
+        val extensionManager = mockk<ExtensionManager>()
+        val buildOnlyPropertyType = mockk<PropertyType<Any>> {
+            every { typeName } returns "build-only"
+            every { supportedEntityTypes } returns EnumSet.of(ProjectEntityType.BUILD)
+        }
+        every { extensionManager.getExtensions(PropertyType::class.java) } returns listOf(
+            propertyType,
+            buildOnlyPropertyType
+        )
+        service = PropertyServiceImpl(
+            eventPostService = mockk(relaxed = true),
+            eventFactory = mockk(relaxed = true),
+            propertyRepository = propertyRepository,
+            securityService = mockk(relaxed = true),
+            extensionManager = extensionManager,
+            propertyValueCache = PropertyValueCache(
+                CacheConfigProperties(),
+                SimpleMeterRegistry(),
+                ClusterInvalidationServiceImpl(emptyList())
+            ),
+        )
+        every { propertyRepository.loadProperties(typeName, any(), any()) } answers {
+            val entityType = secondArg<ProjectEntityType>()
+            thirdArg<Collection<ID>>()
+                .filter { it.value == 1 || entityType == ProjectEntityType.BRANCH }
+                .associateWith { id ->
+                    TProperty(typeName, entityType, id, mapOf("value" to "$entityType-${id.value}").asJson())
+                }
+        }
+    }
+
+    @Test
+    fun `Properties of several entities loaded with one query per type of entity`() {
+        val properties = service.getPropertyForEntities<TestSimpleProperty>(builds + branch, typeName)
+        assertEquals(
+            listOf("BUILD-1", null, null, "BRANCH-10"),
+            properties.map { it.value?.value }
+        )
+        verify(exactly = 1) {
+            propertyRepository.loadProperties(typeName, ProjectEntityType.BUILD, ids(builds.map { it.id }))
+            propertyRepository.loadProperties(typeName, ProjectEntityType.BRANCH, ids(listOf(branch.id)))
+        }
+    }
+
+    @Test
+    fun `Properties of several entities use the cached values`() {
+        service.getPropertyForEntities<TestSimpleProperty>(builds.take(2), typeName)
+        // Only the missing build is loaded, the absence of property being cached as well
+        val properties = service.getPropertyForEntities<TestSimpleProperty>(builds, typeName)
+        assertEquals(
+            listOf("BUILD-1", null, null),
+            properties.map { it.value?.value }
+        )
+        verify(exactly = 1) {
+            propertyRepository.loadProperties(typeName, ProjectEntityType.BUILD, ids(builds.take(2).map { it.id }))
+            propertyRepository.loadProperties(typeName, ProjectEntityType.BUILD, ids(listOf(builds[2].id)))
+        }
+        // Shared with the loading of a single property
+        assertEquals("BUILD-1", service.getPropertyValue(builds[0], TestSimplePropertyType::class.java)?.value)
+        verify(exactly = 0) {
+            propertyRepository.loadProperty(any(), any(), any())
+        }
+    }
+
+    @Test
+    fun `Properties of entities not supported by the property type`() {
+        assertFailsWith<PropertyUnsupportedEntityTypeException> {
+            service.getPropertyForEntities<Any>(builds + branch, "build-only")
+        }
+    }
+
+    private fun MockKMatcherScope.ids(ids: List<ID>) = match<Collection<ID>> { it.toSet() == ids.toSet() }
+
+}
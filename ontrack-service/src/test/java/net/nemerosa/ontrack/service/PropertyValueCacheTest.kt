@@ -0,0 +1,87 @@
+package net.nemerosa.ontrack.service
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.mockk.mockk
+import io.mockk.verify
+import net.nemerosa.ontrack.model.events.EventFactoryImpl
+import net.nemerosa.ontrack.model.structure.BranchFixtures
+import net.nemerosa.ontrack.model.structure.Build
+import net.nemerosa.ontrack.model.structure.ID
+import net.nemerosa.ontrack.model.structure.NameDescription.Companion.nd
+import net.nemerosa.ontrack.model.structure.ProjectEntityType
+import net.nemerosa.ontrack.model.structure.Signature
+import net.nemerosa.ontrack.model.support.ClusterInvalidationService
+import net.nemerosa.ontrack.service.support.ClusterInvalidationServiceImpl
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import kotlin.test.assertEquals
+
+class PropertyValueCacheTest {
+
+    private lateinit var clusterInvalidationService: ClusterInvalidationService
+    private lateinit var cache: PropertyValueCache
+
+    @BeforeEach
+    fun before() {
+        clusterInvalidationService = ClusterInvalidationServiceImpl(emptyList())
+        cache = PropertyValueCache(CacheConfigProperties(), SimpleMeterRegistry(), clusterInvalidationService)
+    }
+
+    @Test
+    fun `Eviction is repeated after a rolled back transaction`() {
+        load("old")
+        TransactionSynchronizationManager.initSynchronization()
+        try {
+            cache.evict(ProjectEntityType.BUILD, 1, "type")
+            // Concurrent read, before the end of the transaction
+            load("old")
+            TransactionSynchronizationManager.getSynchronizations().forEach {
+                it.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK)
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization()
+        }
+        assertEquals("new", load("new"))
+    }
+
+    @Test
+    fun `Deletion of an entity is sent to all the nodes`() {
+        val invalidationService = mockk<ClusterInvalidationService>(relaxed = true)
+        val cache = PropertyValueCache(CacheConfigProperties(), SimpleMeterRegistry(), invalidationService)
+        val build = Build.of(BranchFixtures.testBranch(), nd("1", ""), Signature.of("test")).withId(ID.of(1))
+        cache.onEvent(EventFactoryImpl().deleteBuild(build))
+        verify {
+            invalidationService.invalidate(PropertyValueCache.CHANNEL, "BUILD:1:*")
+        }
+    }
+
+    @Test
+    fun `Entity eviction removes all its values`() {
+        load("old")
+        load("other", typeName = "other-type")
+        load("old", entityId = 2)
+
+        cache.evictEntity(ProjectEntityType.BUILD, 1)
+
+        assertEquals("new", load("new"))
+        assertEquals("new", load("new", typeName = "other-type"))
+        assertEquals("old", load("new", entityId = 2))
+    }
+
+    @Test
+    fun `Global eviction`() {
+        load("old")
+        load("old", entityId = 2)
+
+        cache.evictAll()
+
+        assertEquals("new", load("new"))
+        assertEquals("new", load("new", entityId = 2))
+    }
+
+    private fun load(value: String, entityId: Int = 1, typeName: String = "type"): String? =
+        cache.getOrLoad(ProjectEntityType.BUILD, entityId, typeName) { value }
+
+}
@@ -0,0 +1,168 @@
+package net.nemerosa.ontrack.service
+
+import net.nemerosa.ontrack.it.AbstractDSLTestSupport
+import net.nemerosa.ontrack.model.structure.Build
+import net.nemerosa.ontrack.model.structure.ValidationRunStatusID
+import org.junit.jupiter.api.Test
+import org.springframework.security.access.AccessDeniedException
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+
+/**
+ * Loading of the children of several entities at once.
+ */
+class StructureServiceBatchIT : AbstractDSLTestSupport() {
+
+    @Test
+    fun `Validation runs for several builds and a validation stamp`() {
+        project {
+            branch {
+                val vs = validationStamp()
+                val other = validationStamp()
+                val builds = (1..3).map { no ->
+                    build {
+                        repeat(no) { validate(vs, validationRunStatusID = ValidationRunStatusID.STATUS_FAILED) }
+                        validate(vs)
+                        validate(other)
+                    }
+                }
+
+                val runs = structureService.getValidationRunsForBuildsAndValidationStamp(builds, vs)
+                builds.forEachIndexed { index, build ->
+                    assertEquals(
+                        structureService.getValidationRunsForBuildAndValidationStamp(build, vs, 0, 50).map { it.id },
+                        runs[build.id]?.map { it.id },
+                        "Same runs as for build ${build.name}"
+                    )
+                    assertEquals(index + 2, runs[build.id]?.size)
+                }
+
+                // Paging applies to each build
+                val page = structureService.getValidationRunsForBuildsAndValidationStamp(builds, vs, offset = 1, count = 2)
+                builds.forEach { build ->
+                    assertEquals(
+                        structureService.getValidationRunsForBuildAndValidationStamp(build, vs, 1, 2).map { it.id },
+                        page[build.id]?.map { it.id },
+                        "Same page of runs as for build ${build.name}"
+                    )
+                }
+            }
+        }
+    }
+
+    @Test
+    fun `Validation runs for builds without any run`() {
+        project {
+            branch {
+                val vs = validationStamp()
+                val validated = build { validate(vs) }
+                val notValidated = build()
+                val runs = structureService.getValidationRunsForBuildsAndValidationStamp(listOf(validated, notValidated), vs)
+                assertEquals(1, runs[validated.id]?.size)
+                assertEquals(emptyList(), runs[notValidated.id] ?: emptyList())
+            }
+        }
+    }
+
+    @Test
+    fun `Last builds of all the branches of a project`() {
+        // Builds of another project are not taken into account
+        project {
+            branch {
+                build()
+            }
+        }
+        project {
+            val lastBuilds = (1..3).map { no ->
+                branch<Build> {
+                    (1..no).map { build() }.last()
+                }
+            }
+            val empty = branch()
+
+            val builds = structureService.getLastBuildsForProject(this)
+            assertEquals(
+                lastBuilds.associate { it.branch.id to it.id },
+                builds.mapValues { (_, build) -> build.id }
+            )
+            assertEquals(null, builds[empty.id])
+            lastBuilds.forEach { build ->
+                assertEquals(build.branch.name, builds[build.branch.id]?.branch?.name)
+                assertEquals(
+                    structureService.getLastBuild(build.branch.id).orElse(null)?.id,
+                    builds[build.branch.id]?.id
+                )
+            }
+        }
+    }
+
+    @Test
+    fun `Last builds of all the branches of a project require the project to be visible`() {
+        withNoGrantViewToAll {
+            val build = doCreateBuild()
+            val project = build.project
+            asUser().withView(project).call {
+                assertEquals(listOf(build.id), structureService.getLastBuildsForProject(project).values.map { it.id })
+            }
+            asUser().call {
+                assertFailsWith<AccessDeniedException> {
+                    structureService.getLastBuildsForProject(project)
+                }
+            }
+        }
+    }
+
+    @Test
+    fun `Qualified build links for several builds`() {
+        val targets = project<List<Build>> {
+            branch<List<Build>> {
+                (1..3).map { build() }
+            }
+        }
+        project {
+            branch {
+                val first = build {
+                    linkTo(targets[0])
+                    linkTo(targets[1], "dep")
+                }
+                val second = build {
+                    linkTo(targets[2])
+                }
+                val none = build()
+
+                val links = structureService.getQualifiedBuildsUsedBy(listOf(first, second, none))
+                assertEquals(
+                    setOf(targets[0].id to "", targets[1].id to "dep"),
+                    links[first.id]?.map { it.build.id to it.qualifier }?.toSet()
+                )
+                assertEquals(
+                    listOf(targets[2].id to ""),
+                    links[second.id]?.map { it.build.id to it.qualifier }
+                )
+                assertEquals(emptyList(), links[none.id] ?: emptyList())
+            }
+        }
+    }
+
+    @Test
+    fun `Qualified build links for several builds are filtered on the granted projects`() {
+        withNoGrantViewToAll {
+            val target = doCreateBuild()
+            val visible = doCreateBuild()
+            val source = doCreateBuild()
+            asAdmin {
+                source.linkTo(target)
+                source.linkTo(visible)
+            }
+            asUser().withView(source).withView(visible).call {
+                val links = structureService.getQualifiedBuildsUsedBy(listOf(source))
+                assertEquals(listOf(visible.id), links[source.id]?.map { it.build.id })
+            }
+            asUser().withView(visible).call {
+                val links = structureService.getQualifiedBuildsUsedBy(listOf(source))
+                assertEquals(null, links[source.id])
+            }
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+package net.nemerosa.ontrack.service
+
+import net.nemerosa.ontrack.common.Time
+import net.nemerosa.ontrack.it.AbstractDSLTestSupport
+import net.nemerosa.ontrack.model.structure.ValidationRun
+import net.nemerosa.ontrack.model.structure.ValidationRunService
+import net.nemerosa.ontrack.model.structure.ValidationRunStatusID
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.core.io.ClassPathResource
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator
+import kotlin.test.assertEquals
+
+/**
+ * Checks the `STATUS` and `LATEST` columns of the validation runs.
+ */
+class ValidationRunLatestIT : AbstractDSLTestSupport() {
+
+    @Autowired
+    private lateinit var validationRunService: ValidationRunService
+
+    @Test
+    fun `Current status is maintained on a change of status`() {
+        project {
+            branch {
+                val vs = validationStamp()
+                build {
+                    val run = validate(vs, validationRunStatusID = ValidationRunStatusID.STATUS_FAILED)
+                    assertEquals(ValidationRunStatusID.FAILED to true, columns(run))
+
+                    run.validationStatus(ValidationRunStatusID.STATUS_INVESTIGATING, "Investigating")
+                    assertEquals(ValidationRunStatusID.INVESTIGATING to true, columns(run))
+                }
+            }
+        }
+    }
+
+    @Test
+    fun `Only the last run is the latest one`() {
+        project {
+            branch {
+                val vs = validationStamp()
+                val other = validationStamp()
+                build {
+                    val first = validate(vs, validationRunStatusID = ValidationRunStatusID.STATUS_FAILED)
+                    val otherRun = validate(other)
+                    val second = validate(vs)
+                    assertEquals(ValidationRunStatusID.FAILED to false, columns(first))
+                    assertEquals(ValidationRunStatusID.PASSED to true, columns(second))
+                    assertEquals(ValidationRunStatusID.PASSED to true, columns(otherRun))
+                }
+            }
+        }
+    }
+
+    @Test
+    fun `Deleting the latest run promotes the previous one`() {
+        project {
+            branch {
+                val vs = validationStamp()
+                build {
+                    val first = validate(vs, validationRunStatusID = ValidationRunStatusID.STATUS_FAILED)
+                    val second = validate(vs, validationRunStatusID = ValidationRunStatusID.STATUS_WARNING)
+                    val third = validate(vs)
+
+                    // Deleting a previous run does not change the latest one
+                    structureService.deleteValidationRun(second)
+                    assertEquals(ValidationRunStatusID.PASSED to true, columns(third))
+                    assertEquals(ValidationRunStatusID.FAILED to false, columns(first))
+
+                    // Deleting the latest run
+                    structureService.deleteValidationRun(third)
+                    assertEquals(ValidationRunStatusID.FAILED to true, columns(first))
+                    assertEquals(false, validationRunService.isValidationRunPassed(this, vs))
+                }
+            }
+        }
+    }
+
+    @Test
+    fun `Migration backfills the current status and the latest run`() {
+        project {
+            branch {
+                val vs = validationStamp()
+                build {
+                    val first = validate(vs)
+                    val second = validate(vs, validationRunStatusID = ValidationRunStatusID.STATUS_FAILED)
+                    second.validationStatus(ValidationRunStatusID.STATUS_DEFECTIVE, "Defective")
+
+                    // Data as before the migration
+                    namedParameterJdbcTemplate.update(
+                        "UPDATE VALIDATION_RUNS SET STATUS = NULL, LATEST = FALSE WHERE BUILDID = :buildId",
+                        mapOf("buildId" to id())
+                    )
+                    assertEquals(null to false, columns(second))
+
+                    ResourceDatabasePopulator(ClassPathResource("db/migration/V59__validation_run_status.sql"))
+                        .execute(dataSource)
+
+                    assertEquals(ValidationRunStatusID.PASSED to false, columns(first))
+                    assertEquals(ValidationRunStatusID.DEFECTIVE to true, columns(second))
+                }
+            }
+        }
+    }
+
+    @Test
+    fun `Validation runs between dates use the last status of each run`() {
+        val ref = Time.now().minusDays(2)
+        project {
+            branch {
+                val vs = validationStamp()
+                val inWindow = build {
+                    validateWithTime(vs, time = ref)
+                }
+                lateinit var changedAfter: ValidationRun
+                build {
+                    changedAfter = validateWithTime(vs, time = ref).validationStatus(
+                        ValidationRunStatusID.STATUS_DEFECTIVE,
+                        "Changed after the window"
+                    )
+                }
+                val runs = structureService.getValidationRunsForValidationStampBetweenDates(
+                    vs.id,
+                    ref.minusHours(1),
+                    ref.plusHours(1)
+                )
+                assertEquals(listOf(inWindow.name), runs.map { it.build.name })
+                assertEquals(ValidationRunStatusID.DEFECTIVE to true, columns(changedAfter))
+            }
+        }
+    }
+
+    private fun columns(run: ValidationRun): Pair<String?, Boolean> =
+        namedParameterJdbcTemplate.queryForMap(
+            "SELECT STATUS, LATEST FROM VALIDATION_RUNS WHERE ID = :id",
+            mapOf("id" to run.id())
+        ).let {
+            (it["status"] as String?) to (it["latest"] as Boolean)
+        }
+
+}
@@ -0,0 +1,146 @@
+package net.nemerosa.ontrack.service.elasticsearch
+
+import io.mockk.every
+import io.mockk.mockk
+import net.nemerosa.ontrack.model.structure.SearchItem
+import org.elasticsearch.action.ActionListener
+import org.elasticsearch.action.bulk.BulkItemResponse
+import org.elasticsearch.action.bulk.BulkRequest
+import org.elasticsearch.action.bulk.BulkResponse
+import org.elasticsearch.client.RestHighLevelClient
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.TimeUnit
+import kotlin.concurrent.thread
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class ElasticSearchBulkIndexerTest {
+
+    private lateinit var client: RestHighLevelClient
+
+    private val requests = CopyOnWriteArrayList<Pair<BulkRequest, ActionListener<BulkResponse>>>()
+
+    @BeforeEach
+    fun before() {
+        requests.clear()
+        client = mockk()
+        every { client.bulkAsync(any(), any(), any()) } answers {
+            requests += firstArg<BulkRequest>() to thirdArg<ActionListener<BulkResponse>>()
+            mockk(relaxed = true)
+        }
+    }
+
+    private fun indexer(
+        maxBytes: Long = 1_000_000,
+        maxItems: Int = 2,
+        inFlight: Int = 10,
+    ) = ElasticSearchBulkIndexer(
+        client = client,
+        indexName = "test",
+        maxBytes = maxBytes,
+        maxItems = maxItems,
+        inFlight = inFlight,
+    )
+
+    @Test
+    fun `Items are sent in bulks limited in number of items`() {
+        val indexer = indexer(maxItems = 2)
+        val buffer = indexer.buffer()
+        (1..5).forEach { buffer.add(item(it)) }
+        buffer.flush()
+        assertEquals(listOf(2, 2, 1), requests.map { it.first.numberOfActions() })
+
+        respondAll()
+        indexer.await()
+        assertEquals(5, indexer.indexed)
+        assertEquals(0, indexer.failed)
+    }
+
+    @Test
+    fun `Items are sent in bulks limited in size`() {
+        val indexer = indexer(maxBytes = 1, maxItems = 100)
+        val buffer = indexer.buffer()
+        (1..3).forEach { buffer.add(item(it)) }
+        buffer.flush()
+        assertEquals(listOf(1, 1, 1), requests.map { it.first.numberOfActions() })
+    }
+
+    @Test
+    fun `Flushing an empty buffer does not send anything`() {
+        val indexer = indexer()
+        indexer.buffer().flush()
+        indexer.await()
+        assertTrue(requests.isEmpty())
+    }
+
+    @Test
+    fun `Number of bulk requests being processed is limited`() {
+        val indexer = indexer(maxItems = 1, inFlight = 1)
+        val sender = thread {
+            val buffer = indexer.buffer()
+            buffer.add(item(1))
+            buffer.add(item(2))
+        }
+        // Second bulk waiting for the first one to complete
+        sender.join(500)
+        assertTrue(sender.isAlive, "Second bulk is waiting")
+        assertEquals(1, requests.size)
+
+        respondAll()
+        sender.join(TimeUnit.SECONDS.toMillis(5))
+        assertFalse(sender.isAlive, "Second bulk has been sent")
+        assertEquals(2, requests.size)
+    }
+
+    @Test
+    fun `Failed items are counted`() {
+        val indexer = indexer(maxItems = 3)
+        val buffer = indexer.buffer()
+        (1..3).forEach { buffer.add(item(it)) }
+        requests.single().second.onResponse(response(failed = 1, total = 3))
+        indexer.await()
+        assertEquals(2, indexer.indexed)
+        assertEquals(1, indexer.failed)
+    }
+
+    @Test
+    fun `Failed bulk request stops the indexation`() {
+        val indexer = indexer(maxItems = 1)
+        val buffer = indexer.buffer()
+        buffer.add(item(1))
+        requests.single().second.onFailure(IllegalStateException("Bulk failure"))
+        assertFailsWith<IllegalStateException> {
+            indexer.await()
+        }
+        assertFailsWith<IllegalStateException> {
+            buffer.add(item(2))
+        }
+        assertEquals(1, requests.size)
+    }
+
+    private fun respondAll() {
+        requests.forEach { (request, listener) ->
+            listener.onResponse(response(failed = 0, total = request.numberOfActions()))
+        }
+    }
+
+    private fun response(failed: Int, total: Int): BulkResponse = mockk {
+        every { hasFailures() } returns (failed > 0)
+        every { buildFailureMessage() } returns "Failures"
+        every { items } returns Array(total) { index ->
+            mockk<BulkItemResponse> {
+                every { isFailed } returns (index < failed)
+            }
+        }
+    }
+
+    private fun item(id: Int) = object : SearchItem {
+        override val id: String = id.toString()
+        override val fields: Map<String, Any?> = mapOf("name" to "Item $id")
+    }
+
+}
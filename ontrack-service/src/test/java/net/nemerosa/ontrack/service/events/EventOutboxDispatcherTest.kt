@@ -0,0 +1,205 @@
+package net.nemerosa.ontrack.service.events
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import net.nemerosa.ontrack.job.JobLeases
+import net.nemerosa.ontrack.model.events.Event
+import net.nemerosa.ontrack.model.events.EventFactory
+import net.nemerosa.ontrack.model.events.EventListener
+import net.nemerosa.ontrack.model.events.EventListenerService
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import net.nemerosa.ontrack.model.tx.PassThroughTransactionHelper
+import net.nemerosa.ontrack.repository.EventOutboxRepository
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.springframework.security.core.context.SecurityContextHolder
+import java.time.Duration
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+internal class EventOutboxDispatcherTest {
+
+    private lateinit var eventOutboxRepository: EventOutboxRepository
+    private lateinit var eventListenerService: EventListenerService
+    private lateinit var jobLeases: JobLeases
+    private lateinit var dispatcher: EventOutboxDispatcher
+
+    private val listeners = mutableListOf<EventListener>()
+
+    @BeforeEach
+    fun init() {
+        eventOutboxRepository = mockk(relaxed = true)
+        eventListenerService = mockk()
+        every { eventListenerService.listeners } returns listeners
+        every { eventListenerService.onEventForListener(any(), any()) } answers {
+            firstArg<EventListener>().onEvent(secondArg())
+        }
+        jobLeases = mockk()
+        every { jobLeases.node } returns "node-1"
+        dispatcher = EventOutboxDispatcher(
+            eventListenerService,
+            eventOutboxRepository,
+            jobLeases,
+            PassThroughTransactionHelper(),
+            SimpleMeterRegistry(),
+            OntrackConfigProperties().apply {
+                events.retryDelay = Duration.ofMillis(10)
+            },
+        )
+    }
+
+    @AfterEach
+    fun stop() {
+        dispatcher.stop()
+    }
+
+    @Test
+    fun `Events are received in order by each listener`() {
+        val count = 100
+        val latch = CountDownLatch(count * 2)
+        val first = RecordingListener(latch)
+        val second = RecordingListener(latch)
+        listeners += first
+        listeners += second
+
+        (1..count).forEach { dispatcher.post(event(it)) }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS), "All events have been received")
+        assertEquals((1..count).toList(), first.ids)
+        assertEquals((1..count).toList(), second.ids)
+        verify(timeout = 1000) {
+            eventOutboxRepository.remove(count)
+        }
+    }
+
+    @Test
+    fun `Listener in error is retried`() {
+        val latch = CountDownLatch(1)
+        var attempts = 0
+        listeners += object : EventListener {
+            override fun onEvent(event: Event) {
+                attempts++
+                if (attempts < 3) {
+                    throw IllegalStateException("Failing attempt $attempts")
+                } else {
+                    latch.countDown()
+                }
+            }
+        }
+
+        dispatcher.post(event(1))
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS), "Event has been received")
+        assertEquals(3, attempts)
+        verify(timeout = 1000) {
+            eventOutboxRepository.remove(1)
+        }
+    }
+
+    @Test
+    fun `Retries do not hold a thread of the pool`() {
+        dispatcher.stop()
+        dispatcher = EventOutboxDispatcher(
+            eventListenerService,
+            eventOutboxRepository,
+            jobLeases,
+            PassThroughTransactionHelper(),
+            SimpleMeterRegistry(),
+            OntrackConfigProperties().apply {
+                events.poolSize = 1
+                events.retryDelay = Duration.ofSeconds(2)
+            },
+        )
+        val failing = CountDownLatch(1)
+        listeners += object : EventListener {
+            override fun onEvent(event: Event) {
+                failing.countDown()
+                throw IllegalStateException("Always failing")
+            }
+        }
+        val latch = CountDownLatch(1)
+        val other = RecordingListener(latch)
+        listeners += other
+
+        dispatcher.post(event(1))
+
+        assertTrue(failing.await(1, TimeUnit.SECONDS), "Failing listener called")
+        // The other listener gets the event while the failing one waits for its retry
+        assertTrue(latch.await(1, TimeUnit.SECONDS), "Other listener not blocked by the retries")
+        assertEquals(listOf(1), other.ids)
+        verify(exactly = 0) {
+            eventOutboxRepository.remove(1)
+        }
+    }
+
+    @Test
+    fun `Event is leased by the posting node`() {
+        dispatcher.post(event(1))
+        verify {
+            eventOutboxRepository.add(1, any(), "node-1", any())
+        }
+    }
+
+    @Test
+    fun `Event is left in the outbox without blocking when there is no capacity`() {
+        dispatcher.stop()
+        dispatcher = EventOutboxDispatcher(
+            eventListenerService,
+            eventOutboxRepository,
+            jobLeases,
+            PassThroughTransactionHelper(),
+            SimpleMeterRegistry(),
+            OntrackConfigProperties().apply {
+                events.capacity = 1
+            },
+        )
+        val release = CountDownLatch(1)
+        listeners += object : EventListener {
+            override fun onEvent(event: Event) {
+                release.await(10, TimeUnit.SECONDS)
+            }
+        }
+        try {
+            assertTrue(dispatcher.dispatch(event(1), SecurityContextHolder.createEmptyContext()))
+            val start = System.currentTimeMillis()
+            assertFalse(dispatcher.dispatch(event(2), SecurityContextHolder.createEmptyContext()))
+            assertTrue(System.currentTimeMillis() - start < 1000, "Dispatch did not block")
+        } finally {
+            release.countDown()
+        }
+        verify(timeout = 1000) {
+            eventOutboxRepository.remove(1)
+        }
+        verify(exactly = 0) {
+            eventOutboxRepository.remove(2)
+        }
+    }
+
+    private fun event(id: Int) = Event(
+        id = id,
+        eventType = EventFactory.NEW_PROJECT,
+        signature = null,
+        entities = emptyMap(),
+        extraEntities = emptyMap(),
+        ref = null,
+        values = emptyMap(),
+    )
+
+    private class RecordingListener(
+        private val latch: CountDownLatch,
+    ) : EventListener {
+        val ids = CopyOnWriteArrayList<Int>()
+        override fun onEvent(event: Event) {
+            ids += event.id
+            latch.countDown()
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package net.nemerosa.ontrack.service.events
+
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.slot
+import io.mockk.verify
+import net.nemerosa.ontrack.common.Time
+import net.nemerosa.ontrack.job.JobRunListener
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import net.nemerosa.ontrack.model.tx.TransactionHelper
+import net.nemerosa.ontrack.repository.EventRepository
+import org.junit.jupiter.api.Test
+import java.time.Duration
+import java.time.LocalDateTime
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class EventRetentionJobTest {
+
+    private val ontrackConfigProperties = OntrackConfigProperties()
+
+    private val eventRepository = mockk<EventRepository>()
+
+    private val transactionHelper = mockk<TransactionHelper> {
+        every { inNewTransaction<Int>(any()) } answers { firstArg<() -> Int>()() }
+    }
+
+    private val job = EventRetentionJob(ontrackConfigProperties, eventRepository, transactionHelper)
+
+    @Test
+    fun `Job disabled when no retention is set`() {
+        assertTrue(job.isDisabled)
+        ontrackConfigProperties.events.retention = Duration.ofDays(30)
+        assertFalse(job.isDisabled)
+    }
+
+    @Test
+    fun `Events deleted in batches until a batch is not full`() {
+        ontrackConfigProperties.events.retention = Duration.ofDays(30)
+        val time = slot<LocalDateTime>()
+        every { eventRepository.deleteBefore(capture(time), 1_000) } returnsMany listOf(1_000, 1_000, 3)
+
+        val start = Time.now()
+        job.task.run(JobRunListener.out())
+
+        verify(exactly = 3) { eventRepository.deleteBefore(any(), 1_000) }
+        val expected = start.minusDays(30)
+        assertTrue(
+            Duration.between(expected, time.captured).abs() < Duration.ofMinutes(1),
+            "Events deleted before the retention period"
+        )
+    }
+
+    @Test
+    fun `Nothing to delete`() {
+        ontrackConfigProperties.events.retention = Duration.ofDays(30)
+        every { eventRepository.deleteBefore(any(), any()) } returns 0
+        job.task.run(JobRunListener.out())
+        verify(exactly = 1) { eventRepository.deleteBefore(any(), any()) }
+    }
+
+}
@@ -0,0 +1,78 @@
+package net.nemerosa.ontrack.service.job
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import net.nemerosa.ontrack.job.JobCategory
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertTrue
+
+internal class JobExecutorsImplTest {
+
+    private lateinit var meterRegistry: SimpleMeterRegistry
+    private lateinit var jobExecutors: JobExecutorsImpl
+
+    private val git = JobCategory.of("git")
+    private val other = JobCategory.of("other")
+
+    @BeforeEach
+    fun init() {
+        meterRegistry = SimpleMeterRegistry()
+        jobExecutors = JobExecutorsImpl(
+            OntrackConfigProperties().apply {
+                jobs.poolSize = 1
+                jobs.categoryPoolSizes = mapOf("git" to 1)
+            },
+            meterRegistry,
+        )
+    }
+
+    @AfterEach
+    fun stop() {
+        jobExecutors.stop()
+    }
+
+    @Test
+    fun `Jobs of a category with a dedicated pool do not block the other jobs`() {
+        val blocked = CountDownLatch(1)
+        val done = CountDownLatch(1)
+        val threads = ConcurrentHashMap<String, String>()
+        // Long job occupying the dedicated pool
+        jobExecutors.getExecutor(git.getType("indexation").getKey("long")).execute {
+            blocked.await(5, TimeUnit.SECONDS)
+        }
+        // Other job, run in the shared pool
+        jobExecutors.getExecutor(other.getType("test").getKey("short")).execute {
+            threads["other"] = Thread.currentThread().name
+            done.countDown()
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS), "Other job not blocked by the Git job")
+        blocked.countDown()
+        assertTrue(threads.getValue("other").startsWith("job-shared-"))
+    }
+
+    @Test
+    fun `Queue and run times measured per category`() {
+        val done = CountDownLatch(2)
+        val executor = jobExecutors.getExecutor(git.getType("indexation").getKey("test"))
+        repeat(2) {
+            executor.execute { done.countDown() }
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS))
+        val waitTimer = assertNotNull(
+            meterRegistry.find(JobExecutorsImpl.METRIC_QUEUE_WAIT).tag("job-category", "git").timer()
+        )
+        assertEquals(2, waitTimer.count())
+        val queued = assertNotNull(
+            meterRegistry.find(JobExecutorsImpl.METRIC_QUEUE_SIZE).tag("job-category", "git").gauge()
+        )
+        assertEquals(0.0, queued.value())
+    }
+
+}
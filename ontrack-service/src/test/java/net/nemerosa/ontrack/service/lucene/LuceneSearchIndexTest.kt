@@ -0,0 +1,125 @@
+package net.nemerosa.ontrack.service.lucene
+
+import net.nemerosa.ontrack.json.asJson
+import net.nemerosa.ontrack.model.search.dsl.query
+import net.nemerosa.ontrack.model.structure.SearchItem
+import net.nemerosa.ontrack.model.structure.indexMappings
+import org.apache.lucene.analysis.standard.StandardAnalyzer
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Files
+import java.nio.file.Path
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class LuceneSearchIndexTest {
+
+    @TempDir
+    lateinit var dir: Path
+
+    private lateinit var index: LuceneSearchIndex
+
+    @BeforeEach
+    fun init() {
+        index = LuceneSearchIndex("test", dir.resolve("test"), StandardAnalyzer())
+        index.updateMapping(
+            indexMappings<TestSearchItem> {
+                +TestSearchItem::name to keyword { scoreBoost = 3.0 } to text()
+                +TestSearchItem::description to text()
+                +TestSearchItem::projectId to id { index = false }
+            }
+        )
+        listOf(
+            TestSearchItem("1", "ontrack", "Continuous delivery monitoring", 10, "core"),
+            TestSearchItem("2", "ontrack-extension", "Extension for the monitoring", 10, "extensions"),
+            TestSearchItem("3", "other", "Something else", 20, "core"),
+        ).forEach { item ->
+            index.index(item.id, item.fields.asJson())
+        }
+        index.refresh(blocking = true)
+    }
+
+    @AfterEach
+    fun close() {
+        index.close()
+    }
+
+    @Test
+    fun `Exact match on a keyword field has the best score`() {
+        val hits = index.search(index.mapping.textQuery("ontrack"), 10).hits
+        assertEquals(listOf("1", "2"), hits.map { it.id })
+    }
+
+    @Test
+    fun `Match on the tokens of a text field`() {
+        val hits = index.search(index.mapping.textQuery("Monitoring"), 10).hits
+        assertEquals(setOf("1", "2"), hits.map { it.id }.toSet())
+    }
+
+    @Test
+    fun `Match on an unmapped field`() {
+        val hits = index.search(index.mapping.textQuery("extensions"), 10).hits
+        assertEquals(listOf("2"), hits.map { it.id })
+    }
+
+    @Test
+    fun `Non indexed fields are not searchable`() {
+        val hits = index.search(index.mapping.textQuery("20"), 10).hits
+        assertTrue(hits.isEmpty())
+    }
+
+    @Test
+    fun `Source of the item is returned`() {
+        val hit = index.search(index.mapping.textQuery("other"), 10).hits.single()
+        assertEquals("Something else", hit.source.path("description").asText())
+        assertEquals(20, hit.source.path("projectId").asInt())
+    }
+
+    @Test
+    fun `Field query on an unmapped field`() {
+        val hits = index.search(index.mapping.query(query { "category" eq "core" }), 10).hits
+        assertEquals(setOf("1", "3"), hits.map { it.id }.toSet())
+    }
+
+    @Test
+    fun `Updating and deleting items`() {
+        index.index("3", TestSearchItem("3", "other", "Monitoring too", 20, "core").fields.asJson())
+        index.delete("1")
+        // Not visible before the refresh
+        assertTrue(index.exists("1"))
+        index.refresh(blocking = true)
+        assertFalse(index.exists("1"))
+        val hits = index.search(index.mapping.textQuery("monitoring"), 10).hits
+        assertEquals(setOf("2", "3"), hits.map { it.id }.toSet())
+    }
+
+    @Test
+    fun `Backup of the index`() {
+        val target = dir.resolve("backup")
+        val count = index.backup(target)
+        assertTrue(count > 0)
+        assertEquals(count.toLong(), Files.list(target).use { it.count() })
+        // The backup can be opened as an index
+        LuceneSearchIndex("backup", target, StandardAnalyzer()).use { backup ->
+            assertTrue(backup.exists("2"))
+        }
+    }
+
+    private data class TestSearchItem(
+        override val id: String,
+        val name: String,
+        val description: String,
+        val projectId: Int,
+        val category: String,
+    ) : SearchItem {
+        override val fields: Map<String, Any?> = mapOf(
+            "name" to name,
+            "description" to description,
+            "projectId" to projectId,
+            "category" to category,
+        )
+    }
+}
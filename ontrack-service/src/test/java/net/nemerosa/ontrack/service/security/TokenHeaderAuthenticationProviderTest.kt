@@ -1,15 +1,22 @@
 package net.nemerosa.ontrack.service.security
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.verify
 import net.nemerosa.ontrack.common.Time
 import net.nemerosa.ontrack.model.security.*
 import net.nemerosa.ontrack.model.structure.*
+import net.nemerosa.ontrack.model.support.OntrackConfigProperties
+import net.nemerosa.ontrack.repository.TokensRepository
+import net.nemerosa.ontrack.service.support.ClusterInvalidationServiceImpl
 import net.nemerosa.ontrack.test.assertIs
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.springframework.security.authentication.CredentialsExpiredException
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
 import java.time.Duration
 import kotlin.test.*
 
@@ -26,7 +33,8 @@ class TokenHeaderAuthenticationProviderTest {
         accountService = mockk()
         provider = TokenHeaderAuthenticationProvider(
             tokensService,
-            accountService
+            accountService,
+            null
         )
         source = AuthenticationSource(
             provider = BuiltinAuthenticationSourceProvider.ID,
@@ -121,4 +129,119 @@ class TokenHeaderAuthenticationProviderTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    fun `Token authentication is cached`() {
+        val tokensRepository = mockk<TokensRepository>(relaxed = true)
+        val cache = TokenAuthenticationCache(
+            OntrackConfigProperties(),
+            tokensRepository,
+            ClusterInvalidationServiceImpl(emptyList()),
+            SimpleMeterRegistry(),
+        )
+        val cachedProvider = TokenHeaderAuthenticationProvider(tokensService, accountService, cache)
+        val tokenAccount = TokenAccount(
+            account = Account(
+                ID.of(1),
+                "user",
+                "User",
+                "user@test.com",
+                source,
+                SecurityRole.USER,
+                disabled = false,
+                locked = false,
+            ),
+            token = Token(
+                name = "default",
+                value = "xxx",
+                creation = Time.now(),
+                scope = TokenScope.USER,
+                validUntil = null,
+                lastUsed = null,
+            )
+        )
+        every { tokensService.findAccountByToken("xxx", any()) } returns tokenAccount
+        val user = mockk<OntrackAuthenticatedUser>()
+        every { user.user } returns AccountOntrackUser(tokenAccount.account)
+        every { accountService.withACL(any()) } returns user
+
+        repeat(3) {
+            val result = cachedProvider.authenticate(TokenAuthenticationToken("xxx"))
+            assertNotNull(result) { authenticated ->
+                assertSame(authenticated.principal, user, "Authenticated user is set")
+            }
+        }
+        verify(exactly = 1) {
+            tokensService.findAccountByToken("xxx", any())
+            accountService.withACL(any())
+        }
+
+        // Usages are written in batch
+        cache.flush()
+        verify(exactly = 1) {
+            tokensRepository.updateUsages(match { it.keys == setOf("xxx") })
+        }
+
+        // Invalidation
+        cache.invalidateAll()
+        cachedProvider.authenticate(TokenAuthenticationToken("xxx"))
+        verify(exactly = 2) {
+            tokensService.findAccountByToken("xxx", any())
+        }
+    }
+
+    @Test
+    fun `Token authentication invalidation is repeated after the transaction`() {
+        val cache = TokenAuthenticationCache(
+            OntrackConfigProperties(),
+            mockk(relaxed = true),
+            ClusterInvalidationServiceImpl(emptyList()),
+            SimpleMeterRegistry(),
+        )
+        val cachedProvider = TokenHeaderAuthenticationProvider(tokensService, accountService, cache)
+        val tokenAccount = TokenAccount(
+            account = Account(
+                ID.of(1),
+                "user",
+                "User",
+                "user@test.com",
+                source,
+                SecurityRole.USER,
+                disabled = false,
+                locked = false,
+            ),
+            token = Token(
+                name = "default",
+                value = "xxx",
+                creation = Time.now(),
+                scope = TokenScope.USER,
+                validUntil = null,
+                lastUsed = null,
+            )
+        )
+        every { tokensService.findAccountByToken("xxx", any()) } returns tokenAccount
+        val user = mockk<OntrackAuthenticatedUser>()
+        every { user.user } returns AccountOntrackUser(tokenAccount.account)
+        every { accountService.withACL(any()) } returns user
+
+        TransactionSynchronizationManager.initSynchronization()
+        try {
+            // Invalidation in the transaction
+            cache.invalidateAll()
+            // Concurrent authentication, before the commit
+            cachedProvider.authenticate(TokenAuthenticationToken("xxx"))
+            // End of the transaction
+            TransactionSynchronizationManager.getSynchronizations().forEach {
+                it.afterCompletion(TransactionSynchronization.STATUS_COMMITTED)
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization()
+        }
+
+        // Authentication is loaded again
+        cachedProvider.authenticate(TokenAuthenticationToken("xxx"))
+        verify(exactly = 2) {
+            tokensService.findAccountByToken("xxx", any())
+        }
+    }
+
+}
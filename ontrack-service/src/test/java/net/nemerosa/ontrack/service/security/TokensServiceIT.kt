@@ -6,6 +6,7 @@ import net.nemerosa.ontrack.common.Time
 import net.nemerosa.ontrack.it.AbstractDSLTestSupport
 import net.nemerosa.ontrack.model.security.Account
 import net.nemerosa.ontrack.model.security.AccountManagement
+import net.nemerosa.ontrack.model.security.TokenAuthenticationToken
 import net.nemerosa.ontrack.model.structure.ID
 import net.nemerosa.ontrack.model.structure.TokenOptions
 import net.nemerosa.ontrack.model.structure.TokenScope
@@ -22,6 +23,9 @@ class TokensServiceIT : AbstractDSLTestSupport() {
     @Autowired
     private lateinit var tokensService: TokensService
 
+    @Autowired
+    private lateinit var tokenHeaderAuthenticationProvider: TokenHeaderAuthenticationProvider
+
     @Test
     fun `Getting a token returns none when no token is set`() {
         asUser {
@@ -179,6 +183,20 @@ class TokensServiceIT : AbstractDSLTestSupport() {
         }
     }
 
+    @Test
+    fun `Regenerating a named token rejects the previous value even when cached`() {
+        withCustomTokenCache(true) {
+            asUser {
+                val id = securityService.currentAccount!!.id()
+                val old = asAdmin { tokensService.generateToken(id, TokenOptions("test")) }
+                assertNotNull(authenticate(old.value), "Token is authenticated and cached")
+                val new = asAdmin { tokensService.generateToken(id, TokenOptions("test")) }
+                assertNull(authenticate(old.value), "Previous token is rejected")
+                assertNotNull(authenticate(new.value), "New token is authenticated")
+            }
+        }
+    }
+
     @Test
     fun `Changing the validity of a token to a shorter one with unlimited defaults`() {
         asUser {
@@ -365,6 +383,9 @@ class TokensServiceIT : AbstractDSLTestSupport() {
         }
     }
 
+    private fun authenticate(token: String) =
+        tokenHeaderAuthenticationProvider.authenticate(TokenAuthenticationToken(token))
+
     private fun <T> withCustomTokenCache(enabled: Boolean, code: () -> T): T {
         val old = ontrackConfigProperties.security.tokens.cache.enabled
         return try {
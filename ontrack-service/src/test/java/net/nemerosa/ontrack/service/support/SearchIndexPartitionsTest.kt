@@ -0,0 +1,100 @@
+package net.nemerosa.ontrack.service.support
+
+import io.mockk.every
+import io.mockk.mockk
+import net.nemerosa.ontrack.job.JobRunListener
+import net.nemerosa.ontrack.model.structure.ID
+import net.nemerosa.ontrack.model.structure.SearchIndexPartition
+import net.nemerosa.ontrack.model.structure.SearchIndexer
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Test
+import org.springframework.security.authentication.TestingAuthenticationToken
+import org.springframework.security.core.context.SecurityContextHolder
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+class SearchIndexPartitionsTest {
+
+    private val indexer = mockk<SearchIndexer<*>> {
+        every { indexName } returns "test"
+    }
+
+    private val messages = CopyOnWriteArrayList<String>()
+
+    private val listener = JobRunListener { messages += it.text }
+
+    private val partitions = (1..4).map { SearchIndexPartition("p$it", ID.of(it)) }
+
+    @AfterEach
+    fun after() {
+        SecurityContextHolder.clearContext()
+    }
+
+    @Test
+    fun `All the partitions are indexed and reported`() {
+        val indexed = ConcurrentHashMap.newKeySet<String>()
+        indexPartitionsInParallel(indexer, partitions, 2, listener) { partition ->
+            indexed += partition.name
+        }
+        assertEquals(setOf("p1", "p2", "p3", "p4"), indexed)
+        assertEquals(
+            (1..4).map { "[test] Partition p? indexed ($it/4)" },
+            messages.map { it.replace(Regex("p\\d"), "p?") }.sorted()
+        )
+    }
+
+    @Test
+    fun `Partitions are indexed in parallel`() {
+        // Each partition waits for the others to be started
+        val started = CountDownLatch(partitions.size)
+        val parallel = AtomicInteger()
+        indexPartitionsInParallel(indexer, partitions, partitions.size, listener) {
+            started.countDown()
+            if (started.await(5, TimeUnit.SECONDS)) {
+                parallel.incrementAndGet()
+            }
+        }
+        assertEquals(partitions.size, parallel.get())
+    }
+
+    @Test
+    fun `Number of partitions indexed at the same time is limited`() {
+        val running = AtomicInteger()
+        val maxRunning = AtomicInteger()
+        indexPartitionsInParallel(indexer, partitions, 2, listener) {
+            val current = running.incrementAndGet()
+            maxRunning.accumulateAndGet(current, ::maxOf)
+            Thread.sleep(50)
+            running.decrementAndGet()
+        }
+        assertTrue(maxRunning.get() <= 2, "At most 2 partitions indexed at the same time")
+    }
+
+    @Test
+    fun `Partitions are indexed using the security context of the caller`() {
+        val authentication = TestingAuthenticationToken("user", "")
+        SecurityContextHolder.getContext().authentication = authentication
+        val authentications = ConcurrentHashMap.newKeySet<Any>()
+        indexPartitionsInParallel(indexer, partitions, 2, listener) {
+            authentications += SecurityContextHolder.getContext().authentication
+        }
+        assertSame(authentication, authentications.single())
+    }
+
+    @Test
+    fun `Failure of a partition fails the indexation`() {
+        assertFailsWith<IllegalStateException> {
+            indexPartitionsInParallel(indexer, partitions, 2, listener) { partition ->
+                check(partition.name != "p3") { "Failure in p3" }
+            }
+        }
+    }
+
+}
@@ -149,6 +149,43 @@ class TemplatingServiceImplTest {
         )
     }
 
+    @Test
+    fun `Compiled template rendered with different contexts`() {
+        val template = "Branch ${'$'}{branch|uppercase} in ${'$'}{project}, costs $$10"
+        val first = BranchFixtures.testBranch()
+        val second = BranchFixtures.testBranch(id = 11, name = "release-1.0")
+        listOf(first, second, first).forEach { branch ->
+            val text = templatingService.render(
+                template = template,
+                context = mapOf(
+                    "project" to branch.project,
+                    "branch" to branch,
+                ),
+                renderer = PlainEventRenderer()
+            )
+            assertEquals(
+                "Branch ${branch.name.uppercase()} in ${branch.project.name}, costs ${'$'}10",
+                text
+            )
+        }
+    }
+
+    @Test
+    fun `Compiled template keeps the errors at rendering time`() {
+        val branch = BranchFixtures.testBranch()
+        repeat(2) {
+            val text = templatingService.render(
+                template = "${'$'}{branch|unknown} ${'$'}{branch.unknown} ${'$'}{#.unknown} ${'$'}{branch}",
+                context = mapOf(
+                    "branch" to branch,
+                ),
+                renderer = PlainEventRenderer()
+            )
+            assertTrue(text.endsWith(" ${branch.name}"), "Valid expression rendered")
+            assertEquals(3, "#<".toRegex().findAll(text).count(), "Errors rendered")
+        }
+    }
+
     @Test
     fun `Rendering entity names`() {
         val branch = BranchFixtures.testBranch()
@@ -2,6 +2,7 @@ package net.nemerosa.ontrack.graphql
 
 import graphql.execution.instrumentation.Instrumentation
 import graphql.schema.visibility.NoIntrospectionGraphqlFieldVisibility
+import net.nemerosa.ontrack.graphql.support.dataloader.GQLDataLoaderContributor
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 import org.springframework.beans.factory.ObjectProvider
@@ -12,7 +13,9 @@ import org.springframework.context.annotation.Configuration
 import org.springframework.core.io.FileSystemResource
 import org.springframework.core.io.Resource
 import org.springframework.core.io.support.ResourcePatternResolver
+import org.springframework.graphql.execution.BatchLoaderRegistry
 import org.springframework.graphql.execution.DataFetcherExceptionResolver
+import org.springframework.graphql.execution.DefaultBatchLoaderRegistry
 import org.springframework.graphql.execution.GraphQlSource
 import org.springframework.graphql.execution.RuntimeWiringConfigurer
 import org.springframework.graphql.execution.SubscriptionExceptionResolver
@@ -67,6 +70,21 @@ class GraphQLConfiguration {
         return builder.build()
     }
 
+    /**
+     * Registry of the batch loaders, used to create a new set of `DataLoader`s
+     * for each GraphQL request.
+     */
+    @Bean
+    fun batchLoaderRegistry(
+        dataLoaderContributors: List<GQLDataLoaderContributor>,
+    ): BatchLoaderRegistry {
+        val registry = DefaultBatchLoaderRegistry()
+        dataLoaderContributors.forEach { contributor ->
+            contributor.registerBatchLoaders(registry)
+        }
+        return registry
+    }
+
     private fun getSchemaResources(resourcePatternResolver: ResourcePatternResolver): Array<Resource> {
         val listResources = resourcePatternResolver.getResources("classpath*:graphql/**/*.graphqls")
 
@@ -4,16 +4,15 @@ import graphql.Scalars
 import graphql.schema.DataFetcher
 import graphql.schema.GraphQLArgument
 import graphql.schema.GraphQLFieldDefinition
+import net.nemerosa.ontrack.graphql.support.dataloader.GQLDecorationDataLoaderContributor
 import net.nemerosa.ontrack.graphql.support.listType
 import net.nemerosa.ontrack.model.structure.Decoration
-import net.nemerosa.ontrack.model.structure.DecorationService
 import net.nemerosa.ontrack.model.structure.ProjectEntity
 import net.nemerosa.ontrack.model.structure.ProjectEntityType
 import org.springframework.stereotype.Component
 
 @Component
 class GQLProjectEntityDecorationListFieldContributor(
-        private val decorationService: DecorationService,
         private val decoration: GQLTypeDecoration,
 ) : GQLProjectEntityFieldContributor {
 
@@ -44,13 +43,16 @@ class GQLProjectEntityDecorationListFieldContributor(
                 if (projectEntityClass.isInstance(o)) {
                     // Filters
                     val typeFilter: String? = environment.getArgument("type")
-                    // Gets the raw list
-                    decorationService.getDecorations(o as ProjectEntity)
-                            .filter { property: Decoration<*> ->
-                                typeFilter?.let {
-                                    it == property.decorationType
-                                } ?: true
-                            }
+                    // Batched with the other entities of the same request
+                    environment.getDataLoader<ProjectEntity, List<Decoration<*>>>(
+                            GQLDecorationDataLoaderContributor.DECORATIONS_BY_ENTITY
+                    ).load(o as ProjectEntity).thenApply { decorations ->
+                        decorations.filter { property: Decoration<*> ->
+                            typeFilter?.let {
+                                it == property.decorationType
+                            } ?: true
+                        }
+                    }
                 } else {
                     return@DataFetcher null
                 }
@@ -2,12 +2,16 @@ package net.nemerosa.ontrack.graphql.schema;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.GraphQLFieldDefinition;
+import net.nemerosa.ontrack.graphql.support.dataloader.GQLPropertyDataLoaderContributor;
+import net.nemerosa.ontrack.model.security.SecurityService;
 import net.nemerosa.ontrack.model.structure.ProjectEntity;
 import net.nemerosa.ontrack.model.structure.ProjectEntityType;
+import net.nemerosa.ontrack.model.structure.Property;
 import net.nemerosa.ontrack.model.structure.PropertyService;
 import net.nemerosa.ontrack.model.structure.PropertyType;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -20,11 +24,13 @@ public class GQLProjectEntityPropertyFieldContributor implements GQLProjectEntit
 
     private final PropertyService propertyService;
     private final GQLTypeProperty property;
+    private final SecurityService securityService;
 
     @Autowired
-    public GQLProjectEntityPropertyFieldContributor(PropertyService propertyService, GQLTypeProperty property) {
+    public GQLProjectEntityPropertyFieldContributor(PropertyService propertyService, GQLTypeProperty property, SecurityService securityService) {
         this.propertyService = propertyService;
         this.property = property;
+        this.securityService = securityService;
     }
 
     @Override
@@ -53,10 +59,17 @@ public class GQLProjectEntityPropertyFieldContributor implements GQLProjectEntit
             Object source = environment.getSource();
             if (projectEntityClass.isInstance(source)) {
                 ProjectEntity projectEntity = (ProjectEntity) source;
-                return propertyService.<P>getProperty(
+                // Checks for viewing
+                if (!propertyType.canView(projectEntity, securityService)) {
+                    throw new AccessDeniedException("Property is not opened for viewing.");
+                }
+                // Batched with the other entities of the same request
+                return environment.<GQLPropertyDataLoaderContributor.PropertyKey, Property<?>>getDataLoader(
+                        GQLPropertyDataLoaderContributor.PROPERTY_BY_ENTITY_AND_TYPE
+                ).load(new GQLPropertyDataLoaderContributor.PropertyKey(
                         projectEntity,
                         propertyType.getClass().getName()
-                );
+                ));
             } else {
                 return null;
             }
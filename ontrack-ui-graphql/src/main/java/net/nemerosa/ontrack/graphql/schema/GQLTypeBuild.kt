@@ -10,6 +10,8 @@ import net.nemerosa.ontrack.extension.api.ExtensionManager
 import net.nemerosa.ontrack.graphql.schema.actions.UIActionsGraphQLService
 import net.nemerosa.ontrack.graphql.schema.actions.actions
 import net.nemerosa.ontrack.graphql.schema.authorizations.GQLInterfaceAuthorizableService
+import net.nemerosa.ontrack.graphql.support.dataloader.GQLStructureDataLoaderContributor
+import net.nemerosa.ontrack.graphql.support.dataloader.GQLStructureDataLoaderContributor.ValidationRunsKey
 import net.nemerosa.ontrack.graphql.support.intArgument
 import net.nemerosa.ontrack.graphql.support.listType
 import net.nemerosa.ontrack.graphql.support.pagination.GQLPaginatedListFactory
@@ -20,9 +22,11 @@ import net.nemerosa.ontrack.model.labels.LabelManagementService
 import net.nemerosa.ontrack.model.labels.LabelNotFoundException
 import net.nemerosa.ontrack.model.labels.ProjectLabelManagementService
 import net.nemerosa.ontrack.model.pagination.PageRequest
+import net.nemerosa.ontrack.model.pagination.PaginatedList
 import net.nemerosa.ontrack.model.structure.*
 import net.nemerosa.ontrack.model.support.FreeTextAnnotatorContributor
 import org.springframework.stereotype.Component
+import java.util.concurrent.CompletableFuture
 import kotlin.jvm.optionals.getOrNull
 
 @Component
@@ -264,7 +268,7 @@ class GQLTypeBuild(
             )
             // Build links - "using" direction, with pagination
             .field(
-                paginatedListFactory.createPaginatedField<Build, BuildLink>(
+                paginatedListFactory.createAsyncPaginatedField<Build, BuildLink>(
                     cache = cache,
                     fieldName = "usingQualified",
                     fieldDescription = "List of builds being used by this one.",
@@ -298,7 +302,7 @@ class GQLTypeBuild(
                             defaultValue = "",
                         )
                     ),
-                    itemPaginatedListProvider = { environment, build, offset, size ->
+                    itemPaginatedListFuture = { environment, build, offset, size ->
                         val depth = environment.getArgument<Int>("depth") ?: 0
                         var filter: (BuildLink) -> Boolean = getFilter(environment)
                         val label: String? = environment.getArgument("label")
@@ -310,13 +314,24 @@ class GQLTypeBuild(
                                 projectLabelManagementService.hasProjectLabel(it.build.project, actualLabel)
                             }
                         }
-                        structureService.getQualifiedBuildsUsedBy(
-                            build = build,
-                            offset = offset,
-                            size = size,
-                            depth = depth,
-                            filter = filter,
-                        )
+                        if (depth == 0) {
+                            // First level only, batched with the other builds of the same request
+                            environment.getDataLoader<Build, List<BuildLink>>(
+                                GQLStructureDataLoaderContributor.BUILD_LINKS_BY_BUILD
+                            ).load(build).thenApply { links ->
+                                PaginatedList.create(links.filter(filter), offset, size)
+                            }
+                        } else {
+                            CompletableFuture.completedFuture(
+                                structureService.getQualifiedBuildsUsedBy(
+                                    build = build,
+                                    offset = offset,
+                                    size = size,
+                                    depth = depth,
+                                    filter = filter,
+                                )
+                            )
+                        }
                     }
                 )
             )
@@ -473,27 +488,32 @@ class GQLTypeBuild(
             }
 
             // Collecting the validations
-            validationStamps.map { validationStamp ->
-                buildValidation(validationStamp, build, offset, size)
+            val validations = validationStamps.map { validationStamp ->
+                loadValidationRuns(environment, build, validationStamp, offset, size).thenApply { runs ->
+                    GQLTypeValidation.GQLTypeValidationData(validationStamp, runs)
+                }
+            }
+            CompletableFuture.allOf(*validations.toTypedArray()).thenApply {
+                validations.map { it.join() }
             }
         }
 
-    private fun buildValidation(
-        validationStamp: ValidationStamp,
+    /**
+     * Loads the validation runs for a build & validation stamp, batched
+     * with the other builds of the same request.
+     */
+    private fun loadValidationRuns(
+        environment: DataFetchingEnvironment,
         build: Build,
+        validationStamp: ValidationStamp,
         offset: Int,
-        size: Int
-    ): GQLTypeValidation.GQLTypeValidationData {
-        return GQLTypeValidation.GQLTypeValidationData(
-            validationStamp,
-            structureService.getValidationRunsForBuildAndValidationStamp(
-                build,
-                validationStamp,
-                offset,
-                size
-            )
+        count: Int,
+    ): CompletableFuture<List<ValidationRun>> =
+        environment.getDataLoader<ValidationRunsKey, List<ValidationRun>>(
+            GQLStructureDataLoaderContributor.VALIDATION_RUNS_BY_BUILD_AND_STAMP
+        ).load(
+            ValidationRunsKey(build, validationStamp, offset, count)
         )
-    }
 
     private fun buildValidationRunsFetcher() =
         DataFetcher { environment ->
@@ -511,26 +531,20 @@ class GQLTypeBuild(
                 // If there is one, we return the list of runs for this very stamp
                 if (validationStamp != null) {
                     // Gets validations runs for this validation level
-                    return@DataFetcher structureService.getValidationRunsForBuildAndValidationStamp(
-                        build.id,
-                        validationStamp.id,
-                        0,
-                        count
-                    )
+                    return@DataFetcher loadValidationRuns(environment, build, validationStamp, 0, count)
                 }
                 // If not, we collect the list of matching validation stamp, assuming
                 // the argument is a regular expression
                 else {
                     val vsNameRegex = validation.toRegex()
-                    return@DataFetcher structureService.getValidationStampListForBranch(build.branch.id)
+                    val runs = structureService.getValidationStampListForBranch(build.branch.id)
                         .filter { vs -> vsNameRegex.matches(vs.name) }
-                        .flatMap { vs ->
-                            structureService.getValidationRunsForBuildAndValidationStamp(
-                                build.id,
-                                vs.id,
-                                0, count
-                            )
+                        .map { vs ->
+                            loadValidationRuns(environment, build, vs, 0, count)
                         }
+                    return@DataFetcher CompletableFuture.allOf(*runs.toTypedArray()).thenApply {
+                        runs.flatMap { it.join() }
+                    }
                 }
             } else {
                 // Gets all the validation runs (limited by count)
@@ -540,7 +554,7 @@ class GQLTypeBuild(
         }
 
     private fun buildPromotionRunsFetcher() =
-        DataFetcher<List<PromotionRun>> { environment ->
+        DataFetcher<Any> { environment ->
             val build: Build = environment.getSource()
             // Last per promotion filter?
             val lastPerLevel: Boolean = environment.getArgument(ARG_LAST_PER_LEVEL) ?: false
@@ -573,7 +587,10 @@ class GQLTypeBuild(
                     // Use the build & cached promotion levels to get the promotion runs
                     structureService.getLastPromotionRunsForBuild(build, promotionLevels)
                 } else {
-                    structureService.getPromotionRunsForBuild(build.id)
+                    // Batched with the other builds of the same request
+                    environment.getDataLoader<Build, List<PromotionRun>>(
+                        GQLStructureDataLoaderContributor.PROMOTION_RUNS_BY_BUILD
+                    ).load(build)
                 }
             }
         }
@@ -34,6 +34,7 @@ class GQLTypeJobStatus : GQLType {
             .longField(JobStatus::lastErrorCount)
             .longField(JobStatus::lastTimeoutCount)
             .stringField(JobStatus::lastError)
+            .stringField(JobStatus::node, "Node owning the job when running in cluster mode")
             .field(JobStatus::state)
             .booleanField(JobStatus::isError)
             .booleanField(JobStatus::isTimeout)
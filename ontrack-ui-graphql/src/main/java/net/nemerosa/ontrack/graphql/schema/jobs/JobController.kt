@@ -2,6 +2,7 @@ package net.nemerosa.ontrack.graphql.schema.jobs
 
 import net.nemerosa.ontrack.job.JobKey
 import net.nemerosa.ontrack.job.JobScheduler
+import net.nemerosa.ontrack.job.support.JobOwnedByAnotherNodeException
 import net.nemerosa.ontrack.model.security.ApplicationManagement
 import net.nemerosa.ontrack.model.security.SecurityService
 import org.springframework.graphql.data.method.annotation.Argument
@@ -19,8 +20,12 @@ class JobController(
     @MutationMapping
     fun launchJob(@Argument id: Long): JobActionResult {
         return withJobKey(id) { key ->
-            val future = jobScheduler.fireImmediately(key).getOrNull()
-            JobActionResult.check(future != null, "Could not launch the job with ID = $id")
+            try {
+                val future = jobScheduler.fireImmediately(key).getOrNull()
+                JobActionResult.check(future != null, "Could not launch the job with ID = $id")
+            } catch (ex: JobOwnedByAnotherNodeException) {
+                JobActionResult.check(false, ex.message ?: "Could not launch the job with ID = $id")
+            }
         }
     }
 
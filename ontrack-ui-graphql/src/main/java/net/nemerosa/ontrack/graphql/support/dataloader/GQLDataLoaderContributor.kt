@@ -0,0 +1,18 @@
+package net.nemerosa.ontrack.graphql.support.dataloader
+
+import org.springframework.graphql.execution.BatchLoaderRegistry
+
+/**
+ * Registers batch loaders which are made available as `DataLoader`s
+ * for each GraphQL request.
+ */
+interface GQLDataLoaderContributor {
+
+    /**
+     * Registers the batch loaders
+     *
+     * @param registry Registry to register the batch loaders into
+     */
+    fun registerBatchLoaders(registry: BatchLoaderRegistry)
+
+}
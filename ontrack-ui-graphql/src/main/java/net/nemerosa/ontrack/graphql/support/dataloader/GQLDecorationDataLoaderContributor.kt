@@ -0,0 +1,32 @@
+package net.nemerosa.ontrack.graphql.support.dataloader
+
+import net.nemerosa.ontrack.model.structure.Decoration
+import net.nemerosa.ontrack.model.structure.DecorationService
+import net.nemerosa.ontrack.model.structure.ProjectEntity
+import org.springframework.graphql.execution.BatchLoaderRegistry
+import org.springframework.stereotype.Component
+import reactor.core.publisher.Mono
+
+/**
+ * Batch loader for the decorations of the project entities.
+ */
+@Component
+class GQLDecorationDataLoaderContributor(
+    private val decorationService: DecorationService,
+) : GQLDataLoaderContributor {
+
+    companion object {
+        /**
+         * Decorations of an entity
+         */
+        const val DECORATIONS_BY_ENTITY = "decorationsByEntity"
+    }
+
+    override fun registerBatchLoaders(registry: BatchLoaderRegistry) {
+        registry.forName<ProjectEntity, List<Decoration<*>>>(DECORATIONS_BY_ENTITY)
+            .registerMappedBatchLoader { entities, _ ->
+                Mono.just(decorationService.getDecorations(entities.toList()))
+            }
+    }
+
+}
@@ -0,0 +1,51 @@
+package net.nemerosa.ontrack.graphql.support.dataloader
+
+import net.nemerosa.ontrack.model.structure.ProjectEntity
+import net.nemerosa.ontrack.model.structure.Property
+import net.nemerosa.ontrack.model.structure.PropertyService
+import org.springframework.graphql.execution.BatchLoaderRegistry
+import org.springframework.stereotype.Component
+import reactor.core.publisher.Mono
+
+/**
+ * Batch loader for the properties of the project entities.
+ */
+@Component
+class GQLPropertyDataLoaderContributor(
+    private val propertyService: PropertyService,
+) : GQLDataLoaderContributor {
+
+    companion object {
+        /**
+         * Property of a given type for an entity
+         */
+        const val PROPERTY_BY_ENTITY_AND_TYPE = "propertyByEntityAndType"
+    }
+
+    override fun registerBatchLoaders(registry: BatchLoaderRegistry) {
+        registry.forName<PropertyKey, Property<*>>(PROPERTY_BY_ENTITY_AND_TYPE)
+            .registerMappedBatchLoader { keys, _ ->
+                val result = mutableMapOf<PropertyKey, Property<*>>()
+                // One query per property type
+                keys.groupBy { it.propertyTypeName }.forEach { (propertyTypeName, typeKeys) ->
+                    val properties = propertyService.getPropertyForEntities<Any>(
+                        typeKeys.map { it.entity },
+                        propertyTypeName
+                    )
+                    typeKeys.zip(properties).forEach { (key, property) ->
+                        result[key] = property
+                    }
+                }
+                Mono.just(result)
+            }
+    }
+
+    /**
+     * Key to load a property for an entity.
+     */
+    data class PropertyKey(
+        val entity: ProjectEntity,
+        val propertyTypeName: String,
+    )
+
+}
@@ -0,0 +1,75 @@
+package net.nemerosa.ontrack.graphql.support.dataloader
+
+import net.nemerosa.ontrack.model.structure.*
+import org.springframework.graphql.execution.BatchLoaderRegistry
+import org.springframework.stereotype.Component
+import reactor.core.publisher.Mono
+
+/**
+ * Batch loaders for the children of the builds.
+ */
+@Component
+class GQLStructureDataLoaderContributor(
+    private val structureService: StructureService,
+) : GQLDataLoaderContributor {
+
+    companion object {
+        /**
+         * Promotion runs for a build
+         */
+        const val PROMOTION_RUNS_BY_BUILD = "promotionRunsByBuild"
+
+        /**
+         * Validation runs for a build and a validation stamp
+         */
+        const val VALIDATION_RUNS_BY_BUILD_AND_STAMP = "validationRunsByBuildAndStamp"
+
+        /**
+         * Downstream qualified build links for a build
+         */
+        const val BUILD_LINKS_BY_BUILD = "buildLinksByBuild"
+    }
+
+    override fun registerBatchLoaders(registry: BatchLoaderRegistry) {
+        registry.forName<Build, List<PromotionRun>>(PROMOTION_RUNS_BY_BUILD)
+            .registerMappedBatchLoader { builds, _ ->
+                val runs = structureService.getPromotionRunsForBuilds(builds.toList())
+                Mono.just(builds.associateWith { runs[it.id] ?: emptyList() })
+            }
+        registry.forName<ValidationRunsKey, List<ValidationRun>>(VALIDATION_RUNS_BY_BUILD_AND_STAMP)
+            .registerMappedBatchLoader { keys, _ ->
+                val result = mutableMapOf<ValidationRunsKey, List<ValidationRun>>()
+                // One query per validation stamp & page
+                keys.groupBy { Triple(it.validationStamp, it.offset, it.count) }
+                    .forEach { (group, groupKeys) ->
+                        val (validationStamp, offset, count) = group
+                        val runs = structureService.getValidationRunsForBuildsAndValidationStamp(
+                            builds = groupKeys.map { it.build },
+                            validationStamp = validationStamp,
+                            offset = offset,
+                            count = count,
+                        )
+                        groupKeys.forEach { key ->
+                            result[key] = runs[key.build.id] ?: emptyList()
+                        }
+                    }
+                Mono.just(result)
+            }
+        registry.forName<Build, List<BuildLink>>(BUILD_LINKS_BY_BUILD)
+            .registerMappedBatchLoader { builds, _ ->
+                val links = structureService.getQualifiedBuildsUsedBy(builds.toList())
+                Mono.just(builds.associateWith { links[it.id] ?: emptyList() })
+            }
+    }
+
+    /**
+     * Key to load a page of validation runs for a build & a validation stamp.
+     */
+    data class ValidationRunsKey(
+        val build: Build,
+        val validationStamp: ValidationStamp,
+        val offset: Int,
+        val count: Int,
+    )
+
+}
@@ -7,6 +7,7 @@ import net.nemerosa.ontrack.graphql.support.listType
 import net.nemerosa.ontrack.model.pagination.PageRequest
 import net.nemerosa.ontrack.model.pagination.PaginatedList
 import org.springframework.stereotype.Component
+import java.util.concurrent.CompletableFuture
 
 /**
  * Creates a paginated GraphQL list type, linked to an actual
@@ -66,6 +67,51 @@ class GQLPaginatedListFactory(
                 )
             }.build()
 
+    /**
+     * Creates a paginated field from an asynchronous [PaginatedList] provider,
+     * typically relying on a `DataLoader`.
+     *
+     * @param fieldName Name of the field
+     * @param fieldDescription Description of the field
+     * @param deprecation Deprecation reason
+     * @param itemType Type of the items being paginated
+     * @param itemPaginatedListFuture Function to provide the paginated list asynchronously.
+     * @param arguments Optional list of arguments to add to the field
+     * @param additionalFields Optional list of fields to add, additionally to the page info and the page items.
+     *
+     * @param P Type of the context (see [DataFetchingEnvironment.getSource])
+     * @param T Type of item in the list
+     */
+    fun <P, T> createAsyncPaginatedField(
+            cache: GQLTypeCache,
+            fieldName: String,
+            fieldDescription: String,
+            deprecation: String? = null,
+            itemType: String,
+            itemPaginatedListFuture: (env: DataFetchingEnvironment, source: P, offset: Int, size: Int) -> CompletableFuture<PaginatedList<T>>,
+            arguments: List<GraphQLArgument> = emptyList(),
+            additionalFields: List<GraphQLFieldDefinition> = emptyList(),
+    ): GraphQLFieldDefinition =
+            createBasePaginatedListField(
+                    cache,
+                    fieldName,
+                    fieldDescription,
+                    deprecation,
+                    itemType,
+                    arguments,
+                    additionalFields,
+            ).dataFetcher { environment ->
+                val source: P = environment.getSource()
+                val offset = environment.getArgument<Int>(ARG_OFFSET) ?: 0
+                val size = environment.getArgument<Int>(ARG_SIZE) ?: PageRequest.DEFAULT_PAGE_SIZE
+                itemPaginatedListFuture(
+                        environment,
+                        source,
+                        offset,
+                        size
+                )
+            }.build()
+
     /**
      * Creates a paginated field from a counter and list provider.
      *
@@ -43,6 +43,45 @@ class PromotionRunGraphQLIT : AbstractQLKTITSupport() {
         }
     }
 
+    @Test
+    fun `Promotion runs for several builds of a branch`() {
+        project {
+            branch {
+                val copper = promotionLevel("COPPER")
+                val bronze = promotionLevel("BRONZE")
+                val b1 = build {
+                    promote(copper)
+                    promote(bronze)
+                }
+                val b2 = build {
+                    promote(copper)
+                }
+                val b3 = build()
+                run("""{
+                    branches(id: $id) {
+                        builds {
+                            id
+                            promotionRuns {
+                                promotionLevel {
+                                    name
+                                }
+                            }
+                        }
+                    }
+                }""") { data ->
+                    val builds = data.path("branches").first().path("builds").associate { build ->
+                        build.path("id").asInt() to build.path("promotionRuns").map {
+                            it.path("promotionLevel").path("name").asText()
+                        }.sorted()
+                    }
+                    assertEquals(listOf("BRONZE", "COPPER"), builds[b1.id()])
+                    assertEquals(listOf("COPPER"), builds[b2.id()])
+                    assertEquals(emptyList(), builds[b3.id()])
+                }
+            }
+        }
+    }
+
     @Test
     fun `Creating a promotion run where build is identified by ID`() {
         project {
@@ -14,7 +14,7 @@ class BuildSearchProvider(
     private val uriBuilder: EntityURIBuilder,
     private val structureService: StructureService,
     private val searchIndexService: SearchIndexService
-) : SearchIndexer<BuildSearchItem>, EventListener {
+) : PartitionedSearchIndexer<BuildSearchItem>, EventListener {
 
     override val searchResultType = SearchResultType(
         feature = CoreExtensionFeature.INSTANCE.featureDescription,
@@ -34,11 +34,25 @@ class BuildSearchProvider(
 
     override fun indexAll(processor: (BuildSearchItem) -> Unit) {
         structureService.projectList.forEach { project ->
-            structureService.getBranchesForProject(project.id).forEach { branch ->
-                structureService.forEachBuild(branch, BuildSortDirection.FROM_OLDEST) { build ->
-                    processor(BuildSearchItem(build))
-                    true // Going on
-                }
+            indexProject(project, processor)
+        }
+    }
+
+    /**
+     * One partition per project
+     */
+    override fun getIndexPartitions(): List<SearchIndexPartition> =
+        structureService.projectList.map { SearchIndexPartition.ofProject(it) }
+
+    override fun indexPartition(partition: SearchIndexPartition, processor: (BuildSearchItem) -> Unit) {
+        indexProject(structureService.getProject(partition.project), processor)
+    }
+
+    private fun indexProject(project: Project, processor: (BuildSearchItem) -> Unit) {
+        structureService.getBranchesForProject(project.id).forEach { branch ->
+            structureService.forEachBuild(branch, BuildSortDirection.FROM_OLDEST) { build ->
+                processor(BuildSearchItem(build))
+                true // Going on
             }
         }
     }
@@ -98,7 +98,7 @@ class BranchResourceDecorator(
                     on(BranchController::class.java).clone(branch.id)
                 } linkIf (BranchCreate::class),
                 // Events
-                "_events" linkTo { branch -> on(EventController::class.java).getEvents(branch.projectEntityType, branch.id, 0, 10) },
+                "_events" linkTo { branch -> on(EventController::class.java).getEvents(branch.projectEntityType, branch.id, 0, 10, null) },
                 // Enable
                 "_enable" linkTo { branch: Branch -> on(BranchController::class.java).enableBranch(branch.id) }
                         linkIf { branch, resourceContext ->
@@ -69,7 +69,7 @@ class BuildResourceDecorator(
                 // Events
                 link(
                         "_events"
-                ) { build -> on(EventController::class.java).getEvents(build.projectEntityType, build.id, 0, 10) },
+                ) { build -> on(EventController::class.java).getEvents(build.projectEntityType, build.id, 0, 10, null) },
                 // Signature change
                 "_signature" linkTo { build: Build ->
                     on(BuildController::class.java).updateBuildSignatureForm(build.id)
@@ -58,7 +58,7 @@ class ProjectResourceDecorator(
                     on(PermissionController::class.java).getProjectPermissions(project.id)
                 } linkIf (ProjectAuthorisationMgt::class),
                 // Events
-                link("_events") { project -> on(EventController::class.java).getEvents(project.projectEntityType, project.id, 0, 10) },
+                link("_events") { project -> on(EventController::class.java).getEvents(project.projectEntityType, project.id, 0, 10, null) },
                 // Clone to another project
                 "_clone" linkTo { project: Project ->
                     on(ProjectController::class.java).clone(project.id)
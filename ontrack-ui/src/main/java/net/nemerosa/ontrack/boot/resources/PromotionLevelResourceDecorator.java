@@ -74,7 +74,7 @@ public class PromotionLevelResourceDecorator extends AbstractLinkResourceDecorat
                 // Events
                 link(
                         "_events",
-                        promotionLevel -> on(EventController.class).getEvents(promotionLevel.getProjectEntityType(), promotionLevel.getId(), 0, 10)
+                        promotionLevel -> on(EventController.class).getEvents(promotionLevel.getProjectEntityType(), promotionLevel.getId(), 0, 10, null)
                 ),
                 // Actions
                 link(
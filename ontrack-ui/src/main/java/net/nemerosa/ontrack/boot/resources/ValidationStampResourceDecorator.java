@@ -77,7 +77,7 @@ public class ValidationStampResourceDecorator extends AbstractLinkResourceDecora
                 // Events
                 link(
                         "_events",
-                        validationStamp -> on(EventController.class).getEvents(validationStamp.getProjectEntityType(), validationStamp.getId(), 0, 10)
+                        validationStamp -> on(EventController.class).getEvents(validationStamp.getProjectEntityType(), validationStamp.getId(), 0, 10, null)
                 ),
                 // Actions
                 link(
@@ -5,6 +5,7 @@ import net.nemerosa.ontrack.ui.resource.Resources
 import org.springframework.web.bind.annotation.GetMapping
 import org.springframework.web.bind.annotation.PathVariable
 import org.springframework.web.bind.annotation.RequestMapping
+import org.springframework.web.bind.annotation.RequestParam
 import org.springframework.web.bind.annotation.RestController
 import org.springframework.web.context.request.RequestContextHolder
 import org.springframework.web.servlet.mvc.method.annotation.MvcUriComponentsBuilder.on
@@ -40,4 +41,27 @@ class DecorationsController(
         }
     }
 
+    /**
+     * Decorations for several entities of the same type, collected at once.
+     *
+     * @return Decorations indexed by entity ID
+     */
+    @GetMapping("{entityType}")
+    fun getDecorationsForEntities(
+            @PathVariable entityType: ProjectEntityType,
+            @RequestParam id: List<Int>
+    ): Callable<Map<Int, List<Decoration<*>>>> {
+        // Gets the current request attributes
+        val attributes = RequestContextHolder.currentRequestAttributes()
+        return Callable {
+            RequestContextHolder.setRequestAttributes(attributes)
+            try {
+                val entities = id.distinct().map { getEntity(entityType, ID.of(it)) }
+                decorationService.getDecorations(entities).mapKeys { (entity, _) -> entity.id() }
+            } finally {
+                RequestContextHolder.resetRequestAttributes()
+            }
+        }
+    }
+
 }
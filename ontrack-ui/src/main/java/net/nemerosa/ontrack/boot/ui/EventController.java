@@ -17,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -46,75 +47,95 @@ public class EventController extends AbstractResourceController {
 
     /**
      * Gets the list of events for the root.
+     *
+     * @param before If set, the events older than this event ID are returned and the offset is ignored
      */
     @RequestMapping(value = "root", method = RequestMethod.GET)
     public Resources<UIEvent> getEvents(
             @RequestParam(required = false, defaultValue = "0") int offset,
-            @RequestParam(required = false, defaultValue = "20") int count) {
+            @RequestParam(required = false, defaultValue = "20") int count,
+            @RequestParam(required = false) Integer before) {
         // Gets the events
+        List<Event> events = before != null ?
+                eventQueryService.getEventsBefore(before, count) :
+                eventQueryService.getEvents(offset, count);
         Resources<UIEvent> resources = Resources.of(
-                eventQueryService.getEvents(offset, count).stream()
+                events.stream()
                         .map(this::toUIEvent)
                         .collect(Collectors.toList()),
-                uri(on(getClass()).getEvents(offset, count))).forView(UIEvent.class);
+                uri(on(getClass()).getEvents(offset, count, before))).forView(UIEvent.class);
         // Pagination information
         Pagination pagination = Pagination.of(offset, count, -1);
         // Previous page
-        if (offset > 0) {
+        if (before == null && offset > 0) {
             pagination = pagination.withPrev(
                     uri(on(EventController.class).getEvents(
                             Math.max(0, offset - count),
-                            count
+                            count,
+                            null
+                    ))
+            );
+        }
+        // Next page, starting after the last event
+        if (!events.isEmpty()) {
+            pagination = pagination.withNext(
+                    uri(on(EventController.class).getEvents(
+                            0,
+                            count,
+                            events.get(events.size() - 1).getId()
                     ))
             );
         }
-        // Next page
-        pagination = pagination.withNext(
-                uri(on(EventController.class).getEvents(
-                        offset + count,
-                        count
-                ))
-        );
         return resources.withPagination(pagination);
     }
 
     /**
      * Gets the list of events for an entity, accessible by the current user.
+     *
+     * @param before If set, the events older than this event ID are returned and the offset is ignored
      */
     @RequestMapping(value = "{entityType}/{entityId}", method = RequestMethod.GET)
     public Resources<UIEvent> getEvents(
             @PathVariable ProjectEntityType entityType,
             @PathVariable ID entityId,
             @RequestParam(required = false, defaultValue = "0") int offset,
-            @RequestParam(required = false, defaultValue = "10") int count) {
+            @RequestParam(required = false, defaultValue = "10") int count,
+            @RequestParam(required = false) Integer before) {
         // Gets the events
+        List<Event> events = before != null ?
+                eventQueryService.getEventsBefore(entityType, entityId, before, count) :
+                eventQueryService.getEvents(entityType, entityId, offset, count);
         Resources<UIEvent> resources = Resources.of(
-                eventQueryService.getEvents(entityType, entityId, offset, count).stream()
+                events.stream()
                         .map(this::toUIEvent)
                         .collect(Collectors.toList()),
-                uri(on(getClass()).getEvents(entityType, entityId, offset, count))).forView(UIEvent.class);
+                uri(on(getClass()).getEvents(entityType, entityId, offset, count, before))).forView(UIEvent.class);
         // Pagination information
         Pagination pagination = Pagination.of(offset, count, -1);
         // Previous page
-        if (offset > 0) {
+        if (before == null && offset > 0) {
             pagination = pagination.withPrev(
                     uri(on(EventController.class).getEvents(
                             entityType,
                             entityId,
                             Math.max(0, offset - count),
-                            count
+                            count,
+                            null
+                    ))
+            );
+        }
+        // Next page, starting after the last event
+        if (!events.isEmpty()) {
+            pagination = pagination.withNext(
+                    uri(on(EventController.class).getEvents(
+                            entityType,
+                            entityId,
+                            0,
+                            count,
+                            events.get(events.size() - 1).getId()
                     ))
             );
         }
-        // Next page
-        pagination = pagination.withNext(
-                uri(on(EventController.class).getEvents(
-                        entityType,
-                        entityId,
-                        offset + count,
-                        count
-                ))
-        );
         return resources.withPagination(pagination);
     }
 
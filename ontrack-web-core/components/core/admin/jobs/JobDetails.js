@@ -36,6 +36,14 @@ export default function JobDetails({job}) {
         },
     ]
 
+    if (job.node) {
+        items.push({
+            key: 'node',
+            label: 'Node',
+            children: job.node,
+        })
+    }
+
     return (
         <>
             <Descriptions
@@ -82,6 +82,7 @@ export default function JobsView() {
                     lastTimeoutCount
                     lastRunDate
                     nextRunDate
+                    node
                 }
             }
         }